@@ -1,18 +1,29 @@
 package com.aproafa.proyectodegrado.controller;
 
 import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.EstadoCuentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
 import com.aproafa.proyectodegrado.model.dto.VentaDTO;
+import com.aproafa.proyectodegrado.service.EstadoCuentaService;
+import com.aproafa.proyectodegrado.service.FacturaCacheService;
+import com.aproafa.proyectodegrado.service.FacturaLoteService;
 import com.aproafa.proyectodegrado.service.FacturaService;
 import com.aproafa.proyectodegrado.service.VentaService;
 import com.itextpdf.text.DocumentException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador REST para la gestión y generación de facturas.
@@ -38,16 +49,63 @@ public class FacturaController {
   /** Servicio para la gestión de ventas. */
   private final VentaService ventaService;
 
+  /** Caché en disco de las facturas ya generadas. */
+  private final FacturaCacheService facturaCacheService;
+
+  /** Servicio para la generación de facturas por lotes. */
+  private final FacturaLoteService facturaLoteService;
+
+  /** Servicio para los estados de cuenta de clientes. */
+  private final EstadoCuentaService estadoCuentaService;
+
   /**
    * Constructor para inyección de dependencias.
    *
    * @param facturaService Servicio de generación de facturas.
    * @param ventaService Servicio de gestión de ventas.
+   * @param facturaCacheService Caché de facturas generadas.
+   * @param facturaLoteService Servicio de facturas por lotes.
+   * @param estadoCuentaService Servicio de estados de cuenta.
    */
   @Autowired
-  public FacturaController(FacturaService facturaService, VentaService ventaService) {
+  public FacturaController(
+      FacturaService facturaService,
+      VentaService ventaService,
+      FacturaCacheService facturaCacheService,
+      FacturaLoteService facturaLoteService,
+      EstadoCuentaService estadoCuentaService) {
     this.facturaService = facturaService;
     this.ventaService = ventaService;
+    this.facturaCacheService = facturaCacheService;
+    this.facturaLoteService = facturaLoteService;
+    this.estadoCuentaService = estadoCuentaService;
+  }
+
+  /**
+   * Crea la respuesta que envía un PDF de la caché, copiándolo por bloques a la salida sin cargarlo
+   * completo en memoria. El canal se cierra al terminar el envío o, si la respuesta no se llega a
+   * crear, antes de propagar el error.
+   *
+   * @param archivo Canal del archivo a enviar.
+   * @param headers Headers de la respuesta; se les agrega el tamaño del archivo.
+   * @return Respuesta con el archivo.
+   * @throws IOException Si no se puede leer el tamaño del archivo.
+   */
+  private ResponseEntity<StreamingResponseBody> enviarArchivo(
+      FileChannel archivo, HttpHeaders headers) throws IOException {
+    try {
+      headers.setContentLength(archivo.size());
+    } catch (IOException | RuntimeException e) {
+      archivo.close();
+      throw e;
+    }
+    StreamingResponseBody cuerpo =
+        salida -> {
+          try (InputStream origen = Channels.newInputStream(archivo)) {
+            origen.transferTo(salida);
+          }
+        };
+    return ResponseEntity.ok().headers(headers).body(cuerpo);
   }
 
   /**
@@ -62,31 +120,25 @@ public class FacturaController {
    * la descarga en el navegador del usuario.
    *
    * @param idVenta Identificador único de la venta para la cual generar la factura.
-   * @return ResponseEntity con el archivo PDF como array de bytes y headers de descarga (HTTP 200),
-   *     o HTTP 404 si la venta no existe, o HTTP 500 si ocurre un error en la generación.
+   * @return ResponseEntity con el archivo PDF y headers de descarga (HTTP 200), o HTTP 404 si la
+   *     venta no existe, o HTTP 500 si ocurre un error en la generación.
    */
   @GetMapping("/generar/{idVenta}")
-  public ResponseEntity<byte[]> generarFactura(@PathVariable Integer idVenta) {
+  public ResponseEntity<StreamingResponseBody> generarFactura(@PathVariable Integer idVenta) {
     try {
-      // Obtener los datos de la venta
-      VentaDTO venta = ventaService.obtenerVentaPorId(idVenta);
-      if (venta == null) {
+      // Obtener la venta, sus detalles y los nombres asociados en una sola consulta
+      FacturaDTO factura = ventaService.obtenerDatosFactura(idVenta);
+      if (factura == null) {
         return ResponseEntity.notFound().build();
       }
 
-      // Obtener los detalles de la venta
-      List<DetalleVentaDTO> detalles = ventaService.obtenerDetallesDeVenta(idVenta);
-
-      // Generar el PDF de la factura
-      byte[] pdfBytes = facturaService.generarFacturaPdf(venta, detalles);
-
       // Configurar headers para la descarga del archivo
       HttpHeaders headers = new HttpHeaders();
       headers.setContentType(MediaType.APPLICATION_PDF);
       headers.setContentDispositionFormData("attachment", "factura_" + idVenta + ".pdf");
-      headers.setContentLength(pdfBytes.length);
 
-      return ResponseEntity.ok().headers(headers).body(pdfBytes);
+      // Obtener el PDF desde la caché (se genera solo si no existe)
+      return enviarArchivo(facturaCacheService.abrirFactura(factura), headers);
 
     } catch (DocumentException | IOException e) {
       // Log del error para debugging
@@ -114,27 +166,21 @@ public class FacturaController {
    *     la venta no existe, o HTTP 500 si ocurre un error en la generación.
    */
   @GetMapping("/visualizar/{idVenta}")
-  public ResponseEntity<byte[]> visualizarFactura(@PathVariable Integer idVenta) {
+  public ResponseEntity<StreamingResponseBody> visualizarFactura(@PathVariable Integer idVenta) {
     try {
-      // Obtener los datos de la venta
-      VentaDTO venta = ventaService.obtenerVentaPorId(idVenta);
-      if (venta == null) {
+      // Obtener la venta, sus detalles y los nombres asociados en una sola consulta
+      FacturaDTO factura = ventaService.obtenerDatosFactura(idVenta);
+      if (factura == null) {
         return ResponseEntity.notFound().build();
       }
 
-      // Obtener los detalles de la venta
-      List<DetalleVentaDTO> detalles = ventaService.obtenerDetallesDeVenta(idVenta);
-
-      // Generar el PDF de la factura
-      byte[] pdfBytes = facturaService.generarFacturaPdf(venta, detalles);
-
       // Configurar headers para visualización en línea
       HttpHeaders headers = new HttpHeaders();
       headers.setContentType(MediaType.APPLICATION_PDF);
       headers.add("Content-Disposition", "inline; filename=factura_" + idVenta + ".pdf");
-      headers.setContentLength(pdfBytes.length);
 
-      return ResponseEntity.ok().headers(headers).body(pdfBytes);
+      // Obtener el PDF desde la caché (se genera solo si no existe)
+      return enviarArchivo(facturaCacheService.abrirFactura(factura), headers);
 
     } catch (DocumentException | IOException e) {
       System.err.println("Error generando factura PDF para visualización: " + e.getMessage());
@@ -146,6 +192,93 @@ public class FacturaController {
     }
   }
 
+  /**
+   * Genera en un archivo ZIP las facturas de varias ventas: las indicadas en {@code ids} o, si no
+   * se indican, todas las ventas de una finca en un rango de fechas.
+   *
+   * <p>Las facturas se generan en paralelo y cada una se agrega al ZIP apenas está lista, por lo
+   * que la descarga comienza antes de que termine todo el lote. Las ventas que no se pudieron
+   * facturar se listan en la entrada {@code errores.txt} del archivo.
+   *
+   * @param idFinca Finca de las ventas.
+   * @param desde Fecha inicial, inclusiva (yyyy-MM-dd).
+   * @param hasta Fecha final, inclusiva (yyyy-MM-dd).
+   * @param ids Identificadores de las ventas (alternativa a la finca y las fechas).
+   * @return Archivo ZIP con las facturas (HTTP 200), o HTTP 400 si los parámetros son inválidos.
+   */
+  @GetMapping("/lote")
+  public ResponseEntity<?> generarLoteFacturas(
+      @RequestParam(required = false) Integer idFinca,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta,
+      @RequestParam(required = false) List<Integer> ids) {
+    List<Integer> idsVenta;
+    try {
+      idsVenta = facturaLoteService.resolverVentas(idFinca, desde, hasta, ids);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación en lote de facturas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+    }
+
+    StreamingResponseBody cuerpo = salida -> facturaLoteService.generarZip(idsVenta, salida);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType("application/zip"));
+    headers.setContentDispositionFormData(
+        "attachment",
+        idFinca != null && (ids == null || ids.isEmpty())
+            ? "facturas_finca_" + idFinca + ".zip"
+            : "facturas.zip");
+    return ResponseEntity.ok().headers(headers).body(cuerpo);
+  }
+
+  /**
+   * Genera el estado de cuenta mensual de un cliente: un solo PDF con todas sus ventas del mes y
+   * sus detalles, con el total de cada venta y el total acumulado del periodo.
+   *
+   * <p>El documento se escribe en la respuesta a medida que se leen las ventas, por páginas, por lo
+   * que el tamaño del estado de cuenta no afecta la memoria del servidor.
+   *
+   * @param idCliente Identificador del cliente.
+   * @param anio Año del periodo.
+   * @param mes Mes del periodo (1 a 12).
+   * @return Archivo PDF (HTTP 200), HTTP 404 si el cliente no existe, o HTTP 400 si el periodo es
+   *     inválido.
+   */
+  @GetMapping("/estado-cuenta/{idCliente}")
+  public ResponseEntity<?> generarEstadoCuenta(
+      @PathVariable Integer idCliente, @RequestParam int anio, @RequestParam int mes) {
+    EstadoCuentaDTO estadoCuenta;
+    try {
+      estadoCuenta = estadoCuentaService.obtenerEstadoCuenta(idCliente, anio, mes);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación en estado de cuenta: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+    }
+    if (estadoCuenta == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    StreamingResponseBody cuerpo =
+        salida -> {
+          try {
+            estadoCuentaService.generarEstadoCuenta(estadoCuenta, salida);
+          } catch (DocumentException e) {
+            throw new IOException("Error generando el estado de cuenta", e);
+          }
+        };
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_PDF);
+    headers.setContentDispositionFormData(
+        "attachment", String.format("estado_cuenta_%d_%d-%02d.pdf", idCliente, anio, mes));
+    return ResponseEntity.ok().headers(headers).body(cuerpo);
+  }
+
   /**
    * Genera una factura personalizada basada en datos proporcionados directamente.
    *
@@ -161,36 +294,34 @@ public class FacturaController {
    *     inválidos, o HTTP 500 si ocurre un error en la generación.
    */
   @PostMapping("/generar-personalizada")
-  public ResponseEntity<byte[]> generarFacturaPersonalizada(
+  public ResponseEntity<StreamingResponseBody> generarFacturaPersonalizada(
       @RequestBody FacturaPersonalizadaRequest requestBody) {
-    try {
-      // Validar que se proporcionen los datos necesarios
-      if (requestBody.getVenta() == null) {
-        return ResponseEntity.badRequest().build();
-      }
-
-      // Inicializar lista de detalles si es null
-      List<DetalleVentaDTO> detalles =
-          requestBody.getDetalles() != null ? requestBody.getDetalles() : List.of();
-
-      // Generar el PDF de la factura
-      byte[] pdfBytes = facturaService.generarFacturaPdf(requestBody.getVenta(), detalles);
-
-      // Configurar headers para la descarga
-      HttpHeaders headers = new HttpHeaders();
-      headers.setContentType(MediaType.APPLICATION_PDF);
-      headers.setContentDispositionFormData("attachment", "factura_personalizada.pdf");
-      headers.setContentLength(pdfBytes.length);
-
-      return ResponseEntity.ok().headers(headers).body(pdfBytes);
-
-    } catch (DocumentException | IOException e) {
-      System.err.println("Error generando factura personalizada: " + e.getMessage());
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-    } catch (Exception e) {
-      System.err.println("Error inesperado generando factura personalizada: " + e.getMessage());
-      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    // Validar que se proporcionen los datos necesarios
+    if (requestBody.getVenta() == null) {
+      return ResponseEntity.badRequest().build();
     }
+
+    // Inicializar lista de detalles si es null
+    List<DetalleVentaDTO> detalles =
+        requestBody.getDetalles() != null ? requestBody.getDetalles() : List.of();
+
+    // El PDF se escribe directamente en la respuesta a medida que se genera
+    StreamingResponseBody cuerpo =
+        salida -> {
+          try {
+            facturaService.generarFacturaPdf(requestBody.getVenta(), detalles, salida);
+          } catch (DocumentException e) {
+            System.err.println("Error generando factura personalizada: " + e.getMessage());
+            throw new IOException("Error generando factura personalizada", e);
+          }
+        };
+
+    // Configurar headers para la descarga
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_PDF);
+    headers.setContentDispositionFormData("attachment", "factura_personalizada.pdf");
+
+    return ResponseEntity.ok().headers(headers).body(cuerpo);
   }
 
   /**
@@ -208,12 +339,12 @@ public class FacturaController {
   public ResponseEntity<ValidacionFacturaResponse> validarDatosFactura(
       @PathVariable Integer idVenta) {
     try {
-      VentaDTO venta = ventaService.obtenerVentaPorId(idVenta);
-      if (venta == null) {
+      FacturaDTO factura = ventaService.obtenerDatosFactura(idVenta);
+      if (factura == null) {
         return ResponseEntity.notFound().build();
       }
 
-      List<DetalleVentaDTO> detalles = ventaService.obtenerDetallesDeVenta(idVenta);
+      List<DetalleVentaDTO> detalles = factura.getDetalles();
 
       ValidacionFacturaResponse validacion = new ValidacionFacturaResponse();
       validacion.setVentaValida(true);
@@ -222,7 +353,7 @@ public class FacturaController {
       validacion.setMensaje("Datos válidos para generar factura");
 
       // Validaciones adicionales
-      if (venta.getTotal() == null || venta.getTotal().doubleValue() <= 0) {
+      if (factura.getTotal() == null || factura.getTotal().doubleValue() <= 0) {
         validacion.setVentaValida(false);
         validacion.setMensaje("La venta no tiene un total válido");
       }
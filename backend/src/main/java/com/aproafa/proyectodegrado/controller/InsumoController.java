@@ -1,21 +1,37 @@
 package com.aproafa.proyectodegrado.controller;
 
+import com.aproafa.proyectodegrado.model.dto.ComparativoConsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.ConsumoInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.HistorialInsumoDTO;
 import com.aproafa.proyectodegrado.model.dto.InsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
+import com.aproafa.proyectodegrado.model.dto.PronosticoInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.ResultadoUsoInsumosDTO;
+import com.aproafa.proyectodegrado.model.dto.SolicitudUsoInsumosDTO;
 import com.aproafa.proyectodegrado.model.entity.Finca;
 import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
 import com.aproafa.proyectodegrado.model.entity.Insumo;
 import com.aproafa.proyectodegrado.model.entity.Proveedor;
 import com.aproafa.proyectodegrado.repository.FincaRepository;
 import com.aproafa.proyectodegrado.repository.ProveedorRepository;
+import com.aproafa.proyectodegrado.service.AlertaStockService;
+import com.aproafa.proyectodegrado.service.HistorialInsumoService;
 import com.aproafa.proyectodegrado.service.InsumoService;
+import com.aproafa.proyectodegrado.service.PronosticoInsumoService;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Controlador REST para la gestión de insumos agrícolas.
@@ -31,6 +47,12 @@ public class InsumoController {
 
   @Autowired private InsumoService insumoService;
 
+  @Autowired private AlertaStockService alertaStockService;
+
+  @Autowired private HistorialInsumoService historialInsumoService;
+
+  @Autowired private PronosticoInsumoService pronosticoInsumoService;
+
   @Autowired private ProveedorRepository proveedorRepository;
   @Autowired private FincaRepository fincaRepository;
 
@@ -73,6 +95,33 @@ public class InsumoController {
     return insumoService.getInsumosBajosStock(limite);
   }
 
+  /**
+   * Consulta los insumos de una finca con stock bajo. Sin límite se devuelven los que están en su
+   * punto de reorden o por debajo de él.
+   *
+   * @param idFinca identificador de la finca
+   * @param limite cantidad mínima aceptable (opcional)
+   * @return lista de insumos con stock bajo, de menor a mayor cantidad
+   */
+  @GetMapping("/finca/{idFinca}/bajo-stock")
+  public List<Insumo> getInsumosBajosStockPorFinca(
+      @PathVariable Integer idFinca, @RequestParam(required = false) BigDecimal limite) {
+    return insumoService.getInsumosBajosStockPorFinca(idFinca, limite);
+  }
+
+  /**
+   * Abre un canal de Server-Sent Events con las alertas de stock de una finca. Al conectarse se
+   * envía el evento {@code alertas-vigentes} y luego un evento {@code umbral-cruzado} cada vez que
+   * un consumo deja un insumo en su punto de reorden.
+   *
+   * @param idFinca identificador de la finca
+   * @return emisor de eventos de la conexión
+   */
+  @GetMapping(path = "/finca/{idFinca}/alertas", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter suscribirAlertasStock(@PathVariable Integer idFinca) {
+    return alertaStockService.suscribir(idFinca);
+  }
+
   /**
    * Crea un nuevo insumo a partir de un DTO.
    *
@@ -108,6 +157,7 @@ public class InsumoController {
     insumo.setDescripcion(dto.getDescripcion());
     insumo.setUnidadMedida(dto.getUnidadMedida());
     insumo.setCantidadDisponible(dto.getCantidadDisponible());
+    insumo.setPuntoReorden(dto.getPuntoReorden());
     insumo.setProveedor(proveedor);
     insumo.setFinca(finca);
 
@@ -128,6 +178,28 @@ public class InsumoController {
     return ResponseEntity.ok("Uso registrado y stock actualizado.");
   }
 
+  /**
+   * Registra varios usos de insumos en una sola transacción, por ejemplo todos los de una jornada
+   * de fumigación.
+   *
+   * @param solicitud usos a registrar y si deben aplicarse todos o ninguno
+   * @return resultado de cada línea (HTTP 200), HTTP 409 si {@code todoONada} está activo y alguna
+   *     línea falló, o HTTP 400 si la solicitud es inválida
+   */
+  @PostMapping("/uso/lote")
+  public ResponseEntity<?> registrarUsosInsumo(@RequestBody SolicitudUsoInsumosDTO solicitud) {
+    try {
+      ResultadoUsoInsumosDTO resultado = insumoService.registrarUsosInsumo(solicitud);
+      if (solicitud.isTodoONada() && resultado.getRechazados() > 0) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(resultado);
+      }
+      return ResponseEntity.ok(resultado);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación en usos de insumos: " + e.getMessage());
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
   /**
    * Obtiene el historial de movimientos de un insumo.
    *
@@ -139,6 +211,157 @@ public class InsumoController {
     return insumoService.getHistorialInsumo(id);
   }
 
+  /**
+   * Obtiene una página del historial de uso de un insumo, del uso más reciente al más antiguo.
+   *
+   * @param id ID del insumo
+   * @param desde fecha inicial, inclusiva (opcional)
+   * @param hasta fecha final, inclusiva (opcional)
+   * @param cursor cursor devuelto por la página anterior (opcional)
+   * @param limite cantidad máxima de registros (opcional)
+   * @return página del historial, o HTTP 400 si los parámetros son inválidos
+   */
+  @GetMapping("/{id}/historial")
+  public ResponseEntity<PaginaCursorDTO<HistorialInsumoDTO>> consultarHistorial(
+      @PathVariable int id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limite) {
+    try {
+      return ResponseEntity.ok(
+          historialInsumoService.consultarHistorial(id, desde, hasta, cursor, limite));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al consultar el historial: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
+  /**
+   * Consulta el consumo diario de un insumo, leído de los consumos pre-agregados.
+   *
+   * @param id ID del insumo
+   * @param desde fecha inicial, inclusiva (yyyy-MM-dd)
+   * @param hasta fecha final, inclusiva (yyyy-MM-dd)
+   * @return consumo de cada día con uso, o HTTP 400 si el rango es inválido
+   */
+  @GetMapping("/{id}/consumo/diario")
+  public ResponseEntity<List<ConsumoInsumoDTO>> consultarConsumoDiario(
+      @PathVariable int id,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+    try {
+      return ResponseEntity.ok(historialInsumoService.consultarConsumoDiario(id, desde, hasta));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al consultar el consumo: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
+  /**
+   * Consulta el consumo mensual de un insumo, leído de los consumos pre-agregados.
+   *
+   * @param id ID del insumo
+   * @param desde mes inicial, inclusivo (yyyy-MM)
+   * @param hasta mes final, inclusivo (yyyy-MM)
+   * @return consumo de cada mes con uso, o HTTP 400 si el rango es inválido
+   */
+  @GetMapping("/{id}/consumo/mensual")
+  public ResponseEntity<List<ConsumoInsumoDTO>> consultarConsumoMensual(
+      @PathVariable int id,
+      @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+      @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta) {
+    try {
+      return ResponseEntity.ok(historialInsumoService.consultarConsumoMensual(id, desde, hasta));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al consultar el consumo: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
+  /**
+   * Compara el consumo mensual de un insumo en un año con el del año anterior.
+   *
+   * @param id ID del insumo
+   * @param anio año a comparar
+   * @return doce filas, una por mes
+   */
+  @GetMapping("/{id}/consumo/comparativo")
+  public List<ComparativoConsumoDTO> compararConsumo(@PathVariable int id, @RequestParam int anio) {
+    return historialInsumoService.compararAnios(id, anio);
+  }
+
+  /**
+   * Reconstruye los consumos diarios y mensuales a partir del historial. Sin fechas, reconstruye
+   * todo el histórico.
+   *
+   * @param desde fecha inicial (opcional)
+   * @param hasta fecha final (opcional)
+   * @return cantidad de filas de consumo diario generadas
+   */
+  @PostMapping("/consumo/reconstruir")
+  public ResponseEntity<?> reconstruirConsumos(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta) {
+    try {
+      int filas = historialInsumoService.reconstruirConsumos(desde, hasta);
+      return ResponseEntity.ok(Map.of("filasGeneradas", filas));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      System.err.println("Error reconstruyendo los consumos de insumos: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Proyecta el consumo de un insumo: fecha estimada de agotamiento y cantidad sugerida a pedir.
+   *
+   * @param id ID del insumo
+   * @return proyección del insumo o estado 404 si no existe
+   */
+  @GetMapping("/{id}/pronostico")
+  public ResponseEntity<PronosticoInsumoDTO> obtenerPronostico(@PathVariable int id) {
+    return pronosticoInsumoService
+        .obtenerPronostico(id)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Proyecta el consumo de los insumos de una finca, empezando por los que se agotan antes.
+   *
+   * @param idFinca ID de la finca
+   * @return proyecciones de los insumos de la finca
+   */
+  @GetMapping("/finca/{idFinca}/pronostico")
+  public List<PronosticoInsumoDTO> obtenerPronosticosPorFinca(@PathVariable Integer idFinca) {
+    return pronosticoInsumoService.obtenerPronosticosPorFinca(idFinca);
+  }
+
+  /**
+   * Recalcula el pronóstico de todos los insumos a partir del consumo diario registrado.
+   *
+   * @param dias cantidad de días hacia atrás a considerar (por defecto 365)
+   * @return cantidad de insumos con pronóstico
+   */
+  @PostMapping("/pronostico/reconstruir")
+  public ResponseEntity<?> reconstruirPronosticos(@RequestParam(defaultValue = "365") int dias) {
+    try {
+      int insumos = pronosticoInsumoService.reconstruir(dias);
+      return ResponseEntity.ok(Map.of("insumos", insumos));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      System.err.println("Error reconstruyendo los pronósticos de insumos: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
   /**
    * Elimina un insumo por su ID.
    *
@@ -176,6 +399,7 @@ public class InsumoController {
     insumo.setDescripcion(dto.getDescripcion());
     insumo.setUnidadMedida(dto.getUnidadMedida());
     insumo.setCantidadDisponible(dto.getCantidadDisponible());
+    insumo.setPuntoReorden(dto.getPuntoReorden());
     insumo.setProveedor(proveedor);
 
     return ResponseEntity.ok(insumoService.saveInsumo(insumo));
@@ -1,9 +1,17 @@
 package com.aproafa.proyectodegrado.controller;
 
 import com.aproafa.proyectodegrado.model.dto.InventarioProductoDTO;
+import com.aproafa.proyectodegrado.model.dto.MovimientoInventarioDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
+import com.aproafa.proyectodegrado.model.dto.SaldoInventarioDTO;
 import com.aproafa.proyectodegrado.service.InventarioProductoService;
+import com.aproafa.proyectodegrado.service.MovimientoInventarioService;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +22,8 @@ public class InventarioProductoController {
 
   @Autowired private InventarioProductoService inventarioService;
 
+  @Autowired private MovimientoInventarioService movimientoService;
+
   /**
    * Obtiene el inventario de un producto
    *
@@ -39,4 +49,104 @@ public class InventarioProductoController {
     inventarioService.actualizarInventario(idProducto, cantidadDelta);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
+
+  /**
+   * Obtiene una página del kardex de un producto, del movimiento más reciente al más antiguo.
+   *
+   * @param idProducto ID del producto
+   * @param desde fecha inicial, inclusiva (opcional)
+   * @param hasta fecha final, inclusiva (opcional)
+   * @param cursor cursor devuelto por la página anterior (opcional)
+   * @param limite cantidad máxima de movimientos (opcional)
+   * @return página de movimientos, o HTTP 400 si los parámetros son inválidos
+   */
+  @GetMapping("/producto/{idProducto}/movimientos")
+  public ResponseEntity<PaginaCursorDTO<MovimientoInventarioDTO>> consultarMovimientos(
+      @PathVariable Integer idProducto,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limite) {
+    try {
+      return ResponseEntity.ok(
+          movimientoService.consultarMovimientos(idProducto, desde, hasta, cursor, limite));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al consultar el kardex: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
+  /**
+   * Consulta el saldo del inventario de un producto en un momento, según el kardex.
+   *
+   * @param idProducto ID del producto
+   * @param fecha fecha y hora consultada (opcional, por defecto el momento actual)
+   * @return saldo del producto en ese momento
+   */
+  @GetMapping("/producto/{idProducto}/saldo")
+  public ResponseEntity<SaldoInventarioDTO> consultarSaldo(
+      @PathVariable Integer idProducto,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime fecha) {
+    return ResponseEntity.ok(
+        movimientoService.consultarSaldo(idProducto, fecha != null ? fecha : LocalDateTime.now()));
+  }
+
+  /**
+   * Registra el movimiento de apertura de los productos que aún no lo tienen. La apertura ya se
+   * registra al iniciar la aplicación, por lo que normalmente no registra ninguno.
+   *
+   * @return cantidad de movimientos de apertura registrados
+   */
+  @PostMapping("/movimientos/apertura")
+  public ResponseEntity<?> registrarApertura() {
+    try {
+      return ResponseEntity.ok(Map.of("movimientos", movimientoService.registrarApertura()));
+    } catch (Exception e) {
+      System.err.println("Error registrando la apertura del kardex: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Reconstruye la cantidad del inventario de los productos desde el kardex, donde no coincide con
+   * la suma de sus movimientos.
+   *
+   * @return cantidad de productos corregidos, o HTTP 409 si la escritura diferida está habilitada
+   */
+  @PostMapping("/reconciliar")
+  public ResponseEntity<?> reconciliarInventario() {
+    try {
+      return ResponseEntity.ok(
+          Map.of("productosCorregidos", movimientoService.reconciliarInventario()));
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      System.err.println("Error reconciliando el inventario: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Genera o recalcula el corte de saldos de un día.
+   *
+   * @param fecha día del corte (opcional, por defecto hoy)
+   * @return cantidad de filas de corte generadas
+   */
+  @PostMapping("/saldos/corte")
+  public ResponseEntity<?> generarCorte(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate fecha) {
+    try {
+      int filas = movimientoService.generarCorte(fecha != null ? fecha : LocalDate.now());
+      return ResponseEntity.ok(Map.of("filasGeneradas", filas));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      System.err.println("Error generando el corte de inventario: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
 }
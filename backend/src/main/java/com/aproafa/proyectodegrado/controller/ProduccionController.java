@@ -1,11 +1,19 @@
 package com.aproafa.proyectodegrado.controller;
 
+import com.aproafa.proyectodegrado.model.dto.CosechaDTO;
+import com.aproafa.proyectodegrado.model.dto.CostoProduccionDTO;
+import com.aproafa.proyectodegrado.model.dto.CostoProductoDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
 import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
+import com.aproafa.proyectodegrado.model.dto.RendimientoProduccionDTO;
 import com.aproafa.proyectodegrado.model.dto.UsoInsumoProduccionDTO;
+import com.aproafa.proyectodegrado.service.CostoProduccionService;
 import com.aproafa.proyectodegrado.service.ProduccionService;
+import com.aproafa.proyectodegrado.service.RendimientoProduccionService;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +31,10 @@ public class ProduccionController {
 
   @Autowired private ProduccionService produccionService;
 
+  @Autowired private CostoProduccionService costoProduccionService;
+
+  @Autowired private RendimientoProduccionService rendimientoProduccionService;
+
   /**
    * Crea una nueva producción (siembra).
    *
@@ -38,6 +50,30 @@ public class ProduccionController {
     return new ResponseEntity<>(createdProduccion, HttpStatus.CREATED);
   }
 
+  /**
+   * Obtiene las producciones paginadas por cursor, con sus usos de insumos, ordenadas por
+   * identificador.
+   *
+   * @param idFinca Finca de las producciones (opcional).
+   * @param cursor Cursor devuelto por la página anterior.
+   * @param limite Cantidad máxima de producciones por página.
+   * @return Página de producciones con el cursor de continuación, o HTTP 400 si los parámetros son
+   *     inválidos.
+   */
+  @GetMapping("/paginado")
+  public ResponseEntity<PaginaCursorDTO<ProduccionDTO>> listarProduccionesPaginadas(
+      @RequestParam(required = false) Integer idFinca,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limite) {
+    try {
+      return ResponseEntity.ok(
+          produccionService.listarProduccionesPaginadas(idFinca, cursor, limite));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al paginar producciones: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
   @GetMapping("/finca/{idFinca}")
   public ResponseEntity<List<ProduccionDTO>> listarProduccionesPorFinca(
       @PathVariable Integer idFinca) {
@@ -66,6 +102,92 @@ public class ProduccionController {
     return new ResponseEntity<>(HttpStatus.OK);
   }
 
+  /**
+   * Registra la cosecha de varias producciones en una sola transacción. Si alguna cosecha es
+   * inválida no se aplica ninguna.
+   *
+   * @param cosechas Producción, cantidad y fecha de cada cosecha.
+   * @return Cantidad de producciones cosechadas, o HTTP 400 con el motivo si el lote es inválido.
+   */
+  @PostMapping("/cosechar")
+  public ResponseEntity<?> cosecharProducciones(@RequestBody List<CosechaDTO> cosechas) {
+    try {
+      int cosechadas = produccionService.cosecharEnLote(cosechas);
+      return ResponseEntity.ok(Map.of("producciones", cosechadas));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación en cosechas por lote: " + e.getMessage());
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  /**
+   * Consulta el costo de insumos de una producción.
+   *
+   * @param id ID de la producción.
+   * @return Costo de la producción, o HTTP 404 si no tiene registro de costo.
+   */
+  @GetMapping("/{id}/costo")
+  public ResponseEntity<CostoProduccionDTO> consultarCosto(@PathVariable Integer id) {
+    return costoProduccionService
+        .consultar(id)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Consulta el costo de insumos por unidad cosechada de cada producto de una finca.
+   *
+   * @param idFinca ID de la finca.
+   * @return Costo por producto, considerando solo producciones cosechadas.
+   */
+  @GetMapping("/finca/{idFinca}/costos")
+  public ResponseEntity<List<CostoProductoDTO>> consultarCostosPorFinca(
+      @PathVariable Integer idFinca) {
+    return ResponseEntity.ok(costoProduccionService.consultarPorFinca(idFinca));
+  }
+
+  /**
+   * Reconstruye el costo de todas las producciones a partir de los usos de insumos registrados.
+   *
+   * @return Cantidad de producciones con costo.
+   */
+  @PostMapping("/costos/reconstruir")
+  public ResponseEntity<?> reconstruirCostos() {
+    try {
+      return ResponseEntity.ok(Map.of("producciones", costoProduccionService.reconstruir()));
+    } catch (Exception e) {
+      System.err.println("Error reconstruyendo el costo de producción: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Consulta el rendimiento de las producciones cosechadas por año, temporada, producto y finca.
+   *
+   * @param anioDesde Primer año de cosecha, inclusivo.
+   * @param anioHasta Último año de cosecha, inclusivo.
+   * @param idFinca Finca (opcional).
+   * @param idProducto Producto (opcional).
+   * @param porSemestre Si se separa cada año en dos temporadas.
+   * @return Rendimiento por grupo, o HTTP 400 si el rango de años es inválido.
+   */
+  @GetMapping("/rendimiento")
+  public ResponseEntity<List<RendimientoProduccionDTO>> consultarRendimiento(
+      @RequestParam int anioDesde,
+      @RequestParam int anioHasta,
+      @RequestParam(required = false) Integer idFinca,
+      @RequestParam(required = false) Integer idProducto,
+      @RequestParam(defaultValue = "false") boolean porSemestre) {
+    try {
+      return ResponseEntity.ok(
+          rendimientoProduccionService.consultar(
+              anioDesde, anioHasta, porSemestre, idFinca, idProducto));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al consultar rendimiento: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
   /**
    * Lista todas las producciones existentes.
    *
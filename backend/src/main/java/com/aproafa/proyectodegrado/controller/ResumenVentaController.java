@@ -0,0 +1,83 @@
+package com.aproafa.proyectodegrado.controller;
+
+import com.aproafa.proyectodegrado.model.dto.VentaResumenDiarioDTO;
+import com.aproafa.proyectodegrado.service.ResumenVentaService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para el resumen diario de ventas por finca, producto y método de pago.
+ *
+ * @since 2025
+ */
+@RestController
+@RequestMapping("/api/ventas/resumen-diario")
+public class ResumenVentaController {
+
+  private final ResumenVentaService resumenVentaService;
+
+  @Autowired
+  public ResumenVentaController(ResumenVentaService resumenVentaService) {
+    this.resumenVentaService = resumenVentaService;
+  }
+
+  /**
+   * Consulta el resumen diario de ventas de un rango de fechas.
+   *
+   * @param desde Fecha inicial, inclusiva (yyyy-MM-dd).
+   * @param hasta Fecha final, inclusiva (yyyy-MM-dd).
+   * @param idFinca Finca (opcional).
+   * @param idProducto Producto (opcional).
+   * @param metodoPago Método de pago (opcional).
+   * @return Filas del resumen, o HTTP 400 si los parámetros son inválidos.
+   */
+  @GetMapping
+  public ResponseEntity<List<VentaResumenDiarioDTO>> consultarResumen(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+      @RequestParam(required = false) Integer idFinca,
+      @RequestParam(required = false) Integer idProducto,
+      @RequestParam(required = false) String metodoPago) {
+    try {
+      return ResponseEntity.ok(
+          resumenVentaService.consultar(desde, hasta, idFinca, idProducto, metodoPago));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al consultar el resumen: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    } catch (Exception e) {
+      System.err.println("Error consultando el resumen diario de ventas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Reconstruye el resumen diario a partir de las ventas registradas. Sin fechas, reconstruye todo
+   * el histórico.
+   *
+   * @param desde Fecha inicial, inclusiva (opcional).
+   * @param hasta Fecha final, inclusiva (opcional).
+   * @return Cantidad de filas de resumen generadas.
+   */
+  @PostMapping("/reconstruir")
+  public ResponseEntity<?> reconstruirResumen(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta) {
+    try {
+      int filas = resumenVentaService.reconstruir(desde, hasta);
+      return ResponseEntity.ok(Map.of("filasGeneradas", filas));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    } catch (Exception e) {
+      System.err.println("Error reconstruyendo el resumen diario de ventas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.aproafa.proyectodegrado.controller;
+
+import com.aproafa.proyectodegrado.model.dto.MetricasTrabajosFacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.SolicitudTrabajoFacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.TrabajoFacturaDTO;
+import com.aproafa.proyectodegrado.service.TrabajoFacturaService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controlador REST para generar facturas en segundo plano.
+ *
+ * <p>El cliente crea un trabajo con una o varias ventas, consulta su estado (opcionalmente
+ * esperando a que termine) y descarga el archivo cuando está completado. La generación ocurre en un
+ * grupo de hilos propio, de modo que no ocupa los hilos que atienden las demás peticiones.
+ */
+@RestController
+@RequestMapping("/api/facturas/trabajos")
+public class TrabajoFacturaController {
+
+  /** Tiempo máximo que una consulta de estado puede esperar a que el trabajo termine. */
+  private static final long ESPERA_MAXIMA_SEGUNDOS = 30;
+
+  private final TrabajoFacturaService trabajoFacturaService;
+
+  @Autowired
+  public TrabajoFacturaController(TrabajoFacturaService trabajoFacturaService) {
+    this.trabajoFacturaService = trabajoFacturaService;
+  }
+
+  /**
+   * Crea un trabajo para generar las facturas de las ventas indicadas.
+   *
+   * @param solicitud Ventas a facturar.
+   * @return Estado del trabajo con HTTP 202, HTTP 400 si la solicitud es inválida, o HTTP 429 si la
+   *     cola de trabajos está llena.
+   */
+  @PostMapping
+  public ResponseEntity<?> crearTrabajo(@RequestBody SolicitudTrabajoFacturaDTO solicitud) {
+    try {
+      TrabajoFacturaDTO trabajo = trabajoFacturaService.crearTrabajo(solicitud.getIdsVenta());
+      return ResponseEntity.accepted()
+          .location(URI.create("/api/facturas/trabajos/" + trabajo.getIdTrabajo()))
+          .body(trabajo);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+    } catch (RejectedExecutionException e) {
+      System.err.println("Cola de trabajos de facturas llena; trabajo rechazado");
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, "10")
+          .body("{\"error\": \"La cola de facturas está llena, intente más tarde\"}");
+    }
+  }
+
+  /**
+   * Consulta el estado de un trabajo. Con {@code esperaSegundos} la respuesta se demora hasta que
+   * el trabajo termine o se cumpla ese tiempo (máximo 30 segundos), sin ocupar un hilo mientras
+   * tanto.
+   *
+   * @param idTrabajo Identificador del trabajo.
+   * @param esperaSegundos Tiempo máximo de espera (opcional).
+   * @return Estado del trabajo, o HTTP 404 si no existe.
+   */
+  @GetMapping("/{idTrabajo}")
+  public DeferredResult<ResponseEntity<TrabajoFacturaDTO>> consultarTrabajo(
+      @PathVariable String idTrabajo, @RequestParam(defaultValue = "0") long esperaSegundos) {
+    long espera = Math.min(Math.max(esperaSegundos, 0), ESPERA_MAXIMA_SEGUNDOS);
+    DeferredResult<ResponseEntity<TrabajoFacturaDTO>> resultado =
+        new DeferredResult<>(TimeUnit.SECONDS.toMillis(espera));
+
+    CompletableFuture<Void> terminacion = trabajoFacturaService.obtenerTerminacion(idTrabajo);
+    if (terminacion == null) {
+      resultado.setResult(ResponseEntity.notFound().build());
+      return resultado;
+    }
+    if (espera == 0 || terminacion.isDone()) {
+      resultado.setResult(responderEstado(idTrabajo));
+      return resultado;
+    }
+
+    terminacion.whenComplete((r, e) -> resultado.setResult(responderEstado(idTrabajo)));
+    resultado.onTimeout(() -> resultado.setResult(responderEstado(idTrabajo)));
+    return resultado;
+  }
+
+  /**
+   * Descarga el archivo de un trabajo completado: el PDF si el trabajo tiene una venta, o un ZIP si
+   * tiene varias.
+   *
+   * @param idTrabajo Identificador del trabajo.
+   * @return Archivo generado, HTTP 404 si el trabajo no existe, o HTTP 409 si aún no está
+   *     completado.
+   */
+  @GetMapping("/{idTrabajo}/descarga")
+  public ResponseEntity<?> descargarArchivo(@PathVariable String idTrabajo) {
+    TrabajoFacturaDTO trabajo = trabajoFacturaService.consultarTrabajo(idTrabajo);
+    if (trabajo == null) {
+      return ResponseEntity.notFound().build();
+    }
+    Path archivo = trabajoFacturaService.obtenerArchivo(idTrabajo);
+    if (archivo == null) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).body(trabajo);
+    }
+
+    String nombre = trabajoFacturaService.obtenerNombreArchivo(idTrabajo);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(
+        nombre.endsWith(".pdf")
+            ? MediaType.APPLICATION_PDF
+            : MediaType.parseMediaType("application/zip"));
+    headers.setContentDispositionFormData("attachment", nombre);
+
+    try {
+      FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+      try {
+        headers.setContentLength(canal.size());
+      } catch (IOException | RuntimeException e) {
+        // El canal solo se cierra en el cuerpo de la respuesta si esta se llega a crear
+        canal.close();
+        throw e;
+      }
+
+      StreamingResponseBody cuerpo =
+          salida -> {
+            try (InputStream origen = Channels.newInputStream(canal)) {
+              origen.transferTo(salida);
+            }
+          };
+      return ResponseEntity.ok().headers(headers).body(cuerpo);
+    } catch (NoSuchFileException e) {
+      // El trabajo venció entre la consulta y la apertura del archivo
+      return ResponseEntity.notFound().build();
+    } catch (IOException e) {
+      System.err.println(
+          "Error abriendo el archivo del trabajo " + idTrabajo + ": " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
+  /**
+   * Obtiene las métricas de la cola de trabajos: profundidad, trabajos activos, rechazos y tiempos
+   * de espera y de generación.
+   *
+   * @return Métricas actuales.
+   */
+  @GetMapping("/metricas")
+  public ResponseEntity<MetricasTrabajosFacturaDTO> obtenerMetricas() {
+    return ResponseEntity.ok(trabajoFacturaService.obtenerMetricas());
+  }
+
+  private ResponseEntity<TrabajoFacturaDTO> responderEstado(String idTrabajo) {
+    TrabajoFacturaDTO trabajo = trabajoFacturaService.consultarTrabajo(idTrabajo);
+    return trabajo != null ? ResponseEntity.ok(trabajo) : ResponseEntity.notFound().build();
+  }
+}
@@ -1,14 +1,28 @@
 package com.aproafa.proyectodegrado.controller;
 
 import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FiltroVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FormatoIntercambio;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
+import com.aproafa.proyectodegrado.model.dto.ResultadoImportacionDTO;
 import com.aproafa.proyectodegrado.model.dto.VentaDTO;
+import com.aproafa.proyectodegrado.service.ExportacionVentaService;
+import com.aproafa.proyectodegrado.service.IdempotenciaService;
+import com.aproafa.proyectodegrado.service.ImportacionVentaService;
 import com.aproafa.proyectodegrado.service.VentaService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador REST para la gestión de ventas.
@@ -22,10 +36,20 @@ import org.springframework.web.bind.annotation.*;
 public class VentaController {
 
   private final VentaService ventaService;
+  private final ImportacionVentaService importacionVentaService;
+  private final ExportacionVentaService exportacionVentaService;
+  private final IdempotenciaService idempotenciaService;
 
   @Autowired
-  public VentaController(VentaService ventaService) {
+  public VentaController(
+      VentaService ventaService,
+      ImportacionVentaService importacionVentaService,
+      ExportacionVentaService exportacionVentaService,
+      IdempotenciaService idempotenciaService) {
     this.ventaService = ventaService;
+    this.importacionVentaService = importacionVentaService;
+    this.exportacionVentaService = exportacionVentaService;
+    this.idempotenciaService = idempotenciaService;
   }
 
   /** Endpoint de prueba para verificar conectividad y parsing JSON */
@@ -82,6 +106,60 @@ public class VentaController {
     return new ResponseEntity<>(ventas, HttpStatus.OK);
   }
 
+  /**
+   * Obtiene las ventas de una finca paginadas por cursor, ordenadas por fecha de venta.
+   *
+   * @param idFinca Identificador de la finca.
+   * @param cursor Cursor devuelto por la página anterior (opcional).
+   * @param limite Cantidad máxima de ventas por página (opcional).
+   * @return Página de ventas con el cursor de continuación, o HTTP 400 si los parámetros son
+   *     inválidos.
+   */
+  @GetMapping("/finca/{idFinca}/paginado")
+  public ResponseEntity<PaginaCursorDTO<VentaDTO>> listarPorFincaPaginado(
+      @PathVariable Integer idFinca,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limite) {
+    return obtenerVentasPaginadas(idFinca, null, null, null, null, cursor, limite);
+  }
+
+  /**
+   * Obtiene las ventas paginadas por cursor, ordenadas por fecha de venta e identificador. Todos
+   * los filtros son opcionales.
+   *
+   * @param idFinca Finca de las ventas.
+   * @param idCliente Cliente de las ventas.
+   * @param metodoPago Método de pago.
+   * @param desde Fecha inicial, inclusiva (yyyy-MM-dd).
+   * @param hasta Fecha final, inclusiva (yyyy-MM-dd).
+   * @param cursor Cursor devuelto por la página anterior.
+   * @param limite Cantidad máxima de ventas por página.
+   * @return Página de ventas con el cursor de continuación, o HTTP 400 si los parámetros son
+   *     inválidos.
+   */
+  @GetMapping("/paginado")
+  public ResponseEntity<PaginaCursorDTO<VentaDTO>> obtenerVentasPaginadas(
+      @RequestParam(required = false) Integer idFinca,
+      @RequestParam(required = false) Integer idCliente,
+      @RequestParam(required = false) String metodoPago,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limite) {
+    try {
+      FiltroVentaDTO filtro = new FiltroVentaDTO(idFinca, idCliente, metodoPago, desde, hasta);
+      return ResponseEntity.ok(ventaService.buscarVentasPaginadas(filtro, cursor, limite));
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al paginar ventas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    } catch (Exception e) {
+      System.err.println("Error obteniendo ventas paginadas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
   /** Obtiene todas las ventas registradas en el sistema. */
   @GetMapping
   public ResponseEntity<List<VentaDTO>> obtenerTodasLasVentas() {
@@ -138,9 +216,34 @@ public class VentaController {
     }
   }
 
-  /** Crea una nueva venta completa con sus detalles de productos. */
+  /**
+   * Crea una nueva venta completa con sus detalles de productos.
+   *
+   * <p>Si la petición trae el encabezado {@code Idempotency-Key}, los reintentos con la misma clave
+   * devuelven la respuesta de la primera petición sin registrar otra venta.
+   *
+   * @param claveIdempotencia Clave de idempotencia generada por el cliente (opcional).
+   * @param requestBody Venta y detalles a registrar.
+   * @return Venta creada, o el error de validación correspondiente.
+   */
   @PostMapping("/con-detalles")
-  public ResponseEntity<?> crearVentaConDetalles(@RequestBody VentaConDetallesRequest requestBody) {
+  public ResponseEntity<?> crearVentaConDetalles(
+      @RequestHeader(value = IdempotenciaService.ENCABEZADO, required = false)
+          String claveIdempotencia,
+      @RequestBody VentaConDetallesRequest requestBody) {
+    if (claveIdempotencia == null) {
+      return procesarVentaConDetalles(requestBody);
+    }
+    try {
+      return idempotenciaService.ejecutar(
+          claveIdempotencia, requestBody, () -> procesarVentaConDetalles(requestBody));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+    }
+  }
+
+  private ResponseEntity<?> procesarVentaConDetalles(VentaConDetallesRequest requestBody) {
     try {
       System.out.println("=== INICIO DEBUG CREAR VENTA CON DETALLES ===");
       System.out.println("Request body recibido: " + requestBody);
@@ -204,6 +307,84 @@ public class VentaController {
     }
   }
 
+  /**
+   * Importa ventas históricas de forma masiva. El cuerpo se procesa a medida que llega, una venta a
+   * la vez, por lo que no hay límite práctico de tamaño.
+   *
+   * <p>Con {@code Content-Type: application/x-ndjson} cada línea es un objeto {@code {"venta":
+   * {...}, "detalles": [...]}}. Con {@code Content-Type: text/csv} cada línea es un detalle; ver
+   * {@link ImportacionVentaService} para las columnas.
+   *
+   * @param request Petición HTTP cuyo cuerpo contiene el archivo.
+   * @param tamanoLote Ventas confirmadas por transacción (opcional).
+   * @return Resumen con las ventas importadas, los errores por línea y el rendimiento, o HTTP 400
+   *     si el formato o los parámetros son inválidos.
+   */
+  @PostMapping(
+      value = "/importar",
+      consumes = {"application/x-ndjson", "text/csv"})
+  public ResponseEntity<?> importarVentas(
+      HttpServletRequest request, @RequestParam(required = false) Integer tamanoLote) {
+    try {
+      FormatoIntercambio formato = FormatoIntercambio.desde(request.getContentType());
+      ResultadoImportacionDTO resultado =
+          importacionVentaService.importarVentas(request.getInputStream(), formato, tamanoLote);
+      return ResponseEntity.ok(resultado);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al importar ventas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+    } catch (IOException e) {
+      System.err.println("Error leyendo el archivo de importación: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("{\"error\": \"Error leyendo el archivo de importación\"}");
+    }
+  }
+
+  /**
+   * Exporta las ventas con sus detalles en NDJSON o CSV, en el mismo formato que acepta {@code
+   * /importar}. La respuesta se escribe a medida que se leen las filas de la base de datos, por lo
+   * que se puede exportar cualquier cantidad de ventas sin cargarlas en memoria.
+   *
+   * @param formato Formato de salida: {@code ndjson} (por defecto) o {@code csv}.
+   * @param idFinca Finca de las ventas.
+   * @param idCliente Cliente de las ventas.
+   * @param metodoPago Método de pago.
+   * @param desde Fecha inicial, inclusiva (yyyy-MM-dd).
+   * @param hasta Fecha final, inclusiva (yyyy-MM-dd).
+   * @return Contenido de la exportación, o HTTP 400 si el formato o los filtros son inválidos.
+   */
+  @GetMapping("/exportar")
+  public ResponseEntity<?> exportarVentas(
+      @RequestParam(defaultValue = "ndjson") String formato,
+      @RequestParam(required = false) Integer idFinca,
+      @RequestParam(required = false) Integer idCliente,
+      @RequestParam(required = false) String metodoPago,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate hasta) {
+    FormatoIntercambio formatoSalida;
+    FiltroVentaDTO filtro = new FiltroVentaDTO(idFinca, idCliente, metodoPago, desde, hasta);
+    try {
+      formatoSalida = FormatoIntercambio.desde(formato);
+      exportacionVentaService.validarFiltro(filtro);
+    } catch (IllegalArgumentException e) {
+      System.err.println("Error de validación al exportar ventas: " + e.getMessage());
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body("{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+    }
+
+    StreamingResponseBody cuerpo =
+        salida -> exportacionVentaService.exportarVentas(filtro, formatoSalida, salida);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(formatoSalida.getTipoContenido() + ";charset=UTF-8"))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"ventas." + formatoSalida.name().toLowerCase() + "\"")
+        .body(cuerpo);
+  }
+
   /** Actualiza una venta existente. */
   @PutMapping("/{idVenta}")
   public ResponseEntity<VentaDTO> actualizarVenta(
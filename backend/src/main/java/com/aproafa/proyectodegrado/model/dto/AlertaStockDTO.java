@@ -0,0 +1,24 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Insumo cuya cantidad disponible está en su punto de reorden o por debajo de él.
+ *
+ * <p>Se construye directamente en la consulta, sin cargar el proveedor ni la finca del insumo, y se
+ * envía a los clientes suscritos a las alertas de la finca.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AlertaStockDTO {
+
+  private Integer idInsumo;
+  private Integer idFinca;
+  private String nombre;
+  private BigDecimal cantidadDisponible;
+  private BigDecimal puntoReorden;
+}
@@ -0,0 +1,21 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/** DTO que compara el consumo de un insumo en un mes con el del mismo mes del año anterior. */
+@Data
+public class ComparativoConsumoDTO {
+
+  /** Mes comparado (1 a 12). */
+  private int mes;
+
+  /** Cantidad consumida en el mes del año consultado. */
+  private BigDecimal cantidad;
+
+  /** Cantidad consumida en el mismo mes del año anterior. */
+  private BigDecimal cantidadAnioAnterior;
+
+  /** Variación porcentual respecto al año anterior, o {@code null} si entonces no hubo consumo. */
+  private BigDecimal variacionPorcentual;
+}
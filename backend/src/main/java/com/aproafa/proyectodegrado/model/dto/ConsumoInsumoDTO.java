@@ -0,0 +1,28 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/** DTO con el consumo de un insumo en un día o en un mes. */
+@Data
+public class ConsumoInsumoDTO {
+
+  /** Identificador del insumo. */
+  private Integer idInsumo;
+
+  /** Día del consumo; solo en los consumos diarios. */
+  private LocalDate fecha;
+
+  /** Año del consumo. */
+  private int anio;
+
+  /** Mes del consumo (1 a 12). */
+  private int mes;
+
+  /** Número de usos registrados. */
+  private long usos;
+
+  /** Cantidad total consumida. */
+  private BigDecimal cantidad;
+}
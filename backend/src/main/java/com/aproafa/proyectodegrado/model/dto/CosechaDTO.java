@@ -0,0 +1,23 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Cosecha de una producción dentro de un registro de cosechas por lote. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CosechaDTO {
+
+  /** Identificador de la producción cosechada. */
+  private Integer idProduccion;
+
+  /** Cantidad cosechada. */
+  private BigDecimal cantidadCosechada;
+
+  /** Fecha de la cosecha; si no se indica se usa la fecha actual. */
+  private LocalDate fechaCosecha;
+}
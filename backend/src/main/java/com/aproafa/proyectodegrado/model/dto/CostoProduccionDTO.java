@@ -0,0 +1,22 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/** DTO con el costo de insumos de una producción. */
+@Data
+public class CostoProduccionDTO {
+
+  private Integer idProduccion;
+  private Integer idProducto;
+  private Integer idFinca;
+
+  /** Costo total de los insumos usados. */
+  private BigDecimal costoInsumos;
+
+  /** Cantidad cosechada; {@code null} si aún no se cosecha. */
+  private BigDecimal cantidadCosechada;
+
+  /** Costo de insumos por unidad cosechada; {@code null} si aún no se cosecha. */
+  private BigDecimal costoPorUnidad;
+}
@@ -0,0 +1,37 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO con el costo de insumos por unidad cosechada de un producto en una finca. */
+@Data
+@NoArgsConstructor
+public class CostoProductoDTO {
+
+  private Integer idProducto;
+
+  /** Cantidad de producciones cosechadas consideradas. */
+  private long producciones;
+
+  /** Costo total de los insumos de esas producciones. */
+  private BigDecimal costoInsumos;
+
+  /** Cantidad total cosechada en esas producciones. */
+  private BigDecimal cantidadCosechada;
+
+  /** Costo de insumos por unidad cosechada. */
+  private BigDecimal costoPorUnidad;
+
+  /** Constructor usado por la consulta agrupada; el costo por unidad se calcula aparte. */
+  public CostoProductoDTO(
+      Integer idProducto,
+      Long producciones,
+      BigDecimal costoInsumos,
+      BigDecimal cantidadCosechada) {
+    this.idProducto = idProducto;
+    this.producciones = producciones;
+    this.costoInsumos = costoInsumos;
+    this.cantidadCosechada = cantidadCosechada;
+  }
+}
@@ -29,4 +29,7 @@ public class DetalleVentaDTO {
 
   /** Subtotal de la línea de venta. */
   private BigDecimal subtotal;
+
+  /** Nombre del producto de la producción vendida (solo en los datos de factura). */
+  private String nombreProducto;
 }
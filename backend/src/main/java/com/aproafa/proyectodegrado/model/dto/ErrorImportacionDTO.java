@@ -0,0 +1,21 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Error de una venta rechazada durante una importación masiva. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErrorImportacionDTO {
+
+  /** Número de línea del archivo donde empieza la venta rechazada. */
+  private long linea;
+
+  /** Referencia de la venta en el archivo (solo CSV), o {@code null}. */
+  private String referencia;
+
+  /** Motivo del rechazo. */
+  private String mensaje;
+}
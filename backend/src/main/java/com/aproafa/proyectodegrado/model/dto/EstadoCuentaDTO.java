@@ -0,0 +1,42 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.time.LocalDate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Encabezado del estado de cuenta de un cliente: sus datos personales y el periodo que cubre.
+ *
+ * <p>Los datos del cliente se construyen directamente en la consulta; el periodo lo completa el
+ * servicio.
+ */
+@Data
+@NoArgsConstructor
+public class EstadoCuentaDTO {
+
+  private Integer idCliente;
+  private String nombreCliente;
+  private String identificacionCliente;
+  private String telefonoCliente;
+  private String direccionCliente;
+
+  /** Primer día del periodo, inclusivo. */
+  private LocalDate desde;
+
+  /** Último día del periodo, inclusivo. */
+  private LocalDate hasta;
+
+  public EstadoCuentaDTO(
+      Integer idCliente,
+      String nombre,
+      String apellido,
+      String identificacionCliente,
+      String telefonoCliente,
+      String direccionCliente) {
+    this.idCliente = idCliente;
+    this.nombreCliente = apellido != null ? nombre + " " + apellido : nombre;
+    this.identificacionCliente = identificacionCliente;
+    this.telefonoCliente = telefonoCliente;
+    this.direccionCliente = direccionCliente;
+  }
+}
@@ -0,0 +1,22 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+/** Estados de un trabajo de generación de facturas en segundo plano. */
+public enum EstadoTrabajo {
+  /** El trabajo está en la cola esperando un hilo libre. */
+  PENDIENTE,
+  /** El trabajo se está generando. */
+  EN_PROCESO,
+  /** El archivo está listo para descargar. */
+  COMPLETADO,
+  /** El trabajo terminó con error y no produjo archivo. */
+  FALLIDO;
+
+  /**
+   * Indica si el trabajo ya terminó, con o sin éxito.
+   *
+   * @return {@code true} si el estado es final.
+   */
+  public boolean esFinal() {
+    return this == COMPLETADO || this == FALLIDO;
+  }
+}
@@ -0,0 +1,41 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Modelo de lectura con todos los datos necesarios para generar la factura de una venta.
+ *
+ * <p>Se construye con una sola consulta que trae la venta, sus detalles, el cliente, el vendedor,
+ * la finca y el nombre de cada producto, para que la factura muestre nombres en lugar de
+ * identificadores.
+ */
+@Data
+public class FacturaDTO {
+
+  private Integer idVenta;
+  private LocalDateTime fechaVenta;
+  private String metodoPago;
+  private BigDecimal total;
+
+  private Integer idCliente;
+  private String nombreCliente;
+  private String identificacionCliente;
+  private String telefonoCliente;
+  private String direccionCliente;
+
+  /** Empleado que registró la venta. */
+  private Integer idPersona;
+
+  private String nombreVendedor;
+
+  private Integer idFinca;
+  private String nombreFinca;
+  private String ubicacionFinca;
+
+  /** Detalles de la venta con el nombre del producto de cada producción. */
+  private List<DetalleVentaDTO> detalles = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros opcionales para las consultas de ventas. Un campo en {@code null} significa que no se
+ * aplica ese filtro.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroVentaDTO {
+
+  /** Finca a la que pertenecen las ventas. */
+  private Integer idFinca;
+
+  /** Cliente de las ventas. */
+  private Integer idCliente;
+
+  /** Método de pago (Efectivo, Tarjeta, Transferencia u Otro). */
+  private String metodoPago;
+
+  /** Fecha inicial, inclusiva. */
+  private LocalDate desde;
+
+  /** Fecha final, inclusiva. */
+  private LocalDate hasta;
+}
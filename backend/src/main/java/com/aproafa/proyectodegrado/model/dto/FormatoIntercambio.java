@@ -0,0 +1,53 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+/**
+ * Formatos de texto admitidos para importar y exportar ventas de forma masiva.
+ *
+ * <ul>
+ *   <li>{@link #NDJSON}: una venta por línea, como objeto JSON {@code {"venta": {...}, "detalles":
+ *       [...]}}.
+ *   <li>{@link #CSV}: un detalle por línea con encabezado; las líneas consecutivas con la misma
+ *       {@code referencia} forman una venta.
+ * </ul>
+ */
+public enum FormatoIntercambio {
+  NDJSON("application/x-ndjson"),
+  CSV("text/csv");
+
+  private final String tipoContenido;
+
+  FormatoIntercambio(String tipoContenido) {
+    this.tipoContenido = tipoContenido;
+  }
+
+  /**
+   * Obtiene el tipo de contenido HTTP asociado al formato.
+   *
+   * @return Tipo MIME del formato.
+   */
+  public String getTipoContenido() {
+    return tipoContenido;
+  }
+
+  /**
+   * Determina el formato a partir de un nombre ({@code ndjson}, {@code csv}) o de un tipo de
+   * contenido HTTP.
+   *
+   * @param valor Nombre del formato o encabezado {@code Content-Type}.
+   * @return Formato correspondiente.
+   * @throws IllegalArgumentException Si el valor no corresponde a ningún formato.
+   */
+  public static FormatoIntercambio desde(String valor) {
+    if (valor != null) {
+      String normalizado = valor.trim().toLowerCase();
+      for (FormatoIntercambio formato : values()) {
+        if (normalizado.equals(formato.name().toLowerCase())
+            || normalizado.startsWith(formato.tipoContenido)) {
+          return formato;
+        }
+      }
+    }
+    throw new IllegalArgumentException(
+        "Formato no soportado: " + valor + ". Valores aceptados: ndjson, csv");
+  }
+}
@@ -0,0 +1,23 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro del historial de uso de un insumo.
+ *
+ * <p>Se construye directamente en la consulta, sin cargar el insumo ni su proveedor.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistorialInsumoDTO {
+
+  private Integer idHistorial;
+  private Integer idInsumo;
+  private BigDecimal cantidadUtilizada;
+  private LocalDateTime fechaUso;
+}
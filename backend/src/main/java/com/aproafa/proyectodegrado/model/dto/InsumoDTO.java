@@ -33,4 +33,11 @@ public class InsumoDTO {
   private BigDecimal cantidadDisponible;
 
   private Integer idFinca;
+
+  /** Punto de reorden del insumo (opcional); sin valor el insumo no genera alertas. */
+  @DecimalMin(
+      value = "0.0",
+      inclusive = true,
+      message = "El punto de reorden no puede ser negativo.")
+  private BigDecimal puntoReorden;
 }
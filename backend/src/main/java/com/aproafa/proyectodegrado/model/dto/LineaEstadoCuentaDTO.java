@@ -0,0 +1,31 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección de una línea del estado de cuenta: un detalle de venta con los datos de su venta y el
+ * nombre del producto.
+ *
+ * <p>Se construye directamente en la consulta, sin cargar entidades, para que leer miles de líneas
+ * no llene el contexto de persistencia.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineaEstadoCuentaDTO {
+
+  private Integer idVenta;
+  private LocalDateTime fechaVenta;
+  private MetodoPago metodoPago;
+  private BigDecimal totalVenta;
+  private Integer idDetalle;
+  private String nombreProducto;
+  private Integer cantidad;
+  private BigDecimal precioUnitario;
+  private BigDecimal subtotal;
+}
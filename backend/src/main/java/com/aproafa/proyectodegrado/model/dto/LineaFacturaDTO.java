@@ -0,0 +1,41 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección plana de una fila de factura: los datos de la venta, su cliente, vendedor y finca
+ * junto con uno de sus detalles. Las filas de una misma venta se agrupan en un {@link FacturaDTO}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineaFacturaDTO {
+
+  private Integer idVenta;
+  private LocalDateTime fechaVenta;
+  private MetodoPago metodoPago;
+  private BigDecimal total;
+  private Integer idCliente;
+  private String nombreCliente;
+  private String apellidoCliente;
+  private String identificacionCliente;
+  private String telefonoCliente;
+  private String direccionCliente;
+  private Integer idPersona;
+  private String nombreVendedor;
+  private String apellidoVendedor;
+  private Integer idFinca;
+  private String nombreFinca;
+  private String ubicacionFinca;
+  private Integer idDetalle;
+  private Integer idProduccion;
+  private Integer cantidad;
+  private BigDecimal precioUnitario;
+  private BigDecimal subtotal;
+  private String nombreProducto;
+}
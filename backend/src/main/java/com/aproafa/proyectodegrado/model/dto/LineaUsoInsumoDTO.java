@@ -0,0 +1,20 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Uso de un insumo dentro de un registro por lotes. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineaUsoInsumoDTO {
+
+  private Integer idInsumo;
+  private BigDecimal cantidad;
+
+  /** Fecha y hora del uso; si no se indica se usa la fecha y hora del registro. */
+  private LocalDateTime fecha;
+}
@@ -0,0 +1,33 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección de una línea de exportación: los datos de una venta junto con uno de sus detalles.
+ *
+ * <p>Se construye directamente en la consulta, sin cargar entidades, para que recorrer millones de
+ * líneas no llene el contexto de persistencia.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineaVentaExportacionDTO {
+
+  private Integer idVenta;
+  private Integer idCliente;
+  private Integer idPersona;
+  private Integer idFinca;
+  private LocalDateTime fechaVenta;
+  private MetodoPago metodoPago;
+  private BigDecimal total;
+  private Integer idDetalle;
+  private Integer idProduccion;
+  private Integer cantidad;
+  private BigDecimal precioUnitario;
+  private BigDecimal subtotal;
+}
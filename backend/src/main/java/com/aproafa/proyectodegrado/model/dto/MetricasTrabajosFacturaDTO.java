@@ -0,0 +1,35 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import lombok.Data;
+
+/** Métricas de la cola de generación de facturas en segundo plano. */
+@Data
+public class MetricasTrabajosFacturaDTO {
+
+  /** Trabajos esperando en la cola. */
+  private int profundidadCola;
+
+  /** Capacidad máxima de la cola. */
+  private int capacidadCola;
+
+  /** Trabajos generándose en este momento. */
+  private int trabajosActivos;
+
+  /** Hilos del grupo de generación. */
+  private int hilos;
+
+  private long trabajosAceptados;
+  private long trabajosRechazados;
+  private long trabajosCompletados;
+  private long trabajosFallidos;
+
+  /** Tiempo promedio de espera en la cola de los trabajos iniciados, en milisegundos. */
+  private double esperaPromedioMs;
+
+  private long esperaMaximaMs;
+
+  /** Tiempo promedio de generación de los trabajos terminados, en milisegundos. */
+  private double generacionPromedioMs;
+
+  private long generacionMaximaMs;
+}
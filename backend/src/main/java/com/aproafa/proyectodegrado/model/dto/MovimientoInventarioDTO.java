@@ -0,0 +1,22 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import com.aproafa.proyectodegrado.model.entity.TipoMovimientoInventario;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Movimiento del inventario de un producto, construido directamente en la consulta. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovimientoInventarioDTO {
+
+  private Long idMovimiento;
+  private Integer idProducto;
+  private TipoMovimientoInventario tipo;
+  private BigDecimal cantidad;
+  private LocalDateTime fecha;
+  private Integer idReferencia;
+}
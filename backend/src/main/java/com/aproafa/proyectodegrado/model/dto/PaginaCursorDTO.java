@@ -0,0 +1,29 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de resultados paginada por cursor.
+ *
+ * <p>El cliente debe enviar {@code siguienteCursor} en la siguiente petición para continuar donde
+ * terminó esta página. El cursor es opaco y no debe interpretarse.
+ *
+ * @param <T> Tipo de los elementos de la página.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaCursorDTO<T> {
+
+  /** Elementos de la página, en el orden de la consulta. */
+  private List<T> elementos;
+
+  /** Cursor para pedir la siguiente página, o {@code null} si no hay más resultados. */
+  private String siguienteCursor;
+
+  /** Indica si existen más resultados después de esta página. */
+  private boolean hayMas;
+}
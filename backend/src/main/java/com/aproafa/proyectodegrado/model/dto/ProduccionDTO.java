@@ -40,4 +40,34 @@ public class ProduccionDTO {
 
   // En ProduccionDTO.java agregar:
   private List<UsoInsumoProduccionDTO> usosInsumos;
+
+  public ProduccionDTO() {}
+
+  /**
+   * Constructor usado por las consultas de proyección; los usos de insumos se asignan aparte.
+   *
+   * @param idProduccion Identificador de la producción.
+   * @param idProducto Identificador del producto.
+   * @param idFinca Identificador de la finca.
+   * @param fechaSiembra Fecha de siembra.
+   * @param fechaCosecha Fecha de cosecha.
+   * @param estado Estado de la producción.
+   * @param cantidadCosechada Cantidad cosechada.
+   */
+  public ProduccionDTO(
+      Integer idProduccion,
+      Integer idProducto,
+      Integer idFinca,
+      LocalDate fechaSiembra,
+      LocalDate fechaCosecha,
+      EstadoProduccion estado,
+      BigDecimal cantidadCosechada) {
+    this.idProduccion = idProduccion;
+    this.idProducto = idProducto;
+    this.idFinca = idFinca;
+    this.fechaSiembra = fechaSiembra;
+    this.fechaCosecha = fechaCosecha;
+    this.estado = estado;
+    this.cantidadCosechada = cantidadCosechada;
+  }
 }
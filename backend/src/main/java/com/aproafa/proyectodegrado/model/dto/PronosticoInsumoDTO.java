@@ -0,0 +1,34 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/** DTO con la proyección de consumo de un insumo: cuándo se agota y cuánto conviene pedir. */
+@Data
+public class PronosticoInsumoDTO {
+
+  private Integer idInsumo;
+  private Integer idFinca;
+  private String nombre;
+  private BigDecimal cantidadDisponible;
+  private BigDecimal puntoReorden;
+
+  /** Consumo diario estimado; cero si no hay usos registrados. */
+  private BigDecimal consumoDiario;
+
+  /** Días con uso o sin él que sustentan la estimación. */
+  private int diasObservados;
+
+  /** Días que faltan para agotar el stock; {@code null} si no hay consumo estimado. */
+  private Long diasHastaAgotarse;
+
+  /** Fecha estimada en la que se agota el stock; {@code null} si no hay consumo estimado. */
+  private LocalDate fechaAgotamiento;
+
+  /** Último día para hacer el pedido considerando el plazo de entrega. */
+  private LocalDate fechaPedidoSugerida;
+
+  /** Cantidad a pedir para cubrir el plazo de entrega y los días de cobertura configurados. */
+  private BigDecimal cantidadSugerida;
+}
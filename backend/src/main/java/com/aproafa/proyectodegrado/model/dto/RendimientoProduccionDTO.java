@@ -0,0 +1,40 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * DTO con el rendimiento de las producciones cosechadas de un producto en una finca durante una
+ * temporada.
+ */
+@Data
+public class RendimientoProduccionDTO {
+
+  /** Año de la cosecha. */
+  private int anio;
+
+  /** Temporada: 1 para enero a junio, 2 para julio a diciembre, 0 si se agrupa por año. */
+  private int temporada;
+
+  private Integer idProducto;
+  private Integer idFinca;
+
+  /** Cantidad de producciones cosechadas. */
+  private long producciones;
+
+  /** Cantidad total cosechada. */
+  private BigDecimal cantidadTotal;
+
+  /** Distribución de la cantidad cosechada por producción. */
+  private BigDecimal cantidadPromedio;
+
+  private BigDecimal cantidadMinima;
+  private BigDecimal cantidadMaxima;
+  private BigDecimal desviacionCantidad;
+
+  /** Duración del ciclo de siembra a cosecha, en días. */
+  private BigDecimal diasCicloPromedio;
+
+  private Integer diasCicloMinimo;
+  private Integer diasCicloMaximo;
+}
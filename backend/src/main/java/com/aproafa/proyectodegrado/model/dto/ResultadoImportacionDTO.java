@@ -0,0 +1,42 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Resumen de una importación masiva de ventas.
+ *
+ * <p>Solo se conservan los primeros errores (ver {@code erroresOmitidos}) para que el tamaño de la
+ * respuesta no crezca con el tamaño del archivo.
+ */
+@Data
+public class ResultadoImportacionDTO {
+
+  /** Líneas de datos leídas del archivo, sin contar encabezados ni líneas vacías. */
+  private long lineasLeidas;
+
+  /** Ventas encontradas en el archivo. */
+  private long ventasLeidas;
+
+  /** Ventas guardadas correctamente. */
+  private long ventasImportadas;
+
+  /** Ventas rechazadas por errores de validación o de base de datos. */
+  private long ventasRechazadas;
+
+  /** Detalles de venta guardados correctamente. */
+  private long detallesImportados;
+
+  /** Errores de las ventas rechazadas, hasta el máximo configurado. */
+  private List<ErrorImportacionDTO> errores = new ArrayList<>();
+
+  /** Errores que no se incluyeron en {@code errores} por superar el máximo. */
+  private long erroresOmitidos;
+
+  /** Duración total de la importación en milisegundos. */
+  private long duracionMs;
+
+  /** Rendimiento de la importación en líneas por segundo. */
+  private double filasPorSegundo;
+}
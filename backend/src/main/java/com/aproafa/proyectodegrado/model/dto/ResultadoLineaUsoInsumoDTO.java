@@ -0,0 +1,22 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/** Resultado de una línea de un registro de usos por lotes. */
+@Data
+public class ResultadoLineaUsoInsumoDTO {
+
+  /** Posición de la línea en la solicitud, empezando en 1. */
+  private int linea;
+
+  private Integer idInsumo;
+  private BigDecimal cantidad;
+  private boolean aplicado;
+
+  /** Cantidad disponible del insumo después de aplicar la línea. */
+  private BigDecimal cantidadDisponible;
+
+  /** Motivo por el que la línea no se aplicó. */
+  private String error;
+}
@@ -0,0 +1,14 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/** Resultado de un registro de usos de insumos por lotes, con el detalle de cada línea. */
+@Data
+public class ResultadoUsoInsumosDTO {
+
+  private int aplicados;
+  private int rechazados;
+  private List<ResultadoLineaUsoInsumoDTO> lineas = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Saldo del inventario de un producto en un momento dado. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SaldoInventarioDTO {
+
+  private Integer idProducto;
+
+  /** Momento consultado. */
+  private LocalDateTime fecha;
+
+  private BigDecimal cantidad;
+
+  /** Día del corte usado como base, o {@code null} si se sumaron todos los movimientos. */
+  private LocalDate fechaCorte;
+
+  /** Movimientos sumados después del corte. */
+  private long movimientos;
+}
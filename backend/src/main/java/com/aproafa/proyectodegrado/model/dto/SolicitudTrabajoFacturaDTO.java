@@ -0,0 +1,12 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+/** Petición para generar en segundo plano las facturas de una o varias ventas. */
+@Data
+public class SolicitudTrabajoFacturaDTO {
+
+  /** Identificadores de las ventas a facturar. */
+  private List<Integer> idsVenta;
+}
@@ -0,0 +1,18 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.util.List;
+import lombok.Data;
+
+/** Solicitud para registrar varios usos de insumos en una sola transacción. */
+@Data
+public class SolicitudUsoInsumosDTO {
+
+  /** Usos a registrar, en el orden en que se aplican. */
+  private List<LineaUsoInsumoDTO> usos;
+
+  /**
+   * Si es {@code true}, no se aplica ningún uso cuando alguna línea falla; si es {@code false}, se
+   * aplican las líneas válidas y se informan las que fallaron.
+   */
+  private boolean todoONada;
+}
@@ -0,0 +1,31 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Stock de un insumo junto con los datos necesarios para validar un uso o proyectar su consumo. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockInsumoDTO {
+
+  private Integer idInsumo;
+  private Integer idFinca;
+  private String nombre;
+  private BigDecimal cantidadDisponible;
+  private BigDecimal puntoReorden;
+
+  /** Precio promedio ponderado; solo se lee al bloquear el stock. */
+  private BigDecimal precioPromedio;
+
+  public StockInsumoDTO(
+      Integer idInsumo,
+      Integer idFinca,
+      String nombre,
+      BigDecimal cantidadDisponible,
+      BigDecimal puntoReorden) {
+    this(idInsumo, idFinca, nombre, cantidadDisponible, puntoReorden, null);
+  }
+}
@@ -0,0 +1,30 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/** Estado de un trabajo de generación de facturas en segundo plano. */
+@Data
+public class TrabajoFacturaDTO {
+
+  private String idTrabajo;
+  private EstadoTrabajo estado;
+  private int cantidadVentas;
+  private LocalDateTime fechaCreacion;
+  private LocalDateTime fechaInicio;
+  private LocalDateTime fechaFin;
+
+  /** Tiempo que el trabajo esperó en la cola, en milisegundos. */
+  private Long esperaMs;
+
+  /** Tiempo de generación, en milisegundos. */
+  private Long duracionMs;
+
+  /** Posición en la cola (1 = siguiente en ejecutarse) mientras el trabajo está pendiente. */
+  private Integer posicionCola;
+
+  /** Ruta para descargar el archivo cuando el trabajo está completado. */
+  private String urlDescarga;
+
+  private String error;
+}
@@ -0,0 +1,31 @@
+package com.aproafa.proyectodegrado.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/** DTO con el resumen de ventas de un día para una finca, un producto y un método de pago. */
+@Data
+public class VentaResumenDiarioDTO {
+
+  /** Identificador de la finca. */
+  private Integer idFinca;
+
+  /** Identificador del producto. */
+  private Integer idProducto;
+
+  /** Día de las ventas. */
+  private LocalDate fecha;
+
+  /** Método de pago de las ventas. */
+  private String metodoPago;
+
+  /** Número de ventas distintas que incluyen el producto. */
+  private long numeroVentas;
+
+  /** Cantidad total de unidades vendidas. */
+  private long cantidad;
+
+  /** Ingresos totales. */
+  private BigDecimal ingresos;
+}
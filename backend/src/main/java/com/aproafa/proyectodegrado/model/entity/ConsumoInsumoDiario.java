@@ -0,0 +1,47 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/**
+ * Consumo pre-agregado de un insumo en un día.
+ *
+ * <p>Cada fila acumula los registros de {@code historial_insumo} de una combinación {@code (insumo,
+ * día)}. La tabla se mantiene de forma incremental con cada uso registrado y puede reconstruirse a
+ * partir del historial.
+ */
+@Data
+@Entity
+@Table(
+    name = "consumo_insumo_diario",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_consumo_insumo_diario",
+            columnNames = {"id_insumo", "fecha"}),
+    indexes = @Index(name = "idx_consumo_insumo_diario_fecha", columnList = "fecha"))
+public class ConsumoInsumoDiario {
+
+  /** Identificador único del registro de consumo. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_consumo")
+  private Long idConsumo;
+
+  /** Insumo consumido. */
+  @Column(name = "id_insumo", nullable = false)
+  private Integer idInsumo;
+
+  /** Día del consumo. */
+  @Column(name = "fecha", nullable = false)
+  private LocalDate fecha;
+
+  /** Número de usos registrados en el día. */
+  @Column(name = "usos", nullable = false)
+  private long usos;
+
+  /** Cantidad total consumida en el día. */
+  @Column(name = "cantidad", nullable = false, precision = 14, scale = 2)
+  private BigDecimal cantidad;
+}
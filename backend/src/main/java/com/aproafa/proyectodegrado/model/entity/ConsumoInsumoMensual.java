@@ -0,0 +1,49 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * Consumo pre-agregado de un insumo en un mes.
+ *
+ * <p>Cada fila acumula los registros de {@code historial_insumo} de una combinación {@code (insumo,
+ * año, mes)}. Se mantiene junto con {@link ConsumoInsumoDiario} y sirve para gráficos de largo
+ * plazo y comparaciones entre años sin recorrer el historial.
+ */
+@Data
+@Entity
+@Table(
+    name = "consumo_insumo_mensual",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_consumo_insumo_mensual",
+            columnNames = {"id_insumo", "anio", "mes"}))
+public class ConsumoInsumoMensual {
+
+  /** Identificador único del registro de consumo. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_consumo")
+  private Long idConsumo;
+
+  /** Insumo consumido. */
+  @Column(name = "id_insumo", nullable = false)
+  private Integer idInsumo;
+
+  /** Año del consumo. */
+  @Column(name = "anio", nullable = false)
+  private int anio;
+
+  /** Mes del consumo (1 a 12). */
+  @Column(name = "mes", nullable = false)
+  private int mes;
+
+  /** Número de usos registrados en el mes. */
+  @Column(name = "usos", nullable = false)
+  private long usos;
+
+  /** Cantidad total consumida en el mes. */
+  @Column(name = "cantidad", nullable = false, precision = 14, scale = 2)
+  private BigDecimal cantidad;
+}
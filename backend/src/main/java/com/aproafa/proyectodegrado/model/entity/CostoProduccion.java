@@ -0,0 +1,43 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * Costo acumulado de los insumos usados en una producción.
+ *
+ * <p>Se mantiene de forma incremental con cada uso de insumo registrado, modificado o eliminado y
+ * con cada compra que cambia el precio promedio de un insumo. Guarda el producto, la finca y la
+ * cantidad cosechada para que el costo por unidad cosechada por producto y finca se lea con una
+ * sola consulta sobre el índice {@code (id_finca, id_producto)}.
+ */
+@Data
+@Entity
+@Table(
+    name = "costo_produccion",
+    indexes =
+        @Index(name = "idx_costo_produccion_finca_producto", columnList = "id_finca, id_producto"))
+public class CostoProduccion {
+
+  /** Producción a la que corresponde el costo; una fila por producción. */
+  @Id
+  @Column(name = "id_produccion")
+  private Integer idProduccion;
+
+  /** Producto de la producción. */
+  @Column(name = "id_producto", nullable = false)
+  private Integer idProducto;
+
+  /** Finca de la producción. */
+  @Column(name = "id_finca", nullable = false)
+  private Integer idFinca;
+
+  /** Costo total de los insumos usados. */
+  @Column(name = "costo_insumos", nullable = false, precision = 14, scale = 4)
+  private BigDecimal costoInsumos = BigDecimal.ZERO;
+
+  /** Cantidad cosechada; {@code null} mientras la producción no se cosecha. */
+  @Column(name = "cantidad_cosechada", precision = 10, scale = 2)
+  private BigDecimal cantidadCosechada;
+}
@@ -0,0 +1,45 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * Cantidad y costo de un insumo dentro del costo de una producción ({@link CostoProduccion}).
+ *
+ * <p>Mientras la producción no se cosecha, el costo se revalúa al precio promedio vigente cada vez
+ * que una compra cambia el precio del insumo.
+ */
+@Data
+@Entity
+@Table(
+    name = "costo_produccion_insumo",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_costo_produccion_insumo",
+            columnNames = {"id_produccion", "id_insumo"}),
+    indexes = @Index(name = "idx_costo_produccion_insumo_insumo", columnList = "id_insumo"))
+public class CostoProduccionInsumo {
+
+  /** Identificador único del registro. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_costo")
+  private Long idCosto;
+
+  /** Producción en la que se usó el insumo. */
+  @Column(name = "id_produccion", nullable = false)
+  private Integer idProduccion;
+
+  /** Insumo usado. */
+  @Column(name = "id_insumo", nullable = false)
+  private Integer idInsumo;
+
+  /** Cantidad total usada del insumo en la producción. */
+  @Column(name = "cantidad", nullable = false, precision = 12, scale = 2)
+  private BigDecimal cantidad;
+
+  /** Costo de la cantidad usada. */
+  @Column(name = "costo", nullable = false, precision = 14, scale = 4)
+  private BigDecimal costo;
+}
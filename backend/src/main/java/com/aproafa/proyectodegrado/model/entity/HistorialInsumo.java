@@ -11,11 +11,17 @@ import lombok.Data;
  * <p>Contiene información sobre el insumo utilizado, la cantidad empleada y la fecha en la que se
  * realizó el uso.
  *
+ * <p>La tabla solo recibe inserciones: cada uso se agrega también a los consumos diarios y
+ * mensuales ({@link ConsumoInsumoDiario}, {@link ConsumoInsumoMensual}), que son los que leen los
+ * reportes.
+ *
  * <p>Autor: Anderson Zuluaga
  */
 @Data
 @Entity
-@Table(name = "historial_insumo")
+@Table(
+    name = "historial_insumo",
+    indexes = @Index(name = "idx_historial_insumo_fecha", columnList = "id_insumo, fecha_uso, id"))
 public class HistorialInsumo {
 
   /** Identificador único del registro de historial de insumo. */
@@ -15,7 +15,11 @@ import lombok.Data;
  */
 @Data
 @Entity
-@Table(name = "insumo")
+@Table(
+    name = "insumo",
+    indexes = {
+      @Index(name = "idx_insumo_finca_cantidad", columnList = "id_finca, cantidad_disponible")
+    })
 public class Insumo {
 
   /** Identificador único del insumo. */
@@ -50,4 +54,18 @@ public class Insumo {
   /** Cantidad disponible del insumo en inventario. */
   @Column(name = "cantidad_disponible", nullable = false, precision = 10, scale = 2)
   private BigDecimal cantidadDisponible;
+
+  /**
+   * Punto de reorden: cuando la cantidad disponible llega a este valor o baja de él, el insumo se
+   * considera con stock bajo. Si es {@code null} el insumo no genera alertas.
+   */
+  @Column(name = "punto_reorden", precision = 10, scale = 2)
+  private BigDecimal puntoReorden;
+
+  /**
+   * Precio unitario promedio ponderado de las existencias, actualizado con cada compra. Es {@code
+   * null} mientras no se registre ninguna compra.
+   */
+  @Column(name = "precio_promedio", precision = 12, scale = 4)
+  private BigDecimal precioPromedio;
 }
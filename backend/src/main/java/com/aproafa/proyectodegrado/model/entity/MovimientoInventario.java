@@ -0,0 +1,54 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Entidad que representa un movimiento del inventario de un producto (kardex).
+ *
+ * <p>Los movimientos solo se agregan, nunca se modifican ni se eliminan. El saldo de un producto en
+ * cualquier momento es la suma de sus movimientos hasta ese momento; los cortes de {@link
+ * SaldoInventario} evitan recorrer todo el historial.
+ *
+ * <p>Atributos:
+ *
+ * <ul>
+ *   <li>{@code idProducto}: Producto cuyo inventario cambió.
+ *   <li>{@code tipo}: Origen del movimiento.
+ *   <li>{@code cantidad}: Cantidad sumada al inventario; negativa si es una salida.
+ *   <li>{@code fecha}: Fecha y hora del movimiento.
+ *   <li>{@code idReferencia}: Registro que originó el movimiento, por ejemplo la producción
+ *       cosechada.
+ * </ul>
+ */
+@Data
+@Entity
+@Table(
+    name = "movimiento_inventario",
+    indexes =
+        @Index(name = "idx_movimiento_inventario_fecha", columnList = "id_producto, fecha, id"))
+public class MovimientoInventario {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long idMovimiento;
+
+  @Column(name = "id_producto", nullable = false)
+  private Integer idProducto;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "tipo", nullable = false, length = 20)
+  private TipoMovimientoInventario tipo;
+
+  @Column(name = "cantidad", nullable = false, precision = 12, scale = 2)
+  private BigDecimal cantidad;
+
+  @Column(name = "fecha", nullable = false)
+  private LocalDateTime fecha;
+
+  @Column(name = "id_referencia")
+  private Integer idReferencia;
+}
@@ -40,7 +40,12 @@ import lombok.Data;
  */
 @Data
 @Entity
-@Table(name = "produccion")
+@Table(
+    name = "produccion",
+    indexes =
+        @Index(
+            name = "idx_produccion_cosecha",
+            columnList = "fecha_cosecha, id_producto, id_finca, cantidad_cosechada, fecha_siembra"))
 public class Produccion {
 
   /** Identificador único de la producción. */
@@ -0,0 +1,40 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/**
+ * Estado del pronóstico de consumo de un insumo.
+ *
+ * <p>Guarda el consumo diario promedio con ponderación exponencial (los días recientes pesan más) y
+ * el consumo acumulado del día en curso. Se actualiza con cada uso registrado, sin recorrer el
+ * historial, y permite proyectar en tiempo constante cuándo se agotará el insumo.
+ */
+@Data
+@Entity
+@Table(name = "pronostico_insumo")
+public class PronosticoInsumo {
+
+  /** Insumo al que corresponde el pronóstico; una fila por insumo. */
+  @Id
+  @Column(name = "id_insumo")
+  private Integer idInsumo;
+
+  /** Consumo diario promedio con ponderación exponencial de los días ya cerrados. */
+  @Column(name = "consumo_diario", nullable = false, precision = 14, scale = 4)
+  private BigDecimal consumoDiario = BigDecimal.ZERO;
+
+  /** Día en curso, cuyos usos aún no entran al promedio. */
+  @Column(name = "fecha_dia_actual", nullable = false)
+  private LocalDate fechaDiaActual;
+
+  /** Cantidad consumida en el día en curso. */
+  @Column(name = "consumo_dia_actual", nullable = false, precision = 14, scale = 2)
+  private BigDecimal consumoDiaActual = BigDecimal.ZERO;
+
+  /** Cantidad de días ya incluidos en el promedio, con o sin uso. */
+  @Column(name = "dias_observados", nullable = false)
+  private int diasObservados;
+}
@@ -0,0 +1,47 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Respuesta almacenada de una petición con encabezado {@code Idempotency-Key}.
+ *
+ * <p>Permite que los reintentos de una misma petición devuelvan la respuesta original incluso
+ * después de reiniciar la aplicación. Solo se usa cuando el almacenamiento persistente de
+ * idempotencia está habilitado.
+ */
+@Data
+@Entity
+@Table(
+    name = "respuesta_idempotente",
+    indexes =
+        @Index(name = "idx_respuesta_idempotente_expiracion", columnList = "fecha_expiracion"))
+public class RespuestaIdempotente {
+
+  /** Clave enviada por el cliente en el encabezado {@code Idempotency-Key}. */
+  @Id
+  @Column(name = "clave", length = 100)
+  private String clave;
+
+  /** Huella SHA-256 del cuerpo de la petición original. */
+  @Column(name = "huella", nullable = false, length = 64)
+  private String huella;
+
+  /** Código de estado HTTP de la respuesta original. */
+  @Column(name = "estado", nullable = false)
+  private int estado;
+
+  /** Cuerpo de la respuesta original en JSON. */
+  @Lob
+  @Column(name = "cuerpo", columnDefinition = "TEXT")
+  private String cuerpo;
+
+  /** Fecha y hora en que se registró la respuesta. */
+  @Column(name = "fecha_creacion", nullable = false)
+  private LocalDateTime fechaCreacion;
+
+  /** Fecha y hora a partir de la cual la respuesta deja de ser válida. */
+  @Column(name = "fecha_expiracion", nullable = false)
+  private LocalDateTime fechaExpiracion;
+}
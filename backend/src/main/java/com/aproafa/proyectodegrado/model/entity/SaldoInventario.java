@@ -0,0 +1,38 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/**
+ * Entidad que representa un corte del saldo del inventario de un producto.
+ *
+ * <p>El corte de un día es el saldo al inicio de ese día, es decir, la suma de todos los
+ * movimientos anteriores. Solo se generan cortes para los productos con movimientos desde su corte
+ * anterior.
+ */
+@Data
+@Entity
+@Table(
+    name = "saldo_inventario",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_saldo_inventario",
+            columnNames = {"id_producto", "fecha"}))
+public class SaldoInventario {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_saldo")
+  private Long idSaldo;
+
+  @Column(name = "id_producto", nullable = false)
+  private Integer idProducto;
+
+  @Column(name = "fecha", nullable = false)
+  private LocalDate fecha;
+
+  @Column(name = "cantidad", nullable = false, precision = 14, scale = 2)
+  private BigDecimal cantidad;
+}
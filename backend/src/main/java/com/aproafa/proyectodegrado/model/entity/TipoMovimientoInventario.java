@@ -0,0 +1,17 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+/**
+ * Enumeración que representa el origen de un movimiento del inventario de productos.
+ *
+ * <ul>
+ *   <li>{@code APERTURA}: Saldo inicial de un producto que ya tenía inventario antes de registrar
+ *       movimientos.
+ *   <li>{@code COSECHA}: Entrada por la cosecha de una producción.
+ *   <li>{@code AJUSTE}: Corrección manual de la cantidad.
+ * </ul>
+ */
+public enum TipoMovimientoInventario {
+  APERTURA,
+  COSECHA,
+  AJUSTE
+}
@@ -10,7 +10,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "venta")
+@Table(
+    name = "venta",
+    indexes = {
+      @Index(name = "idx_venta_fecha_id", columnList = "fecha_venta, id_venta"),
+      @Index(name = "idx_venta_finca_fecha_id", columnList = "id_finca, fecha_venta, id_venta"),
+      @Index(name = "idx_venta_cliente_fecha_id", columnList = "id_cliente, fecha_venta, id_venta")
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
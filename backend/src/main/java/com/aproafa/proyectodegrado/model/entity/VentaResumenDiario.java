@@ -0,0 +1,60 @@
+package com.aproafa.proyectodegrado.model.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/**
+ * Resumen diario pre-agregado de las ventas por finca, producto, día y método de pago.
+ *
+ * <p>Cada fila acumula las ventas de una combinación {@code (finca, día, producto, método de
+ * pago)}. La tabla se mantiene de forma incremental cada vez que se guarda, actualiza o elimina una
+ * venta, y puede reconstruirse a partir de {@code venta} y {@code detalle_venta}.
+ */
+@Data
+@Entity
+@Table(
+    name = "venta_resumen_diario",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_venta_resumen_diario",
+            columnNames = {"id_finca", "fecha", "id_producto", "metodo_pago"}),
+    indexes = @Index(name = "idx_venta_resumen_fecha", columnList = "fecha"))
+public class VentaResumenDiario {
+
+  /** Identificador único del registro de resumen. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_resumen")
+  private Long idResumen;
+
+  /** Finca de las ventas resumidas. */
+  @Column(name = "id_finca", nullable = false)
+  private Integer idFinca;
+
+  /** Producto vendido, obtenido de la producción de cada detalle. */
+  @Column(name = "id_producto", nullable = false)
+  private Integer idProducto;
+
+  /** Día de las ventas. */
+  @Column(name = "fecha", nullable = false)
+  private LocalDate fecha;
+
+  /** Método de pago de las ventas. */
+  @Enumerated(EnumType.STRING)
+  @Column(name = "metodo_pago", nullable = false)
+  private MetodoPago metodoPago;
+
+  /** Número de ventas distintas que incluyen el producto. */
+  @Column(name = "numero_ventas", nullable = false)
+  private long numeroVentas;
+
+  /** Cantidad total de unidades vendidas. */
+  @Column(name = "cantidad", nullable = false)
+  private long cantidad;
+
+  /** Ingresos totales (suma de los subtotales de los detalles). */
+  @Column(name = "ingresos", nullable = false, precision = 14, scale = 2)
+  private BigDecimal ingresos;
+}
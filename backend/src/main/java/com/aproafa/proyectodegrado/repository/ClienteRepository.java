@@ -1,9 +1,12 @@
 package com.aproafa.proyectodegrado.repository;
 
+import com.aproafa.proyectodegrado.model.dto.EstadoCuentaDTO;
 import com.aproafa.proyectodegrado.model.entity.Cliente;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -41,4 +44,16 @@ public interface ClienteRepository extends JpaRepository<Cliente, Integer> {
    * @return Una lista de actividades asociadas a la finca con el id especificado.
    */
   List<Cliente> findByFinca_Id(Integer idFinca);
+
+  /**
+   * Obtiene los datos personales de un cliente para el encabezado de su estado de cuenta.
+   *
+   * @param idCliente El identificador del cliente.
+   * @return Un {@link Optional} con los datos del cliente si existe.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.EstadoCuentaDTO("
+          + "c.idCliente, p.nombre, p.apellido, p.numeroIdentificacion, p.telefono, p.direccion)"
+          + " FROM Cliente c JOIN c.persona p WHERE c.idCliente = :idCliente")
+  Optional<EstadoCuentaDTO> buscarEncabezadoEstadoCuenta(@Param("idCliente") Integer idCliente);
 }
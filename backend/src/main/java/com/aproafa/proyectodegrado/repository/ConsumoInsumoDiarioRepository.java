@@ -0,0 +1,68 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.ConsumoInsumoDiario;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para el consumo diario de insumos {@link ConsumoInsumoDiario}. */
+@Repository
+public interface ConsumoInsumoDiarioRepository extends JpaRepository<ConsumoInsumoDiario, Long> {
+
+  /**
+   * Consulta el consumo diario de un insumo en un rango de días, ambos inclusive.
+   *
+   * @return Filas de consumo ordenadas por día.
+   */
+  @Query(
+      "SELECT c FROM ConsumoInsumoDiario c"
+          + " WHERE c.idInsumo = :idInsumo AND c.fecha BETWEEN :desde AND :hasta"
+          + " ORDER BY c.fecha")
+  List<ConsumoInsumoDiario> consultar(
+      @Param("idInsumo") Integer idInsumo,
+      @Param("desde") LocalDate desde,
+      @Param("hasta") LocalDate hasta);
+
+  /**
+   * Consulta el consumo diario de todos los insumos desde un día, agrupado por insumo y en orden
+   * cronológico dentro de cada uno.
+   *
+   * @param desde Día inicial, inclusivo.
+   * @return Filas de consumo ordenadas por insumo y día.
+   */
+  @Query("SELECT c FROM ConsumoInsumoDiario c WHERE c.fecha >= :desde ORDER BY c.idInsumo, c.fecha")
+  List<ConsumoInsumoDiario> consultarDesde(@Param("desde") LocalDate desde);
+
+  /**
+   * Elimina las filas de consumo de un rango de días, ambos inclusive.
+   *
+   * @return Filas eliminadas.
+   */
+  @Modifying
+  @Query("DELETE FROM ConsumoInsumoDiario c WHERE c.fecha BETWEEN :desde AND :hasta")
+  int eliminarRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+  /**
+   * Recalcula el consumo diario de un rango a partir del historial. Debe ejecutarse después de
+   * {@link #eliminarRango} para el mismo rango.
+   *
+   * @param desde Fecha y hora inicial, inclusiva.
+   * @param hasta Fecha y hora final, exclusiva.
+   * @return Filas de consumo insertadas.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO consumo_insumo_diario (id_insumo, fecha, usos, cantidad)"
+              + " SELECT h.id_insumo, DATE(h.fecha_uso), COUNT(*), SUM(h.cantidad_utilizada)"
+              + " FROM historial_insumo h"
+              + " WHERE h.fecha_uso >= :desde AND h.fecha_uso < :hasta"
+              + " GROUP BY h.id_insumo, DATE(h.fecha_uso)",
+      nativeQuery = true)
+  int reconstruirRango(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+}
@@ -0,0 +1,63 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.ConsumoInsumoMensual;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para el consumo mensual de insumos {@link ConsumoInsumoMensual}. */
+@Repository
+public interface ConsumoInsumoMensualRepository extends JpaRepository<ConsumoInsumoMensual, Long> {
+
+  /**
+   * Consulta el consumo mensual de un insumo en un rango de meses, ambos inclusive. Los meses se
+   * indican como {@code año * 100 + mes} (por ejemplo, {@code 202403}).
+   *
+   * @return Filas de consumo ordenadas por año y mes.
+   */
+  @Query(
+      "SELECT c FROM ConsumoInsumoMensual c"
+          + " WHERE c.idInsumo = :idInsumo AND c.anio BETWEEN :anioDesde AND :anioHasta"
+          + " AND c.anio * 100 + c.mes BETWEEN :desde AND :hasta"
+          + " ORDER BY c.anio, c.mes")
+  List<ConsumoInsumoMensual> consultar(
+      @Param("idInsumo") Integer idInsumo,
+      @Param("anioDesde") int anioDesde,
+      @Param("anioHasta") int anioHasta,
+      @Param("desde") int desde,
+      @Param("hasta") int hasta);
+
+  /**
+   * Elimina las filas de consumo de un rango de meses, ambos inclusive, indicados como {@code año *
+   * 100 + mes}.
+   *
+   * @return Filas eliminadas.
+   */
+  @Modifying
+  @Query("DELETE FROM ConsumoInsumoMensual c WHERE c.anio * 100 + c.mes BETWEEN :desde AND :hasta")
+  int eliminarRango(@Param("desde") int desde, @Param("hasta") int hasta);
+
+  /**
+   * Recalcula el consumo mensual de un rango a partir del historial. El rango debe cubrir meses
+   * completos y ejecutarse después de {@link #eliminarRango} para los mismos meses.
+   *
+   * @param desde Fecha y hora inicial, inclusiva (primer día de un mes).
+   * @param hasta Fecha y hora final, exclusiva (primer día del mes siguiente al último).
+   * @return Filas de consumo insertadas.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO consumo_insumo_mensual (id_insumo, anio, mes, usos, cantidad)"
+              + " SELECT h.id_insumo, YEAR(h.fecha_uso), MONTH(h.fecha_uso), COUNT(*),"
+              + " SUM(h.cantidad_utilizada)"
+              + " FROM historial_insumo h"
+              + " WHERE h.fecha_uso >= :desde AND h.fecha_uso < :hasta"
+              + " GROUP BY h.id_insumo, YEAR(h.fecha_uso), MONTH(h.fecha_uso)",
+      nativeQuery = true)
+  int reconstruirRango(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+}
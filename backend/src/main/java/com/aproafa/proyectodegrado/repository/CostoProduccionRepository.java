@@ -0,0 +1,41 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.dto.CostoProductoDTO;
+import com.aproafa.proyectodegrado.model.entity.CostoProduccion;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para el costo de insumos de las producciones {@link CostoProduccion}. */
+@Repository
+public interface CostoProduccionRepository
+    extends JpaRepository<CostoProduccion, Integer>, CostoProduccionRepositoryCustom {
+
+  /**
+   * Calcula el costo de insumos por unidad cosechada de cada producto de una finca, sobre las
+   * producciones ya cosechadas. Lee solo el índice {@code (id_finca, id_producto)} y las filas de
+   * la finca.
+   *
+   * @param idFinca Identificador de la finca.
+   * @return Totales por producto; el costo por unidad se calcula aparte.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.CostoProductoDTO("
+          + "c.idProducto, COUNT(c), SUM(c.costoInsumos), SUM(c.cantidadCosechada))"
+          + " FROM CostoProduccion c WHERE c.idFinca = :idFinca AND c.cantidadCosechada > 0"
+          + " GROUP BY c.idProducto ORDER BY c.idProducto")
+  List<CostoProductoDTO> costosPorProducto(@Param("idFinca") Integer idFinca);
+
+  /**
+   * Elimina el detalle por insumo del costo de una producción.
+   *
+   * @param idProduccion Identificador de la producción.
+   * @return Filas eliminadas.
+   */
+  @Modifying
+  @Query("DELETE FROM CostoProduccionInsumo c WHERE c.idProduccion = :idProduccion")
+  int eliminarInsumos(@Param("idProduccion") Integer idProduccion);
+}
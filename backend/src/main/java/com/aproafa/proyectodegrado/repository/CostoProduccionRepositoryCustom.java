@@ -0,0 +1,45 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.CostoProduccion;
+import com.aproafa.proyectodegrado.model.entity.CostoProduccionInsumo;
+import java.math.BigDecimal;
+import java.util.List;
+
+/** Operaciones de mantenimiento del costo de producción que no cubre Spring Data JPA. */
+public interface CostoProduccionRepositoryCustom {
+
+  /**
+   * Crea o actualiza el registro de costo de varias producciones con su producto, finca y cantidad
+   * cosechada, en un solo lote de sentencias. El costo acumulado de las existentes no cambia.
+   *
+   * @param producciones Datos de cada producción; el costo de insumos se ignora.
+   */
+  void registrarProducciones(List<CostoProduccion> producciones);
+
+  /**
+   * Suma cantidades y costos de insumos a las producciones, en un lote de sentencias para el
+   * detalle por insumo y otro para los totales. Los registros de las producciones deben existir.
+   *
+   * @param diferencias Cantidad y costo a sumar por producción e insumo; pueden ser negativos.
+   */
+  void acumularInsumos(List<CostoProduccionInsumo> diferencias);
+
+  /**
+   * Revalúa al precio indicado el costo de un insumo en las producciones no cosechadas, ajustando
+   * también sus totales.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param precio Precio unitario vigente.
+   * @return Cantidad de producciones revaluadas.
+   */
+  int revalorar(int idInsumo, BigDecimal precio);
+
+  /**
+   * Reconstruye todo el costo de producción a partir de los usos registrados, valorados al precio
+   * promedio vigente de cada insumo. Los insumos sin precio promedio lo toman antes del promedio
+   * ponderado de sus compras.
+   *
+   * @return Cantidad de producciones con costo.
+   */
+  int reconstruir();
+}
@@ -0,0 +1,137 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.CostoProduccion;
+import com.aproafa.proyectodegrado.model.entity.CostoProduccionInsumo;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Actualiza el libro de costos de producción con sentencias JDBC en lote. */
+public class CostoProduccionRepositoryImpl implements CostoProduccionRepositoryCustom {
+
+  private static final String SQL_REGISTRAR_PRODUCCION =
+      "INSERT INTO costo_produccion"
+          + " (id_produccion, id_producto, id_finca, costo_insumos, cantidad_cosechada)"
+          + " VALUES (?, ?, ?, 0, ?)"
+          + " ON DUPLICATE KEY UPDATE id_producto = VALUES(id_producto),"
+          + " id_finca = VALUES(id_finca), cantidad_cosechada = VALUES(cantidad_cosechada)";
+
+  private static final String SQL_ACUMULAR_INSUMO =
+      "INSERT INTO costo_produccion_insumo (id_produccion, id_insumo, cantidad, costo)"
+          + " VALUES (?, ?, ?, ?)"
+          + " ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad),"
+          + " costo = costo + VALUES(costo)";
+
+  private static final String SQL_ACUMULAR_TOTAL =
+      "UPDATE costo_produccion SET costo_insumos = costo_insumos + ? WHERE id_produccion = ?";
+
+  /** Ajusta los totales antes de revaluar el detalle, usando el costo anterior del insumo. */
+  private static final String SQL_REVALORAR_TOTALES =
+      "UPDATE costo_produccion t"
+          + " JOIN costo_produccion_insumo c ON c.id_produccion = t.id_produccion"
+          + " JOIN produccion p ON p.id_produccion = t.id_produccion"
+          + " SET t.costo_insumos = t.costo_insumos + (c.cantidad * ? - c.costo)"
+          + " WHERE c.id_insumo = ? AND p.estado <> 'COSECHADO'";
+
+  private static final String SQL_REVALORAR_INSUMOS =
+      "UPDATE costo_produccion_insumo c"
+          + " JOIN produccion p ON p.id_produccion = c.id_produccion"
+          + " SET c.costo = c.cantidad * ?"
+          + " WHERE c.id_insumo = ? AND p.estado <> 'COSECHADO'";
+
+  private static final String SQL_PRECIOS_DESDE_COMPRAS =
+      "UPDATE insumo i"
+          + " JOIN (SELECT id_insumo, SUM(cantidad * precio_unitario) / SUM(cantidad) AS precio"
+          + " FROM compra_insumo GROUP BY id_insumo HAVING SUM(cantidad) > 0) c"
+          + " ON c.id_insumo = i.id_insumo"
+          + " SET i.precio_promedio = c.precio WHERE i.precio_promedio IS NULL";
+
+  private static final String SQL_RECONSTRUIR_INSUMOS =
+      "INSERT INTO costo_produccion_insumo (id_produccion, id_insumo, cantidad, costo)"
+          + " SELECT u.id_produccion, u.id_insumo, SUM(u.cantidad),"
+          + " SUM(u.cantidad) * COALESCE(MAX(i.precio_promedio), 0)"
+          + " FROM uso_insumo_produccion u JOIN insumo i ON i.id_insumo = u.id_insumo"
+          + " GROUP BY u.id_produccion, u.id_insumo";
+
+  private static final String SQL_RECONSTRUIR_TOTALES =
+      "INSERT INTO costo_produccion"
+          + " (id_produccion, id_producto, id_finca, costo_insumos, cantidad_cosechada)"
+          + " SELECT p.id_produccion, p.id_producto, p.id_finca, COALESCE(SUM(c.costo), 0),"
+          + " p.cantidad_cosechada"
+          + " FROM produccion p"
+          + " LEFT JOIN costo_produccion_insumo c ON c.id_produccion = p.id_produccion"
+          + " GROUP BY p.id_produccion, p.id_producto, p.id_finca, p.cantidad_cosechada";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public CostoProduccionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public void registrarProducciones(List<CostoProduccion> producciones) {
+    if (producciones == null || producciones.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(
+        SQL_REGISTRAR_PRODUCCION,
+        producciones,
+        producciones.size(),
+        (ps, produccion) -> {
+          ps.setInt(1, produccion.getIdProduccion());
+          ps.setInt(2, produccion.getIdProducto());
+          ps.setInt(3, produccion.getIdFinca());
+          ps.setBigDecimal(4, produccion.getCantidadCosechada());
+        });
+  }
+
+  @Override
+  public void acumularInsumos(List<CostoProduccionInsumo> diferencias) {
+    if (diferencias == null || diferencias.isEmpty()) {
+      return;
+    }
+
+    Map<Integer, BigDecimal> totales = new LinkedHashMap<>();
+    for (CostoProduccionInsumo diferencia : diferencias) {
+      totales.merge(diferencia.getIdProduccion(), diferencia.getCosto(), BigDecimal::add);
+    }
+
+    jdbcTemplate.batchUpdate(
+        SQL_ACUMULAR_INSUMO,
+        diferencias,
+        diferencias.size(),
+        (ps, diferencia) -> {
+          ps.setInt(1, diferencia.getIdProduccion());
+          ps.setInt(2, diferencia.getIdInsumo());
+          ps.setBigDecimal(3, diferencia.getCantidad());
+          ps.setBigDecimal(4, diferencia.getCosto());
+        });
+    jdbcTemplate.batchUpdate(
+        SQL_ACUMULAR_TOTAL,
+        new ArrayList<>(totales.entrySet()),
+        totales.size(),
+        (ps, total) -> {
+          ps.setBigDecimal(1, total.getValue());
+          ps.setInt(2, total.getKey());
+        });
+  }
+
+  @Override
+  public int revalorar(int idInsumo, BigDecimal precio) {
+    int producciones = jdbcTemplate.update(SQL_REVALORAR_TOTALES, precio, idInsumo);
+    jdbcTemplate.update(SQL_REVALORAR_INSUMOS, precio, idInsumo);
+    return producciones;
+  }
+
+  @Override
+  public int reconstruir() {
+    jdbcTemplate.update(SQL_PRECIOS_DESDE_COMPRAS);
+    jdbcTemplate.update("DELETE FROM costo_produccion_insumo");
+    jdbcTemplate.update("DELETE FROM costo_produccion");
+    jdbcTemplate.update(SQL_RECONSTRUIR_INSUMOS);
+    return jdbcTemplate.update(SQL_RECONSTRUIR_TOTALES);
+  }
+}
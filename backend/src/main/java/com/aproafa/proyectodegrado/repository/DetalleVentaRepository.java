@@ -10,7 +10,8 @@ import org.springframework.stereotype.Repository;
 
 /** Repositorio para operaciones de persistencia de detalles de venta. */
 @Repository
-public interface DetalleVentaRepository extends JpaRepository<DetalleVenta, Integer> {
+public interface DetalleVentaRepository
+    extends JpaRepository<DetalleVenta, Integer>, DetalleVentaRepositoryCustom {
 
   List<DetalleVenta> findByVenta_IdVenta(Integer idVenta);
 
@@ -18,6 +19,19 @@ public interface DetalleVentaRepository extends JpaRepository<DetalleVenta, Inte
   @Query("DELETE FROM DetalleVenta d WHERE d.venta.idVenta = :idVenta")
   void deleteByVenta_IdVenta(@Param("idVenta") Integer idVenta);
 
+  /**
+   * Agrupa los detalles de una venta por producto.
+   *
+   * @param idVenta Identificador de la venta.
+   * @return Filas {@code [idProducto, cantidad total, subtotal total]}.
+   */
+  @Query(
+      "SELECT p.producto.idProducto, SUM(d.cantidad), SUM(d.precioUnitario * d.cantidad)"
+          + " FROM DetalleVenta d JOIN d.produccion p"
+          + " WHERE d.idVenta = :idVenta"
+          + " GROUP BY p.producto.idProducto")
+  List<Object[]> resumirPorProducto(@Param("idVenta") Integer idVenta);
+
   // Nuevo: buscar por producción
   List<DetalleVenta> findByIdProduccion(Integer idProduccion);
 }
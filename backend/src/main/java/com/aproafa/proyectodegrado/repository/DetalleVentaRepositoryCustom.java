@@ -0,0 +1,21 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.DetalleVenta;
+import java.util.List;
+
+/** Operaciones de escritura masiva sobre los detalles de venta que no cubre Spring Data JPA. */
+public interface DetalleVentaRepositoryCustom {
+
+  /**
+   * Inserta los detalles de una venta mediante sentencias JDBC agrupadas en lotes, dentro de la
+   * transacción activa.
+   *
+   * <p>A diferencia de {@code save}, que con identificadores {@code IDENTITY} obliga a un viaje a
+   * la base de datos por cada fila, este método envía todas las filas en uno o pocos lotes. Los
+   * identificadores generados no se asignan a las entidades recibidas.
+   *
+   * @param detalles Detalles a insertar; cada uno debe tener su {@code idVenta}.
+   * @return Cantidad de filas insertadas.
+   */
+  int insertarEnLote(List<DetalleVenta> detalles);
+}
@@ -0,0 +1,45 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.DetalleVenta;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Inserta los detalles de una venta con una sola sentencia JDBC por lote. */
+public class DetalleVentaRepositoryImpl implements DetalleVentaRepositoryCustom {
+
+  private static final String SQL_INSERTAR =
+      "INSERT INTO detalle_venta (id_venta, id_produccion, cantidad, precio_unitario)"
+          + " VALUES (?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final int tamanoLote;
+
+  public DetalleVentaRepositoryImpl(
+      JdbcTemplate jdbcTemplate, @Value("${ventas.detalles.tamano-lote:500}") int tamanoLote) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tamanoLote = tamanoLote;
+  }
+
+  @Override
+  public int insertarEnLote(List<DetalleVenta> detalles) {
+    if (detalles == null || detalles.isEmpty()) {
+      return 0;
+    }
+
+    // Con rewriteBatchedStatements el controlador puede devolver SUCCESS_NO_INFO por fila, así que
+    // el conteo se toma de la entrada y no de los resultados del lote.
+    jdbcTemplate.batchUpdate(
+        SQL_INSERTAR,
+        detalles,
+        tamanoLote,
+        (ps, detalle) -> {
+          ps.setInt(1, detalle.getIdVenta());
+          ps.setInt(2, detalle.getIdProduccion());
+          ps.setInt(3, detalle.getCantidad());
+          ps.setBigDecimal(4, detalle.getPrecioUnitario());
+        });
+    return detalles.size();
+  }
+}
@@ -1,20 +1,26 @@
 package com.aproafa.proyectodegrado.repository;
 
+import com.aproafa.proyectodegrado.model.dto.HistorialInsumoDTO;
 import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repositorio para la entidad {@link HistorialInsumo}.
  *
  * <p>Proporciona operaciones CRUD estándar a través de {@link JpaRepository}, además de una
- * consulta personalizada para obtener el historial de uso de un insumo específico.
+ * consulta paginada por cursor del historial de uso de un insumo específico.
  *
  * <p>Autor: Anderson Zuluaga
  */
 @Repository
-public interface HistorialInsumoRepository extends JpaRepository<HistorialInsumo, Integer> {
+public interface HistorialInsumoRepository
+    extends JpaRepository<HistorialInsumo, Integer>, HistorialInsumoRepositoryCustom {
 
   /**
    * Busca una lista de registros de historial de insumos asociados a un insumo específico.
@@ -24,4 +30,35 @@ public interface HistorialInsumoRepository extends JpaRepository<HistorialInsumo
    *     especificado.
    */
   List<HistorialInsumo> findByInsumoIdInsumo(int idInsumo);
+
+  /**
+   * Obtiene una página del historial de un insumo, del uso más reciente al más antiguo, usando
+   * paginación por cursor. El índice {@code (id_insumo, fecha_uso, id)} permite leer solo las filas
+   * de la página.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param desde Fecha y hora inicial, inclusiva ({@code null} para no limitar).
+   * @param hasta Fecha y hora final, exclusiva ({@code null} para no limitar).
+   * @param fechaCursor Fecha del último registro ya entregado, o {@code null} en la primera página.
+   * @param idCursor Identificador del último registro ya entregado.
+   * @param pageable Límite de resultados; solo se usa su tamaño.
+   * @return Registros de la página en orden descendente.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.HistorialInsumoDTO("
+          + "h.idHistorial, h.insumo.idInsumo, h.cantidadUtilizada, h.fechaUso)"
+          + " FROM HistorialInsumo h"
+          + " WHERE h.insumo.idInsumo = :idInsumo"
+          + " AND (:desde IS NULL OR h.fechaUso >= :desde)"
+          + " AND (:hasta IS NULL OR h.fechaUso < :hasta)"
+          + " AND (:fechaCursor IS NULL OR h.fechaUso < :fechaCursor"
+          + " OR (h.fechaUso = :fechaCursor AND h.idHistorial < :idCursor))"
+          + " ORDER BY h.fechaUso DESC, h.idHistorial DESC")
+  List<HistorialInsumoDTO> buscarPagina(
+      @Param("idInsumo") Integer idInsumo,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta,
+      @Param("fechaCursor") LocalDateTime fechaCursor,
+      @Param("idCursor") Integer idCursor,
+      Pageable pageable);
 }
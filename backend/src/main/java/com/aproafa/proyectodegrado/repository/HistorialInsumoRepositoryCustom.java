@@ -0,0 +1,26 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
+import java.util.List;
+
+/** Operaciones de escritura masiva sobre el historial de insumos que no cubre Spring Data JPA. */
+public interface HistorialInsumoRepositoryCustom {
+
+  /**
+   * Inserta registros de historial mediante sentencias JDBC agrupadas en lotes, dentro de la
+   * transacción activa. Los identificadores generados no se asignan a las entidades recibidas.
+   *
+   * @param registros Registros a insertar; de cada insumo solo se usa su identificador.
+   * @return Cantidad de filas insertadas.
+   */
+  int insertarEnLote(List<HistorialInsumo> registros);
+
+  /**
+   * Suma los registros de historial a los consumos diarios y mensuales. Los registros se agrupan
+   * primero en memoria por insumo y día y por insumo y mes, de modo que se envía un solo lote de
+   * sentencias por tabla sin importar cuántos registros sean.
+   *
+   * @param registros Registros ya insertados en el historial.
+   */
+  void acumularConsumos(List<HistorialInsumo> registros);
+}
@@ -0,0 +1,117 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Escribe el historial de insumos y sus consumos acumulados con sentencias JDBC en lote. */
+public class HistorialInsumoRepositoryImpl implements HistorialInsumoRepositoryCustom {
+
+  private static final String SQL_INSERTAR =
+      "INSERT INTO historial_insumo (id_insumo, cantidad_utilizada, fecha_uso) VALUES (?, ?, ?)";
+
+  private static final String SQL_ACUMULAR_DIARIO =
+      "INSERT INTO consumo_insumo_diario (id_insumo, fecha, usos, cantidad) VALUES (?, ?, ?, ?)"
+          + " ON DUPLICATE KEY UPDATE usos = usos + VALUES(usos),"
+          + " cantidad = cantidad + VALUES(cantidad)";
+
+  private static final String SQL_ACUMULAR_MENSUAL =
+      "INSERT INTO consumo_insumo_mensual (id_insumo, anio, mes, usos, cantidad)"
+          + " VALUES (?, ?, ?, ?, ?)"
+          + " ON DUPLICATE KEY UPDATE usos = usos + VALUES(usos),"
+          + " cantidad = cantidad + VALUES(cantidad)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final int tamanoLote;
+
+  public HistorialInsumoRepositoryImpl(
+      JdbcTemplate jdbcTemplate, @Value("${insumos.historial.tamano-lote:500}") int tamanoLote) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tamanoLote = tamanoLote;
+  }
+
+  @Override
+  public int insertarEnLote(List<HistorialInsumo> registros) {
+    if (registros == null || registros.isEmpty()) {
+      return 0;
+    }
+
+    // Con rewriteBatchedStatements el conteo por fila no es confiable; se toma de la entrada
+    jdbcTemplate.batchUpdate(
+        SQL_INSERTAR,
+        registros,
+        tamanoLote,
+        (ps, registro) -> {
+          ps.setInt(1, registro.getInsumo().getIdInsumo());
+          ps.setBigDecimal(2, registro.getCantidadUtilizada());
+          ps.setTimestamp(3, Timestamp.valueOf(registro.getFechaUso()));
+        });
+    return registros.size();
+  }
+
+  @Override
+  public void acumularConsumos(List<HistorialInsumo> registros) {
+    if (registros == null || registros.isEmpty()) {
+      return;
+    }
+
+    // El día se agrupa como (insumo, fecha) y el mes como (insumo, primer día del mes)
+    Map<ClaveConsumo, Consumo> diarios = new LinkedHashMap<>();
+    Map<ClaveConsumo, Consumo> mensuales = new LinkedHashMap<>();
+    for (HistorialInsumo registro : registros) {
+      Integer idInsumo = registro.getInsumo().getIdInsumo();
+      LocalDate dia = registro.getFechaUso().toLocalDate();
+      diarios
+          .computeIfAbsent(new ClaveConsumo(idInsumo, dia), k -> new Consumo())
+          .sumar(registro.getCantidadUtilizada());
+      mensuales
+          .computeIfAbsent(new ClaveConsumo(idInsumo, dia.withDayOfMonth(1)), k -> new Consumo())
+          .sumar(registro.getCantidadUtilizada());
+    }
+
+    jdbcTemplate.batchUpdate(
+        SQL_ACUMULAR_DIARIO,
+        new ArrayList<>(diarios.entrySet()),
+        tamanoLote,
+        (ps, fila) -> {
+          ps.setInt(1, fila.getKey().idInsumo());
+          ps.setDate(2, Date.valueOf(fila.getKey().fecha()));
+          ps.setLong(3, fila.getValue().usos);
+          ps.setBigDecimal(4, fila.getValue().cantidad);
+        });
+    jdbcTemplate.batchUpdate(
+        SQL_ACUMULAR_MENSUAL,
+        new ArrayList<>(mensuales.entrySet()),
+        tamanoLote,
+        (ps, fila) -> {
+          ps.setInt(1, fila.getKey().idInsumo());
+          ps.setInt(2, fila.getKey().fecha().getYear());
+          ps.setInt(3, fila.getKey().fecha().getMonthValue());
+          ps.setLong(4, fila.getValue().usos);
+          ps.setBigDecimal(5, fila.getValue().cantidad);
+        });
+  }
+
+  /** Insumo y día (o primer día del mes) de un consumo acumulado. */
+  private record ClaveConsumo(Integer idInsumo, LocalDate fecha) {}
+
+  /** Usos y cantidad acumulados de una clave. */
+  private static class Consumo {
+    private long usos;
+    private BigDecimal cantidad = BigDecimal.ZERO;
+
+    private void sumar(BigDecimal valor) {
+      usos++;
+      cantidad = cantidad.add(valor);
+    }
+  }
+}
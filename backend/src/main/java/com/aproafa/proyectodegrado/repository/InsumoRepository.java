@@ -1,9 +1,18 @@
 package com.aproafa.proyectodegrado.repository;
 
+import com.aproafa.proyectodegrado.model.dto.AlertaStockDTO;
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
 import com.aproafa.proyectodegrado.model.entity.Insumo;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repositorio para la entidad {@link Insumo}.
@@ -14,7 +23,7 @@ import org.springframework.stereotype.Repository;
  * <p>Autor: Anderson Zuluaga
  */
 @Repository
-public interface InsumoRepository extends JpaRepository<Insumo, Integer> {
+public interface InsumoRepository extends JpaRepository<Insumo, Integer>, InsumoRepositoryCustom {
 
   /**
    * Busca una lista de insumos asociados a un proveedor específico.
@@ -25,4 +34,173 @@ public interface InsumoRepository extends JpaRepository<Insumo, Integer> {
   List<Insumo> findByProveedorIdProveedor(int idProveedor);
 
   List<Insumo> findByFinca_Id(Integer idFinca);
+
+  /**
+   * Busca los insumos cuya cantidad disponible es inferior a un límite. El proveedor se carga en la
+   * misma consulta.
+   *
+   * @param limite El límite de stock.
+   * @return Los insumos con stock inferior al límite, de menor a mayor cantidad.
+   */
+  @EntityGraph(attributePaths = "proveedor")
+  @Query(
+      "SELECT i FROM Insumo i WHERE i.cantidadDisponible < :limite"
+          + " ORDER BY i.cantidadDisponible ASC")
+  List<Insumo> buscarBajoStock(@Param("limite") BigDecimal limite);
+
+  /**
+   * Busca los insumos de una finca cuya cantidad disponible es inferior a un límite, usando el
+   * índice {@code (id_finca, cantidad_disponible)}. El proveedor se carga en la misma consulta.
+   *
+   * @param idFinca El identificador de la finca.
+   * @param limite El límite de stock.
+   * @return Los insumos con stock inferior al límite, de menor a mayor cantidad.
+   */
+  @EntityGraph(attributePaths = "proveedor")
+  @Query(
+      "SELECT i FROM Insumo i WHERE i.finca.id = :idFinca AND i.cantidadDisponible < :limite"
+          + " ORDER BY i.cantidadDisponible ASC")
+  List<Insumo> buscarBajoStockPorFinca(
+      @Param("idFinca") Integer idFinca, @Param("limite") BigDecimal limite);
+
+  /**
+   * Busca los insumos de una finca que están en su punto de reorden o por debajo de él. Los insumos
+   * sin punto de reorden no se incluyen. El proveedor se carga en la misma consulta.
+   *
+   * @param idFinca El identificador de la finca.
+   * @return Los insumos con stock bajo, de menor a mayor cantidad.
+   */
+  @EntityGraph(attributePaths = "proveedor")
+  @Query(
+      "SELECT i FROM Insumo i WHERE i.finca.id = :idFinca"
+          + " AND i.puntoReorden IS NOT NULL AND i.cantidadDisponible <= i.puntoReorden"
+          + " ORDER BY i.cantidadDisponible ASC")
+  List<Insumo> buscarBajoPuntoReorden(@Param("idFinca") Integer idFinca);
+
+  /**
+   * Obtiene las alertas de stock vigentes de una finca: los insumos en su punto de reorden o por
+   * debajo de él.
+   *
+   * @param idFinca El identificador de la finca.
+   * @return Las alertas, de menor a mayor cantidad disponible.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.AlertaStockDTO("
+          + "i.idInsumo, i.finca.id, i.nombre, i.cantidadDisponible, i.puntoReorden)"
+          + " FROM Insumo i WHERE i.finca.id = :idFinca"
+          + " AND i.puntoReorden IS NOT NULL AND i.cantidadDisponible <= i.puntoReorden"
+          + " ORDER BY i.cantidadDisponible ASC")
+  List<AlertaStockDTO> buscarAlertasPorFinca(@Param("idFinca") Integer idFinca);
+
+  /**
+   * Determina si un descuento recién aplicado hizo que el insumo cruzara su punto de reorden: la
+   * cantidad actual está en el punto o por debajo, y la cantidad antes del descuento estaba por
+   * encima. Debe llamarse en la misma transacción que el descuento, mientras la fila sigue
+   * bloqueada por el {@code UPDATE}.
+   *
+   * @param idInsumo El identificador del insumo.
+   * @param cantidad La cantidad que se acaba de descontar.
+   * @return La alerta si el insumo cruzó su punto de reorden; vacío en otro caso.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.AlertaStockDTO("
+          + "i.idInsumo, i.finca.id, i.nombre, i.cantidadDisponible, i.puntoReorden)"
+          + " FROM Insumo i WHERE i.idInsumo = :idInsumo"
+          + " AND i.puntoReorden IS NOT NULL AND i.cantidadDisponible <= i.puntoReorden"
+          + " AND i.cantidadDisponible + :cantidad > i.puntoReorden")
+  Optional<AlertaStockDTO> buscarCruceUmbral(
+      @Param("idInsumo") int idInsumo, @Param("cantidad") BigDecimal cantidad);
+
+  /**
+   * Obtiene el stock de un insumo sin cargar la entidad ni su proveedor.
+   *
+   * @param idInsumo El identificador del insumo.
+   * @return El stock del insumo, o vacío si no existe.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.StockInsumoDTO("
+          + "i.idInsumo, i.finca.id, i.nombre, i.cantidadDisponible, i.puntoReorden)"
+          + " FROM Insumo i WHERE i.idInsumo = :idInsumo")
+  Optional<StockInsumoDTO> buscarStock(@Param("idInsumo") int idInsumo);
+
+  /**
+   * Obtiene el stock de los insumos de una finca sin cargar las entidades ni sus proveedores.
+   *
+   * @param idFinca El identificador de la finca.
+   * @return El stock de cada insumo de la finca.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.StockInsumoDTO("
+          + "i.idInsumo, i.finca.id, i.nombre, i.cantidadDisponible, i.puntoReorden)"
+          + " FROM Insumo i WHERE i.finca.id = :idFinca")
+  List<StockInsumoDTO> buscarStockPorFinca(@Param("idFinca") Integer idFinca);
+
+  /**
+   * Descuenta stock de un insumo en una sola sentencia, solo si la cantidad disponible alcanza.
+   *
+   * <p>La validación y la resta ocurren en la base de datos dentro del mismo {@code UPDATE}, por lo
+   * que dos usos concurrentes del mismo insumo no pueden dejar el stock en negativo ni perder una
+   * actualización. La entidad que ya esté cargada en el contexto de persistencia no se actualiza;
+   * no debe guardarse después.
+   *
+   * @param idInsumo El identificador del insumo.
+   * @param cantidad La cantidad a descontar.
+   * @return 1 si se descontó, 0 si el insumo no existe o el stock es insuficiente.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE Insumo i SET i.cantidadDisponible = i.cantidadDisponible - :cantidad"
+          + " WHERE i.idInsumo = :idInsumo AND i.cantidadDisponible >= :cantidad")
+  int descontarStock(@Param("idInsumo") int idInsumo, @Param("cantidad") BigDecimal cantidad);
+
+  /**
+   * Suma stock a un insumo en una sola sentencia, sin leerlo antes.
+   *
+   * @param idInsumo El identificador del insumo.
+   * @param cantidad La cantidad a sumar.
+   * @return 1 si se actualizó, 0 si el insumo no existe.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE Insumo i SET i.cantidadDisponible = i.cantidadDisponible + :cantidad"
+          + " WHERE i.idInsumo = :idInsumo")
+  int sumarStock(@Param("idInsumo") int idInsumo, @Param("cantidad") BigDecimal cantidad);
+
+  /**
+   * Registra la compra de un insumo en una sola sentencia: suma la cantidad comprada al stock y
+   * recalcula el precio promedio ponderado con el precio pagado. Si el insumo no tenía precio o no
+   * tenía stock, el precio promedio pasa a ser el de la compra.
+   *
+   * <p>MySQL evalúa las asignaciones de izquierda a derecha, por lo que el precio se calcula con la
+   * cantidad anterior a la compra.
+   *
+   * @param idInsumo El identificador del insumo.
+   * @param cantidad La cantidad comprada.
+   * @param precioUnitario El precio unitario pagado.
+   * @return 1 si se actualizó, 0 si el insumo no existe.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE Insumo i SET i.precioPromedio = CASE"
+          + " WHEN i.precioPromedio IS NULL OR i.cantidadDisponible <= 0 THEN :precioUnitario"
+          + " ELSE (i.cantidadDisponible * i.precioPromedio + :cantidad * :precioUnitario)"
+          + " / (i.cantidadDisponible + :cantidad) END,"
+          + " i.cantidadDisponible = i.cantidadDisponible + :cantidad"
+          + " WHERE i.idInsumo = :idInsumo")
+  int registrarCompra(
+      @Param("idInsumo") int idInsumo,
+      @Param("cantidad") BigDecimal cantidad,
+      @Param("precioUnitario") BigDecimal precioUnitario);
+
+  /**
+   * Obtiene el precio promedio ponderado de un insumo.
+   *
+   * @param idInsumo El identificador del insumo.
+   * @return El precio promedio, o vacío si el insumo no existe o no tiene precio.
+   */
+  @Query("SELECT i.precioPromedio FROM Insumo i WHERE i.idInsumo = :idInsumo")
+  Optional<BigDecimal> buscarPrecioPromedio(@Param("idInsumo") int idInsumo);
 }
@@ -0,0 +1,30 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/** Operaciones sobre el stock de varios insumos a la vez que no cubre Spring Data JPA. */
+public interface InsumoRepositoryCustom {
+
+  /**
+   * Lee y bloquea ({@code SELECT ... FOR UPDATE}) el stock de varios insumos en una sola consulta,
+   * dentro de la transacción activa.
+   *
+   * <p>Las filas se bloquean en orden ascendente de identificador, de modo que dos transacciones
+   * que bloquean conjuntos de insumos que se solapan no pueden quedar esperándose mutuamente.
+   *
+   * @param idsInsumo Identificadores de los insumos.
+   * @return Stock de cada insumo encontrado, por identificador; los inexistentes no se incluyen.
+   */
+  Map<Integer, StockInsumoDTO> bloquearStock(Collection<Integer> idsInsumo);
+
+  /**
+   * Asigna la cantidad disponible de varios insumos en un solo lote de sentencias. Solo debe usarse
+   * sobre filas bloqueadas con {@link #bloquearStock} en la misma transacción.
+   *
+   * @param cantidades Nueva cantidad disponible por identificador de insumo.
+   */
+  void actualizarCantidades(Map<Integer, BigDecimal> cantidades);
+}
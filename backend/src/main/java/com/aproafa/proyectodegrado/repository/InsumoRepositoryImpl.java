@@ -0,0 +1,71 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Bloquea y actualiza el stock de varios insumos con una sentencia JDBC por operación. */
+public class InsumoRepositoryImpl implements InsumoRepositoryCustom {
+
+  private static final String SQL_ACTUALIZAR =
+      "UPDATE insumo SET cantidad_disponible = ? WHERE id_insumo = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public InsumoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Map<Integer, StockInsumoDTO> bloquearStock(Collection<Integer> idsInsumo) {
+    if (idsInsumo == null || idsInsumo.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<Integer> ids = new ArrayList<>(new TreeSet<>(idsInsumo));
+    String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+    // ORDER BY sobre la clave primaria hace que InnoDB recorra y bloquee las filas en orden
+    Map<Integer, StockInsumoDTO> stock = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "SELECT id_insumo, id_finca, nombre, cantidad_disponible, punto_reorden, precio_promedio"
+            + " FROM insumo"
+            + " WHERE id_insumo IN ("
+            + marcadores
+            + ") ORDER BY id_insumo FOR UPDATE",
+        rs -> {
+          StockInsumoDTO fila =
+              new StockInsumoDTO(
+                  rs.getInt("id_insumo"),
+                  rs.getInt("id_finca"),
+                  rs.getString("nombre"),
+                  rs.getBigDecimal("cantidad_disponible"),
+                  rs.getBigDecimal("punto_reorden"),
+                  rs.getBigDecimal("precio_promedio"));
+          stock.put(fila.getIdInsumo(), fila);
+        },
+        ids.toArray());
+    return stock;
+  }
+
+  @Override
+  public void actualizarCantidades(Map<Integer, BigDecimal> cantidades) {
+    if (cantidades == null || cantidades.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(
+        SQL_ACTUALIZAR,
+        new ArrayList<>(cantidades.entrySet()),
+        cantidades.size(),
+        (ps, cantidad) -> {
+          ps.setBigDecimal(1, cantidad.getValue());
+          ps.setInt(2, cantidad.getKey());
+        });
+  }
+}
@@ -1,13 +1,19 @@
 package com.aproafa.proyectodegrado.repository;
 
 import com.aproafa.proyectodegrado.model.entity.InventarioProducto;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** Repositorio para acceder a datos del inventario de productos. */
 @Repository
-public interface InventarioProductoRepository extends JpaRepository<InventarioProducto, Integer> {
+public interface InventarioProductoRepository
+    extends JpaRepository<InventarioProducto, Integer>, InventarioProductoRepositoryCustom {
 
   /**
    * Busca el inventario correspondiente a un producto por su ID.
@@ -16,4 +22,50 @@ public interface InventarioProductoRepository extends JpaRepository<InventarioPr
    * @return Inventario del producto si existe.
    */
   Optional<InventarioProducto> findByProducto_IdProducto(Integer idProducto);
+
+  /**
+   * Indica si un producto tiene inventario.
+   *
+   * @param idProducto ID del producto.
+   * @return {@code true} si existe el inventario del producto.
+   */
+  boolean existsByProducto_IdProducto(Integer idProducto);
+
+  /**
+   * Suma una cantidad al inventario de un producto en una sola sentencia, sin leerlo antes. La suma
+   * se hace en la base de datos, por lo que dos actualizaciones concurrentes no se pierden.
+   *
+   * @param idProducto ID del producto.
+   * @param cantidadDelta Cantidad a sumar; negativa para restar.
+   * @param fecha Fecha de actualización a registrar.
+   * @return 1 si se actualizó, 0 si el producto no tiene inventario.
+   */
+  @Modifying
+  @Query(
+      "UPDATE InventarioProducto i SET i.cantidad = i.cantidad + :cantidadDelta,"
+          + " i.fechaActualizacion = :fecha WHERE i.producto.idProducto = :idProducto")
+  int sumarCantidad(
+      @Param("idProducto") Integer idProducto,
+      @Param("cantidadDelta") BigDecimal cantidadDelta,
+      @Param("fecha") LocalDateTime fecha);
+
+  /**
+   * Reconstruye la cantidad de los productos cuyo kardex está completo (tienen movimiento de
+   * apertura) como la suma de sus movimientos, solo donde no coinciden.
+   *
+   * @param fecha Fecha de actualización a registrar.
+   * @return Productos corregidos.
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE inventario_producto i"
+              + " SET i.cantidad = (SELECT SUM(m.cantidad) FROM movimiento_inventario m"
+              + " WHERE m.id_producto = i.id_producto), i.fecha_actualizacion = :fecha"
+              + " WHERE EXISTS (SELECT 1 FROM movimiento_inventario a"
+              + " WHERE a.id_producto = i.id_producto AND a.tipo = 'APERTURA')"
+              + " AND i.cantidad <> (SELECT SUM(m.cantidad) FROM movimiento_inventario m"
+              + " WHERE m.id_producto = i.id_producto)",
+      nativeQuery = true)
+  int reconciliarConMovimientos(@Param("fecha") LocalDateTime fecha);
 }
@@ -0,0 +1,21 @@
+package com.aproafa.proyectodegrado.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/** Operaciones sobre el inventario de varios productos a la vez que no cubre Spring Data JPA. */
+public interface InventarioProductoRepositoryCustom {
+
+  /**
+   * Suma una cantidad al inventario de varios productos en un solo lote de sentencias {@code UPDATE
+   * ... SET cantidad = cantidad + ?}, en orden ascendente de producto.
+   *
+   * @param cantidadesPorProducto Cantidad a sumar por ID de producto; negativa para restar.
+   * @param fecha Fecha de actualización a registrar.
+   * @return Productos que no tienen inventario y no se actualizaron.
+   */
+  List<Integer> sumarCantidades(
+      Map<Integer, BigDecimal> cantidadesPorProducto, LocalDateTime fecha);
+}
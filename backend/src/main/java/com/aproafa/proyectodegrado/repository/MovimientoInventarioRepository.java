@@ -0,0 +1,105 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.dto.MovimientoInventarioDTO;
+import com.aproafa.proyectodegrado.model.entity.MovimientoInventario;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para los movimientos del inventario de productos {@link MovimientoInventario}. */
+@Repository
+public interface MovimientoInventarioRepository
+    extends JpaRepository<MovimientoInventario, Long>, MovimientoInventarioRepositoryCustom {
+
+  /**
+   * Obtiene una página de los movimientos de un producto, del más reciente al más antiguo, usando
+   * paginación por cursor sobre el índice {@code (id_producto, fecha, id)}.
+   *
+   * @param idProducto Identificador del producto.
+   * @param desde Fecha y hora inicial, inclusiva ({@code null} para no limitar).
+   * @param hasta Fecha y hora final, exclusiva ({@code null} para no limitar).
+   * @param fechaCursor Fecha del último movimiento ya entregado, o {@code null} en la primera
+   *     página.
+   * @param idCursor Identificador del último movimiento ya entregado.
+   * @param pageable Límite de resultados; solo se usa su tamaño.
+   * @return Movimientos de la página en orden descendente.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.MovimientoInventarioDTO("
+          + "m.idMovimiento, m.idProducto, m.tipo, m.cantidad, m.fecha, m.idReferencia)"
+          + " FROM MovimientoInventario m"
+          + " WHERE m.idProducto = :idProducto"
+          + " AND (:desde IS NULL OR m.fecha >= :desde)"
+          + " AND (:hasta IS NULL OR m.fecha < :hasta)"
+          + " AND (:fechaCursor IS NULL OR m.fecha < :fechaCursor"
+          + " OR (m.fecha = :fechaCursor AND m.idMovimiento < :idCursor))"
+          + " ORDER BY m.fecha DESC, m.idMovimiento DESC")
+  List<MovimientoInventarioDTO> buscarPagina(
+      @Param("idProducto") Integer idProducto,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta,
+      @Param("fechaCursor") LocalDateTime fechaCursor,
+      @Param("idCursor") Long idCursor,
+      Pageable pageable);
+
+  /**
+   * Suma los movimientos de un producto en un rango, recorriendo solo ese rango del índice.
+   *
+   * @param idProducto Identificador del producto.
+   * @param desde Fecha y hora inicial, inclusiva ({@code null} para no limitar).
+   * @param hasta Fecha y hora final, inclusiva.
+   * @return Una fila {@code [cantidad, movimientos]}.
+   */
+  @Query(
+      "SELECT COALESCE(SUM(m.cantidad), 0), COUNT(m) FROM MovimientoInventario m"
+          + " WHERE m.idProducto = :idProducto"
+          + " AND (:desde IS NULL OR m.fecha >= :desde) AND m.fecha <= :hasta")
+  List<Object[]> sumarRango(
+      @Param("idProducto") Integer idProducto,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta);
+
+  /**
+   * Obtiene los productos con inventario que aún no tienen movimiento de apertura.
+   *
+   * @return Identificadores de los productos.
+   */
+  @Query(
+      value =
+          "SELECT i.id_producto FROM inventario_producto i"
+              + " WHERE NOT EXISTS (SELECT 1 FROM movimiento_inventario m"
+              + " WHERE m.id_producto = i.id_producto AND m.tipo = 'APERTURA')",
+      nativeQuery = true)
+  List<Integer> buscarProductosSinApertura();
+
+  /**
+   * Registra el movimiento de apertura de los productos indicados que aún no lo tienen: la cantidad
+   * actual del inventario menos la suma de sus movimientos, con la fecha de su primer movimiento si
+   * es anterior a la indicada.
+   *
+   * @param idsProducto Productos a abrir.
+   * @param fecha Fecha y hora de la apertura de los productos sin movimientos.
+   * @return Movimientos de apertura insertados.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO movimiento_inventario (id_producto, tipo, cantidad, fecha, id_referencia)"
+              + " SELECT i.id_producto, 'APERTURA', i.cantidad - COALESCE(SUM(m.cantidad), 0),"
+              + " LEAST(:fecha, COALESCE(MIN(m.fecha), :fecha)), NULL"
+              + " FROM inventario_producto i"
+              + " LEFT JOIN movimiento_inventario m ON m.id_producto = i.id_producto"
+              + " WHERE i.id_producto IN (:idsProducto)"
+              + " AND NOT EXISTS (SELECT 1 FROM movimiento_inventario a"
+              + " WHERE a.id_producto = i.id_producto AND a.tipo = 'APERTURA')"
+              + " GROUP BY i.id_producto, i.cantidad",
+      nativeQuery = true)
+  int registrarApertura(
+      @Param("idsProducto") Collection<Integer> idsProducto, @Param("fecha") LocalDateTime fecha);
+}
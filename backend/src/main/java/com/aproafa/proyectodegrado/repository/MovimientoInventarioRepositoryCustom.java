@@ -0,0 +1,17 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.MovimientoInventario;
+import java.util.List;
+
+/** Operaciones de escritura masiva sobre los movimientos de inventario. */
+public interface MovimientoInventarioRepositoryCustom {
+
+  /**
+   * Inserta movimientos mediante sentencias JDBC agrupadas en lotes, dentro de la transacción
+   * activa. Los identificadores generados no se asignan a las entidades recibidas.
+   *
+   * @param movimientos Movimientos a insertar.
+   * @return Cantidad de filas insertadas.
+   */
+  int insertarEnLote(List<MovimientoInventario> movimientos);
+}
@@ -0,0 +1,46 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.MovimientoInventario;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Inserta movimientos del kardex con una sola sentencia JDBC por lote. */
+public class MovimientoInventarioRepositoryImpl implements MovimientoInventarioRepositoryCustom {
+
+  private static final String SQL_INSERTAR =
+      "INSERT INTO movimiento_inventario (id_producto, tipo, cantidad, fecha, id_referencia)"
+          + " VALUES (?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public MovimientoInventarioRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public int insertarEnLote(List<MovimientoInventario> movimientos) {
+    if (movimientos == null || movimientos.isEmpty()) {
+      return 0;
+    }
+
+    // Con rewriteBatchedStatements el conteo por fila no es confiable; se toma de la entrada
+    jdbcTemplate.batchUpdate(
+        SQL_INSERTAR,
+        movimientos,
+        movimientos.size(),
+        (ps, movimiento) -> {
+          ps.setInt(1, movimiento.getIdProducto());
+          ps.setString(2, movimiento.getTipo().name());
+          ps.setBigDecimal(3, movimiento.getCantidad());
+          ps.setTimestamp(4, Timestamp.valueOf(movimiento.getFecha()));
+          if (movimiento.getIdReferencia() != null) {
+            ps.setInt(5, movimiento.getIdReferencia());
+          } else {
+            ps.setNull(5, Types.INTEGER);
+          }
+        });
+    return movimientos.size();
+  }
+}
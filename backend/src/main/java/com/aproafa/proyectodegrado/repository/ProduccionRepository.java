@@ -1,8 +1,13 @@
 package com.aproafa.proyectodegrado.repository;
 
+import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
 import com.aproafa.proyectodegrado.model.entity.Produccion;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -16,7 +21,8 @@ import org.springframework.stereotype.Repository;
  * <p>Autor: Anderson Zuluaga
  */
 @Repository
-public interface ProduccionRepository extends JpaRepository<Produccion, Integer> {
+public interface ProduccionRepository
+    extends JpaRepository<Produccion, Integer>, ProduccionRepositoryCustom {
 
   /**
    * Busca todas las producciones asociadas a un ID de finca específico.
@@ -29,4 +35,82 @@ public interface ProduccionRepository extends JpaRepository<Produccion, Integer>
    * @return Lista de producciones asociadas al ID de finca proporcionado.
    */
   List<Produccion> findByFinca_Id(Integer idFinca);
+
+  /**
+   * Obtiene las producciones como DTO, sin cargar las entidades ni sus relaciones. Los
+   * identificadores de producto y finca se leen de las claves foráneas, sin uniones. Los usos de
+   * insumos no se incluyen.
+   *
+   * @param idFinca Finca de las producciones ({@code null} para todas).
+   * @return Producciones ordenadas por identificador.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.ProduccionDTO("
+          + "p.idProduccion, p.producto.idProducto, p.finca.id, p.fechaSiembra, p.fechaCosecha,"
+          + " p.estado, p.cantidadCosechada)"
+          + " FROM Produccion p WHERE (:idFinca IS NULL OR p.finca.id = :idFinca)"
+          + " ORDER BY p.idProduccion")
+  List<ProduccionDTO> listarResumen(@Param("idFinca") Integer idFinca);
+
+  /**
+   * Obtiene una página de producciones como DTO, usando paginación por cursor sobre el
+   * identificador. Los usos de insumos no se incluyen.
+   *
+   * @param idFinca Finca de las producciones ({@code null} para todas).
+   * @param idCursor Identificador de la última producción ya entregada, o {@code null} en la
+   *     primera página.
+   * @param pageable Límite de resultados; solo se usa su tamaño.
+   * @return Producciones de la página en orden ascendente de identificador.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.ProduccionDTO("
+          + "p.idProduccion, p.producto.idProducto, p.finca.id, p.fechaSiembra, p.fechaCosecha,"
+          + " p.estado, p.cantidadCosechada)"
+          + " FROM Produccion p WHERE (:idFinca IS NULL OR p.finca.id = :idFinca)"
+          + " AND (:idCursor IS NULL OR p.idProduccion > :idCursor)"
+          + " ORDER BY p.idProduccion")
+  List<ProduccionDTO> buscarPagina(
+      @Param("idFinca") Integer idFinca, @Param("idCursor") Integer idCursor, Pageable pageable);
+
+  /**
+   * Calcula el rendimiento de las producciones cosechadas en un rango de años, agrupado por año,
+   * temporada (semestre de la cosecha), producto y finca. El índice {@code idx_produccion_cosecha}
+   * cubre todas las columnas usadas, por lo que la consulta recorre solo el rango de fechas del
+   * índice.
+   *
+   * @param desde Primer día del rango, inclusivo.
+   * @param hasta Día siguiente al último del rango, exclusivo.
+   * @param porSemestre {@code true} para separar cada año en dos temporadas; {@code false} para
+   *     agrupar por año (temporada 0).
+   * @param idFinca Finca ({@code null} para todas).
+   * @param idProducto Producto ({@code null} para todos).
+   * @return Filas {@code [anio, temporada, idProducto, idFinca, producciones, cantidadTotal,
+   *     cantidadPromedio, cantidadMinima, cantidadMaxima, desviacionCantidad, diasCicloPromedio,
+   *     diasCicloMinimo, diasCicloMaximo]}.
+   */
+  @Query(
+      value =
+          "SELECT YEAR(p.fecha_cosecha) AS anio,"
+              + " CASE WHEN :porSemestre THEN IF(MONTH(p.fecha_cosecha) <= 6, 1, 2) ELSE 0 END"
+              + " AS temporada,"
+              + " p.id_producto, p.id_finca, COUNT(*), SUM(p.cantidad_cosechada),"
+              + " AVG(p.cantidad_cosechada), MIN(p.cantidad_cosechada),"
+              + " MAX(p.cantidad_cosechada), STDDEV_POP(p.cantidad_cosechada),"
+              + " AVG(DATEDIFF(p.fecha_cosecha, p.fecha_siembra)),"
+              + " MIN(DATEDIFF(p.fecha_cosecha, p.fecha_siembra)),"
+              + " MAX(DATEDIFF(p.fecha_cosecha, p.fecha_siembra))"
+              + " FROM produccion p"
+              + " WHERE p.fecha_cosecha >= :desde AND p.fecha_cosecha < :hasta"
+              + " AND p.cantidad_cosechada IS NOT NULL"
+              + " AND (:idFinca IS NULL OR p.id_finca = :idFinca)"
+              + " AND (:idProducto IS NULL OR p.id_producto = :idProducto)"
+              + " GROUP BY anio, temporada, p.id_producto, p.id_finca"
+              + " ORDER BY anio, temporada, p.id_producto, p.id_finca",
+      nativeQuery = true)
+  List<Object[]> calcularRendimiento(
+      @Param("desde") LocalDate desde,
+      @Param("hasta") LocalDate hasta,
+      @Param("porSemestre") boolean porSemestre,
+      @Param("idFinca") Integer idFinca,
+      @Param("idProducto") Integer idProducto);
 }
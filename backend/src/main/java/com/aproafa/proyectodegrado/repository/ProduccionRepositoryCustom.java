@@ -0,0 +1,29 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.dto.CosechaDTO;
+import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/** Operaciones sobre varias producciones a la vez que no cubre Spring Data JPA. */
+public interface ProduccionRepositoryCustom {
+
+  /**
+   * Lee y bloquea ({@code SELECT ... FOR UPDATE}) varias producciones en una sola consulta, en
+   * orden ascendente de identificador, dentro de la transacción activa. Los usos de insumos no se
+   * incluyen.
+   *
+   * @param idsProduccion Identificadores de las producciones.
+   * @return Producciones encontradas, por identificador; las inexistentes no se incluyen.
+   */
+  Map<Integer, ProduccionDTO> bloquearProducciones(Collection<Integer> idsProduccion);
+
+  /**
+   * Marca varias producciones como cosechadas en un solo lote de sentencias. Solo debe usarse sobre
+   * filas bloqueadas con {@link #bloquearProducciones} en la misma transacción.
+   *
+   * @param cosechas Cantidad y fecha de cosecha de cada producción.
+   */
+  void registrarCosechas(List<CosechaDTO> cosechas);
+}
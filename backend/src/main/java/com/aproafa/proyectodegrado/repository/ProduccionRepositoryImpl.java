@@ -0,0 +1,78 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.dto.CosechaDTO;
+import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
+import com.aproafa.proyectodegrado.model.entity.EstadoProduccion;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Bloquea producciones y registra sus cosechas con JDBC; no actualiza las entidades ya cargadas.
+ */
+public class ProduccionRepositoryImpl implements ProduccionRepositoryCustom {
+
+  private static final String SQL_COSECHAR =
+      "UPDATE produccion SET cantidad_cosechada = ?, fecha_cosecha = ?, estado = ?"
+          + " WHERE id_produccion = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProduccionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Map<Integer, ProduccionDTO> bloquearProducciones(Collection<Integer> idsProduccion) {
+    if (idsProduccion == null || idsProduccion.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<Integer> ids = new ArrayList<>(new TreeSet<>(idsProduccion));
+    String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+    Map<Integer, ProduccionDTO> producciones = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "SELECT id_produccion, id_producto, id_finca, fecha_siembra, fecha_cosecha, estado,"
+            + " cantidad_cosechada FROM produccion WHERE id_produccion IN ("
+            + marcadores
+            + ") ORDER BY id_produccion FOR UPDATE",
+        rs -> {
+          Date fechaCosecha = rs.getDate("fecha_cosecha");
+          ProduccionDTO fila =
+              new ProduccionDTO(
+                  rs.getInt("id_produccion"),
+                  rs.getInt("id_producto"),
+                  rs.getInt("id_finca"),
+                  rs.getDate("fecha_siembra").toLocalDate(),
+                  fechaCosecha != null ? fechaCosecha.toLocalDate() : null,
+                  EstadoProduccion.valueOf(rs.getString("estado")),
+                  rs.getBigDecimal("cantidad_cosechada"));
+          producciones.put(fila.getIdProduccion(), fila);
+        },
+        ids.toArray());
+    return producciones;
+  }
+
+  @Override
+  public void registrarCosechas(List<CosechaDTO> cosechas) {
+    if (cosechas == null || cosechas.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(
+        SQL_COSECHAR,
+        cosechas,
+        cosechas.size(),
+        (ps, cosecha) -> {
+          ps.setBigDecimal(1, cosecha.getCantidadCosechada());
+          ps.setDate(2, Date.valueOf(cosecha.getFechaCosecha()));
+          ps.setString(3, EstadoProduccion.COSECHADO.name());
+          ps.setInt(4, cosecha.getIdProduccion());
+        });
+  }
+}
@@ -0,0 +1,9 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.PronosticoInsumo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para el estado del pronóstico de consumo de insumos {@link PronosticoInsumo}. */
+@Repository
+public interface PronosticoInsumoRepository extends JpaRepository<PronosticoInsumo, Integer> {}
@@ -0,0 +1,27 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.RespuestaIdempotente;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Repositorio para la entidad {@link RespuestaIdempotente}. */
+@Repository
+public interface RespuestaIdempotenteRepository
+    extends JpaRepository<RespuestaIdempotente, String> {
+
+  /**
+   * Elimina las respuestas cuya vigencia terminó.
+   *
+   * @param fecha Fecha de referencia; se eliminan las respuestas que expiran antes de ella.
+   * @return Cantidad de respuestas eliminadas.
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM RespuestaIdempotente r WHERE r.fechaExpiracion < :fecha")
+  int eliminarExpiradas(@Param("fecha") LocalDateTime fecha);
+}
@@ -0,0 +1,83 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.SaldoInventario;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para los cortes de saldo del inventario {@link SaldoInventario}. */
+@Repository
+public interface SaldoInventarioRepository extends JpaRepository<SaldoInventario, Long> {
+
+  /**
+   * Busca el corte más reciente de un producto que no sea posterior a un día.
+   *
+   * @param idProducto Identificador del producto.
+   * @param fecha Día límite, inclusivo.
+   * @return Corte encontrado, si existe.
+   */
+  Optional<SaldoInventario> findFirstByIdProductoAndFechaLessThanEqualOrderByFechaDesc(
+      Integer idProducto, LocalDate fecha);
+
+  /**
+   * Genera el corte de un día para cada producto con movimientos desde su corte anterior: el saldo
+   * de ese corte más los movimientos posteriores a él y anteriores al día. Si el corte ya existe se
+   * recalcula, por lo que la sentencia puede repetirse para incluir transacciones confirmadas
+   * tarde.
+   *
+   * @param fecha Día del corte.
+   * @param inicio Inicio del día del corte.
+   * @return Filas insertadas o actualizadas, según el conteo de MySQL.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO saldo_inventario (id_producto, fecha, cantidad)"
+              + " SELECT m.id_producto, :fecha, COALESCE(s.cantidad, 0) + SUM(m.cantidad)"
+              + " FROM movimiento_inventario m"
+              + " LEFT JOIN saldo_inventario s ON s.id_producto = m.id_producto"
+              + " AND s.fecha = (SELECT MAX(a.fecha) FROM saldo_inventario a"
+              + " WHERE a.id_producto = m.id_producto AND a.fecha < :fecha)"
+              + " WHERE m.fecha < :inicio AND (s.fecha IS NULL OR m.fecha >= s.fecha)"
+              + " GROUP BY m.id_producto, s.cantidad"
+              + " ON DUPLICATE KEY UPDATE cantidad = VALUES(cantidad)",
+      nativeQuery = true)
+  int generarCorte(@Param("fecha") LocalDate fecha, @Param("inicio") LocalDateTime inicio);
+
+  /**
+   * Suma una cantidad a los cortes de un producto posteriores a un día, para incluir un movimiento
+   * registrado con fecha de ese día después de generarlos.
+   *
+   * @param idProducto Identificador del producto.
+   * @param dia Día del movimiento.
+   * @param cantidad Cantidad del movimiento.
+   * @return Cortes actualizados.
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE saldo_inventario SET cantidad = cantidad + :cantidad"
+              + " WHERE id_producto = :idProducto AND fecha > :dia",
+      nativeQuery = true)
+  int sumarACortesPosteriores(
+      @Param("idProducto") Integer idProducto,
+      @Param("dia") LocalDate dia,
+      @Param("cantidad") BigDecimal cantidad);
+
+  /**
+   * Elimina los cortes de varios productos.
+   *
+   * @param idsProducto Identificadores de los productos.
+   * @return Cortes eliminados.
+   */
+  @Modifying
+  @Query("DELETE FROM SaldoInventario s WHERE s.idProducto IN :idsProducto")
+  int eliminarCortes(@Param("idsProducto") Collection<Integer> idsProducto);
+}
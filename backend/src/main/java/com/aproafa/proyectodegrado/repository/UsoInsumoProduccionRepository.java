@@ -1,11 +1,41 @@
 package com.aproafa.proyectodegrado.repository;
 
 import com.aproafa.proyectodegrado.model.entity.UsoInsumoProduccion;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UsoInsumoProduccionRepository extends JpaRepository<UsoInsumoProduccion, Integer> {
   List<UsoInsumoProduccion> findByProduccionIdProduccion(Integer idProduccion);
+
+  /**
+   * Obtiene los usos de insumos de las producciones de una finca en una sola consulta, sin cargar
+   * las entidades ni los insumos.
+   *
+   * @param idFinca Finca de las producciones ({@code null} para todas).
+   * @return Filas {@code [idProduccion, idInsumo, cantidad, fecha]} ordenadas por producción.
+   */
+  @Query(
+      "SELECT u.produccion.idProduccion, u.insumo.idInsumo, u.cantidad, u.fecha"
+          + " FROM UsoInsumoProduccion u"
+          + " WHERE (:idFinca IS NULL OR u.produccion.finca.id = :idFinca)"
+          + " ORDER BY u.produccion.idProduccion, u.id")
+  List<Object[]> resumirPorFinca(@Param("idFinca") Integer idFinca);
+
+  /**
+   * Obtiene los usos de insumos de varias producciones en una sola consulta, sin cargar las
+   * entidades ni los insumos.
+   *
+   * @param idsProduccion Identificadores de las producciones.
+   * @return Filas {@code [idProduccion, idInsumo, cantidad, fecha]} ordenadas por producción.
+   */
+  @Query(
+      "SELECT u.produccion.idProduccion, u.insumo.idInsumo, u.cantidad, u.fecha"
+          + " FROM UsoInsumoProduccion u WHERE u.produccion.idProduccion IN :idsProduccion"
+          + " ORDER BY u.produccion.idProduccion, u.id")
+  List<Object[]> resumirPorProducciones(@Param("idsProduccion") Collection<Integer> idsProduccion);
 }
@@ -1,8 +1,20 @@
 package com.aproafa.proyectodegrado.repository;
 
+import com.aproafa.proyectodegrado.model.dto.LineaEstadoCuentaDTO;
+import com.aproafa.proyectodegrado.model.dto.LineaFacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.LineaVentaExportacionDTO;
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
 import com.aproafa.proyectodegrado.model.entity.Venta;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repositorio para la entidad {@link Venta}. Proporciona métodos CRUD y operaciones adicionales
@@ -16,4 +28,164 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface VentaRepository extends JpaRepository<Venta, Integer> {
 
   List<Venta> findByFinca_Id(Integer idFinca);
+
+  /**
+   * Busca una página de ventas ordenadas por {@code (fechaVenta, idVenta)} a partir de un cursor
+   * (paginación por conjunto de claves). Todos los filtros son opcionales: un parámetro en {@code
+   * null} no filtra.
+   *
+   * <p>El cursor es la última venta de la página anterior; se devuelven solo las ventas
+   * estrictamente posteriores a ella, por lo que el costo de cada página no depende de cuántas
+   * páginas se hayan leído antes.
+   *
+   * @param idFinca Finca de las ventas.
+   * @param idCliente Cliente de las ventas.
+   * @param metodoPago Método de pago.
+   * @param desde Fecha y hora inicial, inclusiva.
+   * @param hasta Fecha y hora final, exclusiva.
+   * @param fechaCursor Fecha de la última venta ya entregada, o {@code null} en la primera página.
+   * @param idCursor Identificador de la última venta ya entregada.
+   * @param pageable Límite de resultados; solo se usa su tamaño.
+   * @return Ventas de la página en orden ascendente.
+   */
+  @Query(
+      "SELECT v FROM Venta v"
+          + " WHERE (:idFinca IS NULL OR v.finca.id = :idFinca)"
+          + " AND (:idCliente IS NULL OR v.idCliente = :idCliente)"
+          + " AND (:metodoPago IS NULL OR v.metodoPago = :metodoPago)"
+          + " AND (:desde IS NULL OR v.fechaVenta >= :desde)"
+          + " AND (:hasta IS NULL OR v.fechaVenta < :hasta)"
+          + " AND (:fechaCursor IS NULL OR v.fechaVenta > :fechaCursor"
+          + " OR (v.fechaVenta = :fechaCursor AND v.idVenta > :idCursor))"
+          + " ORDER BY v.fechaVenta ASC, v.idVenta ASC")
+  List<Venta> buscarPagina(
+      @Param("idFinca") Integer idFinca,
+      @Param("idCliente") Integer idCliente,
+      @Param("metodoPago") MetodoPago metodoPago,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta,
+      @Param("fechaCursor") LocalDateTime fechaCursor,
+      @Param("idCursor") Integer idCursor,
+      Pageable pageable);
+
+  /**
+   * Recorre las ventas con sus detalles como líneas planas, ordenadas por {@code (fechaVenta,
+   * idVenta)} para que los detalles de una misma venta queden consecutivos. Las ventas sin detalles
+   * no se incluyen. Todos los filtros son opcionales.
+   *
+   * <p>El tamaño de recuperación {@link Integer#MIN_VALUE} hace que el controlador JDBC de MySQL
+   * entregue las filas a medida que llegan en lugar de cargar todo el resultado en memoria. El
+   * {@link Stream} devuelto debe consumirse dentro de una transacción y cerrarse al terminar.
+   *
+   * @param idFinca Finca de las ventas.
+   * @param idCliente Cliente de las ventas.
+   * @param metodoPago Método de pago.
+   * @param desde Fecha y hora inicial, inclusiva.
+   * @param hasta Fecha y hora final, exclusiva.
+   * @return Flujo de líneas de venta y detalle.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.LineaVentaExportacionDTO("
+          + "v.idVenta, v.idCliente, v.idPersona, v.finca.id, v.fechaVenta, v.metodoPago, v.total,"
+          + " d.idDetalle, d.idProduccion, d.cantidad, d.precioUnitario, d.subtotal)"
+          + " FROM Venta v JOIN v.detalles d"
+          + " WHERE (:idFinca IS NULL OR v.finca.id = :idFinca)"
+          + " AND (:idCliente IS NULL OR v.idCliente = :idCliente)"
+          + " AND (:metodoPago IS NULL OR v.metodoPago = :metodoPago)"
+          + " AND (:desde IS NULL OR v.fechaVenta >= :desde)"
+          + " AND (:hasta IS NULL OR v.fechaVenta < :hasta)"
+          + " ORDER BY v.fechaVenta ASC, v.idVenta ASC, d.idDetalle ASC")
+  Stream<LineaVentaExportacionDTO> recorrerLineasExportacion(
+      @Param("idFinca") Integer idFinca,
+      @Param("idCliente") Integer idCliente,
+      @Param("metodoPago") MetodoPago metodoPago,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta);
+
+  /**
+   * Obtiene en una sola consulta los datos de factura de una venta: la venta, su finca, el cliente
+   * y el vendedor con sus datos personales, y cada detalle con el nombre de su producto.
+   *
+   * <p>Se usa una proyección en lugar de cargar las entidades para no disparar consultas
+   * adicionales por relaciones que Hibernate no puede cargar de forma diferida (como el inventario
+   * de cada producto).
+   *
+   * @param idVenta Identificador de la venta.
+   * @return Una fila por detalle (o una sola fila sin detalle si la venta no tiene detalles); vacía
+   *     si la venta no existe.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.LineaFacturaDTO("
+          + "v.idVenta, v.fechaVenta, v.metodoPago, v.total,"
+          + " v.idCliente, pc.nombre, pc.apellido, pc.numeroIdentificacion, pc.telefono,"
+          + " pc.direccion, v.idPersona, pv.nombre, pv.apellido,"
+          + " f.id, f.nombre, f.ubicacion,"
+          + " d.idDetalle, d.idProduccion, d.cantidad, d.precioUnitario, d.subtotal, pr.nombre)"
+          + " FROM Venta v"
+          + " JOIN v.finca f"
+          + " LEFT JOIN v.cliente c LEFT JOIN c.persona pc"
+          + " LEFT JOIN Persona pv ON pv.idPersona = v.idPersona"
+          + " LEFT JOIN v.detalles d LEFT JOIN d.produccion prod LEFT JOIN prod.producto pr"
+          + " WHERE v.idVenta = :idVenta"
+          + " ORDER BY d.idDetalle ASC")
+  List<LineaFacturaDTO> buscarLineasFactura(@Param("idVenta") Integer idVenta);
+
+  /**
+   * Obtiene los identificadores de las ventas de una finca en un rango de fechas, ordenados por
+   * fecha de venta.
+   *
+   * @param idFinca Finca de las ventas.
+   * @param desde Fecha y hora inicial, inclusiva.
+   * @param hasta Fecha y hora final, exclusiva.
+   * @return Identificadores de las ventas.
+   */
+  @Query(
+      "SELECT v.idVenta FROM Venta v"
+          + " WHERE v.finca.id = :idFinca AND v.fechaVenta >= :desde AND v.fechaVenta < :hasta"
+          + " ORDER BY v.fechaVenta ASC, v.idVenta ASC")
+  List<Integer> buscarIdsPorFincaYFecha(
+      @Param("idFinca") Integer idFinca,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta);
+
+  /**
+   * Busca una página de líneas del estado de cuenta de un cliente, ordenadas por {@code
+   * (fechaVenta, idVenta, idDetalle)} a partir de un cursor (paginación por conjunto de claves).
+   *
+   * <p>El cursor es la última línea de la página anterior, por lo que el costo de cada página no
+   * depende de cuántas se hayan leído antes. Las ventas sin detalles no producen líneas.
+   *
+   * @param idCliente Cliente de las ventas.
+   * @param desde Fecha y hora inicial, inclusiva.
+   * @param hasta Fecha y hora final, exclusiva.
+   * @param fechaCursor Fecha de la última línea ya leída, o {@code null} en la primera página.
+   * @param idVentaCursor Venta de la última línea ya leída.
+   * @param idDetalleCursor Detalle de la última línea ya leída.
+   * @param pageable Límite de resultados; solo se usa su tamaño.
+   * @return Líneas de la página en orden ascendente.
+   */
+  @Query(
+      "SELECT new com.aproafa.proyectodegrado.model.dto.LineaEstadoCuentaDTO("
+          + "v.idVenta, v.fechaVenta, v.metodoPago, v.total,"
+          + " d.idDetalle, pr.nombre, d.cantidad, d.precioUnitario, d.subtotal)"
+          + " FROM Venta v JOIN v.detalles d"
+          + " LEFT JOIN d.produccion prod LEFT JOIN prod.producto pr"
+          + " WHERE v.idCliente = :idCliente"
+          + " AND v.fechaVenta >= :desde AND v.fechaVenta < :hasta"
+          + " AND (:fechaCursor IS NULL OR v.fechaVenta > :fechaCursor"
+          + " OR (v.fechaVenta = :fechaCursor AND (v.idVenta > :idVentaCursor"
+          + " OR (v.idVenta = :idVentaCursor AND d.idDetalle > :idDetalleCursor))))"
+          + " ORDER BY v.fechaVenta ASC, v.idVenta ASC, d.idDetalle ASC")
+  List<LineaEstadoCuentaDTO> buscarLineasEstadoCuenta(
+      @Param("idCliente") Integer idCliente,
+      @Param("desde") LocalDateTime desde,
+      @Param("hasta") LocalDateTime hasta,
+      @Param("fechaCursor") LocalDateTime fechaCursor,
+      @Param("idVentaCursor") Integer idVentaCursor,
+      @Param("idDetalleCursor") Integer idDetalleCursor,
+      Pageable pageable);
 }
@@ -0,0 +1,96 @@
+package com.aproafa.proyectodegrado.repository;
+
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
+import com.aproafa.proyectodegrado.model.entity.VentaResumenDiario;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repositorio para el resumen diario de ventas {@link VentaResumenDiario}. */
+@Repository
+public interface VentaResumenDiarioRepository extends JpaRepository<VentaResumenDiario, Long> {
+
+  /**
+   * Suma los valores indicados a la fila de resumen de la combinación dada, creándola si no existe.
+   * Los valores pueden ser negativos para descontar una venta.
+   *
+   * @return Filas afectadas.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO venta_resumen_diario"
+              + " (id_finca, id_producto, fecha, metodo_pago, numero_ventas, cantidad, ingresos)"
+              + " VALUES (:idFinca, :idProducto, :fecha, :metodoPago, :numeroVentas, :cantidad,"
+              + " :ingresos)"
+              + " ON DUPLICATE KEY UPDATE numero_ventas = numero_ventas + VALUES(numero_ventas),"
+              + " cantidad = cantidad + VALUES(cantidad), ingresos = ingresos + VALUES(ingresos)",
+      nativeQuery = true)
+  int acumular(
+      @Param("idFinca") Integer idFinca,
+      @Param("idProducto") Integer idProducto,
+      @Param("fecha") LocalDate fecha,
+      @Param("metodoPago") String metodoPago,
+      @Param("numeroVentas") long numeroVentas,
+      @Param("cantidad") long cantidad,
+      @Param("ingresos") BigDecimal ingresos);
+
+  /**
+   * Elimina las filas de resumen de un rango de días, ambos inclusive.
+   *
+   * @return Filas eliminadas.
+   */
+  @Modifying
+  @Query("DELETE FROM VentaResumenDiario r WHERE r.fecha BETWEEN :desde AND :hasta")
+  int eliminarRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+  /**
+   * Recalcula el resumen de un rango de fechas a partir de las ventas y sus detalles. Debe
+   * ejecutarse después de {@link #eliminarRango} para el mismo rango.
+   *
+   * @param desde Fecha y hora inicial, inclusiva.
+   * @param hasta Fecha y hora final, exclusiva.
+   * @return Filas de resumen insertadas.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO venta_resumen_diario"
+              + " (id_finca, id_producto, fecha, metodo_pago, numero_ventas, cantidad, ingresos)"
+              + " SELECT v.id_finca, p.id_producto, DATE(v.fecha_venta), v.metodo_pago,"
+              + " COUNT(DISTINCT v.id_venta), SUM(d.cantidad), SUM(d.precio_unitario * d.cantidad)"
+              + " FROM venta v"
+              + " JOIN detalle_venta d ON d.id_venta = v.id_venta"
+              + " JOIN produccion p ON p.id_produccion = d.id_produccion"
+              + " WHERE v.fecha_venta >= :desde AND v.fecha_venta < :hasta"
+              + " GROUP BY v.id_finca, p.id_producto, DATE(v.fecha_venta), v.metodo_pago",
+      nativeQuery = true)
+  int reconstruirRango(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+  /**
+   * Consulta el resumen de un rango de días, ambos inclusive. Los filtros en {@code null} no se
+   * aplican.
+   *
+   * @return Filas de resumen con al menos una venta, ordenadas por día, finca y producto.
+   */
+  @Query(
+      "SELECT r FROM VentaResumenDiario r"
+          + " WHERE r.fecha BETWEEN :desde AND :hasta"
+          + " AND (:idFinca IS NULL OR r.idFinca = :idFinca)"
+          + " AND (:idProducto IS NULL OR r.idProducto = :idProducto)"
+          + " AND (:metodoPago IS NULL OR r.metodoPago = :metodoPago)"
+          + " AND r.numeroVentas > 0"
+          + " ORDER BY r.fecha, r.idFinca, r.idProducto, r.metodoPago")
+  List<VentaResumenDiario> consultar(
+      @Param("desde") LocalDate desde,
+      @Param("hasta") LocalDate hasta,
+      @Param("idFinca") Integer idFinca,
+      @Param("idProducto") Integer idProducto,
+      @Param("metodoPago") MetodoPago metodoPago);
+}
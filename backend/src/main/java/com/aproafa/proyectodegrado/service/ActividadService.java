@@ -3,7 +3,7 @@ package com.aproafa.proyectodegrado.service;
 import com.aproafa.proyectodegrado.model.dto.ActividadDTO;
 import com.aproafa.proyectodegrado.model.dto.UsoInsumoDTO;
 import com.aproafa.proyectodegrado.model.entity.Actividad;
-import com.aproafa.proyectodegrado.model.entity.Insumo;
+import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
 import com.aproafa.proyectodegrado.model.entity.TipoActividad;
 import com.aproafa.proyectodegrado.model.entity.UsoInsumo;
 import com.aproafa.proyectodegrado.repository.ActividadRepository;
@@ -12,13 +12,16 @@ import com.aproafa.proyectodegrado.repository.TipoActividadRepository;
 import com.aproafa.proyectodegrado.repository.UsoInsumoRepository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Servicio encargado de gestionar las actividades en el sistema.
@@ -43,6 +46,7 @@ public class ActividadService {
    * @param dto El DTO que contiene la información de la nueva actividad y sus insumos.
    * @return El DTO de la actividad recién creada.
    */
+  @Transactional
   public ActividadDTO crearActividad(ActividadDTO dto) {
     // Buscar el tipo de actividad
     TipoActividad tipoActividad =
@@ -60,26 +64,25 @@ public class ActividadService {
     actividadRepository.save(actividad);
 
     // Procesar insumos usados si existen
-    if (dto.getUsosInsumos() != null) {
+    if (dto.getUsosInsumos() != null && !dto.getUsosInsumos().isEmpty()) {
+      // Descontar el stock de todos los insumos y registrar el historial en una sola operación;
+      // falla si el stock de alguno no alcanza, incluso con otros usos concurrentes del insumo
+      Map<Integer, BigDecimal> consumos = new LinkedHashMap<>();
+      List<HistorialInsumo> historial = new ArrayList<>();
+      LocalDateTime ahora = LocalDateTime.now();
       for (UsoInsumoDTO usoDto : dto.getUsosInsumos()) {
-        // Buscar el insumo
-        Insumo insumo =
-            insumoRepository
-                .findById(usoDto.getIdInsumo())
-                .orElseThrow(() -> new RuntimeException("Insumo no encontrado"));
-
-        // Validar si hay suficiente stock disponible
-        if (insumo.getCantidadDisponible().compareTo(usoDto.getCantidad()) < 0) {
-          throw new RuntimeException("Stock insuficiente para el insumo: " + insumo.getNombre());
-        }
-
-        // Registrar el uso del insumo (descontar stock, actualizar historial, etc.)
-        insumoService.registrarUsoInsumo(usoDto.getIdInsumo(), usoDto.getCantidad());
+        validarUso(usoDto);
+        consumos.merge(usoDto.getIdInsumo(), usoDto.getCantidad(), BigDecimal::add);
+        historial.add(
+            InsumoService.nuevoHistorial(usoDto.getIdInsumo(), usoDto.getCantidad(), ahora));
+      }
+      insumoService.ajustarStockEnLote(consumos, historial);
 
-        // Crear y guardar el uso del insumo con la fecha correspondiente
+      for (UsoInsumoDTO usoDto : dto.getUsosInsumos()) {
+        // Crear el uso del insumo con la fecha correspondiente; la referencia evita leer el insumo
         UsoInsumo usoInsumo = new UsoInsumo();
         usoInsumo.setActividad(actividad);
-        usoInsumo.setInsumo(insumo);
+        usoInsumo.setInsumo(insumoRepository.getReferenceById(usoDto.getIdInsumo()));
         usoInsumo.setCantidad(usoDto.getCantidad());
 
         LocalDate fecha_uso;
@@ -90,10 +93,9 @@ public class ActividadService {
           fecha_uso = dto.getFechaInicio() != null ? dto.getFechaInicio() : LocalDate.now();
         }
         usoInsumo.setFecha(fecha_uso);
-
-        usoInsumoRepository.save(usoInsumo);
         actividad.getUsosInsumos().add(usoInsumo);
       }
+      usoInsumoRepository.saveAll(actividad.getUsosInsumos());
     }
 
     return toDTO(actividad);
@@ -137,6 +139,7 @@ public class ActividadService {
    * @param dto El DTO con la nueva información de la actividad.
    * @return El DTO actualizado de la actividad.
    */
+  @Transactional
   public ActividadDTO actualizarActividad(Integer idActividad, ActividadDTO dto) {
     Actividad actividad =
         actividadRepository
@@ -164,40 +167,20 @@ public class ActividadService {
     // Limpiar lista actual para ser reemplazada
     actividad.getUsosInsumos().clear();
 
+    // Diferencia neta por insumo: positiva si el uso aumentó, negativa si disminuyó o se quitó
+    Map<Integer, BigDecimal> diferencias = new LinkedHashMap<>();
     if (dto.getUsosInsumos() != null) {
       for (UsoInsumoDTO usoDto : dto.getUsosInsumos()) {
-        Insumo insumo =
-            insumoRepository
-                .findById(usoDto.getIdInsumo())
-                .orElseThrow(() -> new RuntimeException("Insumo no encontrado"));
-
-        BigDecimal nuevaCantidad = usoDto.getCantidad();
-        BigDecimal cantidadAnterior = BigDecimal.ZERO;
-
-        if (mapaAnterior.containsKey(insumo.getIdInsumo())) {
-          cantidadAnterior = mapaAnterior.get(insumo.getIdInsumo()).getCantidad();
-          mapaAnterior.remove(insumo.getIdInsumo());
-        }
-
-        BigDecimal diferencia = nuevaCantidad.subtract(cantidadAnterior);
-
-        if (diferencia.compareTo(BigDecimal.ZERO) > 0) {
-          // Aumentó el uso: verificar stock
-          if (insumo.getCantidadDisponible().compareTo(diferencia) < 0) {
-            throw new RuntimeException("Stock insuficiente para insumo: " + insumo.getNombre());
-          }
-          insumo.setCantidadDisponible(insumo.getCantidadDisponible().subtract(diferencia));
-        } else if (diferencia.compareTo(BigDecimal.ZERO) < 0) {
-          // Disminuyó el uso: devolver al stock
-          insumo.setCantidadDisponible(insumo.getCantidadDisponible().add(diferencia.abs()));
-        }
-
-        insumoRepository.save(insumo);
+        validarUso(usoDto);
+        UsoInsumo anterior = mapaAnterior.remove(usoDto.getIdInsumo());
+        BigDecimal cantidadAnterior = anterior != null ? anterior.getCantidad() : BigDecimal.ZERO;
+        diferencias.merge(
+            usoDto.getIdInsumo(), usoDto.getCantidad().subtract(cantidadAnterior), BigDecimal::add);
 
         UsoInsumo nuevoUso = new UsoInsumo();
         nuevoUso.setActividad(actividad);
-        nuevoUso.setInsumo(insumo);
-        nuevoUso.setCantidad(nuevaCantidad);
+        nuevoUso.setInsumo(insumoRepository.getReferenceById(usoDto.getIdInsumo()));
+        nuevoUso.setCantidad(usoDto.getCantidad());
         nuevoUso.setFecha(
             usoDto.getFecha_uso() != null ? usoDto.getFecha_uso() : dto.getFechaInicio());
 
@@ -207,11 +190,13 @@ public class ActividadService {
 
     // Devolver stock de insumos eliminados
     for (UsoInsumo eliminado : mapaAnterior.values()) {
-      Insumo insumo = eliminado.getInsumo();
-      insumo.setCantidadDisponible(insumo.getCantidadDisponible().add(eliminado.getCantidad()));
-      insumoRepository.save(insumo);
+      diferencias.merge(
+          eliminado.getInsumo().getIdInsumo(), eliminado.getCantidad().negate(), BigDecimal::add);
     }
 
+    // Todos los insumos se bloquean y actualizan juntos, sin guardar entidades leídas
+    insumoService.ajustarStockEnLote(diferencias, List.of());
+
     actividadRepository.save(actividad);
     return toDTO(actividad);
   }
@@ -221,6 +206,7 @@ public class ActividadService {
    *
    * @param idActividad El ID de la actividad a eliminar.
    */
+  @Transactional
   public void eliminarActividad(Integer idActividad) {
     Actividad actividad =
         actividadRepository
@@ -228,14 +214,21 @@ public class ActividadService {
             .orElseThrow(() -> new RuntimeException("Actividad no encontrada"));
 
     for (UsoInsumo uso : actividad.getUsosInsumos()) {
-      Insumo insumo = uso.getInsumo();
-      insumo.setCantidadDisponible(insumo.getCantidadDisponible().add(uso.getCantidad()));
-      insumoRepository.save(insumo);
+      insumoService.devolverStock(uso.getInsumo().getIdInsumo(), uso.getCantidad());
     }
 
     actividadRepository.delete(actividad);
   }
 
+  private void validarUso(UsoInsumoDTO usoDto) {
+    if (usoDto.getIdInsumo() == null || usoDto.getCantidad() == null) {
+      throw new IllegalArgumentException("Datos incompletos en el uso de insumo");
+    }
+    if (usoDto.getCantidad().signum() <= 0) {
+      throw new IllegalArgumentException("La cantidad debe ser mayor que cero.");
+    }
+  }
+
   /**
    * Convierte una entidad {@link Actividad} a su correspondiente DTO {@link ActividadDTO}.
    *
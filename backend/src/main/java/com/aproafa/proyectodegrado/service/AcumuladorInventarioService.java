@@ -0,0 +1,211 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.repository.InventarioProductoRepository;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Servicio que acumula en memoria los cambios de inventario de productos y los escribe en la base
+ * de datos de forma diferida.
+ *
+ * <p>Cada producto tiene un {@link LongAdder} con la suma pendiente en centésimas, la misma escala
+ * de la columna {@code cantidad}, de modo que los hilos que actualizan el mismo producto no
+ * compiten por la fila ni por un bloqueo. Una tarea programada escribe las sumas pendientes cada
+ * cierto intervalo, en un solo lote de sentencias {@code UPDATE ... SET cantidad = cantidad + ?}.
+ * Las lecturas que necesitan la cantidad exacta escriben antes lo pendiente del producto.
+ *
+ * <p>Los cambios solo se acumulan después de confirmar la transacción que los originó. Si la
+ * aplicación termina de forma abrupta se pierde lo acumulado desde la última escritura, pero no sus
+ * movimientos del kardex; al iniciar, {@link MovimientoInventarioService} reconstruye la cantidad
+ * desde ellos. El modo está deshabilitado por defecto.
+ */
+@Service
+public class AcumuladorInventarioService {
+
+  private static final Logger logger =
+      Logger.getLogger(AcumuladorInventarioService.class.getName());
+
+  /** Decimales de la columna {@code inventario_producto.cantidad}. */
+  private static final int ESCALA = 2;
+
+  private final InventarioProductoRepository inventarioRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean habilitado;
+
+  /** Suma pendiente por producto, en centésimas. */
+  private final Map<Integer, LongAdder> pendientes = new ConcurrentHashMap<>();
+
+  /** Serializa las escrituras para que una lectura exacta no adelante a una escritura en curso. */
+  private final Object escritura = new Object();
+
+  @Autowired
+  public AcumuladorInventarioService(
+      InventarioProductoRepository inventarioRepo,
+      PlatformTransactionManager transactionManager,
+      @Value("${inventario.acumulador.habilitado:false}") boolean habilitado) {
+    this.inventarioRepo = inventarioRepo;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.habilitado = habilitado;
+  }
+
+  /** Escribe lo pendiente al cerrar la aplicación, después de cancelar la escritura periódica. */
+  @PreDestroy
+  public void detener() {
+    if (habilitado) {
+      escribirPendientes();
+    }
+  }
+
+  /**
+   * Indica si los cambios de inventario se acumulan en memoria.
+   *
+   * @return {@code true} si el modo de escritura diferida está habilitado.
+   */
+  public boolean isHabilitado() {
+    return habilitado;
+  }
+
+  /**
+   * Acumula cambios de inventario. Si hay una transacción activa, se acumulan después de
+   * confirmarla.
+   *
+   * @param cantidadesPorProducto Incremento o decremento por ID de producto.
+   * @return Productos sin inventario; si hay alguno no se acumula ningún cambio.
+   */
+  public List<Integer> acumular(Map<Integer, BigDecimal> cantidadesPorProducto) {
+    Map<LongAdder, Long> cambios = new LinkedHashMap<>();
+    List<Integer> sinInventario =
+        cantidadesPorProducto.keySet().stream()
+            .filter(id -> !pendientes.containsKey(id))
+            .filter(id -> !inventarioRepo.existsByProducto_IdProducto(id))
+            .toList();
+    if (!sinInventario.isEmpty()) {
+      return sinInventario;
+    }
+    cantidadesPorProducto.forEach(
+        (idProducto, cantidadDelta) ->
+            cambios.merge(
+                pendientes.computeIfAbsent(idProducto, id -> new LongAdder()),
+                aCentesimas(cantidadDelta),
+                Long::sum));
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              cambios.forEach(LongAdder::add);
+            }
+          });
+    } else {
+      cambios.forEach(LongAdder::add);
+    }
+    return sinInventario;
+  }
+
+  /**
+   * Escribe en la base de datos lo pendiente de un producto, para leer su cantidad exacta.
+   *
+   * @param idProducto ID del producto.
+   */
+  public void escribirPendiente(Integer idProducto) {
+    if (habilitado) {
+      escribir(List.of(idProducto));
+    }
+  }
+
+  /**
+   * Escribe en la base de datos lo pendiente de todos los productos.
+   *
+   * @return Cantidad de productos actualizados.
+   */
+  public int escribirPendientes() {
+    return escribir(pendientes.keySet());
+  }
+
+  /** Escribe lo pendiente cada cierto intervalo, si el modo está habilitado. */
+  @Scheduled(
+      fixedDelayString = "${inventario.acumulador.intervalo-ms:500}",
+      initialDelayString = "${inventario.acumulador.intervalo-ms:500}")
+  public void escribirPeriodicamente() {
+    if (!habilitado) {
+      return;
+    }
+    try {
+      escribirPendientes();
+    } catch (RuntimeException e) {
+      // Lo pendiente se restituye y se reintenta en el siguiente intervalo
+      logger.log(Level.WARNING, "Error escribiendo el inventario acumulado", e);
+    }
+  }
+
+  private int escribir(Collection<Integer> idsProducto) {
+    synchronized (escritura) {
+      Map<Integer, Long> retirados = new LinkedHashMap<>();
+      for (Integer idProducto : idsProducto) {
+        LongAdder acumulador = pendientes.get(idProducto);
+        // sumThenReset no pierde sumas concurrentes: cada celda se lee y se pone en cero a la vez
+        long centesimas = acumulador != null ? acumulador.sumThenReset() : 0;
+        if (centesimas != 0) {
+          retirados.put(idProducto, centesimas);
+        }
+      }
+      if (retirados.isEmpty()) {
+        return 0;
+      }
+
+      Map<Integer, BigDecimal> cantidades = new LinkedHashMap<>();
+      retirados.forEach(
+          (id, centesimas) -> cantidades.put(id, BigDecimal.valueOf(centesimas, ESCALA)));
+      List<Integer> sinInventario;
+      try {
+        sinInventario =
+            transactionTemplate.execute(
+                estado -> inventarioRepo.sumarCantidades(cantidades, LocalDateTime.now()));
+      } catch (RuntimeException e) {
+        retirados.forEach(
+            (id, centesimas) ->
+                pendientes.computeIfAbsent(id, k -> new LongAdder()).add(centesimas));
+        throw e;
+      }
+
+      for (Integer idProducto : sinInventario) {
+        pendientes.remove(idProducto);
+        logger.warning(
+            "Se descarta el cambio acumulado del producto "
+                + idProducto
+                + " porque ya no tiene inventario: "
+                + cantidades.get(idProducto));
+      }
+      return retirados.size() - sinInventario.size();
+    }
+  }
+
+  private static long aCentesimas(BigDecimal cantidad) {
+    try {
+      return cantidad.setScale(ESCALA, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Cantidad fuera de rango: " + cantidad);
+    }
+  }
+}
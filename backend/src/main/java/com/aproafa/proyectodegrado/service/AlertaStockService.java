@@ -0,0 +1,176 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.AlertaStockDTO;
+import com.aproafa.proyectodegrado.repository.InsumoRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Servicio que envía alertas de stock bajo a los clientes suscritos mediante Server-Sent Events.
+ *
+ * <p>Cada cliente se suscribe a una finca. Al conectarse recibe el evento {@code alertas-vigentes}
+ * con los insumos que ya están en su punto de reorden, y luego un evento {@code umbral-cruzado}
+ * cada vez que un consumo hace que un insumo de la finca llegue a su punto de reorden. Los eventos
+ * se envían solo después de que la transacción del consumo se confirma, de modo que un consumo
+ * revertido no genera alertas.
+ *
+ * <p>Los cruces se entregan desde un hilo propio con una cola acotada, para que un cliente lento
+ * nunca bloquee la petición que consumió el stock. Si la cola está llena la alerta se descarta, y
+ * la conexión que falla o tarda más del tiempo de envío configurado se cierra.
+ */
+@Service
+public class AlertaStockService {
+
+  private static final Logger logger = Logger.getLogger(AlertaStockService.class.getName());
+
+  private static final String EVENTO_VIGENTES = "alertas-vigentes";
+  private static final String EVENTO_CRUCE = "umbral-cruzado";
+
+  private final InsumoRepository insumoRepository;
+  private final ThreadPoolExecutor envios;
+
+  /** Conexiones abiertas por finca. */
+  private final Map<Integer, Set<SseEmitter>> suscriptores = new ConcurrentHashMap<>();
+
+  @Value("${insumos.alertas.tiempo-conexion-minutos:30}")
+  private long tiempoConexionMinutos;
+
+  @Value("${insumos.alertas.tiempo-envio-ms:5000}")
+  private long tiempoEnvioMs;
+
+  @Autowired
+  public AlertaStockService(
+      InsumoRepository insumoRepository,
+      @Value("${insumos.alertas.capacidad-cola:1000}") int capacidadCola) {
+    this.insumoRepository = insumoRepository;
+    this.envios =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacidadCola),
+            tarea -> {
+              Thread hilo = new Thread(tarea, "alerta-stock-envio");
+              hilo.setDaemon(true);
+              return hilo;
+            },
+            (tarea, executor) ->
+                logger.warning("Cola de alertas de stock llena; se descarta una alerta"));
+  }
+
+  @PreDestroy
+  public void detener() {
+    envios.shutdownNow();
+  }
+
+  /**
+   * Suscribe un cliente a las alertas de stock de una finca. Al vencer el tiempo de conexión el
+   * cliente debe volver a conectarse ({@code EventSource} lo hace automáticamente).
+   *
+   * @param idFinca Identificador de la finca.
+   * @return Emisor de eventos de la conexión.
+   */
+  public SseEmitter suscribir(Integer idFinca) {
+    SseEmitter emisor = new SseEmitter(TimeUnit.MINUTES.toMillis(tiempoConexionMinutos));
+    suscriptores.compute(
+        idFinca,
+        (id, emisores) -> {
+          Set<SseEmitter> conjunto = emisores != null ? emisores : ConcurrentHashMap.newKeySet();
+          conjunto.add(emisor);
+          return conjunto;
+        });
+    emisor.onCompletion(() -> retirar(idFinca, emisor));
+    emisor.onTimeout(() -> retirar(idFinca, emisor));
+    emisor.onError(e -> retirar(idFinca, emisor));
+
+    List<AlertaStockDTO> vigentes = insumoRepository.buscarAlertasPorFinca(idFinca);
+    try {
+      emisor.send(SseEmitter.event().name(EVENTO_VIGENTES).data(vigentes));
+    } catch (IOException e) {
+      retirar(idFinca, emisor);
+      emisor.completeWithError(e);
+    }
+    return emisor;
+  }
+
+  /**
+   * Indica si hay algún cliente conectado, para evitar consultar cruces de umbral cuando nadie los
+   * va a recibir.
+   *
+   * @return {@code true} si hay al menos una suscripción abierta.
+   */
+  public boolean haySuscriptores() {
+    return !suscriptores.isEmpty();
+  }
+
+  /**
+   * Notifica que un insumo cruzó su punto de reorden. Si hay una transacción activa, el evento se
+   * encola después de confirmarla; si se revierte, no se envía. El envío ocurre en segundo plano.
+   *
+   * @param alerta Datos del insumo que cruzó el umbral.
+   */
+  public void notificarCruce(AlertaStockDTO alerta) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              envios.execute(() -> enviar(alerta));
+            }
+          });
+    } else {
+      envios.execute(() -> enviar(alerta));
+    }
+  }
+
+  private void enviar(AlertaStockDTO alerta) {
+    Set<SseEmitter> emisores = suscriptores.get(alerta.getIdFinca());
+    if (emisores == null) {
+      return;
+    }
+    for (SseEmitter emisor : emisores) {
+      long inicio = System.nanoTime();
+      try {
+        emisor.send(SseEmitter.event().name(EVENTO_CRUCE).data(alerta));
+      } catch (IOException | IllegalStateException e) {
+        // El cliente se desconectó; se descarta su conexión
+        logger.log(
+            Level.FINE, "Conexión de alertas cerrada para la finca " + alerta.getIdFinca(), e);
+        retirar(alerta.getIdFinca(), emisor);
+        continue;
+      }
+      if (System.nanoTime() - inicio > TimeUnit.MILLISECONDS.toNanos(tiempoEnvioMs)) {
+        // Un cliente que no lee a tiempo retrasa a los demás; debe volver a conectarse
+        logger.warning(
+            "Conexión de alertas lenta para la finca " + alerta.getIdFinca() + "; se cierra");
+        retirar(alerta.getIdFinca(), emisor);
+        emisor.complete();
+      }
+    }
+  }
+
+  private void retirar(Integer idFinca, SseEmitter emisor) {
+    suscriptores.computeIfPresent(
+        idFinca,
+        (id, emisores) -> {
+          emisores.remove(emisor);
+          return emisores.isEmpty() ? null : emisores;
+        });
+  }
+}
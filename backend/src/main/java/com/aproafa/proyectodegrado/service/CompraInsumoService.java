@@ -1,15 +1,13 @@
 package com.aproafa.proyectodegrado.service;
 
 import com.aproafa.proyectodegrado.model.entity.CompraInsumo;
-import com.aproafa.proyectodegrado.model.entity.Insumo;
 import com.aproafa.proyectodegrado.repository.CompraInsumoRepository;
 import com.aproafa.proyectodegrado.repository.HistorialInsumoRepository;
 import com.aproafa.proyectodegrado.repository.InsumoRepository;
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Servicio encargado de gestionar las compras de insumos en el sistema.
@@ -28,6 +26,8 @@ public class CompraInsumoService {
 
   @Autowired private HistorialInsumoRepository historialInsumoRepository;
 
+  @Autowired private CostoProduccionService costoProduccionService;
+
   /**
    * Obtiene todas las compras de insumos registradas.
    *
@@ -60,24 +60,24 @@ public class CompraInsumoService {
   /**
    * Guarda una nueva compra de insumo y actualiza la cantidad disponible del insumo.
    *
-   * <p>Este método primero verifica si el insumo existe. Si es así, se actualiza la cantidad
-   * disponible del insumo sumando la cantidad comprada. Luego, se guarda la compra en la base de
-   * datos.
+   * <p>La cantidad disponible y el precio promedio ponderado del insumo se actualizan en una sola
+   * sentencia; luego el nuevo precio se propaga al costo de las producciones no cosechadas que usan
+   * el insumo. Finalmente se guarda la compra en la base de datos.
    *
    * @param compra La compra de insumo a guardar.
    * @throws IllegalArgumentException Si el insumo no existe en la base de datos.
    */
+  @Transactional
   public void saveCompra(CompraInsumo compra) {
-    Optional<Insumo> optionalInsumo = insumoRepository.findById(compra.getInsumo().getIdInsumo());
-    if (optionalInsumo.isPresent()) {
-      Insumo insumo = optionalInsumo.get();
-      BigDecimal nuevaCantidad = insumo.getCantidadDisponible().add(compra.getCantidad());
-      insumo.setCantidadDisponible(nuevaCantidad);
-      insumoRepository.save(insumo);
-
-      compraInsumoRepository.save(compra);
-    } else {
+    int idInsumo = compra.getInsumo().getIdInsumo();
+    // La suma se hace en la base de datos para no sobrescribir descuentos concurrentes
+    if (insumoRepository.registrarCompra(idInsumo, compra.getCantidad(), compra.getPrecioUnitario())
+        != 1) {
       throw new IllegalArgumentException("El insumo especificado no existe.");
     }
+    insumoRepository
+        .buscarPrecioPromedio(idInsumo)
+        .ifPresent(precio -> costoProduccionService.actualizarPrecio(idInsumo, precio));
+    compraInsumoRepository.save(compra);
   }
 }
@@ -0,0 +1,193 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.CosechaDTO;
+import com.aproafa.proyectodegrado.model.dto.CostoProduccionDTO;
+import com.aproafa.proyectodegrado.model.dto.CostoProductoDTO;
+import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
+import com.aproafa.proyectodegrado.model.entity.CostoProduccion;
+import com.aproafa.proyectodegrado.model.entity.CostoProduccionInsumo;
+import com.aproafa.proyectodegrado.repository.CostoProduccionRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio que mantiene y consulta el costo de insumos de cada producción.
+ *
+ * <p>{@link ProduccionService} informa cada producción creada, modificada, cosechada o eliminada y
+ * cada cambio en sus usos de insumos, valorado al precio promedio ponderado del insumo. {@link
+ * CompraInsumoService} informa cada cambio de precio promedio, que revalúa el insumo en las
+ * producciones aún no cosechadas; las cosechadas conservan el costo con el que se cerraron. Así las
+ * consultas de costo leen filas ya calculadas y no recorren los usos ni las compras.
+ */
+@Service
+@Transactional
+public class CostoProduccionService {
+
+  private final CostoProduccionRepository costoRepository;
+
+  @Autowired
+  public CostoProduccionService(CostoProduccionRepository costoRepository) {
+    this.costoRepository = costoRepository;
+  }
+
+  /**
+   * Registra o actualiza el producto, la finca y la cantidad cosechada de una producción.
+   *
+   * @param idProduccion Identificador de la producción.
+   * @param idProducto Producto de la producción.
+   * @param idFinca Finca de la producción.
+   * @param cantidadCosechada Cantidad cosechada, o {@code null} si no se ha cosechado.
+   */
+  public void registrarProduccion(
+      Integer idProduccion, Integer idProducto, Integer idFinca, BigDecimal cantidadCosechada) {
+    costoRepository.registrarProducciones(
+        List.of(nuevoCosto(idProduccion, idProducto, idFinca, cantidadCosechada)));
+  }
+
+  /**
+   * Registra las cantidades cosechadas de varias producciones en un lote de sentencias.
+   *
+   * @param producciones Producciones cosechadas, por identificador.
+   * @param cosechas Cantidad cosechada de cada producción.
+   */
+  public void registrarCosechas(
+      Map<Integer, ProduccionDTO> producciones, List<CosechaDTO> cosechas) {
+    List<CostoProduccion> costos = new ArrayList<>(cosechas.size());
+    for (CosechaDTO cosecha : cosechas) {
+      ProduccionDTO produccion = producciones.get(cosecha.getIdProduccion());
+      costos.add(
+          nuevoCosto(
+              produccion.getIdProduccion(),
+              produccion.getIdProducto(),
+              produccion.getIdFinca(),
+              cosecha.getCantidadCosechada()));
+    }
+    costoRepository.registrarProducciones(costos);
+  }
+
+  /**
+   * Suma al costo de una producción los cambios en sus usos de insumos, valorados al precio
+   * promedio de cada insumo leído junto con su stock bloqueado. El registro de la producción debe
+   * existir (ver {@link #registrarProduccion}).
+   *
+   * @param idProduccion Identificador de la producción.
+   * @param diferencias Cantidad usada de más (o de menos, si es negativa) por insumo.
+   * @param stock Stock bloqueado de los insumos, con su precio promedio.
+   */
+  public void registrarUsos(
+      Integer idProduccion,
+      Map<Integer, BigDecimal> diferencias,
+      Map<Integer, StockInsumoDTO> stock) {
+    List<CostoProduccionInsumo> cambios = new ArrayList<>(diferencias.size());
+    diferencias.forEach(
+        (idInsumo, cantidad) -> {
+          if (cantidad.signum() == 0) {
+            return;
+          }
+          BigDecimal precio = stock.get(idInsumo).getPrecioPromedio();
+          CostoProduccionInsumo cambio = new CostoProduccionInsumo();
+          cambio.setIdProduccion(idProduccion);
+          cambio.setIdInsumo(idInsumo);
+          cambio.setCantidad(cantidad);
+          cambio.setCosto(precio != null ? cantidad.multiply(precio) : BigDecimal.ZERO);
+          cambios.add(cambio);
+        });
+    costoRepository.acumularInsumos(cambios);
+  }
+
+  /**
+   * Revalúa un insumo al precio promedio vigente en las producciones no cosechadas. Se llama
+   * después de que una compra cambia el precio promedio del insumo.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param precioPromedio Precio promedio vigente.
+   */
+  public void actualizarPrecio(int idInsumo, BigDecimal precioPromedio) {
+    costoRepository.revalorar(idInsumo, precioPromedio);
+  }
+
+  /**
+   * Elimina el costo de una producción. Se llama al eliminar la producción.
+   *
+   * @param idProduccion Identificador de la producción.
+   */
+  public void eliminar(Integer idProduccion) {
+    costoRepository.eliminarInsumos(idProduccion);
+    costoRepository.deleteById(idProduccion);
+  }
+
+  /**
+   * Reconstruye todo el costo de producción a partir de los usos registrados. Se usa para la carga
+   * inicial o para corregir el costo después de modificaciones directas en la base de datos.
+   *
+   * @return Cantidad de producciones con costo.
+   */
+  public int reconstruir() {
+    return costoRepository.reconstruir();
+  }
+
+  /**
+   * Consulta el costo de insumos de una producción.
+   *
+   * @param idProduccion Identificador de la producción.
+   * @return Costo de la producción, o vacío si no tiene registro de costo.
+   */
+  @Transactional(readOnly = true)
+  public Optional<CostoProduccionDTO> consultar(Integer idProduccion) {
+    return costoRepository
+        .findById(idProduccion)
+        .map(
+            costo -> {
+              CostoProduccionDTO dto = new CostoProduccionDTO();
+              dto.setIdProduccion(costo.getIdProduccion());
+              dto.setIdProducto(costo.getIdProducto());
+              dto.setIdFinca(costo.getIdFinca());
+              dto.setCostoInsumos(costo.getCostoInsumos());
+              dto.setCantidadCosechada(costo.getCantidadCosechada());
+              dto.setCostoPorUnidad(
+                  costoPorUnidad(costo.getCostoInsumos(), costo.getCantidadCosechada()));
+              return dto;
+            });
+  }
+
+  /**
+   * Consulta el costo de insumos por unidad cosechada de cada producto de una finca.
+   *
+   * @param idFinca Identificador de la finca.
+   * @return Costo por producto, considerando solo producciones cosechadas.
+   */
+  @Transactional(readOnly = true)
+  public List<CostoProductoDTO> consultarPorFinca(Integer idFinca) {
+    List<CostoProductoDTO> costos = costoRepository.costosPorProducto(idFinca);
+    for (CostoProductoDTO costo : costos) {
+      costo.setCostoPorUnidad(
+          costoPorUnidad(costo.getCostoInsumos(), costo.getCantidadCosechada()));
+    }
+    return costos;
+  }
+
+  private BigDecimal costoPorUnidad(BigDecimal costo, BigDecimal cantidad) {
+    if (cantidad == null || cantidad.signum() <= 0) {
+      return null;
+    }
+    return costo.divide(cantidad, 4, RoundingMode.HALF_UP);
+  }
+
+  private CostoProduccion nuevoCosto(
+      Integer idProduccion, Integer idProducto, Integer idFinca, BigDecimal cantidadCosechada) {
+    CostoProduccion costo = new CostoProduccion();
+    costo.setIdProduccion(idProduccion);
+    costo.setIdProducto(idProducto);
+    costo.setIdFinca(idFinca);
+    costo.setCantidadCosechada(cantidadCosechada);
+    return costo;
+  }
+}
@@ -0,0 +1,177 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Cursores opacos de la paginación por llave: los valores de la posición (por ejemplo, la fecha y
+ * el identificador del último elemento) separados por {@code |} y codificados en Base64 para URL
+ * sin relleno. Cualquier cursor que no se pueda leer se rechaza con el mismo mensaje.
+ *
+ * <p>También arma las páginas: cada consulta pide un elemento más que el límite y ese elemento
+ * extra solo indica si existe una página siguiente.
+ */
+final class CursorPaginacion {
+
+  /** Cantidad de elementos por página cuando no se indica un límite. */
+  static final int LIMITE_DEFECTO = 50;
+
+  /** Cantidad máxima de elementos por página. */
+  static final int LIMITE_MAXIMO = 500;
+
+  private static final String SEPARADOR = "|";
+
+  private CursorPaginacion() {}
+
+  /**
+   * Valida el límite de una página.
+   *
+   * @param limite Límite solicitado, o {@code null} para usar {@link #LIMITE_DEFECTO}.
+   * @return Límite a usar.
+   * @throws IllegalArgumentException Si el límite está fuera de rango.
+   */
+  static int validarLimite(Integer limite) {
+    int tamano = limite != null ? limite : LIMITE_DEFECTO;
+    if (tamano < 1 || tamano > LIMITE_MAXIMO) {
+      throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+    }
+    return tamano;
+  }
+
+  /**
+   * Solicitud para la consulta de una página: pide un elemento extra para saber si existe una
+   * página siguiente.
+   *
+   * @param limite Límite validado de la página.
+   */
+  static Pageable solicitud(int limite) {
+    return PageRequest.of(0, limite + 1);
+  }
+
+  /**
+   * Arma una página a partir del resultado de una consulta hecha con {@link #solicitud(int)}.
+   *
+   * @param resultados Elementos devueltos por la consulta, hasta {@code limite + 1}.
+   * @param limite Límite validado de la página.
+   * @param cursorDe Cursor que apunta a un elemento, aplicado al último de la página.
+   * @param conversion Conversión de cada elemento de la página.
+   * @return Página con el cursor de la siguiente, si existe.
+   */
+  static <E, T> PaginaCursorDTO<T> armarPagina(
+      List<E> resultados,
+      int limite,
+      Function<? super E, String> cursorDe,
+      Function<? super E, ? extends T> conversion) {
+    boolean hayMas = resultados.size() > limite;
+    List<E> pagina = hayMas ? resultados.subList(0, limite) : resultados;
+    String siguienteCursor = hayMas ? cursorDe.apply(pagina.get(pagina.size() - 1)) : null;
+
+    List<T> elementos = new ArrayList<>(pagina.size());
+    for (E elemento : pagina) {
+      elementos.add(conversion.apply(elemento));
+    }
+    return new PaginaCursorDTO<>(elementos, siguienteCursor, hayMas);
+  }
+
+  /**
+   * Arma una página cuyos elementos no necesitan conversión.
+   *
+   * @see #armarPagina(List, int, Function, Function)
+   */
+  static <T> PaginaCursorDTO<T> armarPagina(
+      List<T> resultados, int limite, Function<? super T, String> cursorDe) {
+    return armarPagina(resultados, limite, cursorDe, Function.identity());
+  }
+
+  /**
+   * Codifica la posición del último elemento de una página.
+   *
+   * @param valores Valores de la posición, en el orden de la llave.
+   * @return Cursor apto para URL.
+   */
+  static String codificar(Object... valores) {
+    StringBuilder posicion = new StringBuilder();
+    for (Object valor : valores) {
+      if (posicion.length() > 0) {
+        posicion.append(SEPARADOR);
+      }
+      posicion.append(valor);
+    }
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(posicion.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodifica un cursor generado por {@link #codificar(Object...)}.
+   *
+   * @param cursor Cursor recibido del cliente.
+   * @param cantidad Cantidad de valores esperada.
+   * @return Valores de la posición, sin convertir.
+   * @throws IllegalArgumentException Si el cursor es inválido.
+   */
+  static String[] decodificar(String cursor, int cantidad) {
+    String posicion;
+    try {
+      posicion = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw invalido();
+    }
+    String[] partes = posicion.split("\\" + SEPARADOR, -1);
+    if (partes.length != cantidad) {
+      throw invalido();
+    }
+    return partes;
+  }
+
+  /**
+   * Lee una fecha de un cursor decodificado.
+   *
+   * @throws IllegalArgumentException Si el valor no es una fecha.
+   */
+  static LocalDateTime leerFecha(String valor) {
+    try {
+      return LocalDateTime.parse(valor);
+    } catch (DateTimeParseException e) {
+      throw invalido();
+    }
+  }
+
+  /**
+   * Lee un identificador entero de un cursor decodificado.
+   *
+   * @throws IllegalArgumentException Si el valor no es un entero.
+   */
+  static Integer leerEntero(String valor) {
+    try {
+      return Integer.valueOf(valor);
+    } catch (NumberFormatException e) {
+      throw invalido();
+    }
+  }
+
+  /**
+   * Lee un identificador largo de un cursor decodificado.
+   *
+   * @throws IllegalArgumentException Si el valor no es un entero.
+   */
+  static Long leerLargo(String valor) {
+    try {
+      return Long.valueOf(valor);
+    } catch (NumberFormatException e) {
+      throw invalido();
+    }
+  }
+
+  private static IllegalArgumentException invalido() {
+    return new IllegalArgumentException("Cursor inválido");
+  }
+}
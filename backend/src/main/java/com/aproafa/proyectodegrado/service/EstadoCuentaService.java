@@ -0,0 +1,165 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.EstadoCuentaDTO;
+import com.aproafa.proyectodegrado.model.dto.LineaEstadoCuentaDTO;
+import com.aproafa.proyectodegrado.repository.ClienteRepository;
+import com.aproafa.proyectodegrado.repository.VentaRepository;
+import com.itextpdf.text.DocumentException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio para generar el estado de cuenta mensual de un cliente: todas sus ventas del mes con sus
+ * detalles en un solo PDF, con totales acumulados.
+ *
+ * <p>Las líneas se leen de la base de datos por páginas (paginación por conjunto de claves) y cada
+ * página se escribe en el documento antes de leer la siguiente, por lo que la memoria usada es la
+ * misma para un cliente con diez líneas que para uno con miles. Cada página se consulta en su
+ * propia transacción corta, sin mantener una conexión abierta durante toda la generación.
+ */
+@Service
+public class EstadoCuentaService {
+
+  private static final Logger logger = Logger.getLogger(EstadoCuentaService.class.getName());
+
+  private final ClienteRepository clienteRepository;
+  private final VentaRepository ventaRepository;
+  private final FacturaService facturaService;
+
+  @Value("${clientes.estado-cuenta.tamano-pagina:500}")
+  private int tamanoPagina;
+
+  @Autowired
+  public EstadoCuentaService(
+      ClienteRepository clienteRepository,
+      VentaRepository ventaRepository,
+      FacturaService facturaService) {
+    this.clienteRepository = clienteRepository;
+    this.ventaRepository = ventaRepository;
+    this.facturaService = facturaService;
+  }
+
+  /**
+   * Obtiene el encabezado del estado de cuenta de un cliente para un mes.
+   *
+   * @param idCliente Identificador del cliente.
+   * @param anio Año del periodo.
+   * @param mes Mes del periodo (1 a 12).
+   * @return Datos del cliente y periodo, o {@code null} si el cliente no existe.
+   * @throws IllegalArgumentException Si el periodo es inválido.
+   */
+  public EstadoCuentaDTO obtenerEstadoCuenta(Integer idCliente, int anio, int mes) {
+    YearMonth periodo;
+    try {
+      periodo = YearMonth.of(anio, mes);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("El periodo " + anio + "-" + mes + " no es válido");
+    }
+
+    EstadoCuentaDTO estadoCuenta =
+        clienteRepository.buscarEncabezadoEstadoCuenta(idCliente).orElse(null);
+    if (estadoCuenta != null) {
+      estadoCuenta.setDesde(periodo.atDay(1));
+      estadoCuenta.setHasta(periodo.atEndOfMonth());
+    }
+    return estadoCuenta;
+  }
+
+  /**
+   * Genera el PDF del estado de cuenta escribiéndolo directamente en la salida.
+   *
+   * @param estadoCuenta Encabezado obtenido con {@link #obtenerEstadoCuenta}.
+   * @param salida Flujo de salida; no se cierra al terminar.
+   * @throws DocumentException Si ocurre un error al generar el documento PDF.
+   * @throws IOException Si ocurre un error escribiendo la salida.
+   */
+  public void generarEstadoCuenta(EstadoCuentaDTO estadoCuenta, OutputStream salida)
+      throws DocumentException, IOException {
+    long inicio = System.nanoTime();
+    PaginasEstadoCuenta paginas =
+        new PaginasEstadoCuenta(
+            estadoCuenta.getIdCliente(),
+            estadoCuenta.getDesde().atStartOfDay(),
+            estadoCuenta.getHasta().plusDays(1).atStartOfDay());
+
+    facturaService.generarEstadoCuentaPdf(estadoCuenta, paginas, salida);
+
+    logger.info(
+        String.format(
+            "Estado de cuenta del cliente %d (%s a %s): %d líneas en %d páginas, %d ms",
+            estadoCuenta.getIdCliente(),
+            estadoCuenta.getDesde(),
+            estadoCuenta.getHasta(),
+            paginas.lineas,
+            paginas.consultas,
+            (System.nanoTime() - inicio) / 1_000_000));
+  }
+
+  /**
+   * Recorre las líneas del estado de cuenta consultando una página a la vez. Cada página continúa
+   * desde la última línea de la anterior.
+   */
+  private class PaginasEstadoCuenta implements Iterator<List<LineaEstadoCuentaDTO>> {
+    private final Integer idCliente;
+    private final LocalDateTime desde;
+    private final LocalDateTime hasta;
+    private List<LineaEstadoCuentaDTO> siguiente;
+    private LineaEstadoCuentaDTO cursor;
+    private boolean terminado;
+    private int consultas;
+    private long lineas;
+
+    private PaginasEstadoCuenta(Integer idCliente, LocalDateTime desde, LocalDateTime hasta) {
+      this.idCliente = idCliente;
+      this.desde = desde;
+      this.hasta = hasta;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (siguiente == null && !terminado) {
+        siguiente =
+            ventaRepository.buscarLineasEstadoCuenta(
+                idCliente,
+                desde,
+                hasta,
+                cursor != null ? cursor.getFechaVenta() : null,
+                cursor != null ? cursor.getIdVenta() : null,
+                cursor != null ? cursor.getIdDetalle() : null,
+                PageRequest.of(0, tamanoPagina));
+        consultas++;
+        lineas += siguiente.size();
+        if (siguiente.size() < tamanoPagina) {
+          terminado = true;
+        }
+        if (siguiente.isEmpty()) {
+          siguiente = null;
+        } else {
+          cursor = siguiente.get(siguiente.size() - 1);
+        }
+      }
+      return siguiente != null;
+    }
+
+    @Override
+    public List<LineaEstadoCuentaDTO> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      List<LineaEstadoCuentaDTO> pagina = siguiente;
+      siguiente = null;
+      return pagina;
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FiltroVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FormatoIntercambio;
+import com.aproafa.proyectodegrado.model.dto.LineaVentaExportacionDTO;
+import com.aproafa.proyectodegrado.model.dto.VentaDTO;
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
+import com.aproafa.proyectodegrado.repository.VentaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio para exportar ventas con sus detalles en formato NDJSON o CSV.
+ *
+ * <p>Las líneas se leen con un cursor de solo avance y se escriben en la salida a medida que
+ * llegan, vaciando el búfer cada cierto número de líneas. En memoria solo se mantiene la venta en
+ * curso, de modo que el consumo no depende de la cantidad de ventas exportadas.
+ *
+ * <p>Ambos formatos son los mismos que acepta {@link ImportacionVentaService}: en CSV la columna
+ * {@code referencia} es el identificador de la venta. Las ventas sin detalles no se exportan,
+ * porque la importación las rechaza.
+ */
+@Service
+public class ExportacionVentaService {
+
+  private static final Logger logger = Logger.getLogger(ExportacionVentaService.class.getName());
+
+  private static final int TAMANO_BUFER = 64 * 1024;
+
+  private final VentaRepository ventaRepository;
+  private final ObjectMapper objectMapper;
+
+  @Value("${ventas.exportacion.lineas-por-envio:1000}")
+  private int lineasPorEnvio;
+
+  @Autowired
+  public ExportacionVentaService(VentaRepository ventaRepository, ObjectMapper objectMapper) {
+    this.ventaRepository = ventaRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Valida los filtros de una exportación. Se llama antes de empezar a escribir la respuesta para
+   * poder rechazar la petición con un error de validación.
+   *
+   * @param filtro Filtros de la exportación.
+   * @throws IllegalArgumentException Si el método de pago o el rango de fechas son inválidos.
+   */
+  public void validarFiltro(FiltroVentaDTO filtro) {
+    VentaService.metodoPagoOpcional(filtro.getMetodoPago());
+    if (filtro.getDesde() != null
+        && filtro.getHasta() != null
+        && filtro.getDesde().isAfter(filtro.getHasta())) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+  }
+
+  /**
+   * Escribe en la salida las ventas que cumplen el filtro, ordenadas por fecha e identificador.
+   *
+   * @param filtro Filtros opcionales (finca, cliente, método de pago y rango de fechas).
+   * @param formato Formato de salida.
+   * @param salida Flujo de salida; no se cierra al terminar.
+   * @return Cantidad de líneas escritas, sin contar el encabezado CSV.
+   * @throws IOException Si ocurre un error escribiendo la salida.
+   */
+  @Transactional(readOnly = true)
+  public long exportarVentas(FiltroVentaDTO filtro, FormatoIntercambio formato, OutputStream salida)
+      throws IOException {
+    validarFiltro(filtro);
+    MetodoPago metodoPago = VentaService.metodoPagoOpcional(filtro.getMetodoPago());
+
+    long inicio = System.nanoTime();
+    Writer escritor =
+        new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFER);
+    Exportacion exportacion =
+        formato == FormatoIntercambio.NDJSON
+            ? new ExportacionNdjson(escritor)
+            : new ExportacionCsv(escritor);
+
+    try (Stream<LineaVentaExportacionDTO> lineas =
+        ventaRepository.recorrerLineasExportacion(
+            filtro.getIdFinca(),
+            filtro.getIdCliente(),
+            metodoPago,
+            filtro.getDesde() != null ? filtro.getDesde().atStartOfDay() : null,
+            filtro.getHasta() != null ? filtro.getHasta().plusDays(1).atStartOfDay() : null)) {
+      exportacion.iniciar();
+      Iterator<LineaVentaExportacionDTO> iterador = lineas.iterator();
+      while (iterador.hasNext()) {
+        exportacion.escribir(iterador.next());
+      }
+      exportacion.terminar();
+    }
+    escritor.flush();
+
+    logger.info(
+        String.format(
+            "Exportación de ventas %s: %d líneas en %d ms",
+            formato, exportacion.lineas, (System.nanoTime() - inicio) / 1_000_000));
+    return exportacion.lineas;
+  }
+
+  /** Escritura de una exportación en curso; vacía el búfer cada {@code lineasPorEnvio} líneas. */
+  private abstract class Exportacion {
+    protected final Writer escritor;
+    private long lineas;
+
+    private Exportacion(Writer escritor) {
+      this.escritor = escritor;
+    }
+
+    protected void iniciar() throws IOException {}
+
+    protected abstract void escribir(LineaVentaExportacionDTO linea) throws IOException;
+
+    protected void terminar() throws IOException {}
+
+    /**
+     * Escribe una línea de salida y envía el búfer al cliente cuando corresponde.
+     *
+     * @param texto Contenido de la línea, sin salto de línea.
+     * @throws IOException Si ocurre un error escribiendo la salida.
+     */
+    protected void escribirLinea(String texto) throws IOException {
+      escritor.write(texto);
+      escritor.write('\n');
+      lineas++;
+      if (lineas % lineasPorEnvio == 0) {
+        escritor.flush();
+      }
+    }
+  }
+
+  /** Exportación NDJSON: agrupa las líneas consecutivas de una venta en un solo objeto. */
+  private class ExportacionNdjson extends Exportacion {
+    private VentaDTO venta;
+    private List<DetalleVentaDTO> detalles = new ArrayList<>();
+
+    private ExportacionNdjson(Writer escritor) {
+      super(escritor);
+    }
+
+    @Override
+    protected void escribir(LineaVentaExportacionDTO linea) throws IOException {
+      if (venta == null || !venta.getIdVenta().equals(linea.getIdVenta())) {
+        terminar();
+        venta = convertirAVentaDTO(linea);
+      }
+      detalles.add(convertirADetalleVentaDTO(linea));
+    }
+
+    @Override
+    protected void terminar() throws IOException {
+      if (venta == null) {
+        return;
+      }
+      Map<String, Object> objeto = new LinkedHashMap<>();
+      objeto.put("venta", venta);
+      objeto.put("detalles", detalles);
+      escribirLinea(objectMapper.writeValueAsString(objeto));
+      venta = null;
+      detalles = new ArrayList<>();
+    }
+  }
+
+  /** Exportación CSV: una línea por detalle con las columnas del formato de importación. */
+  private class ExportacionCsv extends Exportacion {
+    private final StringBuilder texto = new StringBuilder(128);
+
+    private ExportacionCsv(Writer escritor) {
+      super(escritor);
+    }
+
+    @Override
+    protected void iniciar() throws IOException {
+      escritor.write(ImportacionVentaService.ENCABEZADO_CSV);
+      escritor.write('\n');
+    }
+
+    @Override
+    protected void escribir(LineaVentaExportacionDTO linea) throws IOException {
+      texto.setLength(0);
+      texto
+          .append(linea.getIdVenta())
+          .append(',')
+          .append(valor(linea.getIdCliente()))
+          .append(',')
+          .append(valor(linea.getIdPersona()))
+          .append(',')
+          .append(valor(linea.getIdFinca()))
+          .append(',')
+          .append(valor(linea.getFechaVenta()))
+          .append(',')
+          .append(campo(linea.getMetodoPago() != null ? linea.getMetodoPago().name() : ""))
+          .append(',')
+          .append(valor(linea.getIdProduccion()))
+          .append(',')
+          .append(valor(linea.getCantidad()))
+          .append(',')
+          .append(
+              linea.getPrecioUnitario() != null ? linea.getPrecioUnitario().toPlainString() : "");
+      escribirLinea(texto.toString());
+    }
+
+    private String valor(Object valor) {
+      return valor != null ? valor.toString() : "";
+    }
+
+    /** Escribe un texto entre comillas si contiene comas, comillas o saltos de línea. */
+    private String campo(String valor) {
+      if (valor.indexOf(',') < 0
+          && valor.indexOf('"') < 0
+          && valor.indexOf('\n') < 0
+          && valor.indexOf('\r') < 0) {
+        return valor;
+      }
+      return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+  }
+
+  private VentaDTO convertirAVentaDTO(LineaVentaExportacionDTO linea) {
+    VentaDTO dto = new VentaDTO();
+    dto.setIdVenta(linea.getIdVenta());
+    dto.setIdCliente(linea.getIdCliente());
+    dto.setIdPersona(linea.getIdPersona());
+    dto.setIdFinca(linea.getIdFinca());
+    dto.setFechaVenta(linea.getFechaVenta());
+    dto.setMetodoPago(linea.getMetodoPago() != null ? linea.getMetodoPago().name() : null);
+    dto.setTotal(linea.getTotal());
+    return dto;
+  }
+
+  private DetalleVentaDTO convertirADetalleVentaDTO(LineaVentaExportacionDTO linea) {
+    DetalleVentaDTO dto = new DetalleVentaDTO();
+    dto.setIdDetalle(linea.getIdDetalle());
+    dto.setIdVenta(linea.getIdVenta());
+    dto.setIdProduccion(linea.getIdProduccion());
+    dto.setCantidad(linea.getCantidad());
+    dto.setPrecioUnitario(linea.getPrecioUnitario());
+    dto.setSubtotal(linea.getSubtotal());
+    return dto;
+  }
+}
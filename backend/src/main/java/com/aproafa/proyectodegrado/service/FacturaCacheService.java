@@ -0,0 +1,254 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.text.DocumentException;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caché en disco de las facturas PDF ya generadas.
+ *
+ * <p>Cada archivo se identifica por el hash SHA-256 del contenido de la factura ({@link
+ * FacturaDTO}) y de la versión de la plantilla, con el nombre {@code <idVenta>-<hash>.pdf}. Si la
+ * venta o sus detalles cambian, el hash cambia y la factura se vuelve a generar, por lo que nunca
+ * se sirve un PDF desactualizado. La invalidación por venta solo libera el espacio de las versiones
+ * anteriores.
+ *
+ * <p>El tamaño total del directorio está limitado; al superarlo se eliminan los archivos usados
+ * hace más tiempo.
+ */
+@Service
+public class FacturaCacheService {
+
+  private static final Logger logger = Logger.getLogger(FacturaCacheService.class.getName());
+
+  /** Versión de la plantilla de factura; cambiarla invalida todos los archivos guardados. */
+  private static final String VERSION_PLANTILLA = "2";
+
+  private static final String EXTENSION = ".pdf";
+
+  private final FacturaService facturaService;
+  private final ObjectMapper objectMapper;
+  private final Path directorio;
+  private final long tamanoMaximo;
+
+  /** Tamaño de cada archivo en orden de acceso; protegido por su propio monitor. */
+  private final LinkedHashMap<String, Long> archivos = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Archivos guardados de cada venta, para invalidarlos. */
+  private final Map<Integer, Set<String>> archivosPorVenta = new HashMap<>();
+
+  private long tamanoTotal;
+
+  @Autowired
+  public FacturaCacheService(
+      FacturaService facturaService,
+      ObjectMapper objectMapper,
+      @Value("${facturas.cache.directorio:${java.io.tmpdir}/facturas-cache}") String directorio,
+      @Value("${facturas.cache.tamano-maximo-mb:512}") long tamanoMaximoMb) {
+    this.facturaService = facturaService;
+    this.objectMapper = objectMapper;
+    this.directorio = Paths.get(directorio);
+    this.tamanoMaximo = tamanoMaximoMb * 1024 * 1024;
+  }
+
+  /** Crea el directorio de la caché y registra los archivos que ya existían. */
+  @PostConstruct
+  public void inicializar() throws IOException {
+    Files.createDirectories(directorio);
+
+    List<Path> existentes = new ArrayList<>();
+    try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+      for (Path archivo : contenido) {
+        String nombre = archivo.getFileName().toString();
+        if (nombre.endsWith(EXTENSION)) {
+          existentes.add(archivo);
+        } else if (nombre.endsWith(".tmp")) {
+          Files.deleteIfExists(archivo);
+        }
+      }
+    }
+
+    // Los archivos usados más recientemente quedan al final del orden de acceso
+    existentes.sort(Comparator.comparing(this::fechaModificacion));
+    synchronized (archivos) {
+      for (Path archivo : existentes) {
+        registrar(archivo.getFileName().toString(), Files.size(archivo));
+      }
+      liberarEspacio();
+    }
+    logger.info(
+        "Caché de facturas en " + directorio + ": " + existentes.size() + " archivos existentes");
+  }
+
+  /**
+   * Abre el archivo PDF de una factura, generándolo solo si no está en la caché.
+   *
+   * <p>El archivo se abre antes de liberar el bloqueo de la caché, de modo que una eliminación
+   * concurrente no afecta al envío en curso. Quien llama debe cerrar el canal.
+   *
+   * @param factura Datos de la factura.
+   * @return Canal de lectura del archivo PDF.
+   * @throws DocumentException Si ocurre un error al generar el documento PDF.
+   * @throws IOException Si ocurre un error leyendo o escribiendo la caché.
+   */
+  public FileChannel abrirFactura(FacturaDTO factura) throws DocumentException, IOException {
+    String nombre = factura.getIdVenta() + "-" + calcularHash(factura) + EXTENSION;
+    Path archivo = directorio.resolve(nombre);
+
+    synchronized (archivos) {
+      if (archivos.get(nombre) != null) {
+        try {
+          return FileChannel.open(archivo, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+          // El archivo se eliminó fuera de la aplicación; se vuelve a generar
+          tamanoTotal -= archivos.remove(nombre);
+        }
+      }
+    }
+
+    // El PDF se escribe directamente en el archivo, sin pasar por un arreglo en memoria
+    Path temporal = Files.createTempFile(directorio, "factura-", ".tmp");
+    long tamano;
+    try {
+      try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+        facturaService.generarFacturaPdf(factura, salida);
+      }
+      tamano = Files.size(temporal);
+      Files.move(
+          temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporal);
+    }
+
+    synchronized (archivos) {
+      FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+      registrar(nombre, tamano);
+      liberarEspacio();
+      return canal;
+    }
+  }
+
+  /**
+   * Elimina de la caché las facturas guardadas de una venta. Se llama cuando la venta se modifica o
+   * se elimina.
+   *
+   * @param idVenta Identificador de la venta.
+   */
+  public void invalidar(Integer idVenta) {
+    if (idVenta == null) {
+      return;
+    }
+    synchronized (archivos) {
+      Set<String> nombres = archivosPorVenta.remove(idVenta);
+      if (nombres == null) {
+        return;
+      }
+      for (String nombre : nombres) {
+        Long tamano = archivos.remove(nombre);
+        if (tamano != null) {
+          tamanoTotal -= tamano;
+        }
+        eliminarArchivo(nombre);
+      }
+    }
+  }
+
+  private void registrar(String nombre, long tamano) {
+    Long anterior = archivos.put(nombre, tamano);
+    tamanoTotal += tamano - (anterior != null ? anterior : 0);
+    Integer idVenta = idVentaDe(nombre);
+    if (idVenta != null) {
+      archivosPorVenta.computeIfAbsent(idVenta, k -> new HashSet<>()).add(nombre);
+    }
+  }
+
+  /** Elimina los archivos usados hace más tiempo hasta quedar dentro del tamaño máximo. */
+  private void liberarEspacio() {
+    Iterator<Map.Entry<String, Long>> iterador = archivos.entrySet().iterator();
+    while (tamanoTotal > tamanoMaximo && iterador.hasNext()) {
+      Map.Entry<String, Long> masAntiguo = iterador.next();
+      iterador.remove();
+      tamanoTotal -= masAntiguo.getValue();
+
+      Integer idVenta = idVentaDe(masAntiguo.getKey());
+      Set<String> nombres = idVenta != null ? archivosPorVenta.get(idVenta) : null;
+      if (nombres != null) {
+        nombres.remove(masAntiguo.getKey());
+        if (nombres.isEmpty()) {
+          archivosPorVenta.remove(idVenta);
+        }
+      }
+      eliminarArchivo(masAntiguo.getKey());
+    }
+  }
+
+  private void eliminarArchivo(String nombre) {
+    try {
+      // Un archivo que se está enviando sigue disponible para quien ya lo abrió
+      Files.deleteIfExists(directorio.resolve(nombre));
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "No se pudo eliminar la factura en caché " + nombre, e);
+    }
+  }
+
+  private Integer idVentaDe(String nombre) {
+    int separador = nombre.indexOf('-');
+    if (separador <= 0) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(nombre.substring(0, separador));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private FileTime fechaModificacion(Path archivo) {
+    try {
+      return Files.getLastModifiedTime(archivo);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  private String calcularHash(FacturaDTO factura) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(VERSION_PLANTILLA.getBytes());
+      return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(factura)));
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("No se pudo calcular el hash de la factura", e);
+    }
+  }
+}
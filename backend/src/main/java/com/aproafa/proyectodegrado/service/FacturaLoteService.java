@@ -0,0 +1,272 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
+import com.aproafa.proyectodegrado.repository.VentaRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio para generar las facturas de varias ventas en un solo archivo ZIP.
+ *
+ * <p>Las facturas se generan en paralelo en un grupo de hilos de tamaño fijo, compartido por todas
+ * las peticiones. Cada petición mantiene en curso a lo sumo tantas facturas como hilos tiene el
+ * grupo y escribe cada PDF en el ZIP apenas está listo, por lo que la memoria usada no depende de
+ * la cantidad de facturas del lote. Los PDF se obtienen de {@link FacturaCacheService}, de modo que
+ * las facturas ya generadas no se vuelven a generar.
+ */
+@Service
+public class FacturaLoteService {
+
+  private static final Logger logger = Logger.getLogger(FacturaLoteService.class.getName());
+
+  private static final int TAMANO_BUFER = 64 * 1024;
+
+  private final VentaService ventaService;
+  private final VentaRepository ventaRepository;
+  private final FacturaCacheService facturaCacheService;
+  private final ThreadPoolExecutor executor;
+  private final int hilos;
+
+  @Value("${facturas.lote.maximo-facturas:5000}")
+  private int maximoFacturas;
+
+  @Autowired
+  public FacturaLoteService(
+      VentaService ventaService,
+      VentaRepository ventaRepository,
+      FacturaCacheService facturaCacheService,
+      @Value("${facturas.lote.hilos:4}") int hilos) {
+    this.ventaService = ventaService;
+    this.ventaRepository = ventaRepository;
+    this.facturaCacheService = facturaCacheService;
+    this.hilos = hilos;
+
+    AtomicInteger contador = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            hilos,
+            hilos,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            tarea -> {
+              Thread hilo = new Thread(tarea, "factura-lote-" + contador.incrementAndGet());
+              hilo.setDaemon(true);
+              return hilo;
+            });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  @PreDestroy
+  public void detener() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Determina las ventas de un lote: la lista de identificadores recibida o, si no se indica, las
+   * ventas de la finca en el rango de fechas.
+   *
+   * @param idFinca Finca de las ventas.
+   * @param desde Fecha inicial, inclusiva.
+   * @param hasta Fecha final, inclusiva.
+   * @param idsVenta Identificadores de las ventas (opcional).
+   * @return Identificadores de las ventas del lote, sin repetidos.
+   * @throws IllegalArgumentException Si faltan parámetros o el lote está vacío o es muy grande.
+   */
+  public List<Integer> resolverVentas(
+      Integer idFinca, LocalDate desde, LocalDate hasta, List<Integer> idsVenta) {
+    List<Integer> ids;
+    if (idsVenta != null && !idsVenta.isEmpty()) {
+      ids = new ArrayList<>(new LinkedHashSet<>(idsVenta));
+    } else {
+      if (idFinca == null || desde == null || hasta == null) {
+        throw new IllegalArgumentException(
+            "Debe indicar los identificadores de las ventas o la finca con el rango de fechas");
+      }
+      if (desde.isAfter(hasta)) {
+        throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+      }
+      ids =
+          ventaRepository.buscarIdsPorFincaYFecha(
+              idFinca, desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
+    }
+
+    if (ids.isEmpty()) {
+      throw new IllegalArgumentException("No hay ventas para generar facturas");
+    }
+    if (ids.size() > maximoFacturas) {
+      throw new IllegalArgumentException(
+          "El lote supera el máximo de " + maximoFacturas + " facturas");
+    }
+    return ids;
+  }
+
+  /**
+   * Genera las facturas de las ventas indicadas y las escribe en la salida como un archivo ZIP, en
+   * el orden en que terminan de generarse. Las ventas que no se pudieron facturar se listan en la
+   * entrada {@code errores.txt}.
+   *
+   * @param idsVenta Identificadores de las ventas.
+   * @param salida Flujo de salida; no se cierra al terminar.
+   * @throws IOException Si ocurre un error escribiendo el ZIP.
+   */
+  public void generarZip(List<Integer> idsVenta, OutputStream salida) throws IOException {
+    long inicio = System.nanoTime();
+    ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(salida, TAMANO_BUFER));
+    // Los PDF ya vienen comprimidos; comprimirlos de nuevo casi no reduce su tamaño
+    zip.setLevel(Deflater.BEST_SPEED);
+
+    CompletionService<FacturaGenerada> generadas = new ExecutorCompletionService<>(executor);
+    Iterator<Integer> pendientes = idsVenta.iterator();
+    List<String> errores = new ArrayList<>();
+    int enCurso = 0;
+    int escritas = 0;
+
+    try {
+      while (enCurso < hilos && pendientes.hasNext()) {
+        enviar(generadas, pendientes.next());
+        enCurso++;
+      }
+
+      while (enCurso > 0) {
+        Future<FacturaGenerada> terminada = tomar(generadas);
+        enCurso--;
+        FacturaGenerada factura = resultado(terminada);
+        if (factura.error != null) {
+          errores.add("Venta " + factura.idVenta + ": " + factura.error);
+        } else {
+          escribirEntrada(zip, factura);
+          escritas++;
+        }
+
+        if (pendientes.hasNext()) {
+          enviar(generadas, pendientes.next());
+          enCurso++;
+        }
+      }
+
+      if (!errores.isEmpty()) {
+        zip.putNextEntry(new ZipEntry("errores.txt"));
+        zip.write(String.join("\n", errores).getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+      }
+      zip.finish();
+      zip.flush();
+    } finally {
+      // Si la escritura se interrumpe, se cierran los archivos de las facturas aún en curso
+      while (enCurso > 0) {
+        Future<FacturaGenerada> terminada = tomar(generadas);
+        enCurso--;
+        cerrar(resultado(terminada));
+      }
+    }
+
+    logger.info(
+        String.format(
+            "Lote de facturas: %d generadas, %d con error en %d ms",
+            escritas, errores.size(), (System.nanoTime() - inicio) / 1_000_000));
+  }
+
+  private void enviar(CompletionService<FacturaGenerada> generadas, Integer idVenta) {
+    generadas.submit(
+        () -> {
+          try {
+            FacturaDTO factura = ventaService.obtenerDatosFactura(idVenta);
+            if (factura == null) {
+              return new FacturaGenerada(idVenta, null, "La venta no existe");
+            }
+            return new FacturaGenerada(idVenta, facturaCacheService.abrirFactura(factura), null);
+          } catch (Exception e) {
+            return new FacturaGenerada(
+                idVenta, null, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+          }
+        });
+  }
+
+  private Future<FacturaGenerada> tomar(CompletionService<FacturaGenerada> generadas)
+      throws IOException {
+    try {
+      return generadas.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Generación del lote de facturas interrumpida", e);
+    }
+  }
+
+  private FacturaGenerada resultado(Future<FacturaGenerada> terminada) throws IOException {
+    try {
+      return terminada.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Generación del lote de facturas interrumpida", e);
+    } catch (ExecutionException e) {
+      // Las tareas capturan sus propios errores; esto solo ocurre si el hilo falla
+      throw new IOException("Error generando el lote de facturas", e.getCause());
+    }
+  }
+
+  private void escribirEntrada(ZipOutputStream zip, FacturaGenerada factura) throws IOException {
+    try (FileChannel origen = factura.archivo) {
+      zip.putNextEntry(new ZipEntry("factura_" + factura.idVenta + ".pdf"));
+      WritableByteChannel destino = Channels.newChannel(zip);
+      long tamano = origen.size();
+      long posicion = 0;
+      while (posicion < tamano) {
+        posicion += origen.transferTo(posicion, tamano - posicion, destino);
+      }
+      zip.closeEntry();
+    }
+    // Cada factura se envía al cliente apenas se termina de escribir
+    zip.flush();
+  }
+
+  private void cerrar(FacturaGenerada factura) {
+    if (factura.archivo != null) {
+      try {
+        factura.archivo.close();
+      } catch (IOException e) {
+        // El lote ya falló; no hay nada más que hacer con este archivo
+      }
+    }
+  }
+
+  /** Resultado de generar la factura de una venta: su archivo abierto o el error. */
+  private static class FacturaGenerada {
+    private final Integer idVenta;
+    private final FileChannel archivo;
+    private final String error;
+
+    private FacturaGenerada(Integer idVenta, FileChannel archivo, String error) {
+      this.idVenta = idVenta;
+      this.archivo = archivo;
+      this.error = error;
+    }
+  }
+}
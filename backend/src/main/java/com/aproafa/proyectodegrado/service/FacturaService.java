@@ -1,12 +1,18 @@
 package com.aproafa.proyectodegrado.service;
 
 import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.EstadoCuentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.LineaEstadoCuentaDTO;
 import com.aproafa.proyectodegrado.model.dto.VentaDTO;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Stream;
 import org.springframework.stereotype.Service;
@@ -20,6 +26,40 @@ import org.springframework.stereotype.Service;
 @Service
 public class FacturaService {
 
+  // Recursos compartidos por todas las facturas. Se crean una sola vez y nunca se modifican
+  // después, por lo que pueden usarse desde varios hilos a la vez.
+
+  private static final Font FUENTE_TITULO = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
+  private static final Font FUENTE_INFO = new Font(Font.FontFamily.HELVETICA, 12);
+  private static final Font FUENTE_CELDA = new Font(Font.FontFamily.HELVETICA, 12);
+  private static final Font FUENTE_TOTAL = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
+  private static final Font FUENTE_PIE = new Font(Font.FontFamily.HELVETICA, 10, Font.ITALIC);
+  private static final Font FUENTE_LINEA = new Font(Font.FontFamily.HELVETICA, 9);
+  private static final Font FUENTE_LINEA_TOTAL = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+
+  private static final DateTimeFormatter FORMATO_FECHA =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+  private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+  private static final float[] ANCHOS_TABLA_PRODUCCIONES = {2f, 1.5f, 2f, 2f, 1.5f};
+  private static final float[] ANCHOS_TABLA_PRODUCTOS = {3f, 1.5f, 1.5f, 2f, 2f};
+  private static final float[] ANCHOS_TABLA_ESTADO_CUENTA = {2f, 1.2f, 3f, 1.2f, 1.8f, 2f, 2.2f};
+
+  /**
+   * Celdas de encabezado ya construidas. {@link PdfPTable#addCell(PdfPCell)} agrega una copia de la
+   * celda, de modo que las plantillas no se modifican al usarlas.
+   */
+  private static final List<PdfPCell> ENCABEZADOS_PRODUCCIONES =
+      crearEncabezados("ID Producción", "Cantidad", "Precio Unitario", "Subtotal", "ID Detalle");
+
+  private static final List<PdfPCell> ENCABEZADOS_PRODUCTOS =
+      crearEncabezados("Producto", "ID Producción", "Cantidad", "Precio Unitario", "Subtotal");
+
+  private static final List<PdfPCell> ENCABEZADOS_ESTADO_CUENTA =
+      crearEncabezados(
+          "Fecha", "Venta", "Producto", "Cantidad", "Precio Unitario", "Subtotal", "Acumulado");
+
   /**
    * Genera un documento PDF que representa la factura de una venta.
    *
@@ -31,18 +71,33 @@ public class FacturaService {
    */
   public byte[] generarFacturaPdf(VentaDTO venta, List<DetalleVentaDTO> detalles)
       throws DocumentException, IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    generarFacturaPdf(venta, detalles, baos);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Genera la factura de una venta escribiendo el PDF directamente en un flujo de salida, sin
+   * mantener el documento completo en memoria.
+   *
+   * @param venta La venta que contiene los datos generales de la transacción.
+   * @param detalles La lista de producciones vendidas (detalles de la venta).
+   * @param salida Flujo donde se escribe el PDF; no se cierra al terminar.
+   * @throws DocumentException Si ocurre un error al generar el documento PDF.
+   * @throws IOException Si ocurre un error de entrada/salida.
+   */
+  public void generarFacturaPdf(VentaDTO venta, List<DetalleVentaDTO> detalles, OutputStream salida)
+      throws DocumentException, IOException {
 
     Document document = new Document();
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
     try {
-      PdfWriter.getInstance(document, baos);
-      document.open();
+      abrirDocumento(document, salida);
 
       agregarEncabezado(document);
       agregarInformacionVenta(document, venta);
       agregarTablaProducciones(document, detalles);
-      agregarTotal(document, venta);
+      agregarTotal(document, venta.getTotal());
       agregarPie(document);
 
     } finally {
@@ -50,10 +105,144 @@ public class FacturaService {
         document.close();
       }
     }
+  }
 
+  /**
+   * Genera la factura de una venta registrada a partir de su modelo de lectura, mostrando los
+   * nombres del cliente, el vendedor, la finca y los productos.
+   *
+   * @param factura Datos de la factura obtenidos con {@link VentaService#obtenerDatosFactura}.
+   * @return Un arreglo de bytes que representa el archivo PDF generado.
+   * @throws DocumentException Si ocurre un error al generar el documento PDF.
+   * @throws IOException Si ocurre un error de entrada/salida.
+   */
+  public byte[] generarFacturaPdf(FacturaDTO factura) throws DocumentException, IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    generarFacturaPdf(factura, baos);
     return baos.toByteArray();
   }
 
+  /**
+   * Genera la factura de una venta registrada escribiendo el PDF directamente en un flujo de
+   * salida, sin mantener el documento completo en memoria.
+   *
+   * @param factura Datos de la factura obtenidos con {@link VentaService#obtenerDatosFactura}.
+   * @param salida Flujo donde se escribe el PDF; no se cierra al terminar.
+   * @throws DocumentException Si ocurre un error al generar el documento PDF.
+   * @throws IOException Si ocurre un error de entrada/salida.
+   */
+  public void generarFacturaPdf(FacturaDTO factura, OutputStream salida)
+      throws DocumentException, IOException {
+    Document document = new Document();
+
+    try {
+      abrirDocumento(document, salida);
+
+      agregarEncabezado(document);
+      agregarInformacionFactura(document, factura);
+      agregarTablaProductos(document, factura.getDetalles());
+      agregarTotal(document, factura.getTotal());
+      agregarPie(document);
+
+    } finally {
+      if (document.isOpen()) {
+        document.close();
+      }
+    }
+  }
+
+  /**
+   * Genera el estado de cuenta de un cliente escribiendo el PDF directamente en un flujo de salida.
+   *
+   * <p>Las líneas se reciben por páginas y la tabla se marca como incompleta, de modo que las filas
+   * de cada página se escriben en el documento y se descartan antes de pedir la siguiente. La
+   * memoria usada no depende de la cantidad de líneas del periodo. Cada línea muestra el total
+   * acumulado del periodo y cada venta cierra con una fila con su total.
+   *
+   * @param estadoCuenta Datos del cliente y periodo del estado de cuenta.
+   * @param paginas Páginas de líneas en orden de fecha, venta y detalle.
+   * @param salida Flujo donde se escribe el PDF; no se cierra al terminar.
+   * @throws DocumentException Si ocurre un error al generar el documento PDF.
+   * @throws IOException Si ocurre un error de entrada/salida.
+   */
+  public void generarEstadoCuentaPdf(
+      EstadoCuentaDTO estadoCuenta,
+      Iterator<List<LineaEstadoCuentaDTO>> paginas,
+      OutputStream salida)
+      throws DocumentException, IOException {
+    Document document = new Document();
+
+    try {
+      abrirDocumento(document, salida);
+
+      Paragraph titulo = new Paragraph("ESTADO DE CUENTA", FUENTE_TITULO);
+      titulo.setAlignment(Element.ALIGN_CENTER);
+      document.add(titulo);
+      document.add(Chunk.NEWLINE);
+      agregarInformacionEstadoCuenta(document, estadoCuenta);
+
+      PdfPTable table = new PdfPTable(7);
+      table.setWidthPercentage(100);
+      table.setSpacingBefore(10f);
+      table.setWidths(ANCHOS_TABLA_ESTADO_CUENTA);
+      // El encabezado se repite en cada página del documento
+      table.setHeaderRows(1);
+      table.setComplete(false);
+      agregarEncabezadosTabla(table, ENCABEZADOS_ESTADO_CUENTA);
+
+      BigDecimal acumulado = BigDecimal.ZERO;
+      LineaEstadoCuentaDTO ventaActual = null;
+      int ventas = 0;
+
+      while (paginas.hasNext()) {
+        for (LineaEstadoCuentaDTO linea : paginas.next()) {
+          if (ventaActual == null || !ventaActual.getIdVenta().equals(linea.getIdVenta())) {
+            if (ventaActual != null) {
+              agregarTotalVentaEstadoCuenta(table, ventaActual, acumulado);
+            }
+            ventaActual = linea;
+            ventas++;
+          }
+          BigDecimal subtotal = linea.getSubtotal() != null ? linea.getSubtotal() : BigDecimal.ZERO;
+          acumulado = acumulado.add(subtotal);
+          agregarLineaEstadoCuenta(table, linea, subtotal, acumulado);
+        }
+        // Escribe las filas de esta página y las libera de la tabla
+        document.add(table);
+      }
+      if (ventaActual != null) {
+        agregarTotalVentaEstadoCuenta(table, ventaActual, acumulado);
+      }
+      table.setComplete(true);
+      document.add(table);
+
+      if (ventas == 0) {
+        document.add(new Paragraph("No hay ventas en el periodo.", FUENTE_INFO));
+      }
+      document.add(new Paragraph("Cantidad de ventas: " + ventas, FUENTE_INFO));
+      agregarTotal(document, acumulado);
+
+    } finally {
+      if (document.isOpen()) {
+        document.close();
+      }
+    }
+  }
+
+  /**
+   * Asocia el documento a un flujo de salida y lo abre. El flujo no se cierra al cerrar el
+   * documento, para que quien lo creó (por ejemplo, la respuesta HTTP) decida cuándo cerrarlo.
+   *
+   * @param document Documento PDF.
+   * @param salida Flujo de salida.
+   * @throws DocumentException Si no se puede crear el escritor del documento.
+   */
+  private void abrirDocumento(Document document, OutputStream salida) throws DocumentException {
+    PdfWriter writer = PdfWriter.getInstance(document, salida);
+    writer.setCloseStream(false);
+    document.open();
+  }
+
   /**
    * Agrega el encabezado principal del documento PDF.
    *
@@ -61,8 +250,7 @@ public class FacturaService {
    * @throws DocumentException Si ocurre un error al agregar el encabezado.
    */
   private void agregarEncabezado(Document document) throws DocumentException {
-    Font tituloFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
-    Paragraph titulo = new Paragraph("FACTURA DE VENTA", tituloFont);
+    Paragraph titulo = new Paragraph("FACTURA DE VENTA", FUENTE_TITULO);
     titulo.setAlignment(Element.ALIGN_CENTER);
     document.add(titulo);
     document.add(Chunk.NEWLINE);
@@ -76,51 +264,244 @@ public class FacturaService {
    * @throws DocumentException Si ocurre un error al agregar los datos.
    */
   private void agregarInformacionVenta(Document document, VentaDTO venta) throws DocumentException {
-    Font infoFont = new Font(Font.FontFamily.HELVETICA, 12);
-    document.add(new Paragraph("Número de Factura: " + venta.getIdVenta(), infoFont));
-    document.add(new Paragraph("ID Cliente: " + venta.getIdCliente(), infoFont));
-    document.add(new Paragraph("ID Empleado: " + venta.getIdPersona(), infoFont));
+    document.add(new Paragraph("Número de Factura: " + venta.getIdVenta(), FUENTE_INFO));
+    document.add(new Paragraph("ID Cliente: " + venta.getIdCliente(), FUENTE_INFO));
+    document.add(new Paragraph("ID Empleado: " + venta.getIdPersona(), FUENTE_INFO));
 
     if (venta.getFechaVenta() != null) {
       document.add(
-          new Paragraph(
-              "Fecha: "
-                  + venta.getFechaVenta().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-              infoFont));
+          new Paragraph("Fecha: " + venta.getFechaVenta().format(FORMATO_FECHA), FUENTE_INFO));
     }
 
     if (venta.getMetodoPago() != null) {
-      document.add(new Paragraph("Método de pago: " + venta.getMetodoPago(), infoFont));
+      document.add(new Paragraph("Método de pago: " + venta.getMetodoPago(), FUENTE_INFO));
     }
     document.add(Chunk.NEWLINE);
   }
 
   /**
-   * Agrega una tabla con las producciones vendidas (detalles de la venta).
+   * Agrega la información general de una factura, con los nombres del cliente, el vendedor y la
+   * finca. Si algún nombre no está disponible se muestra su identificador.
    *
    * @param document Documento PDF.
-   * @param detalles Lista de producciones vendidas.
+   * @param factura Datos de la factura.
+   * @throws DocumentException Si ocurre un error al agregar los datos.
+   */
+  private void agregarInformacionFactura(Document document, FacturaDTO factura)
+      throws DocumentException {
+    document.add(new Paragraph("Número de Factura: " + factura.getIdVenta(), FUENTE_INFO));
+
+    if (factura.getNombreFinca() != null) {
+      String ubicacion =
+          factura.getUbicacionFinca() != null ? " - " + factura.getUbicacionFinca() : "";
+      document.add(new Paragraph("Finca: " + factura.getNombreFinca() + ubicacion, FUENTE_INFO));
+    }
+
+    if (factura.getNombreCliente() != null) {
+      document.add(new Paragraph("Cliente: " + factura.getNombreCliente(), FUENTE_INFO));
+      if (factura.getIdentificacionCliente() != null) {
+        document.add(
+            new Paragraph("Identificación: " + factura.getIdentificacionCliente(), FUENTE_INFO));
+      }
+      if (factura.getTelefonoCliente() != null) {
+        document.add(new Paragraph("Teléfono: " + factura.getTelefonoCliente(), FUENTE_INFO));
+      }
+      if (factura.getDireccionCliente() != null) {
+        document.add(new Paragraph("Dirección: " + factura.getDireccionCliente(), FUENTE_INFO));
+      }
+    } else {
+      document.add(new Paragraph("ID Cliente: " + factura.getIdCliente(), FUENTE_INFO));
+    }
+
+    document.add(
+        new Paragraph(
+            "Vendedor: "
+                + (factura.getNombreVendedor() != null
+                    ? factura.getNombreVendedor()
+                    : factura.getIdPersona()),
+            FUENTE_INFO));
+
+    if (factura.getFechaVenta() != null) {
+      document.add(
+          new Paragraph("Fecha: " + factura.getFechaVenta().format(FORMATO_FECHA), FUENTE_INFO));
+    }
+
+    if (factura.getMetodoPago() != null) {
+      document.add(new Paragraph("Método de pago: " + factura.getMetodoPago(), FUENTE_INFO));
+    }
+    document.add(Chunk.NEWLINE);
+  }
+
+  /**
+   * Agrega los datos del cliente y el periodo del estado de cuenta.
+   *
+   * @param document Documento PDF.
+   * @param estadoCuenta Datos del estado de cuenta.
+   * @throws DocumentException Si ocurre un error al agregar los datos.
+   */
+  private void agregarInformacionEstadoCuenta(Document document, EstadoCuentaDTO estadoCuenta)
+      throws DocumentException {
+    document.add(new Paragraph("Cliente: " + estadoCuenta.getNombreCliente(), FUENTE_INFO));
+    if (estadoCuenta.getIdentificacionCliente() != null) {
+      document.add(
+          new Paragraph("Identificación: " + estadoCuenta.getIdentificacionCliente(), FUENTE_INFO));
+    }
+    if (estadoCuenta.getTelefonoCliente() != null) {
+      document.add(new Paragraph("Teléfono: " + estadoCuenta.getTelefonoCliente(), FUENTE_INFO));
+    }
+    if (estadoCuenta.getDireccionCliente() != null) {
+      document.add(new Paragraph("Dirección: " + estadoCuenta.getDireccionCliente(), FUENTE_INFO));
+    }
+    document.add(
+        new Paragraph(
+            "Periodo: "
+                + estadoCuenta.getDesde().format(FORMATO_DIA)
+                + " a "
+                + estadoCuenta.getHasta().format(FORMATO_DIA),
+            FUENTE_INFO));
+  }
+
+  /**
+   * Agrega una fila con un detalle de venta y el total acumulado del periodo.
+   *
+   * @param table Tabla del estado de cuenta.
+   * @param linea Línea del estado de cuenta.
+   * @param subtotal Subtotal de la línea.
+   * @param acumulado Total acumulado hasta esta línea, inclusive.
+   */
+  private void agregarLineaEstadoCuenta(
+      PdfPTable table, LineaEstadoCuentaDTO linea, BigDecimal subtotal, BigDecimal acumulado) {
+    table.addCell(
+        crearCelda(
+            linea.getFechaVenta().format(FORMATO_FECHA), FUENTE_LINEA, Element.ALIGN_CENTER));
+    table.addCell(
+        crearCelda(String.valueOf(linea.getIdVenta()), FUENTE_LINEA, Element.ALIGN_CENTER));
+    table.addCell(
+        crearCelda(
+            linea.getNombreProducto() != null ? linea.getNombreProducto() : "Sin nombre",
+            FUENTE_LINEA,
+            Element.ALIGN_LEFT));
+    table.addCell(
+        crearCelda(String.valueOf(linea.getCantidad()), FUENTE_LINEA, Element.ALIGN_CENTER));
+    table.addCell(
+        crearCelda(
+            linea.getPrecioUnitario() != null ? "$" + linea.getPrecioUnitario() : "$0.00",
+            FUENTE_LINEA,
+            Element.ALIGN_RIGHT));
+    table.addCell(crearCelda("$" + subtotal, FUENTE_LINEA, Element.ALIGN_RIGHT));
+    table.addCell(crearCelda("$" + acumulado, FUENTE_LINEA, Element.ALIGN_RIGHT));
+  }
+
+  /**
+   * Agrega la fila que cierra una venta en el estado de cuenta, con su total registrado.
+   *
+   * @param table Tabla del estado de cuenta.
+   * @param venta Una línea de la venta, con sus datos generales.
+   * @param acumulado Total acumulado hasta el último detalle de la venta.
+   */
+  private void agregarTotalVentaEstadoCuenta(
+      PdfPTable table, LineaEstadoCuentaDTO venta, BigDecimal acumulado) {
+    PdfPCell etiqueta =
+        crearCelda(
+            "Total venta " + venta.getIdVenta() + " (" + venta.getMetodoPago() + ")",
+            FUENTE_LINEA_TOTAL,
+            Element.ALIGN_RIGHT);
+    etiqueta.setColspan(5);
+    table.addCell(etiqueta);
+    table.addCell(
+        crearCelda(
+            venta.getTotalVenta() != null ? "$" + venta.getTotalVenta() : "$0.00",
+            FUENTE_LINEA_TOTAL,
+            Element.ALIGN_RIGHT));
+    table.addCell(crearCelda("$" + acumulado, FUENTE_LINEA_TOTAL, Element.ALIGN_RIGHT));
+  }
+
+  /**
+   * Agrega una tabla con los productos vendidos, mostrando el nombre del producto de cada
+   * producción.
+   *
+   * @param document Documento PDF.
+   * @param detalles Detalles de la venta con el nombre del producto.
    * @throws DocumentException Si ocurre un error al construir la tabla.
    */
-  private void agregarTablaProducciones(Document document, List<DetalleVentaDTO> detalles)
+  private void agregarTablaProductos(Document document, List<DetalleVentaDTO> detalles)
       throws DocumentException {
 
     PdfPTable table = new PdfPTable(5);
     table.setWidthPercentage(100);
     table.setSpacingBefore(10f);
     table.setSpacingAfter(10f);
-    table.setWidths(new float[] {2f, 1.5f, 2f, 2f, 1.5f});
+    table.setWidths(ANCHOS_TABLA_PRODUCTOS);
 
-    // Encabezados actualizados
-    Stream.of("ID Producción", "Cantidad", "Precio Unitario", "Subtotal", "ID Detalle")
-        .forEach(
+    agregarEncabezadosTabla(table, ENCABEZADOS_PRODUCTOS);
+
+    for (DetalleVentaDTO detalle : detalles) {
+      String producto =
+          detalle.getNombreProducto() != null ? detalle.getNombreProducto() : "Sin nombre";
+      table.addCell(crearCeldaCentrada(producto));
+      table.addCell(crearCeldaCentrada(String.valueOf(detalle.getIdProduccion())));
+      table.addCell(crearCeldaCentrada(String.valueOf(detalle.getCantidad())));
+
+      String precioStr =
+          detalle.getPrecioUnitario() != null ? "$" + detalle.getPrecioUnitario() : "$0.00";
+      table.addCell(crearCeldaDerecha(precioStr));
+
+      String subtotalStr = detalle.getSubtotal() != null ? "$" + detalle.getSubtotal() : "$0.00";
+      table.addCell(crearCeldaDerecha(subtotalStr));
+    }
+
+    document.add(table);
+  }
+
+  /**
+   * Agrega una fila de encabezados a una tabla a partir de celdas ya construidas.
+   *
+   * @param table Tabla PDF.
+   * @param encabezados Celdas de encabezado compartidas.
+   */
+  private void agregarEncabezadosTabla(PdfPTable table, List<PdfPCell> encabezados) {
+    for (PdfPCell encabezado : encabezados) {
+      table.addCell(encabezado);
+    }
+  }
+
+  /**
+   * Construye las celdas de encabezado de una tabla, con fondo gris y texto centrado.
+   *
+   * @param encabezados Textos de los encabezados.
+   * @return Celdas de encabezado, en una lista inmutable.
+   */
+  private static List<PdfPCell> crearEncabezados(String... encabezados) {
+    return Stream.of(encabezados)
+        .map(
             header -> {
-              PdfPCell cell = new PdfPCell(new Phrase(header));
+              PdfPCell cell = new PdfPCell(new Phrase(header, FUENTE_CELDA));
               cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
               cell.setHorizontalAlignment(Element.ALIGN_CENTER);
               cell.setPadding(8);
-              table.addCell(cell);
-            });
+              return cell;
+            })
+        .toList();
+  }
+
+  /**
+   * Agrega una tabla con las producciones vendidas (detalles de la venta).
+   *
+   * @param document Documento PDF.
+   * @param detalles Lista de producciones vendidas.
+   * @throws DocumentException Si ocurre un error al construir la tabla.
+   */
+  private void agregarTablaProducciones(Document document, List<DetalleVentaDTO> detalles)
+      throws DocumentException {
+
+    PdfPTable table = new PdfPTable(5);
+    table.setWidthPercentage(100);
+    table.setSpacingBefore(10f);
+    table.setSpacingAfter(10f);
+    table.setWidths(ANCHOS_TABLA_PRODUCCIONES);
+
+    // Encabezados actualizados
+    agregarEncabezadosTabla(table, ENCABEZADOS_PRODUCCIONES);
 
     for (DetalleVentaDTO detalle : detalles) {
       agregarFilaProduccion(table, detalle);
@@ -153,13 +534,12 @@ public class FacturaService {
    * Agrega el total de la venta en el documento.
    *
    * @param document Documento PDF.
-   * @param venta Venta con el valor total.
+   * @param totalVenta Valor total de la venta.
    * @throws DocumentException Si ocurre un error al agregar el total.
    */
-  private void agregarTotal(Document document, VentaDTO venta) throws DocumentException {
-    Font totalFont = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-    String totalStr = venta.getTotal() != null ? "$" + venta.getTotal() : "$0.00";
-    Paragraph total = new Paragraph("TOTAL: " + totalStr, totalFont);
+  private void agregarTotal(Document document, BigDecimal totalVenta) throws DocumentException {
+    String totalStr = totalVenta != null ? "$" + totalVenta : "$0.00";
+    Paragraph total = new Paragraph("TOTAL: " + totalStr, FUENTE_TOTAL);
     total.setAlignment(Element.ALIGN_RIGHT);
     total.setSpacingBefore(10f);
     document.add(total);
@@ -173,8 +553,7 @@ public class FacturaService {
    */
   private void agregarPie(Document document) throws DocumentException {
     document.add(Chunk.NEWLINE);
-    Font pieFont = new Font(Font.FontFamily.HELVETICA, 10, Font.ITALIC);
-    Paragraph pie = new Paragraph("Gracias por su compra", pieFont);
+    Paragraph pie = new Paragraph("Gracias por su compra", FUENTE_PIE);
     pie.setAlignment(Element.ALIGN_CENTER);
     document.add(pie);
   }
@@ -186,7 +565,7 @@ public class FacturaService {
    * @return Celda con alineación centrada.
    */
   private PdfPCell crearCeldaCentrada(String texto) {
-    PdfPCell cell = new PdfPCell(new Phrase(texto));
+    PdfPCell cell = new PdfPCell(new Phrase(texto, FUENTE_CELDA));
     cell.setHorizontalAlignment(Element.ALIGN_CENTER);
     cell.setPadding(5);
     return cell;
@@ -199,9 +578,24 @@ public class FacturaService {
    * @return Celda con alineación derecha.
    */
   private PdfPCell crearCeldaDerecha(String texto) {
-    PdfPCell cell = new PdfPCell(new Phrase(texto));
+    PdfPCell cell = new PdfPCell(new Phrase(texto, FUENTE_CELDA));
     cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
     cell.setPadding(5);
     return cell;
   }
+
+  /**
+   * Crea una celda de tabla con la fuente y alineación indicadas.
+   *
+   * @param texto Contenido de la celda.
+   * @param fuente Fuente del texto.
+   * @param alineacion Alineación horizontal ({@link Element#ALIGN_LEFT}, etc.).
+   * @return Celda construida.
+   */
+  private PdfPCell crearCelda(String texto, Font fuente, int alineacion) {
+    PdfPCell cell = new PdfPCell(new Phrase(texto, fuente));
+    cell.setHorizontalAlignment(alineacion);
+    cell.setPadding(4);
+    return cell;
+  }
 }
@@ -0,0 +1,269 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.ComparativoConsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.ConsumoInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.HistorialInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
+import com.aproafa.proyectodegrado.model.entity.ConsumoInsumoDiario;
+import com.aproafa.proyectodegrado.model.entity.ConsumoInsumoMensual;
+import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
+import com.aproafa.proyectodegrado.repository.ConsumoInsumoDiarioRepository;
+import com.aproafa.proyectodegrado.repository.ConsumoInsumoMensualRepository;
+import com.aproafa.proyectodegrado.repository.HistorialInsumoRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio que registra y consulta el historial de uso de los insumos.
+ *
+ * <p>El historial ({@code historial_insumo}) solo recibe inserciones. Cada registro se suma en la
+ * misma transacción a los consumos diarios ({@code consumo_insumo_diario}) y mensuales ({@code
+ * consumo_insumo_mensual}), de modo que los gráficos de consumo y las comparaciones entre años leen
+ * tablas agregadas pequeñas en lugar de recorrer el historial completo. El historial detallado se
+ * consulta por páginas y por rango de fechas.
+ */
+@Service
+@Transactional
+public class HistorialInsumoService {
+
+  /** Mes mínimo usado cuando una reconstrucción no indica el inicio del rango. */
+  private static final LocalDate FECHA_MINIMA = LocalDate.of(1900, 1, 1);
+
+  /** Mes máximo usado cuando una reconstrucción no indica el fin del rango. */
+  private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 1);
+
+  /** Cantidad máxima de días de una consulta de consumo diario. */
+  private static final long MAXIMO_DIAS_CONSULTA = 366;
+
+  private final HistorialInsumoRepository historialRepository;
+  private final ConsumoInsumoDiarioRepository diarioRepository;
+  private final ConsumoInsumoMensualRepository mensualRepository;
+  private final PronosticoInsumoService pronosticoInsumoService;
+
+  @Autowired
+  public HistorialInsumoService(
+      HistorialInsumoRepository historialRepository,
+      ConsumoInsumoDiarioRepository diarioRepository,
+      ConsumoInsumoMensualRepository mensualRepository,
+      PronosticoInsumoService pronosticoInsumoService) {
+    this.historialRepository = historialRepository;
+    this.diarioRepository = diarioRepository;
+    this.mensualRepository = mensualRepository;
+    this.pronosticoInsumoService = pronosticoInsumoService;
+  }
+
+  /**
+   * Inserta registros en el historial y los suma a los consumos diarios y mensuales. De cada insumo
+   * solo se usa su identificador.
+   *
+   * @param registros Registros de uso a guardar.
+   */
+  public void registrar(List<HistorialInsumo> registros) {
+    if (registros == null || registros.isEmpty()) {
+      return;
+    }
+    historialRepository.insertarEnLote(registros);
+    historialRepository.acumularConsumos(registros);
+    pronosticoInsumoService.registrarConsumos(registros);
+  }
+
+  /**
+   * Obtiene una página del historial de un insumo, del uso más reciente al más antiguo.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param desde Día inicial, inclusivo (opcional).
+   * @param hasta Día final, inclusivo (opcional).
+   * @param cursor Cursor devuelto por la página anterior, o {@code null} para la primera página.
+   * @param limite Cantidad máxima de registros de la página.
+   * @return Página de registros con el cursor para continuar.
+   * @throws IllegalArgumentException Si el rango, el cursor o el límite son inválidos.
+   */
+  @Transactional(readOnly = true)
+  public PaginaCursorDTO<HistorialInsumoDTO> consultarHistorial(
+      int idInsumo, LocalDate desde, LocalDate hasta, String cursor, Integer limite) {
+    int tamano = CursorPaginacion.validarLimite(limite);
+    if (desde != null && hasta != null && desde.isAfter(hasta)) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+
+    LocalDateTime fechaCursor = null;
+    Integer idCursor = null;
+    if (cursor != null && !cursor.isBlank()) {
+      String[] partes = CursorPaginacion.decodificar(cursor, 2);
+      fechaCursor = CursorPaginacion.leerFecha(partes[0]);
+      idCursor = CursorPaginacion.leerEntero(partes[1]);
+    }
+
+    List<HistorialInsumoDTO> registros =
+        historialRepository.buscarPagina(
+            idInsumo,
+            desde != null ? desde.atStartOfDay() : null,
+            hasta != null ? hasta.plusDays(1).atStartOfDay() : null,
+            fechaCursor,
+            idCursor,
+            CursorPaginacion.solicitud(tamano));
+    return CursorPaginacion.armarPagina(
+        registros, tamano, h -> CursorPaginacion.codificar(h.getFechaUso(), h.getIdHistorial()));
+  }
+
+  /**
+   * Consulta el consumo diario de un insumo en un rango de días. Los días sin uso no aparecen.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param desde Día inicial, inclusivo.
+   * @param hasta Día final, inclusivo.
+   * @return Consumo de cada día con uso, ordenado por día.
+   * @throws IllegalArgumentException Si el rango es inválido o supera un año.
+   */
+  @Transactional(readOnly = true)
+  public List<ConsumoInsumoDTO> consultarConsumoDiario(
+      int idInsumo, LocalDate desde, LocalDate hasta) {
+    if (desde == null || hasta == null) {
+      throw new IllegalArgumentException("Las fechas inicial y final son obligatorias");
+    }
+    if (desde.isAfter(hasta)) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+    if (desde.plusDays(MAXIMO_DIAS_CONSULTA).isBefore(hasta)) {
+      throw new IllegalArgumentException(
+          "El rango no puede superar " + MAXIMO_DIAS_CONSULTA + " días; use el consumo mensual");
+    }
+
+    return diarioRepository.consultar(idInsumo, desde, hasta).stream()
+        .map(this::convertirADTO)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Consulta el consumo mensual de un insumo en un rango de meses. Los meses sin uso no aparecen.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param desde Mes inicial, inclusivo.
+   * @param hasta Mes final, inclusivo.
+   * @return Consumo de cada mes con uso, ordenado por mes.
+   * @throws IllegalArgumentException Si el rango es inválido.
+   */
+  @Transactional(readOnly = true)
+  public List<ConsumoInsumoDTO> consultarConsumoMensual(
+      int idInsumo, YearMonth desde, YearMonth hasta) {
+    if (desde == null || hasta == null) {
+      throw new IllegalArgumentException("Los meses inicial y final son obligatorios");
+    }
+    if (desde.isAfter(hasta)) {
+      throw new IllegalArgumentException("El mes inicial no puede ser posterior al final");
+    }
+
+    return mensualRepository
+        .consultar(idInsumo, desde.getYear(), hasta.getYear(), clave(desde), clave(hasta))
+        .stream()
+        .map(this::convertirADTO)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Compara el consumo mensual de un insumo en un año con el del año anterior. Lee a lo sumo 24
+   * filas del consumo mensual.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @param anio Año a comparar.
+   * @return Doce filas, una por mes, con el consumo de ambos años y su variación.
+   */
+  @Transactional(readOnly = true)
+  public List<ComparativoConsumoDTO> compararAnios(int idInsumo, int anio) {
+    BigDecimal[] actual = new BigDecimal[12];
+    BigDecimal[] anterior = new BigDecimal[12];
+    for (ConsumoInsumoMensual consumo :
+        mensualRepository.consultar(
+            idInsumo,
+            anio - 1,
+            anio,
+            clave(YearMonth.of(anio - 1, 1)),
+            clave(YearMonth.of(anio, 12)))) {
+      BigDecimal[] destino = consumo.getAnio() == anio ? actual : anterior;
+      destino[consumo.getMes() - 1] = consumo.getCantidad();
+    }
+
+    List<ComparativoConsumoDTO> comparativo = new ArrayList<>(12);
+    for (int i = 0; i < 12; i++) {
+      BigDecimal cantidad = actual[i] != null ? actual[i] : BigDecimal.ZERO;
+      BigDecimal cantidadAnterior = anterior[i] != null ? anterior[i] : BigDecimal.ZERO;
+
+      ComparativoConsumoDTO dto = new ComparativoConsumoDTO();
+      dto.setMes(i + 1);
+      dto.setCantidad(cantidad);
+      dto.setCantidadAnioAnterior(cantidadAnterior);
+      if (cantidadAnterior.signum() != 0) {
+        dto.setVariacionPorcentual(
+            cantidad
+                .subtract(cantidadAnterior)
+                .multiply(BigDecimal.valueOf(100))
+                .divide(cantidadAnterior, 2, RoundingMode.HALF_UP));
+      }
+      comparativo.add(dto);
+    }
+    return comparativo;
+  }
+
+  /**
+   * Reconstruye los consumos diarios y mensuales a partir del historial. El rango se amplía a meses
+   * completos para que los consumos mensuales queden correctos. Se usa para la carga inicial del
+   * historial existente o para corregir los consumos después de modificaciones directas en la base
+   * de datos.
+   *
+   * @param desde Día inicial ({@code null} para no limitar).
+   * @param hasta Día final ({@code null} para no limitar).
+   * @return Cantidad de filas de consumo diario generadas.
+   */
+  public int reconstruirConsumos(LocalDate desde, LocalDate hasta) {
+    LocalDate inicio = (desde != null ? desde : FECHA_MINIMA).withDayOfMonth(1);
+    LocalDate fin = YearMonth.from(hasta != null ? hasta : FECHA_MAXIMA).atEndOfMonth();
+    if (inicio.isAfter(fin)) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+
+    LocalDateTime inicioRango = inicio.atStartOfDay();
+    LocalDateTime finRango = fin.plusDays(1).atStartOfDay();
+
+    diarioRepository.eliminarRango(inicio, fin);
+    int diarios = diarioRepository.reconstruirRango(inicioRango, finRango);
+
+    mensualRepository.eliminarRango(clave(YearMonth.from(inicio)), clave(YearMonth.from(fin)));
+    mensualRepository.reconstruirRango(inicioRango, finRango);
+    return diarios;
+  }
+
+  /** Representa un mes como {@code año * 100 + mes}, el formato de las consultas mensuales. */
+  private static int clave(YearMonth mes) {
+    return mes.getYear() * 100 + mes.getMonthValue();
+  }
+
+  private ConsumoInsumoDTO convertirADTO(ConsumoInsumoDiario consumo) {
+    ConsumoInsumoDTO dto = new ConsumoInsumoDTO();
+    dto.setIdInsumo(consumo.getIdInsumo());
+    dto.setFecha(consumo.getFecha());
+    dto.setAnio(consumo.getFecha().getYear());
+    dto.setMes(consumo.getFecha().getMonthValue());
+    dto.setUsos(consumo.getUsos());
+    dto.setCantidad(consumo.getCantidad());
+    return dto;
+  }
+
+  private ConsumoInsumoDTO convertirADTO(ConsumoInsumoMensual consumo) {
+    ConsumoInsumoDTO dto = new ConsumoInsumoDTO();
+    dto.setIdInsumo(consumo.getIdInsumo());
+    dto.setAnio(consumo.getAnio());
+    dto.setMes(consumo.getMes());
+    dto.setUsos(consumo.getUsos());
+    dto.setCantidad(consumo.getCantidad());
+    return dto;
+  }
+}
@@ -0,0 +1,363 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.entity.RespuestaIdempotente;
+import com.aproafa.proyectodegrado.repository.RespuestaIdempotenteRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Servicio que hace idempotentes las peticiones que traen el encabezado {@code Idempotency-Key}.
+ *
+ * <p>La primera petición con una clave se ejecuta normalmente y su respuesta se guarda durante un
+ * tiempo configurable. Los reintentos con la misma clave y el mismo cuerpo reciben la respuesta
+ * guardada sin volver a ejecutar la operación; si llegan mientras la primera aún se procesa,
+ * esperan a que termine. Una clave reutilizada con un cuerpo diferente se rechaza.
+ *
+ * <p>Las respuestas se mantienen en memoria con un límite de entradas (se descartan las menos
+ * usadas que ya terminaron) y, opcionalmente, en la tabla {@code respuesta_idempotente} para que
+ * sigan vigentes después de reiniciar la aplicación. En modo persistente la respuesta se guarda en
+ * la misma transacción que la operación, de modo que una venta confirmada siempre queda asociada a
+ * su clave. Las respuestas con error de servidor no se guardan, para que el cliente pueda
+ * reintentar.
+ */
+@Service
+public class IdempotenciaService {
+
+  private static final Logger logger = Logger.getLogger(IdempotenciaService.class.getName());
+
+  /** Nombre del encabezado HTTP con la clave de idempotencia. */
+  public static final String ENCABEZADO = "Idempotency-Key";
+
+  /** Encabezado agregado a las respuestas que se devuelven desde el almacenamiento. */
+  public static final String ENCABEZADO_REPETIDA = "Idempotent-Replayed";
+
+  private static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+  /** Cada cuántas respuestas persistidas se eliminan las expiradas de la tabla. */
+  private static final int PURGA_CADA = 500;
+
+  private final RespuestaIdempotenteRepository respuestaRepository;
+  private final ObjectMapper objectMapper;
+  private final long vigenciaMs;
+  private final long esperaMs;
+  private final boolean persistente;
+  private final int maximoEntradas;
+  private final TransactionTemplate transaccion;
+  private final AtomicInteger escrituras = new AtomicInteger();
+
+  /** Registros en orden de acceso; protegido por su propio monitor. */
+  private final Map<String, Registro> registros;
+
+  @Autowired
+  public IdempotenciaService(
+      RespuestaIdempotenteRepository respuestaRepository,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${ventas.idempotencia.vigencia-minutos:1440}") long vigenciaMinutos,
+      @Value("${ventas.idempotencia.maximo-entradas:10000}") int maximoEntradas,
+      @Value("${ventas.idempotencia.espera-segundos:30}") long esperaSegundos,
+      @Value("${ventas.idempotencia.persistente:false}") boolean persistente) {
+    this.respuestaRepository = respuestaRepository;
+    this.objectMapper = objectMapper;
+    this.vigenciaMs = TimeUnit.MINUTES.toMillis(vigenciaMinutos);
+    this.esperaMs = TimeUnit.SECONDS.toMillis(esperaSegundos);
+    this.persistente = persistente;
+    this.maximoEntradas = maximoEntradas;
+    this.transaccion = new TransactionTemplate(transactionManager);
+    this.registros = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Ejecuta una operación de forma idempotente según la clave recibida.
+   *
+   * @param clave Valor del encabezado {@code Idempotency-Key}.
+   * @param solicitud Cuerpo de la petición, usado para detectar claves reutilizadas.
+   * @param operacion Operación que atiende la petición.
+   * @return Respuesta de la operación, o la respuesta guardada si la clave ya se usó.
+   * @throws IllegalArgumentException Si la clave es inválida.
+   */
+  public ResponseEntity<?> ejecutar(
+      String clave, Object solicitud, Supplier<ResponseEntity<?>> operacion) {
+    String claveLimpia = clave != null ? clave.trim() : "";
+    if (claveLimpia.isEmpty() || claveLimpia.length() > LONGITUD_MAXIMA_CLAVE) {
+      throw new IllegalArgumentException(
+          "La clave de idempotencia debe tener entre 1 y " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+    }
+    String huella = calcularHuella(solicitud);
+
+    Registro registro;
+    boolean propietario = false;
+    synchronized (registros) {
+      registro = registros.get(claveLimpia);
+      if (registro != null && registro.expirado()) {
+        registros.remove(claveLimpia);
+        registro = null;
+      }
+      if (registro == null) {
+        registro = new Registro(System.currentTimeMillis() + vigenciaMs);
+        registros.put(claveLimpia, registro);
+        propietario = true;
+        recortar();
+      }
+    }
+
+    if (!propietario) {
+      return esperarRespuesta(registro, huella);
+    }
+
+    try {
+      Respuesta guardada = buscarPersistida(claveLimpia);
+      if (guardada != null) {
+        registro.futuro.complete(guardada);
+        return responder(guardada, huella);
+      }
+
+      long expiraEn = registro.expiraEn;
+      Ejecucion ejecucion =
+          persistente
+              ? transaccion.execute(
+                  estado -> ejecutarYPersistir(claveLimpia, huella, expiraEn, operacion, estado))
+              : new Ejecucion(operacion.get(), huella);
+      Respuesta respuesta = ejecucion.respuesta;
+
+      if (respuesta.estado >= 500) {
+        descartar(claveLimpia, registro);
+      } else if (persistente && !ejecucion.persistida) {
+        // La operación se revirtió sin confirmar cambios: la respuesta se guarda por separado
+        persistirAparte(claveLimpia, respuesta, expiraEn);
+      }
+      if (ejecucion.persistida && escrituras.incrementAndGet() % PURGA_CADA == 0) {
+        purgarExpiradas();
+      }
+      // Solo se publica después de confirmar la transacción, para que ningún reintento reciba una
+      // respuesta que luego se revierte
+      registro.futuro.complete(respuesta);
+      return ejecucion.resultado;
+    } catch (RuntimeException e) {
+      descartar(claveLimpia, registro);
+      registro.futuro.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Ejecuta la operación dentro de la transacción en curso y guarda su respuesta en esa misma
+   * transacción. Si la operación falló (la transacción quedó marcada para revertirse o respondió
+   * con error de servidor), se revierte todo y no se guarda nada aquí.
+   */
+  private Ejecucion ejecutarYPersistir(
+      String clave,
+      String huella,
+      long expiraEn,
+      Supplier<ResponseEntity<?>> operacion,
+      TransactionStatus estado) {
+    Ejecucion ejecucion = new Ejecucion(operacion.get(), huella);
+    if (estado.isRollbackOnly() || ejecucion.respuesta.estado >= 500) {
+      estado.setRollbackOnly();
+      return ejecucion;
+    }
+    // Si la escritura falla, la excepción revierte también la operación
+    respuestaRepository.saveAndFlush(nuevaEntidad(clave, ejecucion.respuesta, expiraEn));
+    ejecucion.persistida = true;
+    return ejecucion;
+  }
+
+  /**
+   * Descarta los registros menos usados mientras se supere el límite de entradas, y los expirados
+   * que estén al inicio del orden de acceso. Los registros cuya petición aún se procesa nunca se
+   * descartan, para que sus reintentos sigan esperando a la original en lugar de ejecutarla otra
+   * vez; mientras haya muchas en curso el mapa puede superar temporalmente el límite. Se invoca con
+   * el monitor de {@code registros} tomado.
+   */
+  private void recortar() {
+    Iterator<Registro> iterador = registros.values().iterator();
+    while (iterador.hasNext()) {
+      Registro registro = iterador.next();
+      if (registros.size() <= maximoEntradas && !registro.expirado()) {
+        return;
+      }
+      if (registro.futuro.isDone()) {
+        iterador.remove();
+      }
+    }
+  }
+
+  /**
+   * Espera a que termine la petición original con la misma clave y devuelve su respuesta.
+   *
+   * @param registro Registro de la petición original.
+   * @param huella Huella del cuerpo de la petición actual.
+   * @return Respuesta de la petición original, o HTTP 409 si no terminó dentro del tiempo de
+   *     espera.
+   */
+  private ResponseEntity<?> esperarRespuesta(Registro registro, String huella) {
+    try {
+      return responder(registro.futuro.get(esperaMs, TimeUnit.MILLISECONDS), huella);
+    } catch (TimeoutException e) {
+      return error(HttpStatus.CONFLICT, "La petición original aún se está procesando");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return error(HttpStatus.CONFLICT, "La petición original aún se está procesando");
+    } catch (ExecutionException e) {
+      return error(HttpStatus.INTERNAL_SERVER_ERROR, "La petición original falló");
+    }
+  }
+
+  private ResponseEntity<?> responder(Respuesta respuesta, String huella) {
+    if (!respuesta.huella.equals(huella)) {
+      return error(
+          HttpStatus.UNPROCESSABLE_ENTITY,
+          "La clave de idempotencia ya se usó con una petición diferente");
+    }
+    return ResponseEntity.status(respuesta.estado)
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(ENCABEZADO_REPETIDA, "true")
+        .body(respuesta.cuerpo);
+  }
+
+  private ResponseEntity<?> error(HttpStatus estado, String mensaje) {
+    return ResponseEntity.status(estado)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body("{\"error\": \"" + mensaje + "\"}");
+  }
+
+  private void descartar(String clave, Registro registro) {
+    synchronized (registros) {
+      registros.remove(clave, registro);
+    }
+  }
+
+  private Respuesta buscarPersistida(String clave) {
+    if (!persistente) {
+      return null;
+    }
+    try {
+      return respuestaRepository
+          .findById(clave)
+          .filter(r -> r.getFechaExpiracion().isAfter(LocalDateTime.now()))
+          .map(r -> new Respuesta(r.getHuella(), r.getEstado(), r.getCuerpo()))
+          .orElse(null);
+    } catch (DataAccessException e) {
+      logger.log(Level.WARNING, "No se pudo consultar la respuesta idempotente " + clave, e);
+      return null;
+    }
+  }
+
+  private void persistirAparte(String clave, Respuesta respuesta, long expiraEn) {
+    try {
+      respuestaRepository.save(nuevaEntidad(clave, respuesta, expiraEn));
+    } catch (DataAccessException e) {
+      // La respuesta sigue disponible en memoria; solo se pierde tras un reinicio
+      logger.log(Level.WARNING, "No se pudo guardar la respuesta idempotente " + clave, e);
+    }
+  }
+
+  private void purgarExpiradas() {
+    try {
+      respuestaRepository.eliminarExpiradas(LocalDateTime.now());
+    } catch (DataAccessException e) {
+      logger.log(Level.WARNING, "No se pudieron eliminar las respuestas idempotentes expiradas", e);
+    }
+  }
+
+  private RespuestaIdempotente nuevaEntidad(String clave, Respuesta respuesta, long expiraEn) {
+    RespuestaIdempotente entidad = new RespuestaIdempotente();
+    entidad.setClave(clave);
+    entidad.setHuella(respuesta.huella);
+    entidad.setEstado(respuesta.estado);
+    entidad.setCuerpo(respuesta.cuerpo);
+    entidad.setFechaCreacion(LocalDateTime.now());
+    entidad.setFechaExpiracion(
+        LocalDateTime.ofInstant(Instant.ofEpochMilli(expiraEn), ZoneId.systemDefault()));
+    return entidad;
+  }
+
+  private String serializar(Object cuerpo) {
+    if (cuerpo == null || cuerpo instanceof String) {
+      return (String) cuerpo;
+    }
+    try {
+      return objectMapper.writeValueAsString(cuerpo);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("No se pudo serializar la respuesta", e);
+    }
+  }
+
+  private String calcularHuella(Object solicitud) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(solicitud)));
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("No se pudo calcular la huella de la petición", e);
+    }
+  }
+
+  /** Respuesta guardada de una petición. */
+  private static class Respuesta {
+    private final String huella;
+    private final int estado;
+    private final String cuerpo;
+
+    private Respuesta(String huella, int estado, String cuerpo) {
+      this.huella = huella;
+      this.estado = estado;
+      this.cuerpo = cuerpo;
+    }
+  }
+
+  /** Resultado de ejecutar la operación original. */
+  private class Ejecucion {
+    private final ResponseEntity<?> resultado;
+    private final Respuesta respuesta;
+
+    /** Si la respuesta se guardó en la misma transacción que la operación. */
+    private boolean persistida;
+
+    private Ejecucion(ResponseEntity<?> resultado, String huella) {
+      this.resultado = resultado;
+      this.respuesta =
+          new Respuesta(huella, resultado.getStatusCode().value(), serializar(resultado.getBody()));
+    }
+  }
+
+  /** Petición registrada con una clave; su futuro se completa cuando termina la original. */
+  private static class Registro {
+    private final CompletableFuture<Respuesta> futuro = new CompletableFuture<>();
+    private final long expiraEn;
+
+    private Registro(long expiraEn) {
+      this.expiraEn = expiraEn;
+    }
+
+    private boolean expirado() {
+      return System.currentTimeMillis() > expiraEn;
+    }
+  }
+}
@@ -0,0 +1,478 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.ErrorImportacionDTO;
+import com.aproafa.proyectodegrado.model.dto.FormatoIntercambio;
+import com.aproafa.proyectodegrado.model.dto.ResultadoImportacionDTO;
+import com.aproafa.proyectodegrado.model.dto.VentaDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Servicio para importar ventas históricas de forma masiva desde archivos NDJSON o CSV.
+ *
+ * <p>El archivo se lee línea por línea y solo se mantiene en memoria el lote en curso, por lo que
+ * el consumo de memoria no depende del tamaño del archivo. Cada venta se valida con las mismas
+ * reglas de {@link VentaService#guardarVentaConDetalles} y las ventas válidas se confirman en
+ * transacciones de tamaño configurable. Una venta inválida se reporta y no detiene la importación.
+ *
+ * <p>Columnas del formato CSV (con encabezado, separadas por coma; un valor puede ir entre comillas
+ * dobles según RFC 4180): {@code
+ * referencia,idCliente,idPersona,idFinca,fechaVenta,metodoPago,idProduccion,cantidad,precioUnitario}.
+ * Las líneas consecutivas con la misma referencia forman una venta y los datos generales de la
+ * venta se toman de su primera línea.
+ */
+@Service
+public class ImportacionVentaService {
+
+  private static final Logger logger = Logger.getLogger(ImportacionVentaService.class.getName());
+
+  /** Encabezado esperado en los archivos CSV. */
+  public static final String ENCABEZADO_CSV =
+      "referencia,idCliente,idPersona,idFinca,fechaVenta,metodoPago,idProduccion,cantidad,"
+          + "precioUnitario";
+
+  private static final int COLUMNAS_CSV = 9;
+
+  /** Tamaño de lote máximo permitido para una importación. */
+  public static final int TAMANO_LOTE_MAXIMO = 1000;
+
+  private static final TypeReference<List<DetalleVentaDTO>> TIPO_DETALLES =
+      new TypeReference<>() {};
+
+  private final VentaService ventaService;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${ventas.importacion.tamano-lote:100}")
+  private int tamanoLoteDefecto;
+
+  @Value("${ventas.importacion.maximo-errores:1000}")
+  private int maximoErrores;
+
+  @Value("${ventas.importacion.csv.maximo-lineas-campo:100}")
+  private int maximoLineasCampo;
+
+  @Value("${ventas.importacion.csv.maximo-caracteres-campo:65536}")
+  private int maximoCaracteresCampo;
+
+  @Autowired
+  public ImportacionVentaService(
+      VentaService ventaService,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager) {
+    this.ventaService = ventaService;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Importa las ventas contenidas en un flujo de entrada.
+   *
+   * @param entrada Flujo con el contenido del archivo, en UTF-8.
+   * @param formato Formato del contenido.
+   * @param tamanoLote Ventas por transacción, o {@code null} para usar el valor configurado.
+   * @return Resumen de la importación con los errores por venta.
+   * @throws IOException Si ocurre un error leyendo el flujo.
+   * @throws IllegalArgumentException Si el tamaño de lote o el encabezado CSV son inválidos.
+   */
+  public ResultadoImportacionDTO importarVentas(
+      InputStream entrada, FormatoIntercambio formato, Integer tamanoLote) throws IOException {
+    int tamano = tamanoLote != null ? tamanoLote : tamanoLoteDefecto;
+    if (tamano < 1 || tamano > TAMANO_LOTE_MAXIMO) {
+      throw new IllegalArgumentException(
+          "El tamaño de lote debe estar entre 1 y " + TAMANO_LOTE_MAXIMO);
+    }
+
+    long inicio = System.nanoTime();
+    Importacion importacion = new Importacion(tamano);
+
+    try (BufferedReader lector =
+        new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+      if (formato == FormatoIntercambio.NDJSON) {
+        leerNdjson(lector, importacion);
+      } else {
+        leerCsv(lector, importacion);
+      }
+    }
+    importacion.procesarLote();
+
+    ResultadoImportacionDTO resultado = importacion.resultado;
+    long duracionNanos = Math.max(System.nanoTime() - inicio, 1);
+    resultado.setDuracionMs(duracionNanos / 1_000_000);
+    resultado.setFilasPorSegundo(resultado.getLineasLeidas() * 1_000_000_000d / duracionNanos);
+
+    logger.info(
+        String.format(
+            "Importación de ventas: %d líneas, %d ventas importadas, %d rechazadas en %d ms"
+                + " (%.1f filas/s)",
+            resultado.getLineasLeidas(),
+            resultado.getVentasImportadas(),
+            resultado.getVentasRechazadas(),
+            resultado.getDuracionMs(),
+            resultado.getFilasPorSegundo()));
+    return resultado;
+  }
+
+  /**
+   * Lee un contenido NDJSON: cada línea no vacía es una venta con sus detalles.
+   *
+   * @param lector Lector del contenido.
+   * @param importacion Estado de la importación en curso.
+   * @throws IOException Si ocurre un error de lectura.
+   */
+  private void leerNdjson(BufferedReader lector, Importacion importacion) throws IOException {
+    long numeroLinea = 0;
+    String linea;
+    while ((linea = lector.readLine()) != null) {
+      numeroLinea++;
+      if (linea.isBlank()) {
+        continue;
+      }
+      importacion.resultado.setLineasLeidas(importacion.resultado.getLineasLeidas() + 1);
+
+      VentaPendiente pendiente = new VentaPendiente(numeroLinea, null);
+      try {
+        JsonNode nodo = objectMapper.readTree(linea);
+        pendiente.venta = objectMapper.treeToValue(nodo.get("venta"), VentaDTO.class);
+        pendiente.detalles = objectMapper.convertValue(nodo.get("detalles"), TIPO_DETALLES);
+        if (pendiente.venta == null) {
+          pendiente.error = "La línea no contiene el objeto 'venta'";
+        }
+      } catch (JsonProcessingException e) {
+        pendiente.error = "JSON inválido: " + e.getOriginalMessage();
+      } catch (IllegalArgumentException e) {
+        pendiente.error = "JSON inválido: " + e.getMessage();
+      }
+      importacion.agregar(pendiente);
+    }
+  }
+
+  /**
+   * Lee un contenido CSV: cada línea es un detalle y las líneas consecutivas con la misma
+   * referencia forman una venta.
+   *
+   * @param lector Lector del contenido.
+   * @param importacion Estado de la importación en curso.
+   * @throws IOException Si ocurre un error de lectura.
+   */
+  private void leerCsv(BufferedReader lector, Importacion importacion) throws IOException {
+    LectorCsv csv = new LectorCsv(lector, maximoLineasCampo, maximoCaracteresCampo);
+    List<String> encabezado = csv.leerRegistro();
+    if (encabezado == null) {
+      return;
+    }
+    if (!String.join(",", encabezado)
+        .replace("\uFEFF", "")
+        .replace(" ", "")
+        .equalsIgnoreCase(ENCABEZADO_CSV)) {
+      throw new IllegalArgumentException("Encabezado CSV inválido. Se esperaba: " + ENCABEZADO_CSV);
+    }
+
+    VentaPendiente actual = null;
+    List<String> registro;
+    while ((registro = csv.leerRegistro()) != null) {
+      long numeroLinea = csv.lineaInicio;
+      if (registro.size() == 1 && registro.get(0).isBlank()) {
+        continue;
+      }
+      importacion.resultado.setLineasLeidas(importacion.resultado.getLineasLeidas() + 1);
+
+      String[] columnas = registro.toArray(new String[0]);
+      String referencia = columnas[0].trim();
+
+      if (actual == null || !referencia.equals(actual.referencia)) {
+        if (actual != null) {
+          importacion.agregar(actual);
+        }
+        actual = new VentaPendiente(numeroLinea, referencia);
+        actual.detalles = new ArrayList<>();
+      }
+
+      if (actual.error != null) {
+        continue;
+      }
+      if (csv.comillasSinCerrar) {
+        actual.error =
+            "Línea " + numeroLinea + ": campo entre comillas sin cerrar o demasiado extenso";
+        continue;
+      }
+      if (columnas.length != COLUMNAS_CSV) {
+        actual.error = "Línea " + numeroLinea + ": se esperaban " + COLUMNAS_CSV + " columnas";
+        continue;
+      }
+
+      try {
+        if (actual.venta == null) {
+          actual.venta = leerVentaCsv(columnas);
+        }
+        actual.detalles.add(leerDetalleCsv(columnas));
+      } catch (RuntimeException e) {
+        actual.error = "Línea " + numeroLinea + ": valor inválido (" + e.getMessage() + ")";
+      }
+    }
+
+    if (actual != null) {
+      importacion.agregar(actual);
+    }
+  }
+
+  private VentaDTO leerVentaCsv(String[] columnas) {
+    VentaDTO venta = new VentaDTO();
+    venta.setIdCliente(enteroOpcional(columnas[1]));
+    venta.setIdPersona(enteroOpcional(columnas[2]));
+    venta.setIdFinca(enteroOpcional(columnas[3]));
+
+    String fecha = columnas[4].trim();
+    if (!fecha.isEmpty()) {
+      venta.setFechaVenta(
+          fecha.contains("T") ? LocalDateTime.parse(fecha) : LocalDate.parse(fecha).atStartOfDay());
+    }
+    venta.setMetodoPago(columnas[5].trim());
+    return venta;
+  }
+
+  private DetalleVentaDTO leerDetalleCsv(String[] columnas) {
+    DetalleVentaDTO detalle = new DetalleVentaDTO();
+    detalle.setIdProduccion(enteroOpcional(columnas[6]));
+    detalle.setCantidad(enteroOpcional(columnas[7]));
+    String precio = columnas[8].trim();
+    detalle.setPrecioUnitario(precio.isEmpty() ? null : new BigDecimal(precio));
+    return detalle;
+  }
+
+  private Integer enteroOpcional(String valor) {
+    String limpio = valor.trim();
+    return limpio.isEmpty() ? null : Integer.valueOf(limpio);
+  }
+
+  /**
+   * Lector de registros CSV según RFC 4180: un campo entre comillas dobles puede contener comas,
+   * saltos de línea y comillas escritas dos veces ({@code ""}).
+   *
+   * <p>Un campo entre comillas puede abarcar como máximo una cantidad configurable de líneas y de
+   * caracteres. Si supera el límite o el contenido termina sin cerrar las comillas, el registro se
+   * marca como inválido y las líneas que había absorbido se vuelven a leer como registros propios,
+   * de modo que una comilla suelta no acumula el resto del archivo en memoria.
+   */
+  private static class LectorCsv {
+    private final BufferedReader lector;
+    private final int maximoLineasCampo;
+    private final int maximoCaracteresCampo;
+
+    /** Líneas ya leídas que deben procesarse antes de seguir con el lector. */
+    private final Deque<String> pendientes = new ArrayDeque<>();
+
+    private long numeroLinea;
+
+    /** Línea donde empieza el último registro leído. */
+    private long lineaInicio;
+
+    /** Si el último registro tenía un campo entre comillas sin cerrar o demasiado extenso. */
+    private boolean comillasSinCerrar;
+
+    private LectorCsv(BufferedReader lector, int maximoLineasCampo, int maximoCaracteresCampo) {
+      this.lector = lector;
+      this.maximoLineasCampo = maximoLineasCampo;
+      this.maximoCaracteresCampo = maximoCaracteresCampo;
+    }
+
+    private String siguienteLinea() throws IOException {
+      String linea = pendientes.isEmpty() ? lector.readLine() : pendientes.poll();
+      if (linea != null) {
+        numeroLinea++;
+      }
+      return linea;
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return Campos del registro, o {@code null} al final del contenido.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    private List<String> leerRegistro() throws IOException {
+      String linea = siguienteLinea();
+      if (linea == null) {
+        return null;
+      }
+      lineaInicio = numeroLinea;
+      comillasSinCerrar = false;
+
+      List<String> campos = new ArrayList<>();
+      List<String> continuacion = new ArrayList<>();
+      StringBuilder campo = new StringBuilder();
+      boolean entreComillas = false;
+      int i = 0;
+      while (true) {
+        if (i == linea.length()) {
+          if (!entreComillas) {
+            break;
+          }
+          // Salto de línea dentro de un campo entre comillas
+          String siguiente =
+              continuacion.size() < maximoLineasCampo && campo.length() <= maximoCaracteresCampo
+                  ? siguienteLinea()
+                  : null;
+          if (siguiente == null) {
+            comillasSinCerrar = true;
+            // Se retoma la lectura en la línea siguiente al inicio del registro inválido
+            for (int j = continuacion.size() - 1; j >= 0; j--) {
+              pendientes.addFirst(continuacion.get(j));
+            }
+            numeroLinea = lineaInicio;
+            break;
+          }
+          continuacion.add(siguiente);
+          campo.append('\n');
+          linea = siguiente;
+          i = 0;
+          continue;
+        }
+        char c = linea.charAt(i++);
+        if (entreComillas) {
+          if (c != '"') {
+            campo.append(c);
+          } else if (i < linea.length() && linea.charAt(i) == '"') {
+            campo.append('"');
+            i++;
+          } else {
+            entreComillas = false;
+          }
+        } else if (c == '"' && campo.length() == 0) {
+          entreComillas = true;
+        } else if (c == ',') {
+          campos.add(campo.toString());
+          campo.setLength(0);
+        } else {
+          campo.append(c);
+        }
+      }
+      campos.add(campo.toString());
+      return campos;
+    }
+  }
+
+  /** Venta leída del archivo que aún no se ha guardado. */
+  private static class VentaPendiente {
+    private final long linea;
+    private final String referencia;
+    private VentaDTO venta;
+    private List<DetalleVentaDTO> detalles;
+    private String error;
+
+    private VentaPendiente(long linea, String referencia) {
+      this.linea = linea;
+      this.referencia = referencia;
+    }
+  }
+
+  /** Estado de una importación en curso: lote pendiente y resumen acumulado. */
+  private class Importacion {
+    private final int tamanoLote;
+    private final List<VentaPendiente> lote;
+    private final ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+
+    private Importacion(int tamanoLote) {
+      this.tamanoLote = tamanoLote;
+      this.lote = new ArrayList<>(tamanoLote);
+    }
+
+    /**
+     * Valida una venta leída y la agrega al lote, guardando el lote cuando se completa.
+     *
+     * @param pendiente Venta leída del archivo.
+     */
+    private void agregar(VentaPendiente pendiente) {
+      resultado.setVentasLeidas(resultado.getVentasLeidas() + 1);
+      if (pendiente.error != null) {
+        registrarError(pendiente, pendiente.error);
+        return;
+      }
+
+      try {
+        // La importación siempre crea ventas nuevas
+        pendiente.venta.setIdVenta(null);
+        ventaService.validarVentaConDetalles(pendiente.venta, pendiente.detalles);
+      } catch (IllegalArgumentException e) {
+        registrarError(pendiente, e.getMessage());
+        return;
+      }
+
+      lote.add(pendiente);
+      if (lote.size() >= tamanoLote) {
+        procesarLote();
+      }
+    }
+
+    /**
+     * Guarda el lote pendiente en una sola transacción. Si la transacción falla, se reintenta cada
+     * venta en su propia transacción para aislar las que producen el error sin perder las demás.
+     */
+    private void procesarLote() {
+      if (lote.isEmpty()) {
+        return;
+      }
+
+      try {
+        transactionTemplate.executeWithoutResult(
+            estado -> {
+              for (VentaPendiente pendiente : lote) {
+                ventaService.guardarVentaConDetalles(pendiente.venta, pendiente.detalles);
+              }
+            });
+        lote.forEach(this::registrarExito);
+      } catch (RuntimeException errorLote) {
+        for (VentaPendiente pendiente : lote) {
+          try {
+            transactionTemplate.executeWithoutResult(
+                estado ->
+                    ventaService.guardarVentaConDetalles(pendiente.venta, pendiente.detalles));
+            registrarExito(pendiente);
+          } catch (RuntimeException e) {
+            registrarError(pendiente, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+          }
+        }
+      }
+      lote.clear();
+    }
+
+    private void registrarExito(VentaPendiente pendiente) {
+      resultado.setVentasImportadas(resultado.getVentasImportadas() + 1);
+      resultado.setDetallesImportados(
+          resultado.getDetallesImportados() + pendiente.detalles.size());
+    }
+
+    private void registrarError(VentaPendiente pendiente, String mensaje) {
+      resultado.setVentasRechazadas(resultado.getVentasRechazadas() + 1);
+      if (resultado.getErrores().size() < maximoErrores) {
+        resultado
+            .getErrores()
+            .add(new ErrorImportacionDTO(pendiente.linea, pendiente.referencia, mensaje));
+      } else {
+        resultado.setErroresOmitidos(resultado.getErroresOmitidos() + 1);
+      }
+    }
+  }
+}
@@ -1,15 +1,28 @@
 package com.aproafa.proyectodegrado.service;
 
+import com.aproafa.proyectodegrado.model.dto.AlertaStockDTO;
+import com.aproafa.proyectodegrado.model.dto.LineaUsoInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.ResultadoLineaUsoInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.ResultadoUsoInsumosDTO;
+import com.aproafa.proyectodegrado.model.dto.SolicitudUsoInsumosDTO;
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
 import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
 import com.aproafa.proyectodegrado.model.entity.Insumo;
 import com.aproafa.proyectodegrado.repository.HistorialInsumoRepository;
 import com.aproafa.proyectodegrado.repository.InsumoRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Servicio encargado de gestionar las operaciones relacionadas con los insumos.
@@ -26,6 +39,13 @@ public class InsumoService {
 
   @Autowired private HistorialInsumoRepository historialInsumoRepository;
 
+  @Autowired private HistorialInsumoService historialInsumoService;
+
+  @Autowired private AlertaStockService alertaStockService;
+
+  @Value("${insumos.uso-lote.maximo-lineas:500}")
+  private int maximoLineasLote;
+
   /**
    * Obtiene todos los insumos registrados en el sistema.
    *
@@ -46,15 +66,29 @@ public class InsumoService {
   }
 
   /**
-   * Obtiene los insumos cuyo stock disponible es inferior a un límite especificado.
+   * Obtiene los insumos cuyo stock disponible es inferior a un límite especificado. El filtro se
+   * aplica en la base de datos.
    *
    * @param limite El límite de stock para filtrar los insumos.
    * @return Una lista de insumos con stock disponible inferior al límite.
    */
   public List<Insumo> getInsumosBajosStock(BigDecimal limite) {
-    return insumoRepository.findAll().stream()
-        .filter(insumo -> insumo.getCantidadDisponible().compareTo(limite) < 0)
-        .toList();
+    return insumoRepository.buscarBajoStock(limite);
+  }
+
+  /**
+   * Obtiene los insumos de una finca con stock bajo: los que están en su punto de reorden o por
+   * debajo de él o, si se indica un límite, los que tienen menos stock que ese límite.
+   *
+   * @param idFinca El ID de la finca.
+   * @param limite Límite de stock (opcional); sin él se usa el punto de reorden de cada insumo.
+   * @return Una lista de insumos con stock bajo, de menor a mayor cantidad.
+   */
+  public List<Insumo> getInsumosBajosStockPorFinca(Integer idFinca, BigDecimal limite) {
+    if (limite != null) {
+      return insumoRepository.buscarBajoStockPorFinca(idFinca, limite);
+    }
+    return insumoRepository.buscarBajoPuntoReorden(idFinca);
   }
 
   /**
@@ -77,39 +111,295 @@ public class InsumoService {
   }
 
   /**
-   * Registra el uso de un insumo, actualizando su cantidad disponible y almacenando el evento en el
+   * Registra el uso de un insumo, descontando su cantidad disponible y almacenando el evento en el
    * historial.
    *
+   * <p>El descuento se hace con {@link #descontarStock}, en una sola sentencia atómica.
+   *
    * @param idInsumo El ID del insumo utilizado.
    * @param cantidadUsada La cantidad de insumo utilizada.
-   * @throws IllegalArgumentException Si la cantidad utilizada excede la cantidad disponible.
+   * @throws IllegalArgumentException Si la cantidad no es positiva, el insumo no existe o la
+   *     cantidad utilizada excede la cantidad disponible.
    */
+  @Transactional
   public void registrarUsoInsumo(int idInsumo, BigDecimal cantidadUsada) {
-    Optional<Insumo> optionalInsumo = insumoRepository.findById(idInsumo);
-    if (optionalInsumo.isPresent()) {
-      Insumo insumo = optionalInsumo.get();
-      BigDecimal nuevaCantidad = insumo.getCantidadDisponible().subtract(cantidadUsada);
-
-      // Validar que no se use más cantidad de la disponible
-      if (nuevaCantidad.compareTo(BigDecimal.ZERO) < 0) {
-        throw new IllegalArgumentException("No se puede usar más insumo del disponible.");
+    if (!descontarStock(idInsumo, cantidadUsada)) {
+      // Solo en el caso de error se lee el insumo, para distinguir la causa
+      Insumo insumo =
+          insumoRepository
+              .findById(idInsumo)
+              .orElseThrow(
+                  () -> new IllegalArgumentException("Insumo no encontrado con ID: " + idInsumo));
+      throw new IllegalArgumentException(
+          "Stock insuficiente para el insumo: " + insumo.getNombre());
+    }
+
+    // Registrar en el historial; la referencia evita volver a leer el insumo
+    HistorialInsumo historial = new HistorialInsumo();
+    historial.setInsumo(insumoRepository.getReferenceById(idInsumo));
+    historial.setCantidadUtilizada(cantidadUsada);
+    historial.setFechaUso(LocalDateTime.now());
+    historialInsumoService.registrar(List.of(historial));
+  }
+
+  /**
+   * Registra varios usos de insumos en una sola transacción.
+   *
+   * <p>Los insumos afectados se leen y bloquean en una sola consulta, en orden ascendente de
+   * identificador para que dos lotes concurrentes no puedan bloquearse mutuamente. Las líneas se
+   * validan y aplican en memoria en el orden recibido (varias líneas pueden usar el mismo insumo),
+   * y luego el stock y el historial se escriben en un lote de sentencias cada uno. La cantidad de
+   * viajes a la base de datos no depende de la cantidad de líneas.
+   *
+   * @param solicitud Usos a registrar y si deben aplicarse todos o ninguno.
+   * @return Resultado de cada línea. Si {@code todoONada} está activo y alguna línea falla, no se
+   *     aplica ninguna.
+   * @throws IllegalArgumentException Si la solicitud no tiene usos o supera el máximo de líneas.
+   */
+  @Transactional
+  public ResultadoUsoInsumosDTO registrarUsosInsumo(SolicitudUsoInsumosDTO solicitud) {
+    List<LineaUsoInsumoDTO> usos = solicitud != null ? solicitud.getUsos() : null;
+    if (usos == null || usos.isEmpty()) {
+      throw new IllegalArgumentException("Debe indicar al menos un uso de insumo.");
+    }
+    if (usos.size() > maximoLineasLote) {
+      throw new IllegalArgumentException(
+          "Un lote no puede tener más de " + maximoLineasLote + " usos.");
+    }
+
+    TreeSet<Integer> ids = new TreeSet<>();
+    for (LineaUsoInsumoDTO uso : usos) {
+      if (uso != null && uso.getIdInsumo() != null) {
+        ids.add(uso.getIdInsumo());
+      }
+    }
+    Map<Integer, StockInsumoDTO> stock = insumoRepository.bloquearStock(ids);
+
+    // Se aplican las líneas sobre una copia del stock para que cada una vea las anteriores
+    Map<Integer, BigDecimal> disponible = new HashMap<>();
+    stock.forEach((id, fila) -> disponible.put(id, fila.getCantidadDisponible()));
+    Map<Integer, BigDecimal> cambios = new LinkedHashMap<>();
+    List<HistorialInsumo> historial = new ArrayList<>();
+    ResultadoUsoInsumosDTO resultado = new ResultadoUsoInsumosDTO();
+    LocalDateTime ahora = LocalDateTime.now();
+
+    for (int i = 0; i < usos.size(); i++) {
+      LineaUsoInsumoDTO uso = usos.get(i);
+      ResultadoLineaUsoInsumoDTO linea = new ResultadoLineaUsoInsumoDTO();
+      linea.setLinea(i + 1);
+      resultado.getLineas().add(linea);
+
+      if (uso == null || uso.getIdInsumo() == null) {
+        linea.setError("El ID del insumo es obligatorio.");
+        continue;
+      }
+      linea.setIdInsumo(uso.getIdInsumo());
+      linea.setCantidad(uso.getCantidad());
+      if (uso.getCantidad() == null || uso.getCantidad().signum() <= 0) {
+        linea.setError("La cantidad debe ser mayor que cero.");
+        continue;
+      }
+      BigDecimal actual = disponible.get(uso.getIdInsumo());
+      if (actual == null) {
+        linea.setError("Insumo no encontrado con ID: " + uso.getIdInsumo());
+        continue;
+      }
+      if (actual.compareTo(uso.getCantidad()) < 0) {
+        linea.setError(
+            "Stock insuficiente para el insumo "
+                + stock.get(uso.getIdInsumo()).getNombre()
+                + ". Disponible: "
+                + actual);
+        continue;
+      }
+
+      BigDecimal nueva = actual.subtract(uso.getCantidad());
+      disponible.put(uso.getIdInsumo(), nueva);
+      cambios.put(uso.getIdInsumo(), nueva);
+      linea.setAplicado(true);
+      linea.setCantidadDisponible(nueva);
+
+      historial.add(
+          nuevoHistorial(
+              uso.getIdInsumo(),
+              uso.getCantidad(),
+              uso.getFecha() != null ? uso.getFecha() : ahora));
+    }
+
+    long rechazados = resultado.getLineas().stream().filter(l -> !l.isAplicado()).count();
+    if (solicitud.isTodoONada() && rechazados > 0) {
+      // Nada se escribió todavía; basta con no aplicar los cambios calculados
+      for (ResultadoLineaUsoInsumoDTO linea : resultado.getLineas()) {
+        if (linea.isAplicado()) {
+          linea.setAplicado(false);
+          linea.setCantidadDisponible(null);
+          linea.setError("No se aplicó porque otra línea del lote falló.");
+        }
+      }
+      resultado.setRechazados(usos.size());
+      return resultado;
+    }
+
+    insumoRepository.actualizarCantidades(cambios);
+    historialInsumoService.registrar(historial);
+    resultado.setAplicados(historial.size());
+    resultado.setRechazados((int) rechazados);
+    notificarCruces(stock, cambios);
+    return resultado;
+  }
+
+  /**
+   * Aplica en una sola operación los cambios de stock de varios insumos, por ejemplo todos los de
+   * una actividad o una producción.
+   *
+   * <p>Los insumos se leen y bloquean en una sola consulta, en orden ascendente de identificador, y
+   * las cantidades nuevas y el historial se escriben en un lote de sentencias cada uno, de modo que
+   * la cantidad de viajes a la base de datos no depende de la cantidad de insumos. Si algún insumo
+   * no existe o no tiene stock suficiente no se aplica ningún cambio.
+   *
+   * @param diferencias Cantidad a descontar por insumo; un valor negativo devuelve stock.
+   * @param historial Usos a registrar en el historial (puede estar vacío).
+   * @return Stock de cada insumo antes del cambio, por identificador.
+   * @throws IllegalArgumentException Si algún insumo no existe o su stock no alcanza.
+   */
+  @Transactional
+  public Map<Integer, StockInsumoDTO> ajustarStockEnLote(
+      Map<Integer, BigDecimal> diferencias, List<HistorialInsumo> historial) {
+    Map<Integer, StockInsumoDTO> stock = insumoRepository.bloquearStock(diferencias.keySet());
+
+    Map<Integer, BigDecimal> cambios = new LinkedHashMap<>();
+    for (Map.Entry<Integer, BigDecimal> diferencia : diferencias.entrySet()) {
+      StockInsumoDTO actual = stock.get(diferencia.getKey());
+      if (actual == null) {
+        throw new IllegalArgumentException("Insumo no encontrado con ID: " + diferencia.getKey());
+      }
+      if (diferencia.getValue().signum() == 0) {
+        continue;
       }
+      BigDecimal nueva = actual.getCantidadDisponible().subtract(diferencia.getValue());
+      if (nueva.signum() < 0) {
+        throw new IllegalArgumentException(
+            "Stock insuficiente para el insumo: "
+                + actual.getNombre()
+                + ". Requerido: "
+                + diferencia.getValue());
+      }
+      cambios.put(diferencia.getKey(), nueva);
+    }
+
+    insumoRepository.actualizarCantidades(cambios);
+    historialInsumoService.registrar(historial);
+    notificarCruces(stock, cambios);
+    return stock;
+  }
+
+  /** Envía alertas de los insumos que quedaron en su punto de reorden con los cambios aplicados. */
+  private void notificarCruces(
+      Map<Integer, StockInsumoDTO> stock, Map<Integer, BigDecimal> cambios) {
+    cambios.forEach(
+        (id, nueva) -> {
+          StockInsumoDTO antes = stock.get(id);
+          BigDecimal punto = antes.getPuntoReorden();
+          if (punto != null
+              && antes.getCantidadDisponible().compareTo(punto) > 0
+              && nueva.compareTo(punto) <= 0) {
+            alertaStockService.notificarCruce(
+                new AlertaStockDTO(id, antes.getIdFinca(), antes.getNombre(), nueva, punto));
+          }
+        });
+  }
+
+  /**
+   * Crea un registro de historial para un uso, sin leer el insumo.
+   *
+   * @param idInsumo El ID del insumo utilizado.
+   * @param cantidad La cantidad utilizada.
+   * @param fechaUso Fecha y hora del uso.
+   * @return El registro, listo para {@link #ajustarStockEnLote}.
+   */
+  static HistorialInsumo nuevoHistorial(
+      Integer idInsumo, BigDecimal cantidad, LocalDateTime fechaUso) {
+    HistorialInsumo registro = new HistorialInsumo();
+    Insumo insumo = new Insumo();
+    insumo.setIdInsumo(idInsumo);
+    registro.setInsumo(insumo);
+    registro.setCantidadUtilizada(cantidad);
+    registro.setFechaUso(fechaUso);
+    return registro;
+  }
+
+  /**
+   * Descuenta stock de un insumo solo si la cantidad disponible alcanza, sin registrar el uso en el
+   * historial. La validación y la resta se hacen en la base de datos en una sola sentencia, de modo
+   * que los usos concurrentes del mismo insumo no pierden actualizaciones.
+   *
+   * @param idInsumo El ID del insumo.
+   * @param cantidad La cantidad a descontar.
+   * @return {@code true} si se descontó; {@code false} si el insumo no existe o el stock no
+   *     alcanza.
+   * @throws IllegalArgumentException Si la cantidad no es positiva.
+   */
+  @Transactional
+  public boolean descontarStock(int idInsumo, BigDecimal cantidad) {
+    validarCantidad(cantidad);
+    if (insumoRepository.descontarStock(idInsumo, cantidad) == 0) {
+      return false;
+    }
+    if (alertaStockService.haySuscriptores()) {
+      insumoRepository
+          .buscarCruceUmbral(idInsumo, cantidad)
+          .ifPresent(alertaStockService::notificarCruce);
+    }
+    return true;
+  }
+
+  /**
+   * Devuelve stock a un insumo (por ejemplo, al reducir o eliminar un uso) en una sola sentencia.
+   *
+   * @param idInsumo El ID del insumo.
+   * @param cantidad La cantidad a devolver.
+   * @throws IllegalArgumentException Si la cantidad no es positiva o el insumo no existe.
+   */
+  @Transactional
+  public void devolverStock(int idInsumo, BigDecimal cantidad) {
+    validarCantidad(cantidad);
+    if (insumoRepository.sumarStock(idInsumo, cantidad) == 0) {
+      throw new IllegalArgumentException("Insumo no encontrado con ID: " + idInsumo);
+    }
+  }
 
-      insumo.setCantidadDisponible(nuevaCantidad);
-      insumoRepository.save(insumo);
+  /**
+   * Ajusta el stock de un insumo según la diferencia entre la cantidad nueva y la anterior de un
+   * uso: descuenta si el uso aumentó y devuelve si disminuyó.
+   *
+   * @param idInsumo El ID del insumo.
+   * @param diferencia Cantidad nueva menos cantidad anterior.
+   * @return {@code false} si el uso aumentó y el stock no alcanza; {@code true} en otro caso.
+   */
+  @Transactional
+  public boolean ajustarStock(int idInsumo, BigDecimal diferencia) {
+    int signo = diferencia.signum();
+    if (signo > 0) {
+      return descontarStock(idInsumo, diferencia);
+    }
+    if (signo < 0) {
+      devolverStock(idInsumo, diferencia.negate());
+    }
+    return true;
+  }
 
-      // Registrar en el historial
-      HistorialInsumo historial = new HistorialInsumo();
-      historial.setInsumo(insumo);
-      historial.setCantidadUtilizada(cantidadUsada);
-      historial.setFechaUso(LocalDateTime.now());
-      historialInsumoRepository.save(historial);
+  private void validarCantidad(BigDecimal cantidad) {
+    if (cantidad == null || cantidad.signum() <= 0) {
+      throw new IllegalArgumentException("La cantidad debe ser mayor que cero.");
     }
   }
 
   /**
    * Obtiene el historial de uso de un insumo específico.
    *
+   * <p>Devuelve el historial completo; para insumos con muchos usos conviene la consulta paginada
+   * de {@link HistorialInsumoService#consultarHistorial}.
+   *
    * @param idInsumo El ID del insumo.
    * @return Una lista de registros en el historial de uso del insumo.
    */
@@ -2,10 +2,15 @@ package com.aproafa.proyectodegrado.service;
 
 import com.aproafa.proyectodegrado.model.dto.InventarioProductoDTO;
 import com.aproafa.proyectodegrado.model.entity.InventarioProducto;
+import com.aproafa.proyectodegrado.model.entity.MovimientoInventario;
+import com.aproafa.proyectodegrado.model.entity.TipoMovimientoInventario;
 import com.aproafa.proyectodegrado.repository.InventarioProductoRepository;
 import com.aproafa.proyectodegrado.repository.ProductoRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +28,10 @@ public class InventarioProductoService {
 
   @Autowired private ProductoRepository productoRepo;
 
+  @Autowired private AcumuladorInventarioService acumuladorInventario;
+
+  @Autowired private MovimientoInventarioService movimientoService;
+
   /**
    * Obtiene el inventario de un producto. Este método consulta el inventario de un producto
    * específico a partir de su ID.
@@ -32,6 +41,8 @@ public class InventarioProductoService {
    *     actualización.
    */
   public InventarioProductoDTO obtenerInventario(Integer idProducto) {
+    // Con escritura diferida, la cantidad exacta requiere escribir antes lo acumulado
+    acumuladorInventario.escribirPendiente(idProducto);
     InventarioProducto inv =
         inventarioRepo
             .findByProducto_IdProducto(idProducto)
@@ -48,21 +59,83 @@ public class InventarioProductoService {
 
   /**
    * Actualiza la cantidad de inventario de un producto. Este método permite incrementar o
-   * decrementar la cantidad de un producto en el inventario. Se realiza una operación transaccional
-   * para asegurar que la actualización se haga de forma consistente.
+   * decrementar la cantidad de un producto en el inventario. El cambio se registra en el kardex
+   * como un ajuste manual.
    *
    * @param idProducto ID del producto cuyo inventario se desea actualizar.
    * @param cantidadDelta Incremento o decremento a aplicar a la cantidad de inventario.
    */
   @Transactional
   public void actualizarInventario(Integer idProducto, BigDecimal cantidadDelta) {
-    InventarioProducto inv =
-        inventarioRepo
-            .findByProducto_IdProducto(idProducto)
-            .orElseThrow(() -> new RuntimeException("Inventario no encontrado"));
+    actualizarInventario(
+        idProducto, cantidadDelta, TipoMovimientoInventario.AJUSTE, null, LocalDateTime.now());
+  }
+
+  /**
+   * Actualiza la cantidad de inventario de un producto y registra el movimiento en el kardex. La
+   * suma se hace en una sola sentencia en la base de datos, de modo que las actualizaciones
+   * concurrentes del mismo producto no se pierden. Con la escritura diferida habilitada, el cambio
+   * se acumula en memoria y se escribe después (ver {@link AcumuladorInventarioService}).
+   *
+   * @param idProducto ID del producto cuyo inventario se desea actualizar.
+   * @param cantidadDelta Incremento o decremento a aplicar a la cantidad de inventario.
+   * @param tipo Origen del movimiento.
+   * @param idReferencia Registro que origina el movimiento, o {@code null}.
+   * @param fecha Fecha y hora del movimiento en el kardex.
+   */
+  @Transactional
+  public void actualizarInventario(
+      Integer idProducto,
+      BigDecimal cantidadDelta,
+      TipoMovimientoInventario tipo,
+      Integer idReferencia,
+      LocalDateTime fecha) {
+    if (acumuladorInventario.isHabilitado()) {
+      if (!acumuladorInventario.acumular(Map.of(idProducto, cantidadDelta)).isEmpty()) {
+        throw new RuntimeException("Inventario no encontrado");
+      }
+    } else if (inventarioRepo.sumarCantidad(idProducto, cantidadDelta, LocalDateTime.now()) == 0) {
+      throw new RuntimeException("Inventario no encontrado");
+    }
+    movimientoService.registrar(
+        List.of(
+            MovimientoInventarioService.nuevoMovimiento(
+                idProducto, tipo, cantidadDelta, idReferencia, fecha)));
+  }
+
+  /**
+   * Aplica varios movimientos de inventario y los registra en el kardex. Los movimientos se suman
+   * por producto y el inventario de cada producto se actualiza con una sola sentencia, o acumulando
+   * los cambios en memoria si la escritura diferida está habilitada.
+   *
+   * @param movimientos Movimientos a aplicar, creados con {@link
+   *     MovimientoInventarioService#nuevoMovimiento}.
+   * @throws IllegalArgumentException Si algún producto no tiene inventario.
+   */
+  @Transactional
+  public void actualizarInventarios(List<MovimientoInventario> movimientos) {
+    Map<Integer, BigDecimal> cantidadesPorProducto = new LinkedHashMap<>();
+    for (MovimientoInventario movimiento : movimientos) {
+      cantidadesPorProducto.merge(
+          movimiento.getIdProducto(), movimiento.getCantidad(), BigDecimal::add);
+    }
 
-    inv.setCantidad(inv.getCantidad().add(cantidadDelta)); // Actualiza la cantidad
-    inv.setFechaActualizacion(LocalDateTime.now()); // Registra la fecha de actualización
-    inventarioRepo.save(inv); // Guarda los cambios en la base de datos
+    if (acumuladorInventario.isHabilitado()) {
+      List<Integer> sinInventario = acumuladorInventario.acumular(cantidadesPorProducto);
+      if (!sinInventario.isEmpty()) {
+        throw new IllegalArgumentException(
+            "Inventario no encontrado para el producto: " + sinInventario.get(0));
+      }
+    } else {
+      LocalDateTime ahora = LocalDateTime.now();
+      cantidadesPorProducto.forEach(
+          (idProducto, cantidadDelta) -> {
+            if (inventarioRepo.sumarCantidad(idProducto, cantidadDelta, ahora) == 0) {
+              throw new IllegalArgumentException(
+                  "Inventario no encontrado para el producto: " + idProducto);
+            }
+          });
+    }
+    movimientoService.registrar(movimientos);
   }
 }
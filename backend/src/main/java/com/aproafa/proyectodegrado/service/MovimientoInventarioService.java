@@ -0,0 +1,305 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.MovimientoInventarioDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
+import com.aproafa.proyectodegrado.model.dto.SaldoInventarioDTO;
+import com.aproafa.proyectodegrado.model.entity.MovimientoInventario;
+import com.aproafa.proyectodegrado.model.entity.SaldoInventario;
+import com.aproafa.proyectodegrado.model.entity.TipoMovimientoInventario;
+import com.aproafa.proyectodegrado.repository.InventarioProductoRepository;
+import com.aproafa.proyectodegrado.repository.MovimientoInventarioRepository;
+import com.aproafa.proyectodegrado.repository.SaldoInventarioRepository;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Servicio del kardex de productos: registra cada cambio del inventario como un movimiento y
+ * responde el saldo de un producto en cualquier momento.
+ *
+ * <p>Para no sumar todo el historial en cada consulta, una tarea programada genera el corte del día
+ * en curso ({@link SaldoInventario}) para los productos con movimientos desde su corte anterior. El
+ * saldo en un momento es entonces el corte más reciente anterior a ese momento más los movimientos
+ * posteriores al corte, que son a lo sumo los de unos pocos días. El corte del día se recalcula en
+ * cada ejecución, de modo que incluye las transacciones del día anterior que se confirmaron tarde.
+ *
+ * <p>Cada producto tiene un movimiento de apertura: los productos nuevos lo reciben en cero al
+ * crearse, y los que ya existían antes del kardex lo reciben al iniciar la aplicación ({@link
+ * #registrarApertura()}) por la diferencia entre su cantidad y sus movimientos, de modo que la suma
+ * de los movimientos siempre coincide con la cantidad del inventario.
+ *
+ * <p>Un movimiento con fecha de un día anterior (por ejemplo, una cosecha registrada tarde) suma su
+ * cantidad a los cortes posteriores a ese día en la misma transacción.
+ */
+@Service
+public class MovimientoInventarioService {
+
+  private static final Logger logger =
+      Logger.getLogger(MovimientoInventarioService.class.getName());
+
+  private final MovimientoInventarioRepository movimientoRepository;
+  private final SaldoInventarioRepository saldoRepository;
+  private final InventarioProductoRepository inventarioRepository;
+  private final AcumuladorInventarioService acumuladorInventario;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${inventario.kardex.cortes-habilitados:true}")
+  private boolean cortesHabilitados;
+
+  @Autowired
+  public MovimientoInventarioService(
+      MovimientoInventarioRepository movimientoRepository,
+      SaldoInventarioRepository saldoRepository,
+      InventarioProductoRepository inventarioRepository,
+      AcumuladorInventarioService acumuladorInventario,
+      PlatformTransactionManager transactionManager) {
+    this.movimientoRepository = movimientoRepository;
+    this.saldoRepository = saldoRepository;
+    this.inventarioRepository = inventarioRepository;
+    this.acumuladorInventario = acumuladorInventario;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Registra la apertura de los productos que aún no la tienen, antes de atender peticiones. Con la
+   * escritura diferida habilitada también reconstruye el inventario desde el kardex, porque una
+   * terminación abrupta pierde los cambios acumulados en memoria pero no sus movimientos, que se
+   * guardan con la transacción original.
+   */
+  @PostConstruct
+  public void iniciar() {
+    Integer aperturas = transactionTemplate.execute(estado -> registrarApertura());
+    if (aperturas != null && aperturas > 0) {
+      logger.info("Movimientos de apertura registrados: " + aperturas);
+    }
+    if (acumuladorInventario.isHabilitado()) {
+      Integer corregidos =
+          transactionTemplate.execute(
+              estado -> inventarioRepository.reconciliarConMovimientos(LocalDateTime.now()));
+      if (corregidos != null && corregidos > 0) {
+        logger.warning("Inventario reconstruido desde el kardex para " + corregidos + " productos");
+      }
+    }
+  }
+
+  /**
+   * Crea un movimiento de inventario.
+   *
+   * @param idProducto Producto cuyo inventario cambia.
+   * @param tipo Origen del movimiento.
+   * @param cantidad Cantidad sumada; negativa si es una salida.
+   * @param idReferencia Registro que origina el movimiento, o {@code null}.
+   * @param fecha Fecha y hora del movimiento, normalmente {@link LocalDateTime#now()} o la de
+   *     {@link #fechaDelDia(LocalDate)}.
+   * @return Movimiento sin guardar.
+   */
+  static MovimientoInventario nuevoMovimiento(
+      Integer idProducto,
+      TipoMovimientoInventario tipo,
+      BigDecimal cantidad,
+      Integer idReferencia,
+      LocalDateTime fecha) {
+    MovimientoInventario movimiento = new MovimientoInventario();
+    movimiento.setIdProducto(idProducto);
+    movimiento.setTipo(tipo);
+    movimiento.setCantidad(cantidad);
+    movimiento.setFecha(fecha);
+    movimiento.setIdReferencia(idReferencia);
+    return movimiento;
+  }
+
+  /**
+   * Fecha de un movimiento que ocurrió en un día dado, como una cosecha: el inicio de ese día si ya
+   * pasó, o el momento actual si es hoy, un día futuro o no se conoce.
+   *
+   * @param dia Día en que ocurrió el movimiento, o {@code null}.
+   * @return Fecha y hora del movimiento.
+   */
+  static LocalDateTime fechaDelDia(LocalDate dia) {
+    return dia != null && dia.isBefore(LocalDate.now()) ? dia.atStartOfDay() : LocalDateTime.now();
+  }
+
+  /**
+   * Registra movimientos en un solo lote, dentro de la transacción que modifica el inventario. Los
+   * movimientos de días anteriores se suman también a los cortes ya generados después de su día.
+   *
+   * @param movimientos Movimientos a registrar.
+   */
+  @Transactional
+  public void registrar(List<MovimientoInventario> movimientos) {
+    movimientoRepository.insertarEnLote(movimientos);
+
+    LocalDateTime inicioHoy = LocalDate.now().atStartOfDay();
+    Map<Integer, Map<LocalDate, BigDecimal>> atrasados = new HashMap<>();
+    for (MovimientoInventario movimiento : movimientos) {
+      if (movimiento.getFecha().isBefore(inicioHoy)) {
+        atrasados
+            .computeIfAbsent(movimiento.getIdProducto(), id -> new HashMap<>())
+            .merge(movimiento.getFecha().toLocalDate(), movimiento.getCantidad(), BigDecimal::add);
+      }
+    }
+    atrasados.forEach(
+        (idProducto, porDia) ->
+            porDia.forEach(
+                (dia, cantidad) ->
+                    saldoRepository.sumarACortesPosteriores(idProducto, dia, cantidad)));
+  }
+
+  /**
+   * Obtiene una página de los movimientos de un producto, del más reciente al más antiguo.
+   *
+   * @param idProducto Identificador del producto.
+   * @param desde Día inicial, inclusivo ({@code null} para no limitar).
+   * @param hasta Día final, inclusivo ({@code null} para no limitar).
+   * @param cursor Cursor devuelto por la página anterior, o {@code null} para la primera.
+   * @param limite Cantidad máxima de movimientos, o {@code null} para usar el valor por defecto.
+   * @return Página de movimientos con el cursor de la siguiente.
+   * @throws IllegalArgumentException Si el límite, el rango o el cursor son inválidos.
+   */
+  @Transactional(readOnly = true)
+  public PaginaCursorDTO<MovimientoInventarioDTO> consultarMovimientos(
+      Integer idProducto, LocalDate desde, LocalDate hasta, String cursor, Integer limite) {
+    int tamano = CursorPaginacion.validarLimite(limite);
+    if (desde != null && hasta != null && desde.isAfter(hasta)) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+
+    LocalDateTime fechaCursor = null;
+    Long idCursor = null;
+    if (cursor != null && !cursor.isBlank()) {
+      String[] partes = CursorPaginacion.decodificar(cursor, 2);
+      fechaCursor = CursorPaginacion.leerFecha(partes[0]);
+      idCursor = CursorPaginacion.leerLargo(partes[1]);
+    }
+
+    List<MovimientoInventarioDTO> movimientos =
+        movimientoRepository.buscarPagina(
+            idProducto,
+            desde != null ? desde.atStartOfDay() : null,
+            hasta != null ? hasta.plusDays(1).atStartOfDay() : null,
+            fechaCursor,
+            idCursor,
+            CursorPaginacion.solicitud(tamano));
+    return CursorPaginacion.armarPagina(
+        movimientos, tamano, m -> CursorPaginacion.codificar(m.getFecha(), m.getIdMovimiento()));
+  }
+
+  /**
+   * Calcula el saldo del inventario de un producto en un momento: el corte más reciente que no sea
+   * posterior al momento más los movimientos entre el corte y el momento.
+   *
+   * @param idProducto Identificador del producto.
+   * @param fecha Momento consultado, inclusivo.
+   * @return Saldo del producto.
+   */
+  @Transactional(readOnly = true)
+  public SaldoInventarioDTO consultarSaldo(Integer idProducto, LocalDateTime fecha) {
+    Optional<SaldoInventario> corte =
+        saldoRepository.findFirstByIdProductoAndFechaLessThanEqualOrderByFechaDesc(
+            idProducto, fecha.toLocalDate());
+    LocalDate fechaCorte = corte.map(SaldoInventario::getFecha).orElse(null);
+    BigDecimal base = corte.map(SaldoInventario::getCantidad).orElse(BigDecimal.ZERO);
+
+    Object[] rango =
+        movimientoRepository
+            .sumarRango(idProducto, fechaCorte != null ? fechaCorte.atStartOfDay() : null, fecha)
+            .get(0);
+    BigDecimal posteriores =
+        rango[0] instanceof BigDecimal suma ? suma : new BigDecimal(rango[0].toString());
+    long movimientos = ((Number) rango[1]).longValue();
+
+    return new SaldoInventarioDTO(
+        idProducto, fecha, base.add(posteriores), fechaCorte, movimientos);
+  }
+
+  /**
+   * Genera o recalcula el corte de un día para los productos con movimientos desde su corte
+   * anterior. Los cortes deben generarse en orden de fecha: un corte recalculado no actualiza los
+   * cortes posteriores.
+   *
+   * @param fecha Día del corte; su saldo incluye los movimientos anteriores a ese día.
+   * @return Filas de corte insertadas o actualizadas.
+   * @throws IllegalArgumentException Si el día es futuro.
+   */
+  @Transactional
+  public int generarCorte(LocalDate fecha) {
+    if (fecha.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("No se puede generar el corte de un día futuro");
+    }
+    return saldoRepository.generarCorte(fecha, fecha.atStartOfDay());
+  }
+
+  /**
+   * Registra el movimiento de apertura de cada producto con inventario que aún no lo tiene, por la
+   * diferencia entre su cantidad actual y la suma de sus movimientos, con fecha anterior a todos
+   * ellos. Los cortes de esos productos se eliminan porque no incluían la apertura; los saldos se
+   * calculan desde los movimientos hasta el siguiente corte.
+   *
+   * <p>Se ejecuta al iniciar la aplicación; volver a ejecutarlo no tiene efecto.
+   *
+   * @return Movimientos de apertura registrados.
+   */
+  @Transactional
+  public int registrarApertura() {
+    List<Integer> sinApertura = movimientoRepository.buscarProductosSinApertura();
+    if (sinApertura.isEmpty()) {
+      return 0;
+    }
+    int registrados = movimientoRepository.registrarApertura(sinApertura, LocalDateTime.now());
+    saldoRepository.eliminarCortes(sinApertura);
+    return registrados;
+  }
+
+  /**
+   * Reconstruye la cantidad del inventario de cada producto como la suma de sus movimientos, donde
+   * no coinciden.
+   *
+   * <p>Con la escritura diferida habilitada no se permite: los cambios confirmados que aún no se
+   * acumulan en memoria se sumarían dos veces. En ese modo la reconstrucción se hace al iniciar la
+   * aplicación.
+   *
+   * @return Productos corregidos.
+   * @throws IllegalStateException Si la escritura diferida está habilitada.
+   */
+  @Transactional
+  public int reconciliarInventario() {
+    if (acumuladorInventario.isHabilitado()) {
+      throw new IllegalStateException(
+          "Con la escritura diferida habilitada el inventario solo se reconstruye al iniciar");
+    }
+    return inventarioRepository.reconciliarConMovimientos(LocalDateTime.now());
+  }
+
+  /** Genera el corte del día en curso cada cierto intervalo, si los cortes están habilitados. */
+  @Scheduled(
+      fixedDelayString = "${inventario.kardex.intervalo-cortes-minutos:60}",
+      initialDelay = 1,
+      timeUnit = TimeUnit.MINUTES)
+  public void generarCortePeriodico() {
+    if (!cortesHabilitados) {
+      return;
+    }
+    try {
+      Integer filas = transactionTemplate.execute(estado -> generarCorte(LocalDate.now()));
+      logger.fine("Corte de inventario generado: " + filas + " filas");
+    } catch (RuntimeException e) {
+      // Se reintenta en la siguiente ejecución
+      logger.log(Level.WARNING, "Error generando el corte de inventario", e);
+    }
+  }
+}
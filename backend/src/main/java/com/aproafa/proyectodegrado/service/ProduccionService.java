@@ -1,21 +1,34 @@
 package com.aproafa.proyectodegrado.service;
 
+import com.aproafa.proyectodegrado.model.dto.CosechaDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
 import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
 import com.aproafa.proyectodegrado.model.dto.UsoInsumoProduccionDTO;
 import com.aproafa.proyectodegrado.model.entity.EstadoProduccion;
 import com.aproafa.proyectodegrado.model.entity.Finca;
-import com.aproafa.proyectodegrado.model.entity.Insumo;
+import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
+import com.aproafa.proyectodegrado.model.entity.MovimientoInventario;
 import com.aproafa.proyectodegrado.model.entity.Produccion;
 import com.aproafa.proyectodegrado.model.entity.Producto;
+import com.aproafa.proyectodegrado.model.entity.TipoMovimientoInventario;
 import com.aproafa.proyectodegrado.model.entity.UsoInsumoProduccion;
 import com.aproafa.proyectodegrado.repository.InsumoRepository;
 import com.aproafa.proyectodegrado.repository.ProduccionRepository;
 import com.aproafa.proyectodegrado.repository.UsoInsumoProduccionRepository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +45,13 @@ public class ProduccionService {
 
   @Autowired private InsumoService insumoService;
 
+  @Autowired private CostoProduccionService costoProduccionService;
+
+  @Autowired private RendimientoProduccionService rendimientoService;
+
+  @Value("${produccion.cosecha-lote.maximo-lineas:500}")
+  private int maximoCosechasLote;
+
   @Transactional
   public ProduccionDTO crearProduccion(ProduccionDTO dto) {
     Produccion prod = new Produccion();
@@ -43,36 +63,46 @@ public class ProduccionService {
     if (dto.getEstado() == EstadoProduccion.COSECHADO) {
       prod.setFechaCosecha(dto.getFechaCosecha());
       prod.setCantidadCosechada(dto.getCantidadCosechada());
-      inventarioService.actualizarInventario(dto.getIdProducto(), dto.getCantidadCosechada());
     }
 
     prod = produccionRepo.save(prod);
+    if (dto.getEstado() == EstadoProduccion.COSECHADO) {
+      // La entrada al inventario se registra después de guardar, para referenciar la producción
+      inventarioService.actualizarInventario(
+          dto.getIdProducto(),
+          dto.getCantidadCosechada(),
+          TipoMovimientoInventario.COSECHA,
+          prod.getIdProduccion(),
+          MovimientoInventarioService.fechaDelDia(dto.getFechaCosecha()));
+      rendimientoService.invalidar(aniosDe(dto.getFechaCosecha()));
+    }
+    costoProduccionService.registrarProduccion(
+        prod.getIdProduccion(), dto.getIdProducto(), dto.getIdFinca(), prod.getCantidadCosechada());
 
     if (dto.getUsosInsumos() != null && !dto.getUsosInsumos().isEmpty()) {
+      // Descuento atómico del stock de todos los insumos con su historial; falla si el stock de
+      // alguno no alcanza
+      Map<Integer, BigDecimal> consumos = new LinkedHashMap<>();
+      List<HistorialInsumo> historial = new ArrayList<>();
+      LocalDateTime ahora = LocalDateTime.now();
       for (UsoInsumoProduccionDTO usoDto : dto.getUsosInsumos()) {
-        Insumo insumo =
-            insumoRepository
-                .findById(usoDto.getIdInsumo())
-                .orElseThrow(
-                    () ->
-                        new RuntimeException(
-                            "Insumo no encontrado con ID: " + usoDto.getIdInsumo()));
-
-        if (insumo.getCantidadDisponible().compareTo(usoDto.getCantidad()) < 0) {
-          throw new RuntimeException("Stock insuficiente para el insumo: " + insumo.getNombre());
-        }
-
-        insumoService.registrarUsoInsumo(usoDto.getIdInsumo(), usoDto.getCantidad());
+        validarUso(usoDto);
+        consumos.merge(usoDto.getIdInsumo(), usoDto.getCantidad(), BigDecimal::add);
+        historial.add(
+            InsumoService.nuevoHistorial(usoDto.getIdInsumo(), usoDto.getCantidad(), ahora));
+      }
+      Map<Integer, StockInsumoDTO> stock = insumoService.ajustarStockEnLote(consumos, historial);
+      costoProduccionService.registrarUsos(prod.getIdProduccion(), consumos, stock);
 
+      for (UsoInsumoProduccionDTO usoDto : dto.getUsosInsumos()) {
         UsoInsumoProduccion uso = new UsoInsumoProduccion();
         uso.setProduccion(prod);
-        uso.setInsumo(insumo);
+        uso.setInsumo(insumoRepository.getReferenceById(usoDto.getIdInsumo()));
         uso.setCantidad(usoDto.getCantidad());
         uso.setFecha(usoDto.getFechaUso() != null ? usoDto.getFechaUso() : dto.getFechaSiembra());
-
-        usoInsumoProduccionRepo.save(uso);
         prod.getUsosInsumos().add(uso);
       }
+      usoInsumoProduccionRepo.saveAll(prod.getUsosInsumos());
     }
 
     return convertirADTO(prod);
@@ -89,11 +119,137 @@ public class ProduccionService {
     prod.setFechaCosecha(fechaCosecha);
     prod.setEstado(EstadoProduccion.COSECHADO);
     produccionRepo.save(prod);
-    inventarioService.actualizarInventario(prod.getProducto().getIdProducto(), cantidadCosechada);
+    inventarioService.actualizarInventario(
+        prod.getProducto().getIdProducto(),
+        cantidadCosechada,
+        TipoMovimientoInventario.COSECHA,
+        idProduccion,
+        MovimientoInventarioService.fechaDelDia(fechaCosecha));
+    costoProduccionService.registrarProduccion(
+        idProduccion,
+        prod.getProducto().getIdProducto(),
+        prod.getFinca().getId(),
+        cantidadCosechada);
+    rendimientoService.invalidar(aniosDe(fechaCosecha));
+  }
+
+  /**
+   * Registra la cosecha de varias producciones en una sola transacción.
+   *
+   * <p>Las producciones se leen y bloquean en una sola consulta y se actualizan en un lote de
+   * sentencias. Las cantidades cosechadas se suman por producto y el inventario de cada producto se
+   * actualiza una sola vez; en el kardex queda un movimiento por producción. Si alguna cosecha es
+   * inválida no se aplica ninguna.
+   *
+   * @param cosechas Producción, cantidad y fecha de cada cosecha.
+   * @return Cantidad de producciones cosechadas.
+   * @throws IllegalArgumentException Si el lote está vacío o es muy grande, alguna producción se
+   *     repite, no existe o ya está cosechada, o alguna cantidad no es positiva.
+   */
+  @Transactional
+  public int cosecharEnLote(List<CosechaDTO> cosechas) {
+    if (cosechas == null || cosechas.isEmpty()) {
+      throw new IllegalArgumentException("Debe indicar al menos una cosecha.");
+    }
+    if (cosechas.size() > maximoCosechasLote) {
+      throw new IllegalArgumentException(
+          "Un lote no puede tener más de " + maximoCosechasLote + " cosechas.");
+    }
+
+    Set<Integer> ids = new HashSet<>();
+    for (CosechaDTO cosecha : cosechas) {
+      if (cosecha == null || cosecha.getIdProduccion() == null) {
+        throw new IllegalArgumentException("El ID de la producción es obligatorio.");
+      }
+      if (cosecha.getCantidadCosechada() == null || cosecha.getCantidadCosechada().signum() <= 0) {
+        throw new IllegalArgumentException(
+            "La cantidad cosechada debe ser mayor que cero en la producción "
+                + cosecha.getIdProduccion());
+      }
+      if (!ids.add(cosecha.getIdProduccion())) {
+        throw new IllegalArgumentException(
+            "La producción " + cosecha.getIdProduccion() + " está repetida en el lote.");
+      }
+    }
+
+    Map<Integer, ProduccionDTO> producciones = produccionRepo.bloquearProducciones(ids);
+    List<MovimientoInventario> movimientos = new ArrayList<>();
+    Set<Integer> anios = new HashSet<>();
+    LocalDate hoy = LocalDate.now();
+    for (CosechaDTO cosecha : cosechas) {
+      ProduccionDTO produccion = producciones.get(cosecha.getIdProduccion());
+      if (produccion == null) {
+        throw new IllegalArgumentException(
+            "Producción no encontrada con ID: " + cosecha.getIdProduccion());
+      }
+      if (produccion.getEstado() == EstadoProduccion.COSECHADO) {
+        throw new IllegalArgumentException(
+            "La producción " + cosecha.getIdProduccion() + " ya está cosechada.");
+      }
+      if (cosecha.getFechaCosecha() == null) {
+        cosecha.setFechaCosecha(hoy);
+      }
+      movimientos.add(
+          MovimientoInventarioService.nuevoMovimiento(
+              produccion.getIdProducto(),
+              TipoMovimientoInventario.COSECHA,
+              cosecha.getCantidadCosechada(),
+              cosecha.getIdProduccion(),
+              MovimientoInventarioService.fechaDelDia(cosecha.getFechaCosecha())));
+      anios.add(cosecha.getFechaCosecha().getYear());
+    }
+
+    produccionRepo.registrarCosechas(cosechas);
+    costoProduccionService.registrarCosechas(producciones, cosechas);
+    inventarioService.actualizarInventarios(movimientos);
+    rendimientoService.invalidar(anios);
+    return cosechas.size();
   }
 
+  /**
+   * Lista todas las producciones con sus usos de insumos. Se usan dos consultas de proyección (las
+   * producciones y todos sus usos) sin importar cuántas producciones haya.
+   *
+   * @return Producciones ordenadas por identificador.
+   */
+  @Transactional(readOnly = true)
   public List<ProduccionDTO> listarProducciones() {
-    return produccionRepo.findAll().stream().map(this::convertirADTO).collect(Collectors.toList());
+    List<ProduccionDTO> producciones = produccionRepo.listarResumen(null);
+    asignarUsos(producciones, usoInsumoProduccionRepo.resumirPorFinca(null));
+    return producciones;
+  }
+
+  /**
+   * Obtiene una página de producciones con sus usos de insumos, usando paginación por cursor sobre
+   * el identificador. Cada página cuesta dos consultas.
+   *
+   * @param idFinca Finca de las producciones (opcional).
+   * @param cursor Cursor devuelto por la página anterior, o {@code null} para la primera página.
+   * @param limite Cantidad máxima de producciones de la página.
+   * @return Página de producciones con el cursor para continuar.
+   * @throws IllegalArgumentException Si el cursor o el límite son inválidos.
+   */
+  @Transactional(readOnly = true)
+  public PaginaCursorDTO<ProduccionDTO> listarProduccionesPaginadas(
+      Integer idFinca, String cursor, Integer limite) {
+    int tamano = CursorPaginacion.validarLimite(limite);
+    Integer idCursor =
+        cursor != null && !cursor.isBlank()
+            ? CursorPaginacion.leerEntero(CursorPaginacion.decodificar(cursor, 1)[0])
+            : null;
+
+    PaginaCursorDTO<ProduccionDTO> pagina =
+        CursorPaginacion.armarPagina(
+            produccionRepo.buscarPagina(idFinca, idCursor, CursorPaginacion.solicitud(tamano)),
+            tamano,
+            p -> CursorPaginacion.codificar(p.getIdProduccion()));
+
+    List<ProduccionDTO> producciones = pagina.getElementos();
+    if (!producciones.isEmpty()) {
+      List<Integer> ids = producciones.stream().map(ProduccionDTO::getIdProduccion).toList();
+      asignarUsos(producciones, usoInsumoProduccionRepo.resumirPorProducciones(ids));
+    }
+    return pagina;
   }
 
   public ProduccionDTO obtenerProduccionPorId(Integer id) {
@@ -124,10 +280,42 @@ public class ProduccionService {
     produccionRepo.save(prod);
   }
 
+  /**
+   * Lista las producciones de una finca con sus usos de insumos, en dos consultas de proyección.
+   *
+   * @param idFinca Identificador de la finca.
+   * @return Producciones de la finca ordenadas por identificador.
+   */
+  @Transactional(readOnly = true)
   public List<ProduccionDTO> listarPorFinca(Integer idFinca) {
-    return produccionRepo.findByFinca_Id(idFinca).stream()
-        .map(this::convertirADTO)
-        .collect(Collectors.toList());
+    List<ProduccionDTO> producciones = produccionRepo.listarResumen(idFinca);
+    asignarUsos(producciones, usoInsumoProduccionRepo.resumirPorFinca(idFinca));
+    return producciones;
+  }
+
+  /**
+   * Reparte los usos de insumos leídos por proyección entre sus producciones.
+   *
+   * @param producciones Producciones a completar.
+   * @param usos Filas {@code [idProduccion, idInsumo, cantidad, fecha]}.
+   */
+  private void asignarUsos(List<ProduccionDTO> producciones, List<Object[]> usos) {
+    Map<Integer, List<UsoInsumoProduccionDTO>> porProduccion = new HashMap<>();
+    for (ProduccionDTO produccion : producciones) {
+      produccion.setUsosInsumos(new ArrayList<>());
+      porProduccion.put(produccion.getIdProduccion(), produccion.getUsosInsumos());
+    }
+    for (Object[] fila : usos) {
+      List<UsoInsumoProduccionDTO> destino = porProduccion.get((Integer) fila[0]);
+      if (destino == null) {
+        continue;
+      }
+      UsoInsumoProduccionDTO uso = new UsoInsumoProduccionDTO();
+      uso.setIdInsumo((Integer) fila[1]);
+      uso.setCantidad((BigDecimal) fila[2]);
+      uso.setFechaUso((LocalDate) fila[3]);
+      destino.add(uso);
+    }
   }
 
   @Transactional
@@ -143,14 +331,27 @@ public class ProduccionService {
 
     // Devolver insumos usados al stock
     for (UsoInsumoProduccion uso : prod.getUsosInsumos()) {
-      Insumo insumo = uso.getInsumo();
-      insumo.setCantidadDisponible(insumo.getCantidadDisponible().add(uso.getCantidad()));
-      insumoRepository.save(insumo);
+      insumoService.devolverStock(uso.getInsumo().getIdInsumo(), uso.getCantidad());
     }
 
+    costoProduccionService.eliminar(idProduccion);
     produccionRepo.delete(prod);
   }
 
+  /** Años afectados por una cosecha; sin fecha se invalidan todos los resultados. */
+  private static Set<Integer> aniosDe(LocalDate fechaCosecha) {
+    return fechaCosecha != null ? Set.of(fechaCosecha.getYear()) : Set.of();
+  }
+
+  private void validarUso(UsoInsumoProduccionDTO usoDto) {
+    if (usoDto.getIdInsumo() == null || usoDto.getCantidad() == null) {
+      throw new IllegalArgumentException("Datos incompletos en el uso de insumo");
+    }
+    if (usoDto.getCantidad().signum() <= 0) {
+      throw new IllegalArgumentException("La cantidad debe ser mayor que cero.");
+    }
+  }
+
   private ProduccionDTO convertirADTO(Produccion produccion) {
     ProduccionDTO dto = new ProduccionDTO();
     dto.setIdProduccion(produccion.getIdProduccion());
@@ -196,101 +397,70 @@ public class ProduccionService {
     prod.setFechaSiembra(dto.getFechaSiembra());
     prod.setEstado(dto.getEstado());
 
-    // Manejo de insumos
-    List<UsoInsumoProduccion> usosActuales =
-        usoInsumoProduccionRepo.findByProduccionIdProduccion(idProduccion);
-
-    // Eliminar usos que ya no están en el DTO
-    for (UsoInsumoProduccion usoExistente : usosActuales) {
-      boolean encontrado =
-          dto.getUsosInsumos().stream()
-              .anyMatch(
-                  usoDto -> usoDto.getIdInsumo().equals(usoExistente.getInsumo().getIdInsumo()));
-
-      if (!encontrado) {
-        // Devolver insumo al stock
-        Insumo insumo = usoExistente.getInsumo();
-        insumo.setCantidadDisponible(
-            insumo.getCantidadDisponible().add(usoExistente.getCantidad()));
-        insumoRepository.save(insumo);
-        usoInsumoProduccionRepo.delete(usoExistente);
+    // Manejo de insumos: usos actuales por insumo
+    Map<Integer, UsoInsumoProduccion> usosActuales = new HashMap<>();
+    for (UsoInsumoProduccion uso :
+        usoInsumoProduccionRepo.findByProduccionIdProduccion(idProduccion)) {
+      if (uso != null && uso.getInsumo() != null) {
+        usosActuales.put(uso.getInsumo().getIdInsumo(), uso);
       }
     }
 
-    // Agregar o actualizar usos
-    for (UsoInsumoProduccionDTO usoDto : dto.getUsosInsumos()) {
+    // Diferencia neta por insumo: positiva si el uso aumentó, negativa si disminuyó o se quitó
+    List<UsoInsumoProduccionDTO> usosNuevos =
+        dto.getUsosInsumos() != null ? dto.getUsosInsumos() : List.of();
+    Map<Integer, BigDecimal> diferencias = new LinkedHashMap<>();
+    Set<Integer> conservados = new HashSet<>();
+    for (UsoInsumoProduccionDTO usoDto : usosNuevos) {
       // Validar que el DTO tenga los datos necesarios
-      if (usoDto.getIdInsumo() == null || usoDto.getCantidad() == null) {
-        throw new RuntimeException("Datos incompletos en el uso de insumo");
-      }
+      validarUso(usoDto);
+      UsoInsumoProduccion usoExistente = usosActuales.get(usoDto.getIdInsumo());
+      BigDecimal cantidadAnterior =
+          usoExistente != null && conservados.add(usoDto.getIdInsumo())
+              ? usoExistente.getCantidad()
+              : BigDecimal.ZERO;
+      diferencias.merge(
+          usoDto.getIdInsumo(), usoDto.getCantidad().subtract(cantidadAnterior), BigDecimal::add);
+    }
+    List<UsoInsumoProduccion> eliminados = new ArrayList<>();
+    usosActuales.forEach(
+        (idInsumo, uso) -> {
+          if (!conservados.contains(idInsumo)) {
+            // Devolver insumo al stock
+            diferencias.merge(idInsumo, uso.getCantidad().negate(), BigDecimal::add);
+            eliminados.add(uso);
+          }
+        });
+
+    // Todos los insumos se bloquean y actualizan juntos; falla si el stock de alguno no alcanza
+    Map<Integer, StockInsumoDTO> stock = insumoService.ajustarStockEnLote(diferencias, List.of());
+    costoProduccionService.registrarProduccion(
+        idProduccion, dto.getIdProducto(), dto.getIdFinca(), prod.getCantidadCosechada());
+    costoProduccionService.registrarUsos(idProduccion, diferencias, stock);
 
-      // Obtener el insumo con validación
-      Insumo insumo =
-          insumoRepository
-              .findById(usoDto.getIdInsumo())
-              .orElseThrow(
-                  () ->
-                      new RuntimeException("Insumo no encontrado con ID: " + usoDto.getIdInsumo()));
-
-      // Buscar uso existente con manejo de nulos seguro
-      UsoInsumoProduccion usoExistente =
-          usosActuales.stream()
-              .filter(
-                  u ->
-                      u != null
-                          && u.getInsumo() != null
-                          && usoDto.getIdInsumo().equals(u.getInsumo().getIdInsumo()))
-              .findFirst()
-              .orElse(null);
+    usoInsumoProduccionRepo.deleteAll(eliminados);
 
+    // Agregar o actualizar usos
+    List<UsoInsumoProduccion> guardados = new ArrayList<>();
+    for (UsoInsumoProduccionDTO usoDto : usosNuevos) {
+      LocalDate fecha = usoDto.getFechaUso() != null ? usoDto.getFechaUso() : LocalDate.now();
+      UsoInsumoProduccion usoExistente = usosActuales.remove(usoDto.getIdInsumo());
       if (usoExistente != null) {
         // Actualizar uso existente
-        BigDecimal cantidadAnterior = usoExistente.getCantidad();
-        BigDecimal nuevaCantidad = usoDto.getCantidad();
-        BigDecimal diferencia = nuevaCantidad.subtract(cantidadAnterior);
-
-        if (diferencia.compareTo(BigDecimal.ZERO) > 0) {
-          // Verificar stock suficiente para la diferencia
-          if (insumo.getCantidadDisponible().compareTo(diferencia) < 0) {
-            throw new RuntimeException(
-                String.format(
-                    "Stock insuficiente para el insumo %s. Disponible: %s, Requerido: %s",
-                    insumo.getNombre(), insumo.getCantidadDisponible(), diferencia));
-          }
-          insumo.setCantidadDisponible(insumo.getCantidadDisponible().subtract(diferencia));
-        } else if (diferencia.compareTo(BigDecimal.ZERO) < 0) {
-          // Devolver diferencia al stock
-          insumo.setCantidadDisponible(insumo.getCantidadDisponible().add(diferencia.abs()));
-        }
-
-        // Actualizar el uso existente
-        usoExistente.setCantidad(nuevaCantidad);
-        usoExistente.setFecha(
-            usoDto.getFechaUso() != null ? usoDto.getFechaUso() : LocalDate.now());
-        insumoRepository.save(insumo);
-        usoInsumoProduccionRepo.save(usoExistente);
+        usoExistente.setCantidad(usoDto.getCantidad());
+        usoExistente.setFecha(fecha);
+        guardados.add(usoExistente);
       } else {
-        // Crear nuevo uso con validación de stock
-        if (insumo.getCantidadDisponible().compareTo(usoDto.getCantidad()) < 0) {
-          throw new RuntimeException(
-              String.format(
-                  "Stock insuficiente para el insumo %s. Disponible: %s, Requerido: %s",
-                  insumo.getNombre(), insumo.getCantidadDisponible(), usoDto.getCantidad()));
-        }
-
-        // Crear y guardar el nuevo uso
+        // Crear el nuevo uso; la referencia evita leer el insumo
         UsoInsumoProduccion nuevoUso = new UsoInsumoProduccion();
         nuevoUso.setProduccion(prod);
-        nuevoUso.setInsumo(insumo);
+        nuevoUso.setInsumo(insumoRepository.getReferenceById(usoDto.getIdInsumo()));
         nuevoUso.setCantidad(usoDto.getCantidad());
-        nuevoUso.setFecha(usoDto.getFechaUso() != null ? usoDto.getFechaUso() : LocalDate.now());
-
-        // Actualizar stock
-        insumo.setCantidadDisponible(insumo.getCantidadDisponible().subtract(usoDto.getCantidad()));
-        insumoRepository.save(insumo);
-        usoInsumoProduccionRepo.save(nuevoUso);
+        nuevoUso.setFecha(fecha);
+        guardados.add(nuevoUso);
       }
     }
+    usoInsumoProduccionRepo.saveAll(guardados);
 
     produccionRepo.save(prod);
     return convertirADTO(prod);
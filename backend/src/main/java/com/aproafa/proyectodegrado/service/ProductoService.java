@@ -3,6 +3,7 @@ package com.aproafa.proyectodegrado.service;
 import com.aproafa.proyectodegrado.model.dto.ProductoDTO;
 import com.aproafa.proyectodegrado.model.entity.InventarioProducto;
 import com.aproafa.proyectodegrado.model.entity.Producto;
+import com.aproafa.proyectodegrado.model.entity.TipoMovimientoInventario;
 import com.aproafa.proyectodegrado.repository.FincaRepository;
 import com.aproafa.proyectodegrado.repository.InventarioProductoRepository;
 import com.aproafa.proyectodegrado.repository.ProductoRepository;
@@ -26,8 +27,10 @@ public class ProductoService {
 
   @Autowired private InventarioProductoRepository inventarioRepo;
 
+  @Autowired private MovimientoInventarioService movimientoService;
+
   /**
-   * Crea un nuevo producto y genera su inventario inicial en cero.
+   * Crea un nuevo producto y genera su inventario inicial en cero, con su apertura en el kardex.
    *
    * @param dto Datos del producto.
    * @return ProductoDTO con el ID generado.
@@ -56,6 +59,14 @@ public class ProductoService {
     inv.setCantidad(BigDecimal.ZERO);
     inv.setFechaActualizacion(LocalDateTime.now());
     inventarioRepo.save(inv);
+    movimientoService.registrar(
+        List.of(
+            MovimientoInventarioService.nuevoMovimiento(
+                p.getIdProducto(),
+                TipoMovimientoInventario.APERTURA,
+                BigDecimal.ZERO,
+                null,
+                inv.getFechaActualizacion())));
 
     dto.setIdProducto(p.getIdProducto());
     return dto;
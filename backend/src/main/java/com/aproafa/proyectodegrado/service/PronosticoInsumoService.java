@@ -0,0 +1,250 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.PronosticoInsumoDTO;
+import com.aproafa.proyectodegrado.model.dto.StockInsumoDTO;
+import com.aproafa.proyectodegrado.model.entity.ConsumoInsumoDiario;
+import com.aproafa.proyectodegrado.model.entity.HistorialInsumo;
+import com.aproafa.proyectodegrado.model.entity.PronosticoInsumo;
+import com.aproafa.proyectodegrado.repository.ConsumoInsumoDiarioRepository;
+import com.aproafa.proyectodegrado.repository.InsumoRepository;
+import com.aproafa.proyectodegrado.repository.PronosticoInsumoRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio que estima el consumo diario de cada insumo y proyecta cuándo se agotará.
+ *
+ * <p>El consumo diario es un promedio con ponderación exponencial: al cerrar un día, su consumo
+ * pesa {@code alfa} y el promedio anterior {@code 1 - alfa}; los días sin uso cuentan como consumo
+ * cero. Los usos del día en curso se acumulan aparte y entran al promedio cuando llega un uso de un
+ * día posterior o, solo para la consulta, al proyectar. Cada uso actualiza una sola fila de {@link
+ * PronosticoInsumo}, y cada proyección lee esa fila y el stock del insumo, sin recorrer el
+ * historial.
+ *
+ * <p>Las actualizaciones se hacen en la transacción que descuenta el stock, mientras la fila del
+ * insumo está bloqueada, por lo que dos usos concurrentes del mismo insumo no se pisan.
+ */
+@Service
+@Transactional
+public class PronosticoInsumoService {
+
+  private final PronosticoInsumoRepository pronosticoRepository;
+  private final InsumoRepository insumoRepository;
+  private final ConsumoInsumoDiarioRepository consumoDiarioRepository;
+
+  /** Peso del último día cerrado en el promedio, entre 0 y 1. */
+  @Value("${insumos.pronostico.alfa:0.2}")
+  private double alfa;
+
+  /** Días que tarda un pedido en llegar desde que se hace. */
+  @Value("${insumos.pronostico.plazo-entrega-dias:7}")
+  private int plazoEntregaDias;
+
+  /** Días de consumo que debe cubrir un pedido después de llegar. */
+  @Value("${insumos.pronostico.dias-cobertura:30}")
+  private int diasCobertura;
+
+  @Autowired
+  public PronosticoInsumoService(
+      PronosticoInsumoRepository pronosticoRepository,
+      InsumoRepository insumoRepository,
+      ConsumoInsumoDiarioRepository consumoDiarioRepository) {
+    this.pronosticoRepository = pronosticoRepository;
+    this.insumoRepository = insumoRepository;
+    this.consumoDiarioRepository = consumoDiarioRepository;
+  }
+
+  /**
+   * Suma usos de insumos al pronóstico. Los usos con fecha anterior al día en curso de su insumo se
+   * suman al día en curso, ya que el promedio de los días cerrados no se recalcula.
+   *
+   * @param registros Registros de uso recién guardados en el historial.
+   */
+  public void registrarConsumos(List<HistorialInsumo> registros) {
+    if (registros == null || registros.isEmpty()) {
+      return;
+    }
+
+    Map<Integer, List<HistorialInsumo>> porInsumo =
+        registros.stream().collect(Collectors.groupingBy(r -> r.getInsumo().getIdInsumo()));
+    Map<Integer, PronosticoInsumo> pronosticos =
+        pronosticoRepository.findAllById(porInsumo.keySet()).stream()
+            .collect(Collectors.toMap(PronosticoInsumo::getIdInsumo, Function.identity()));
+
+    List<PronosticoInsumo> modificados = new ArrayList<>(porInsumo.size());
+    porInsumo.forEach(
+        (idInsumo, usos) -> {
+          PronosticoInsumo pronostico = pronosticos.get(idInsumo);
+          if (pronostico == null) {
+            pronostico = new PronosticoInsumo();
+            pronostico.setIdInsumo(idInsumo);
+          }
+          usos.sort(Comparator.comparing(HistorialInsumo::getFechaUso));
+          for (HistorialInsumo uso : usos) {
+            sumar(pronostico, uso.getFechaUso().toLocalDate(), uso.getCantidadUtilizada());
+          }
+          modificados.add(pronostico);
+        });
+    pronosticoRepository.saveAll(modificados);
+  }
+
+  /**
+   * Proyecta el consumo de un insumo.
+   *
+   * @param idInsumo Identificador del insumo.
+   * @return Proyección del insumo, o vacío si no existe.
+   */
+  @Transactional(readOnly = true)
+  public Optional<PronosticoInsumoDTO> obtenerPronostico(int idInsumo) {
+    LocalDate hoy = LocalDate.now();
+    return insumoRepository
+        .buscarStock(idInsumo)
+        .map(stock -> proyectar(stock, pronosticoRepository.findById(idInsumo).orElse(null), hoy));
+  }
+
+  /**
+   * Proyecta el consumo de los insumos de una finca.
+   *
+   * @param idFinca Identificador de la finca.
+   * @return Proyecciones ordenadas por fecha de agotamiento; los insumos sin consumo estimado van
+   *     al final.
+   */
+  @Transactional(readOnly = true)
+  public List<PronosticoInsumoDTO> obtenerPronosticosPorFinca(Integer idFinca) {
+    List<StockInsumoDTO> stock = insumoRepository.buscarStockPorFinca(idFinca);
+    Map<Integer, PronosticoInsumo> pronosticos = new HashMap<>();
+    pronosticoRepository
+        .findAllById(stock.stream().map(StockInsumoDTO::getIdInsumo).toList())
+        .forEach(p -> pronosticos.put(p.getIdInsumo(), p));
+
+    LocalDate hoy = LocalDate.now();
+    return stock.stream()
+        .map(s -> proyectar(s, pronosticos.get(s.getIdInsumo()), hoy))
+        .sorted(
+            Comparator.comparing(
+                PronosticoInsumoDTO::getFechaAgotamiento,
+                Comparator.nullsLast(Comparator.naturalOrder())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Recalcula el pronóstico de todos los insumos a partir del consumo diario de los últimos días.
+   * Se usa para la carga inicial o después de cambiar el parámetro {@code alfa}.
+   *
+   * @param dias Cantidad de días hacia atrás a considerar.
+   * @return Cantidad de insumos con pronóstico.
+   * @throws IllegalArgumentException Si la cantidad de días no es positiva.
+   */
+  public int reconstruir(int dias) {
+    if (dias < 1) {
+      throw new IllegalArgumentException("La cantidad de días debe ser mayor que cero");
+    }
+
+    Map<Integer, PronosticoInsumo> pronosticos = new HashMap<>();
+    for (ConsumoInsumoDiario consumo :
+        consumoDiarioRepository.consultarDesde(LocalDate.now().minusDays(dias - 1L))) {
+      PronosticoInsumo pronostico =
+          pronosticos.computeIfAbsent(
+              consumo.getIdInsumo(),
+              id -> {
+                PronosticoInsumo nuevo = new PronosticoInsumo();
+                nuevo.setIdInsumo(id);
+                return nuevo;
+              });
+      sumar(pronostico, consumo.getFecha(), consumo.getCantidad());
+    }
+
+    pronosticoRepository.deleteAllInBatch();
+    pronosticoRepository.saveAll(pronosticos.values());
+    return pronosticos.size();
+  }
+
+  /** Suma un consumo al día indicado, cerrando antes los días anteriores a él. */
+  private void sumar(PronosticoInsumo pronostico, LocalDate dia, BigDecimal cantidad) {
+    if (pronostico.getFechaDiaActual() == null) {
+      pronostico.setFechaDiaActual(dia);
+    } else if (dia.isAfter(pronostico.getFechaDiaActual())) {
+      Promedio promedio = cerrarDias(pronostico, dia);
+      pronostico.setConsumoDiario(
+          BigDecimal.valueOf(promedio.consumoDiario).setScale(4, RoundingMode.HALF_UP));
+      pronostico.setDiasObservados(promedio.dias);
+      pronostico.setFechaDiaActual(dia);
+      pronostico.setConsumoDiaActual(BigDecimal.ZERO);
+    }
+    pronostico.setConsumoDiaActual(pronostico.getConsumoDiaActual().add(cantidad));
+  }
+
+  /**
+   * Calcula el promedio que resulta de cerrar el día en curso y los días sin uso hasta el día
+   * anterior a {@code hasta}, sin modificar el pronóstico.
+   */
+  private Promedio cerrarDias(PronosticoInsumo pronostico, LocalDate hasta) {
+    double consumo = pronostico.getConsumoDiario().doubleValue();
+    int dias = pronostico.getDiasObservados();
+    if (pronostico.getFechaDiaActual() == null || !hasta.isAfter(pronostico.getFechaDiaActual())) {
+      return new Promedio(consumo, dias);
+    }
+
+    double delDia = pronostico.getConsumoDiaActual().doubleValue();
+    consumo = dias == 0 ? delDia : alfa * delDia + (1 - alfa) * consumo;
+    long sinUso = ChronoUnit.DAYS.between(pronostico.getFechaDiaActual(), hasta) - 1;
+    consumo *= Math.pow(1 - alfa, sinUso);
+    return new Promedio(consumo, (int) Math.min(Integer.MAX_VALUE, dias + 1 + sinUso));
+  }
+
+  private PronosticoInsumoDTO proyectar(
+      StockInsumoDTO stock, PronosticoInsumo pronostico, LocalDate hoy) {
+    PronosticoInsumoDTO dto = new PronosticoInsumoDTO();
+    dto.setIdInsumo(stock.getIdInsumo());
+    dto.setIdFinca(stock.getIdFinca());
+    dto.setNombre(stock.getNombre());
+    dto.setCantidadDisponible(stock.getCantidadDisponible());
+    dto.setPuntoReorden(stock.getPuntoReorden());
+    dto.setConsumoDiario(BigDecimal.ZERO);
+    dto.setCantidadSugerida(BigDecimal.ZERO);
+    if (pronostico == null) {
+      return dto;
+    }
+
+    Promedio promedio = cerrarDias(pronostico, hoy);
+    double consumoDiario = promedio.consumoDiario;
+    if (promedio.dias == 0) {
+      // Solo hay usos de hoy; se toman como el consumo de un día completo
+      consumoDiario = pronostico.getConsumoDiaActual().doubleValue();
+    }
+    dto.setDiasObservados(promedio.dias);
+    dto.setConsumoDiario(BigDecimal.valueOf(consumoDiario).setScale(4, RoundingMode.HALF_UP));
+    if (consumoDiario <= 0) {
+      return dto;
+    }
+
+    double disponible = stock.getCantidadDisponible().doubleValue();
+    long diasRestantes = (long) Math.floor(disponible / consumoDiario);
+    LocalDate agotamiento = hoy.plusDays(Math.min(diasRestantes, 36_500));
+    dto.setDiasHastaAgotarse(diasRestantes);
+    dto.setFechaAgotamiento(agotamiento);
+    dto.setFechaPedidoSugerida(agotamiento.minusDays(plazoEntregaDias));
+
+    double necesario = consumoDiario * (plazoEntregaDias + diasCobertura) - disponible;
+    dto.setCantidadSugerida(
+        BigDecimal.valueOf(Math.max(0, necesario)).setScale(2, RoundingMode.CEILING));
+    return dto;
+  }
+
+  /** Consumo diario promedio y cantidad de días que lo sustentan. */
+  private record Promedio(double consumoDiario, int dias) {}
+}
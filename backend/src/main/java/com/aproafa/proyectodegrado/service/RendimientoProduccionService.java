@@ -0,0 +1,181 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.RendimientoProduccionDTO;
+import com.aproafa.proyectodegrado.repository.ProduccionRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Servicio de analítica de rendimiento de las producciones por producto, finca y temporada.
+ *
+ * <p>El rendimiento se calcula con una consulta agregada sobre un índice que cubre las columnas
+ * usadas, y cada resultado se guarda en memoria por ventana de años y filtros. Registrar una
+ * cosecha invalida las ventanas que incluyen su año, después de confirmar la transacción. Un
+ * contador de versión evita guardar un resultado calculado antes de una invalidación.
+ */
+@Service
+public class RendimientoProduccionService {
+
+  /** Cantidad máxima de años de una consulta. */
+  private static final int MAXIMO_ANIOS = 50;
+
+  /** Cantidad máxima de resultados guardados; al superarla se descarta el usado hace más tiempo. */
+  private static final int MAXIMO_ENTRADAS = 256;
+
+  private final ProduccionRepository produccionRepository;
+
+  /** Resultados por consulta en orden de acceso; protegido por su propio monitor. */
+  private final LinkedHashMap<Consulta, Resultado> cache =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Consulta, Resultado> masAntigua) {
+          return size() > MAXIMO_ENTRADAS;
+        }
+      };
+
+  /** Se incrementa con cada invalidación. */
+  private final AtomicLong version = new AtomicLong();
+
+  @Value("${produccion.rendimiento.cache-minutos:60}")
+  private long cacheMinutos;
+
+  @Autowired
+  public RendimientoProduccionService(ProduccionRepository produccionRepository) {
+    this.produccionRepository = produccionRepository;
+  }
+
+  /**
+   * Consulta el rendimiento de las producciones cosechadas en un rango de años.
+   *
+   * @param anioDesde Primer año, inclusivo.
+   * @param anioHasta Último año, inclusivo.
+   * @param porSemestre {@code true} para separar cada año en dos temporadas.
+   * @param idFinca Finca (opcional).
+   * @param idProducto Producto (opcional).
+   * @return Rendimiento por año, temporada, producto y finca.
+   * @throws IllegalArgumentException Si el rango de años es inválido.
+   */
+  @Transactional(readOnly = true)
+  public List<RendimientoProduccionDTO> consultar(
+      int anioDesde, int anioHasta, boolean porSemestre, Integer idFinca, Integer idProducto) {
+    if (anioDesde > anioHasta) {
+      throw new IllegalArgumentException("El año inicial no puede ser posterior al final");
+    }
+    if (anioHasta - anioDesde >= MAXIMO_ANIOS) {
+      throw new IllegalArgumentException("El rango no puede superar " + MAXIMO_ANIOS + " años");
+    }
+
+    Consulta consulta = new Consulta(anioDesde, anioHasta, porSemestre, idFinca, idProducto);
+    long ahora = System.nanoTime();
+    synchronized (cache) {
+      Resultado guardado = cache.get(consulta);
+      if (guardado != null && ahora - guardado.calculado < TimeUnit.MINUTES.toNanos(cacheMinutos)) {
+        return guardado.filas;
+      }
+    }
+
+    long versionInicial = version.get();
+    List<RendimientoProduccionDTO> filas =
+        produccionRepository
+            .calcularRendimiento(
+                LocalDate.of(anioDesde, 1, 1),
+                LocalDate.of(anioHasta + 1, 1, 1),
+                porSemestre,
+                idFinca,
+                idProducto)
+            .stream()
+            .map(this::convertirADTO)
+            .collect(Collectors.toUnmodifiableList());
+
+    synchronized (cache) {
+      // Si hubo una invalidación durante el cálculo, el resultado puede estar desactualizado
+      if (version.get() == versionInicial) {
+        cache.put(consulta, new Resultado(filas, ahora));
+      }
+    }
+    return filas;
+  }
+
+  /**
+   * Invalida los resultados que incluyen los años indicados. Si hay una transacción activa, la
+   * invalidación ocurre después de confirmarla.
+   *
+   * @param anios Años de las cosechas registradas; vacío o {@code null} invalida todo.
+   */
+  public void invalidar(Collection<Integer> anios) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              descartar(anios);
+            }
+          });
+    } else {
+      descartar(anios);
+    }
+  }
+
+  private void descartar(Collection<Integer> anios) {
+    synchronized (cache) {
+      version.incrementAndGet();
+      if (anios == null || anios.isEmpty()) {
+        cache.clear();
+        return;
+      }
+      cache
+          .keySet()
+          .removeIf(c -> anios.stream().anyMatch(a -> a >= c.anioDesde && a <= c.anioHasta));
+    }
+  }
+
+  private RendimientoProduccionDTO convertirADTO(Object[] fila) {
+    RendimientoProduccionDTO dto = new RendimientoProduccionDTO();
+    dto.setAnio(((Number) fila[0]).intValue());
+    dto.setTemporada(((Number) fila[1]).intValue());
+    dto.setIdProducto(((Number) fila[2]).intValue());
+    dto.setIdFinca(((Number) fila[3]).intValue());
+    dto.setProducciones(((Number) fila[4]).longValue());
+    dto.setCantidadTotal(decimal(fila[5]));
+    dto.setCantidadPromedio(decimal(fila[6]));
+    dto.setCantidadMinima(decimal(fila[7]));
+    dto.setCantidadMaxima(decimal(fila[8]));
+    dto.setDesviacionCantidad(decimal(fila[9]));
+    dto.setDiasCicloPromedio(decimal(fila[10]));
+    dto.setDiasCicloMinimo(fila[11] != null ? ((Number) fila[11]).intValue() : null);
+    dto.setDiasCicloMaximo(fila[12] != null ? ((Number) fila[12]).intValue() : null);
+    return dto;
+  }
+
+  private BigDecimal decimal(Object valor) {
+    if (valor == null) {
+      return null;
+    }
+    BigDecimal numero =
+        valor instanceof BigDecimal decimal
+            ? decimal
+            : BigDecimal.valueOf(((Number) valor).doubleValue());
+    return numero.setScale(2, RoundingMode.HALF_UP);
+  }
+
+  /** Filtros de una consulta de rendimiento. */
+  private record Consulta(
+      int anioDesde, int anioHasta, boolean porSemestre, Integer idFinca, Integer idProducto) {}
+
+  /** Resultado guardado y el momento en que se calculó, en nanosegundos. */
+  private record Resultado(List<RendimientoProduccionDTO> filas, long calculado) {}
+}
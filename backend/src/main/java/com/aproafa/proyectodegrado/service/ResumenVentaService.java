@@ -0,0 +1,144 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.VentaResumenDiarioDTO;
+import com.aproafa.proyectodegrado.model.entity.MetodoPago;
+import com.aproafa.proyectodegrado.model.entity.VentaResumenDiario;
+import com.aproafa.proyectodegrado.repository.DetalleVentaRepository;
+import com.aproafa.proyectodegrado.repository.VentaResumenDiarioRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Servicio que mantiene y consulta el resumen diario de ventas por finca, producto, día y método de
+ * pago ({@code venta_resumen_diario}).
+ *
+ * <p>{@link VentaService} informa cada venta guardada, modificada o eliminada y este servicio suma
+ * o resta su aporte al resumen, de modo que las consultas por rango de fechas leen solo filas
+ * agregadas y no dependen del número de ventas registradas.
+ */
+@Service
+@Transactional
+public class ResumenVentaService {
+
+  /** Fecha mínima usada cuando una reconstrucción no indica el inicio del rango. */
+  private static final LocalDate FECHA_MINIMA = LocalDate.of(1900, 1, 1);
+
+  /** Fecha máxima usada cuando una reconstrucción no indica el fin del rango. */
+  private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+  private final VentaResumenDiarioRepository resumenRepository;
+  private final DetalleVentaRepository detalleVentaRepository;
+
+  @Autowired
+  public ResumenVentaService(
+      VentaResumenDiarioRepository resumenRepository,
+      DetalleVentaRepository detalleVentaRepository) {
+    this.resumenRepository = resumenRepository;
+    this.detalleVentaRepository = detalleVentaRepository;
+  }
+
+  /**
+   * Suma o resta al resumen el aporte de una venta, tomando sus detalles actuales de la base de
+   * datos. Debe llamarse con signo positivo después de insertar los detalles y con signo negativo
+   * antes de eliminarlos.
+   *
+   * @param idVenta Identificador de la venta.
+   * @param idFinca Finca de la venta.
+   * @param fechaVenta Fecha de la venta.
+   * @param metodoPago Método de pago de la venta.
+   * @param signo {@code 1} para sumar la venta o {@code -1} para restarla.
+   */
+  public void aplicarVenta(
+      Integer idVenta,
+      Integer idFinca,
+      LocalDateTime fechaVenta,
+      MetodoPago metodoPago,
+      int signo) {
+    if (idVenta == null || idFinca == null || fechaVenta == null || metodoPago == null) {
+      return;
+    }
+
+    LocalDate dia = fechaVenta.toLocalDate();
+    for (Object[] fila : detalleVentaRepository.resumirPorProducto(idVenta)) {
+      Integer idProducto = (Integer) fila[0];
+      long cantidad = ((Number) fila[1]).longValue();
+      BigDecimal ingresos = (BigDecimal) fila[2];
+
+      resumenRepository.acumular(
+          idFinca,
+          idProducto,
+          dia,
+          metodoPago.name(),
+          signo,
+          signo * cantidad,
+          signo > 0 ? ingresos : ingresos.negate());
+    }
+  }
+
+  /**
+   * Reconstruye el resumen de un rango de días a partir de las ventas registradas. Se usa para
+   * cargas iniciales o para corregir el resumen después de modificaciones directas en la base de
+   * datos.
+   *
+   * @param desde Día inicial, inclusivo ({@code null} para no limitar).
+   * @param hasta Día final, inclusivo ({@code null} para no limitar).
+   * @return Cantidad de filas de resumen generadas.
+   */
+  public int reconstruir(LocalDate desde, LocalDate hasta) {
+    LocalDate inicio = desde != null ? desde : FECHA_MINIMA;
+    LocalDate fin = hasta != null ? hasta : FECHA_MAXIMA;
+    if (inicio.isAfter(fin)) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+
+    resumenRepository.eliminarRango(inicio, fin);
+    return resumenRepository.reconstruirRango(
+        inicio.atStartOfDay(), fin.plusDays(1).atStartOfDay());
+  }
+
+  /**
+   * Consulta el resumen diario de un rango de días.
+   *
+   * @param desde Día inicial, inclusivo.
+   * @param hasta Día final, inclusivo.
+   * @param idFinca Finca (opcional).
+   * @param idProducto Producto (opcional).
+   * @param metodoPago Método de pago (opcional).
+   * @return Filas del resumen ordenadas por día, finca y producto.
+   * @throws IllegalArgumentException Si el rango o el método de pago son inválidos.
+   */
+  @Transactional(readOnly = true)
+  public List<VentaResumenDiarioDTO> consultar(
+      LocalDate desde, LocalDate hasta, Integer idFinca, Integer idProducto, String metodoPago) {
+    if (desde == null || hasta == null) {
+      throw new IllegalArgumentException("Las fechas inicial y final son obligatorias");
+    }
+    if (desde.isAfter(hasta)) {
+      throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la final");
+    }
+
+    MetodoPago metodo = VentaService.metodoPagoOpcional(metodoPago);
+
+    return resumenRepository.consultar(desde, hasta, idFinca, idProducto, metodo).stream()
+        .map(this::convertirADTO)
+        .collect(Collectors.toList());
+  }
+
+  private VentaResumenDiarioDTO convertirADTO(VentaResumenDiario resumen) {
+    VentaResumenDiarioDTO dto = new VentaResumenDiarioDTO();
+    dto.setIdFinca(resumen.getIdFinca());
+    dto.setIdProducto(resumen.getIdProducto());
+    dto.setFecha(resumen.getFecha());
+    dto.setMetodoPago(resumen.getMetodoPago().name());
+    dto.setNumeroVentas(resumen.getNumeroVentas());
+    dto.setCantidad(resumen.getCantidad());
+    dto.setIngresos(resumen.getIngresos());
+    return dto;
+  }
+}
@@ -0,0 +1,409 @@
+package com.aproafa.proyectodegrado.service;
+
+import com.aproafa.proyectodegrado.model.dto.EstadoTrabajo;
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.MetricasTrabajosFacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.TrabajoFacturaDTO;
+import com.itextpdf.text.DocumentException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que genera facturas en segundo plano, fuera de los hilos que atienden peticiones HTTP.
+ *
+ * <p>Cada trabajo se encola en un grupo de hilos propio con una cola de capacidad fija; cuando la
+ * cola está llena el trabajo se rechaza de inmediato para que el cliente reintente más tarde. El
+ * resultado es el PDF de la venta, o un ZIP si el trabajo incluye varias ventas, y se guarda en
+ * disco hasta que vence el tiempo de retención.
+ *
+ * <p>Los trabajos se mantienen solo en memoria; al reiniciar la aplicación se pierden.
+ */
+@Service
+public class TrabajoFacturaService {
+
+  private static final Logger logger = Logger.getLogger(TrabajoFacturaService.class.getName());
+
+  private final VentaService ventaService;
+  private final FacturaCacheService facturaCacheService;
+  private final FacturaLoteService facturaLoteService;
+  private final ThreadPoolExecutor executor;
+  private final int capacidadCola;
+  private final Path directorio;
+
+  private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+  private final LongAdder aceptados = new LongAdder();
+  private final LongAdder rechazados = new LongAdder();
+  private final LongAdder completados = new LongAdder();
+  private final LongAdder fallidos = new LongAdder();
+  private final LongAdder iniciados = new LongAdder();
+  private final LongAdder esperaTotalMs = new LongAdder();
+  private final LongAccumulator esperaMaximaMs = new LongAccumulator(Math::max, 0);
+  private final LongAdder generacionTotalMs = new LongAdder();
+  private final LongAccumulator generacionMaximaMs = new LongAccumulator(Math::max, 0);
+
+  @Value("${facturas.trabajos.maximo-ventas:500}")
+  private int maximoVentas;
+
+  @Value("${facturas.trabajos.retencion-minutos:60}")
+  private long retencionMinutos;
+
+  @Autowired
+  public TrabajoFacturaService(
+      VentaService ventaService,
+      FacturaCacheService facturaCacheService,
+      FacturaLoteService facturaLoteService,
+      @Value("${facturas.trabajos.hilos:2}") int hilos,
+      @Value("${facturas.trabajos.capacidad-cola:100}") int capacidadCola,
+      @Value("${facturas.trabajos.directorio:${java.io.tmpdir}/facturas-trabajos}")
+          String directorio) {
+    this.ventaService = ventaService;
+    this.facturaCacheService = facturaCacheService;
+    this.facturaLoteService = facturaLoteService;
+    this.capacidadCola = capacidadCola;
+    this.directorio = Paths.get(directorio);
+
+    AtomicInteger contador = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            hilos,
+            hilos,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(capacidadCola),
+            tarea -> {
+              Thread hilo = new Thread(tarea, "factura-trabajo-" + contador.incrementAndGet());
+              hilo.setDaemon(true);
+              return hilo;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /** Crea el directorio de resultados y elimina los archivos de ejecuciones anteriores. */
+  @PostConstruct
+  public void inicializar() throws IOException {
+    Files.createDirectories(directorio);
+    try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+      for (Path archivo : contenido) {
+        Files.deleteIfExists(archivo);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void detener() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Encola un trabajo para generar las facturas de las ventas indicadas.
+   *
+   * @param idsVenta Identificadores de las ventas.
+   * @return Estado inicial del trabajo.
+   * @throws IllegalArgumentException Si la lista está vacía o supera el máximo permitido.
+   * @throws RejectedExecutionException Si la cola de trabajos está llena.
+   */
+  public TrabajoFacturaDTO crearTrabajo(List<Integer> idsVenta) {
+    if (idsVenta == null || idsVenta.isEmpty()) {
+      throw new IllegalArgumentException("Debe indicar al menos una venta");
+    }
+    List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(idsVenta));
+    if (ids.contains(null)) {
+      throw new IllegalArgumentException("Los identificadores de venta no pueden ser nulos");
+    }
+    if (ids.size() > maximoVentas) {
+      throw new IllegalArgumentException(
+          "Un trabajo no puede incluir más de " + maximoVentas + " ventas");
+    }
+
+    Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), ids);
+    trabajo.tarea = () -> ejecutar(trabajo);
+    trabajos.put(trabajo.id, trabajo);
+    try {
+      executor.execute(trabajo.tarea);
+    } catch (RejectedExecutionException e) {
+      trabajos.remove(trabajo.id);
+      rechazados.increment();
+      throw e;
+    }
+    aceptados.increment();
+    return convertirADTO(trabajo);
+  }
+
+  /**
+   * Consulta el estado actual de un trabajo.
+   *
+   * @param idTrabajo Identificador del trabajo.
+   * @return Estado del trabajo, o {@code null} si no existe.
+   */
+  public TrabajoFacturaDTO consultarTrabajo(String idTrabajo) {
+    Trabajo trabajo = trabajos.get(idTrabajo);
+    return trabajo != null ? convertirADTO(trabajo) : null;
+  }
+
+  /**
+   * Obtiene un futuro que se completa cuando el trabajo termina, para que una consulta de estado
+   * pueda esperar sin ocupar un hilo.
+   *
+   * @param idTrabajo Identificador del trabajo.
+   * @return Futuro de terminación del trabajo, o {@code null} si no existe.
+   */
+  public CompletableFuture<Void> obtenerTerminacion(String idTrabajo) {
+    Trabajo trabajo = trabajos.get(idTrabajo);
+    return trabajo != null ? trabajo.terminado : null;
+  }
+
+  /**
+   * Obtiene el archivo generado por un trabajo completado.
+   *
+   * @param idTrabajo Identificador del trabajo.
+   * @return Ruta del archivo, o {@code null} si el trabajo no existe o no está completado.
+   */
+  public Path obtenerArchivo(String idTrabajo) {
+    Trabajo trabajo = trabajos.get(idTrabajo);
+    if (trabajo == null || trabajo.estado != EstadoTrabajo.COMPLETADO) {
+      return null;
+    }
+    return trabajo.archivo;
+  }
+
+  /**
+   * Obtiene el nombre con el que se descarga el archivo de un trabajo.
+   *
+   * @param idTrabajo Identificador del trabajo.
+   * @return Nombre del archivo, o {@code null} si el trabajo no existe.
+   */
+  public String obtenerNombreArchivo(String idTrabajo) {
+    Trabajo trabajo = trabajos.get(idTrabajo);
+    if (trabajo == null) {
+      return null;
+    }
+    return trabajo.idsVenta.size() == 1
+        ? "factura_" + trabajo.idsVenta.get(0) + ".pdf"
+        : "facturas_" + trabajo.id + ".zip";
+  }
+
+  /**
+   * Obtiene las métricas de la cola de trabajos.
+   *
+   * @return Profundidad de la cola, contadores y tiempos de espera y de generación.
+   */
+  public MetricasTrabajosFacturaDTO obtenerMetricas() {
+    MetricasTrabajosFacturaDTO metricas = new MetricasTrabajosFacturaDTO();
+    metricas.setProfundidadCola(executor.getQueue().size());
+    metricas.setCapacidadCola(capacidadCola);
+    metricas.setTrabajosActivos(executor.getActiveCount());
+    metricas.setHilos(executor.getMaximumPoolSize());
+    metricas.setTrabajosAceptados(aceptados.sum());
+    metricas.setTrabajosRechazados(rechazados.sum());
+    metricas.setTrabajosCompletados(completados.sum());
+    metricas.setTrabajosFallidos(fallidos.sum());
+
+    long totalIniciados = iniciados.sum();
+    metricas.setEsperaPromedioMs(
+        totalIniciados > 0 ? (double) esperaTotalMs.sum() / totalIniciados : 0);
+    metricas.setEsperaMaximaMs(esperaMaximaMs.get());
+
+    long terminados = completados.sum() + fallidos.sum();
+    metricas.setGeneracionPromedioMs(
+        terminados > 0 ? (double) generacionTotalMs.sum() / terminados : 0);
+    metricas.setGeneracionMaximaMs(generacionMaximaMs.get());
+    return metricas;
+  }
+
+  /**
+   * Genera el archivo de un trabajo. Se ejecuta en un hilo del grupo de trabajos.
+   *
+   * @param trabajo Trabajo a generar.
+   */
+  private void ejecutar(Trabajo trabajo) {
+    trabajo.inicio = System.currentTimeMillis();
+    trabajo.fechaInicio = LocalDateTime.now();
+    trabajo.estado = EstadoTrabajo.EN_PROCESO;
+    long espera = trabajo.inicio - trabajo.creacion;
+    iniciados.increment();
+    esperaTotalMs.add(espera);
+    esperaMaximaMs.accumulate(espera);
+
+    boolean unaFactura = trabajo.idsVenta.size() == 1;
+    Path archivo = directorio.resolve(trabajo.id + (unaFactura ? ".pdf" : ".zip"));
+    String error = null;
+    try {
+      try (OutputStream salida =
+          new BufferedOutputStream(Files.newOutputStream(archivo), 64 * 1024)) {
+        if (unaFactura) {
+          escribirFactura(trabajo.idsVenta.get(0), salida);
+        } else {
+          facturaLoteService.generarZip(trabajo.idsVenta, salida);
+        }
+      }
+    } catch (Exception e) {
+      eliminarArchivo(archivo);
+      error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+      logger.log(Level.WARNING, "Error en el trabajo de facturas " + trabajo.id, e);
+    }
+
+    // Los tiempos se registran antes de publicar el estado final para que se lean completos
+    trabajo.fin = System.currentTimeMillis();
+    trabajo.fechaFin = LocalDateTime.now();
+    long duracion = trabajo.fin - trabajo.inicio;
+    generacionTotalMs.add(duracion);
+    generacionMaximaMs.accumulate(duracion);
+
+    if (error == null) {
+      trabajo.archivo = archivo;
+      trabajo.estado = EstadoTrabajo.COMPLETADO;
+      completados.increment();
+    } else {
+      trabajo.error = error;
+      trabajo.estado = EstadoTrabajo.FALLIDO;
+      fallidos.increment();
+    }
+    trabajo.terminado.complete(null);
+  }
+
+  private void escribirFactura(Integer idVenta, OutputStream salida)
+      throws DocumentException, IOException {
+    FacturaDTO factura = ventaService.obtenerDatosFactura(idVenta);
+    if (factura == null) {
+      throw new IllegalArgumentException("La venta " + idVenta + " no existe");
+    }
+    try (FileChannel pdf = facturaCacheService.abrirFactura(factura)) {
+      WritableByteChannel destino = Channels.newChannel(salida);
+      long tamano = pdf.size();
+      long posicion = 0;
+      while (posicion < tamano) {
+        posicion += pdf.transferTo(posicion, tamano - posicion, destino);
+      }
+    }
+  }
+
+  /**
+   * Elimina los trabajos terminados cuyo tiempo de retención venció, junto con sus archivos. Se
+   * ejecuta periódicamente, de modo que los archivos se liberan aunque no se creen trabajos nuevos.
+   */
+  @Scheduled(
+      fixedDelayString = "${facturas.trabajos.intervalo-limpieza-ms:60000}",
+      initialDelayString = "${facturas.trabajos.intervalo-limpieza-ms:60000}")
+  public void eliminarVencidos() {
+    long limite = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retencionMinutos);
+    Iterator<Trabajo> iterador = trabajos.values().iterator();
+    while (iterador.hasNext()) {
+      Trabajo trabajo = iterador.next();
+      if (trabajo.estado.esFinal() && trabajo.fin < limite) {
+        iterador.remove();
+        if (trabajo.archivo != null) {
+          eliminarArchivo(trabajo.archivo);
+        }
+      }
+    }
+  }
+
+  private void eliminarArchivo(Path archivo) {
+    try {
+      Files.deleteIfExists(archivo);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "No se pudo eliminar el archivo " + archivo, e);
+    }
+  }
+
+  private TrabajoFacturaDTO convertirADTO(Trabajo trabajo) {
+    TrabajoFacturaDTO dto = new TrabajoFacturaDTO();
+    EstadoTrabajo estado = trabajo.estado;
+    dto.setIdTrabajo(trabajo.id);
+    dto.setEstado(estado);
+    dto.setCantidadVentas(trabajo.idsVenta.size());
+    dto.setFechaCreacion(trabajo.fechaCreacion);
+    dto.setFechaInicio(trabajo.fechaInicio);
+    dto.setFechaFin(trabajo.fechaFin);
+    if (trabajo.inicio > 0) {
+      dto.setEsperaMs(trabajo.inicio - trabajo.creacion);
+    }
+    if (estado.esFinal()) {
+      dto.setDuracionMs(trabajo.fin - trabajo.inicio);
+    }
+    if (estado == EstadoTrabajo.PENDIENTE) {
+      dto.setPosicionCola(posicionEnCola(trabajo));
+    }
+    if (estado == EstadoTrabajo.COMPLETADO) {
+      dto.setUrlDescarga("/api/facturas/trabajos/" + trabajo.id + "/descarga");
+    }
+    dto.setError(trabajo.error);
+    return dto;
+  }
+
+  /**
+   * Busca la posición de un trabajo pendiente en la cola del executor.
+   *
+   * @param trabajo Trabajo pendiente.
+   * @return Posición en la cola empezando en 1, o {@code null} si ya salió de la cola.
+   */
+  private Integer posicionEnCola(Trabajo trabajo) {
+    int posicion = 0;
+    for (Runnable tarea : executor.getQueue()) {
+      posicion++;
+      if (tarea == trabajo.tarea) {
+        return posicion;
+      }
+    }
+    return null;
+  }
+
+  /** Trabajo de generación de facturas y su estado. */
+  private static class Trabajo {
+    private final String id;
+    private final List<Integer> idsVenta;
+    private final long creacion = System.currentTimeMillis();
+    private final LocalDateTime fechaCreacion = LocalDateTime.now();
+    private final CompletableFuture<Void> terminado = new CompletableFuture<>();
+    private volatile EstadoTrabajo estado = EstadoTrabajo.PENDIENTE;
+    private volatile long inicio;
+    private volatile long fin;
+    private volatile LocalDateTime fechaInicio;
+    private volatile LocalDateTime fechaFin;
+    private volatile Path archivo;
+    private volatile String error;
+
+    /** Tarea encolada en el executor, usada para ubicar el trabajo en la cola. */
+    private Runnable tarea;
+
+    private Trabajo(String id, List<Integer> idsVenta) {
+      this.id = id;
+      this.idsVenta = idsVenta;
+    }
+  }
+}
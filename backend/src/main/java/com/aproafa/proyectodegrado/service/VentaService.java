@@ -1,6 +1,10 @@
 package com.aproafa.proyectodegrado.service;
 
 import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.FiltroVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.LineaFacturaDTO;
+import com.aproafa.proyectodegrado.model.dto.PaginaCursorDTO;
 import com.aproafa.proyectodegrado.model.dto.VentaDTO;
 import com.aproafa.proyectodegrado.model.entity.*;
 import com.aproafa.proyectodegrado.repository.DetalleVentaRepository;
@@ -8,12 +12,15 @@ import com.aproafa.proyectodegrado.repository.ProduccionRepository;
 import com.aproafa.proyectodegrado.repository.VentaRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -22,12 +29,19 @@ public class VentaService {
 
   private final VentaRepository ventaRepository;
   private final DetalleVentaRepository detalleVentaRepository;
+  private final ResumenVentaService resumenVentaService;
+  private final FacturaCacheService facturaCacheService;
 
   @Autowired
   public VentaService(
-      VentaRepository ventaRepository, DetalleVentaRepository detalleVentaRepository) {
+      VentaRepository ventaRepository,
+      DetalleVentaRepository detalleVentaRepository,
+      ResumenVentaService resumenVentaService,
+      FacturaCacheService facturaCacheService) {
     this.ventaRepository = ventaRepository;
     this.detalleVentaRepository = detalleVentaRepository;
+    this.resumenVentaService = resumenVentaService;
+    this.facturaCacheService = facturaCacheService;
   }
 
   @Transactional(readOnly = true)
@@ -42,6 +56,63 @@ public class VentaService {
     return detalles.stream().map(this::convertirADetalleVentaDTO).collect(Collectors.toList());
   }
 
+  /**
+   * Obtiene los datos para generar la factura de una venta con una sola consulta: venta, cliente,
+   * vendedor, finca y detalles con el nombre de cada producto.
+   *
+   * @param idVenta Identificador de la venta.
+   * @return Datos de la factura, o {@code null} si la venta no existe.
+   */
+  @Transactional(readOnly = true)
+  public FacturaDTO obtenerDatosFactura(Integer idVenta) {
+    List<LineaFacturaDTO> lineas = ventaRepository.buscarLineasFactura(idVenta);
+    if (lineas.isEmpty()) {
+      return null;
+    }
+
+    LineaFacturaDTO primera = lineas.get(0);
+    FacturaDTO factura = new FacturaDTO();
+    factura.setIdVenta(primera.getIdVenta());
+    factura.setFechaVenta(primera.getFechaVenta());
+    factura.setMetodoPago(primera.getMetodoPago() != null ? primera.getMetodoPago().name() : null);
+    factura.setTotal(primera.getTotal());
+    factura.setIdCliente(primera.getIdCliente());
+    factura.setNombreCliente(
+        nombreCompleto(primera.getNombreCliente(), primera.getApellidoCliente()));
+    factura.setIdentificacionCliente(primera.getIdentificacionCliente());
+    factura.setTelefonoCliente(primera.getTelefonoCliente());
+    factura.setDireccionCliente(primera.getDireccionCliente());
+    factura.setIdPersona(primera.getIdPersona());
+    factura.setNombreVendedor(
+        nombreCompleto(primera.getNombreVendedor(), primera.getApellidoVendedor()));
+    factura.setIdFinca(primera.getIdFinca());
+    factura.setNombreFinca(primera.getNombreFinca());
+    factura.setUbicacionFinca(primera.getUbicacionFinca());
+
+    for (LineaFacturaDTO linea : lineas) {
+      if (linea.getIdDetalle() == null) {
+        continue;
+      }
+      DetalleVentaDTO detalle = new DetalleVentaDTO();
+      detalle.setIdDetalle(linea.getIdDetalle());
+      detalle.setIdVenta(linea.getIdVenta());
+      detalle.setIdProduccion(linea.getIdProduccion());
+      detalle.setCantidad(linea.getCantidad());
+      detalle.setPrecioUnitario(linea.getPrecioUnitario());
+      detalle.setSubtotal(linea.getSubtotal());
+      detalle.setNombreProducto(linea.getNombreProducto());
+      factura.getDetalles().add(detalle);
+    }
+    return factura;
+  }
+
+  private String nombreCompleto(String nombre, String apellido) {
+    if (nombre == null) {
+      return apellido;
+    }
+    return apellido != null ? nombre + " " + apellido : nombre;
+  }
+
   @Transactional(readOnly = true)
   public List<VentaDTO> obtenerTodasLasVentas() {
     List<Venta> ventas = ventaRepository.findAll();
@@ -68,11 +139,70 @@ public class VentaService {
 
   @Autowired private ProduccionRepository produccionRepository;
 
+  /**
+   * Si es {@code true}, los detalles de una venta se insertan con sentencias JDBC por lotes en
+   * lugar de un {@code INSERT} por detalle.
+   */
+  @Value("${ventas.detalles.insercion-lote:true}")
+  private boolean insercionEnLote;
+
   public VentaDTO guardarVentaConDetalles(VentaDTO ventaDTO, List<DetalleVentaDTO> detallesDTO) {
+    BigDecimal totalCalculado = validarVentaConDetalles(ventaDTO, detallesDTO);
+
+    ventaDTO.setTotal(totalCalculado);
+    VentaDTO ventaGuardada = guardarVenta(ventaDTO);
+
+    if (ventaGuardada == null || ventaGuardada.getIdVenta() == null) {
+      throw new RuntimeException("Error al guardar la venta");
+    }
+
+    List<DetalleVenta> detalles = new ArrayList<>(detallesDTO.size());
+    for (DetalleVentaDTO detalleDTO : detallesDTO) {
+      detalleDTO.setIdVenta(ventaGuardada.getIdVenta());
+      detalles.add(convertirADetalleVentaEntity(detalleDTO));
+    }
+
+    if (insercionEnLote) {
+      detalleVentaRepository.insertarEnLote(detalles);
+    } else {
+      detalleVentaRepository.saveAll(detalles);
+    }
+
+    resumenVentaService.aplicarVenta(
+        ventaGuardada.getIdVenta(),
+        ventaGuardada.getIdFinca(),
+        ventaGuardada.getFechaVenta(),
+        MetodoPago.valueOf(ventaGuardada.getMetodoPago()),
+        1);
+
+    return ventaGuardada;
+  }
+
+  /**
+   * Valida una venta con sus detalles según las reglas de {@link #guardarVentaConDetalles} sin
+   * escribir en la base de datos.
+   *
+   * @param ventaDTO Datos generales de la venta.
+   * @param detallesDTO Detalles de la venta.
+   * @return Total de la venta calculado a partir de los detalles.
+   * @throws IllegalArgumentException Si la venta o alguno de sus detalles no es válido.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public BigDecimal validarVentaConDetalles(VentaDTO ventaDTO, List<DetalleVentaDTO> detallesDTO) {
     if (ventaDTO.getMetodoPago() == null || ventaDTO.getMetodoPago().trim().isEmpty()) {
       throw new IllegalArgumentException("El método de pago es obligatorio");
     }
 
+    try {
+      MetodoPago.fromString(ventaDTO.getMetodoPago().trim());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "Método de pago inválido: "
+              + ventaDTO.getMetodoPago()
+              + ". Valores aceptados: "
+              + Arrays.toString(MetodoPago.values()));
+    }
+
     if (detallesDTO == null || detallesDTO.isEmpty()) {
       throw new IllegalArgumentException("Una venta debe tener al menos un detalle");
     }
@@ -89,37 +219,49 @@ public class VentaService {
       BigDecimal subtotal = precioUnitario.multiply(BigDecimal.valueOf(detalleDTO.getCantidad()));
       totalCalculado = totalCalculado.add(subtotal);
     }
-
-    ventaDTO.setTotal(totalCalculado);
-    VentaDTO ventaGuardada = guardarVenta(ventaDTO);
-
-    if (ventaGuardada == null || ventaGuardada.getIdVenta() == null) {
-      throw new RuntimeException("Error al guardar la venta");
-    }
-
-    for (DetalleVentaDTO detalleDTO : detallesDTO) {
-      detalleDTO.setIdVenta(ventaGuardada.getIdVenta());
-      DetalleVenta detalleEntity = convertirADetalleVentaEntity(detalleDTO);
-      detalleVentaRepository.save(detalleEntity);
-    }
-
-    return ventaGuardada;
+    return totalCalculado;
   }
 
   public VentaDTO actualizarVenta(Integer idVenta, VentaDTO ventaDTO) {
     Optional<Venta> ventaOptional = ventaRepository.findById(idVenta);
     if (ventaOptional.isPresent()) {
       Venta venta = ventaOptional.get();
+      LocalDateTime fechaAnterior = venta.getFechaVenta();
+      MetodoPago metodoAnterior = venta.getMetodoPago();
+
       actualizarCamposVenta(venta, ventaDTO);
       Venta ventaActualizada = ventaRepository.save(venta);
+
+      // Si la venta cambia de día o de método de pago, su aporte se mueve en el resumen diario
+      if (!fechaAnterior.toLocalDate().equals(ventaActualizada.getFechaVenta().toLocalDate())
+          || metodoAnterior != ventaActualizada.getMetodoPago()) {
+        Integer idFinca = venta.getFinca() != null ? venta.getFinca().getId() : null;
+        resumenVentaService.aplicarVenta(idVenta, idFinca, fechaAnterior, metodoAnterior, -1);
+        resumenVentaService.aplicarVenta(
+            idVenta,
+            idFinca,
+            ventaActualizada.getFechaVenta(),
+            ventaActualizada.getMetodoPago(),
+            1);
+      }
+      facturaCacheService.invalidar(idVenta);
       return convertirAVentaDTO(ventaActualizada);
     }
     return null;
   }
 
   public boolean eliminarVenta(Integer idVenta) {
-    if (ventaRepository.existsById(idVenta)) {
+    Optional<Venta> ventaOptional = ventaRepository.findById(idVenta);
+    if (ventaOptional.isPresent()) {
+      Venta venta = ventaOptional.get();
+      resumenVentaService.aplicarVenta(
+          idVenta,
+          venta.getFinca() != null ? venta.getFinca().getId() : null,
+          venta.getFechaVenta(),
+          venta.getMetodoPago(),
+          -1);
       detalleVentaRepository.deleteByVenta_IdVenta(idVenta);
+      facturaCacheService.invalidar(idVenta);
       ventaRepository.deleteById(idVenta);
       return true;
     }
@@ -176,10 +318,70 @@ public class VentaService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Obtiene una página de ventas ordenada por fecha de venta e identificador, usando paginación por
+   * cursor. Nunca se cargan en memoria más ventas que las de la página solicitada.
+   *
+   * @param filtro Filtros opcionales (finca, cliente, método de pago y rango de fechas).
+   * @param cursor Cursor devuelto por la página anterior, o {@code null} para la primera página.
+   * @param limite Cantidad máxima de ventas de la página.
+   * @return Página de ventas con el cursor para continuar.
+   * @throws IllegalArgumentException Si el cursor, el método de pago o el límite son inválidos.
+   */
+  @Transactional(readOnly = true)
+  public PaginaCursorDTO<VentaDTO> buscarVentasPaginadas(
+      FiltroVentaDTO filtro, String cursor, Integer limite) {
+    int tamano = CursorPaginacion.validarLimite(limite);
+
+    MetodoPago metodoPago = metodoPagoOpcional(filtro.getMetodoPago());
+
+    LocalDateTime fechaCursor = null;
+    Integer idCursor = null;
+    if (cursor != null && !cursor.isBlank()) {
+      String[] partes = CursorPaginacion.decodificar(cursor, 2);
+      fechaCursor = CursorPaginacion.leerFecha(partes[0]);
+      idCursor = CursorPaginacion.leerEntero(partes[1]);
+    }
+
+    List<Venta> ventas =
+        ventaRepository.buscarPagina(
+            filtro.getIdFinca(),
+            filtro.getIdCliente(),
+            metodoPago,
+            filtro.getDesde() != null ? filtro.getDesde().atStartOfDay() : null,
+            filtro.getHasta() != null ? filtro.getHasta().plusDays(1).atStartOfDay() : null,
+            fechaCursor,
+            idCursor,
+            CursorPaginacion.solicitud(tamano));
+    return CursorPaginacion.armarPagina(
+        ventas,
+        tamano,
+        v -> CursorPaginacion.codificar(v.getFechaVenta(), v.getIdVenta()),
+        this::convertirAVentaDTO);
+  }
+
+  /**
+   * Interpreta un método de pago recibido como filtro opcional.
+   *
+   * @param valor Método de pago en texto, o {@code null}/vacío para no filtrar.
+   * @return Método de pago, o {@code null} si no se indicó.
+   * @throws IllegalArgumentException Si el valor no corresponde a ningún método de pago.
+   */
+  static MetodoPago metodoPagoOpcional(String valor) {
+    if (valor == null || valor.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      return MetodoPago.fromString(valor.trim());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Método de pago inválido: " + valor);
+    }
+  }
+
   private DetalleVentaDTO convertirADetalleVentaDTO(DetalleVenta detalle) {
     DetalleVentaDTO dto = new DetalleVentaDTO();
     dto.setIdDetalle(detalle.getIdDetalle());
-    dto.setIdVenta(detalle.getVenta().getIdVenta());
+    dto.setIdVenta(detalle.getIdVenta());
     dto.setIdProduccion(detalle.getIdProduccion());
     dto.setCantidad(detalle.getCantidad());
     dto.setPrecioUnitario(detalle.getPrecioUnitario());
@@ -0,0 +1,24 @@
+package com.aproafa.proyectodegrado;
+
+import org.hibernate.boot.model.TypeContributions;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.jdbc.VarcharJdbcType;
+
+/**
+ * Dialecto H2 para las pruebas que guarda los enumerados como {@code VARCHAR}. El tipo {@code
+ * ENUM} de H2 no admite valores que solo difieren en mayúsculas, como los de {@code UnidadMedida}.
+ */
+public class H2DialectoPruebas extends H2Dialect {
+
+  @Override
+  public void contributeTypes(
+      TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+    super.contributeTypes(typeContributions, serviceRegistry);
+    typeContributions
+        .getTypeConfiguration()
+        .getJdbcTypeRegistry()
+        .addDescriptor(SqlTypes.ENUM, VarcharJdbcType.INSTANCE);
+  }
+}
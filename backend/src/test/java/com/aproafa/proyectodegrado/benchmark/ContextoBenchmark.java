@@ -0,0 +1,176 @@
+package com.aproafa.proyectodegrado.benchmark;
+
+import com.aproafa.proyectodegrado.ProyectoDeGradoApplication;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+/**
+ * Inicia la aplicación completa, sin servidor web, para las pruebas de rendimiento.
+ *
+ * <p>Por defecto usa una base H2 en memoria en modo MySQL, de modo que las mediciones no incluyen
+ * la latencia de red. Para medir contra MySQL se indican {@code -Dbenchmark.url}, {@code
+ * -Dbenchmark.usuario} y {@code -Dbenchmark.clave}; el esquema se crea y se elimina en cada
+ * ejecución, así que debe ser una base de datos de pruebas.
+ */
+final class ContextoBenchmark {
+
+  private ContextoBenchmark() {}
+
+  static ConfigurableApplicationContext iniciar(String nombre) {
+    return iniciar(nombre, Map.of());
+  }
+
+  /**
+   * Inicia la aplicación con propiedades adicionales, por ejemplo para habilitar un modo.
+   *
+   * @param nombre Nombre de la base de datos en memoria.
+   * @param adicionales Propiedades que prevalecen sobre las de la prueba.
+   */
+  static ConfigurableApplicationContext iniciar(String nombre, Map<String, String> adicionales) {
+    String url = System.getProperty("benchmark.url");
+    Map<String, String> propiedades = new LinkedHashMap<>();
+    if (url == null) {
+      propiedades.put(
+          "spring.datasource.url",
+          "jdbc:h2:mem:"
+              + nombre
+              + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+              + ";IGNORE_UNKNOWN_SETTINGS=TRUE");
+      propiedades.put("spring.datasource.driver-class-name", "org.h2.Driver");
+      propiedades.put("spring.datasource.username", "sa");
+      propiedades.put("spring.datasource.password", "");
+      propiedades.put(
+          "spring.jpa.database-platform", "com.aproafa.proyectodegrado.H2DialectoPruebas");
+    } else {
+      propiedades.put("spring.datasource.url", url);
+      propiedades.put("spring.datasource.username", System.getProperty("benchmark.usuario"));
+      propiedades.put("spring.datasource.password", System.getProperty("benchmark.clave", ""));
+    }
+    propiedades.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+    propiedades.put("spring.jpa.show-sql", "false");
+    propiedades.put("spring.devtools.restart.enabled", "false");
+    propiedades.put("logging.level.root", "WARN");
+    propiedades.put("inventario.kardex.cortes-habilitados", "false");
+    propiedades.putAll(adicionales);
+
+    // Como argumentos de línea de comandos, para que prevalezcan sobre application.properties
+    String[] argumentos =
+        propiedades.entrySet().stream()
+            .map(p -> "--" + p.getKey() + "=" + p.getValue())
+            .toArray(String[]::new);
+    return new SpringApplicationBuilder(ProyectoDeGradoApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(argumentos);
+  }
+
+  /**
+   * Ejecuta los benchmarks de una clase. Los resultados se escriben también en {@code
+   * target/jmh-<clase>.txt}.
+   *
+   * @param clase Clase con los métodos {@code @Benchmark}.
+   * @param perfilar Agrega opciones a la ejecución, por ejemplo un perfilador.
+   */
+  static void ejecutar(Class<?> clase, UnaryOperator<ChainedOptionsBuilder> perfilar)
+      throws RunnerException {
+    ChainedOptionsBuilder opciones =
+        new OptionsBuilder()
+            .include(clase.getName() + "\\.")
+            .resultFormat(ResultFormatType.TEXT)
+            .result("target/jmh-" + clase.getSimpleName() + ".txt");
+    new Runner(perfilar.apply(opciones).build()).run();
+  }
+
+  static int crearFinca(JdbcTemplate jdbc) {
+    return insertar(jdbc, "INSERT INTO finca (nombre) VALUES (?)", "Finca benchmark");
+  }
+
+  static int crearProducto(JdbcTemplate jdbc, int idFinca) {
+    int idProducto =
+        insertar(
+            jdbc,
+            "INSERT INTO producto (id_finca, nombre, unidad_medida) VALUES (?, ?, ?)",
+            idFinca,
+            "Producto benchmark",
+            "Kg");
+    insertar(
+        jdbc,
+        "INSERT INTO inventario_producto (id_producto, cantidad, fecha_actualizacion)"
+            + " VALUES (?, 0, ?)",
+        idProducto,
+        Timestamp.valueOf(LocalDateTime.now()));
+    return idProducto;
+  }
+
+  static int crearProduccion(JdbcTemplate jdbc, int idFinca, int idProducto) {
+    return insertar(
+        jdbc,
+        "INSERT INTO produccion (id_producto, id_finca, fecha_siembra, estado) VALUES (?, ?, ?, ?)",
+        idProducto,
+        idFinca,
+        Date.valueOf(LocalDate.now().minusMonths(3)),
+        "EN_CRECIMIENTO");
+  }
+
+  static int crearVenta(JdbcTemplate jdbc, int idFinca) {
+    int idPersona =
+        insertar(
+            jdbc,
+            "INSERT INTO persona (nombre, apellido, tipo_id) VALUES (?, ?, 1)",
+            "Cliente",
+            "Benchmark");
+    int idCliente =
+        insertar(
+            jdbc,
+            "INSERT INTO cliente (id_persona, id_finca, tipo_cliente, fecha_registro)"
+                + " VALUES (?, ?, ?, ?)",
+            idPersona,
+            idFinca,
+            "MAYORISTA",
+            Date.valueOf(LocalDate.now()));
+    return insertar(
+        jdbc,
+        "INSERT INTO venta (id_cliente, id_persona, id_finca, fecha_venta, metodo_pago, total)"
+            + " VALUES (?, ?, ?, ?, ?, 0)",
+        idCliente,
+        idPersona,
+        idFinca,
+        Timestamp.valueOf(LocalDateTime.now()),
+        "Efectivo");
+  }
+
+  private static int insertar(JdbcTemplate jdbc, String sql, Object... valores) {
+    GeneratedKeyHolder llave = new GeneratedKeyHolder();
+    jdbc.update(
+        conexion -> {
+          PreparedStatement ps = conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+          for (int i = 0; i < valores.length; i++) {
+            ps.setObject(i + 1, valores[i]);
+          }
+          return ps;
+        },
+        llave);
+    return llave.getKeys().values().stream()
+        .filter(Number.class::isInstance)
+        .map(Number.class::cast)
+        .findFirst()
+        .orElseThrow()
+        .intValue();
+  }
+}
@@ -0,0 +1,125 @@
+package com.aproafa.proyectodegrado.benchmark;
+
+import com.aproafa.proyectodegrado.model.entity.DetalleVenta;
+import com.aproafa.proyectodegrado.repository.DetalleVentaRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compara la latencia de guardar los detalles de una venta con 10, 100 y 1000 líneas:
+ *
+ * <ul>
+ *   <li>{@code lote}: {@code DetalleVentaRepository.insertarEnLote}, el modo por defecto ({@code
+ *       ventas.detalles.insercion-lote=true}).
+ *   <li>{@code individual}: {@code saveAll}, una sentencia y una lectura de la llave generada por
+ *       línea, como antes de la inserción por lotes.
+ * </ul>
+ *
+ * <p>Cada invocación se ejecuta en una transacción que se revierte, para que la tabla no crezca
+ * entre iteraciones.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DetalleVentaBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int lineas;
+
+  private ConfigurableApplicationContext contexto;
+  private DetalleVentaRepository detalleVentaRepository;
+  private TransactionTemplate transaccion;
+  private List<DetalleVenta> detalles;
+
+  @Test
+  void ejecutar() throws RunnerException {
+    ContextoBenchmark.ejecutar(DetalleVentaBenchmark.class, opciones -> opciones);
+  }
+
+  @Setup(Level.Trial)
+  public void iniciar() {
+    contexto = ContextoBenchmark.iniciar("detalles");
+    detalleVentaRepository = contexto.getBean(DetalleVentaRepository.class);
+    transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+    JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+    // En MySQL el subtotal es una columna generada; Hibernate la crea como una columna normal
+    jdbc.execute("ALTER TABLE detalle_venta DROP COLUMN subtotal");
+    jdbc.execute(
+        "ALTER TABLE detalle_venta ADD COLUMN subtotal DECIMAL(10,2)"
+            + " GENERATED ALWAYS AS (cantidad * precio_unitario)");
+    int idFinca = ContextoBenchmark.crearFinca(jdbc);
+    int idProducto = ContextoBenchmark.crearProducto(jdbc, idFinca);
+    int idProduccion = ContextoBenchmark.crearProduccion(jdbc, idFinca, idProducto);
+    int idVenta = ContextoBenchmark.crearVenta(jdbc, idFinca);
+
+    detalles = new ArrayList<>(lineas);
+    for (int i = 0; i < lineas; i++) {
+      DetalleVenta detalle = new DetalleVenta();
+      detalle.setIdVenta(idVenta);
+      detalle.setIdProduccion(idProduccion);
+      detalle.setCantidad(1 + i % 20);
+      detalle.setPrecioUnitario(new BigDecimal("1250.00"));
+      detalles.add(detalle);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void detener() {
+    contexto.close();
+  }
+
+  @Benchmark
+  public int lote() {
+    return transaccion.execute(
+        estado -> {
+          estado.setRollbackOnly();
+          return detalleVentaRepository.insertarEnLote(detalles);
+        });
+  }
+
+  @Benchmark
+  public int individual() {
+    return transaccion.execute(
+        estado -> {
+          estado.setRollbackOnly();
+          // Copias sin identificador, para que saveAll inserte siempre
+          List<DetalleVenta> copias = new ArrayList<>(detalles.size());
+          for (DetalleVenta detalle : detalles) {
+            DetalleVenta copia = new DetalleVenta();
+            copia.setIdVenta(detalle.getIdVenta());
+            copia.setIdProduccion(detalle.getIdProduccion());
+            copia.setCantidad(detalle.getCantidad());
+            copia.setPrecioUnitario(detalle.getPrecioUnitario());
+            copias.add(copia);
+          }
+          return detalleVentaRepository.saveAll(copias).size();
+        });
+  }
+}
@@ -0,0 +1,94 @@
+package com.aproafa.proyectodegrado.benchmark;
+
+import com.aproafa.proyectodegrado.model.dto.DetalleVentaDTO;
+import com.aproafa.proyectodegrado.model.dto.FacturaDTO;
+import com.aproafa.proyectodegrado.service.FacturaService;
+import com.itextpdf.text.DocumentException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Mide cuántas facturas por segundo genera {@link FacturaService} y cuánta memoria asigna cada una
+ * ({@code gc.alloc.rate.norm}, en bytes por factura), para facturas de 5 y 50 productos.
+ *
+ * <p>El PDF se escribe en un flujo que descarta los bytes, de modo que solo se mide la construcción
+ * del documento. No requiere base de datos.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FacturaBenchmark {
+
+  @Param({"5", "50"})
+  public int lineas;
+
+  private final FacturaService facturaService = new FacturaService();
+  private FacturaDTO factura;
+
+  @Test
+  void ejecutar() throws RunnerException {
+    ContextoBenchmark.ejecutar(
+        FacturaBenchmark.class, opciones -> opciones.addProfiler(GCProfiler.class));
+  }
+
+  @Setup
+  public void iniciar() {
+    factura = new FacturaDTO();
+    factura.setIdVenta(1);
+    factura.setFechaVenta(LocalDateTime.of(2025, 3, 14, 10, 30));
+    factura.setMetodoPago("Efectivo");
+    factura.setIdCliente(1);
+    factura.setNombreCliente("Cliente de prueba");
+    factura.setIdentificacionCliente("1234567890");
+    factura.setTelefonoCliente("3001234567");
+    factura.setDireccionCliente("Vereda El Cedral");
+    factura.setIdPersona(1);
+    factura.setNombreVendedor("Vendedor de prueba");
+    factura.setIdFinca(1);
+    factura.setNombreFinca("Finca La Esperanza");
+    factura.setUbicacionFinca("Filandia, Quindío");
+
+    BigDecimal total = BigDecimal.ZERO;
+    for (int i = 0; i < lineas; i++) {
+      DetalleVentaDTO detalle = new DetalleVentaDTO();
+      detalle.setIdDetalle(i + 1);
+      detalle.setIdVenta(1);
+      detalle.setIdProduccion(100 + i);
+      detalle.setCantidad(1 + i % 20);
+      detalle.setPrecioUnitario(new BigDecimal("1250.00"));
+      detalle.setSubtotal(
+          detalle.getPrecioUnitario().multiply(BigDecimal.valueOf(detalle.getCantidad())));
+      detalle.setNombreProducto("Producto " + (i % 7));
+      factura.getDetalles().add(detalle);
+      total = total.add(detalle.getSubtotal());
+    }
+    factura.setTotal(total);
+  }
+
+  @Benchmark
+  public void generar() throws DocumentException, IOException {
+    facturaService.generarFacturaPdf(factura, OutputStream.nullOutputStream());
+  }
+}
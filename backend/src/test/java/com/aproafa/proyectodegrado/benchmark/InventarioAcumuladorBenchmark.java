@@ -0,0 +1,97 @@
+package com.aproafa.proyectodegrado.benchmark;
+
+import com.aproafa.proyectodegrado.service.AcumuladorInventarioService;
+import com.aproafa.proyectodegrado.service.InventarioProductoService;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Mide cuántas actualizaciones de inventario por segundo se completan cuando varios hilos
+ * actualizan el mismo producto, con la suma directa en la base de datos ({@code directo}) y con la
+ * escritura diferida de {@link AcumuladorInventarioService} ({@code diferido}).
+ *
+ * <p>Cada operación es {@link InventarioProductoService#actualizarInventario(Integer, BigDecimal)}
+ * en su propia transacción, con su movimiento del kardex. Al terminar se verifica que la cantidad
+ * del inventario coincida con la suma de los movimientos.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InventarioAcumuladorBenchmark {
+
+  private static final BigDecimal CANTIDAD = new BigDecimal("1.25");
+
+  @Param({"directo", "diferido"})
+  public String modo;
+
+  private ConfigurableApplicationContext contexto;
+  private InventarioProductoService inventarioService;
+  private JdbcTemplate jdbc;
+  private int idProducto;
+
+  @Test
+  void ejecutar() throws RunnerException {
+    ContextoBenchmark.ejecutar(InventarioAcumuladorBenchmark.class, opciones -> opciones);
+  }
+
+  @Setup(Level.Trial)
+  public void iniciar() {
+    contexto =
+        ContextoBenchmark.iniciar(
+            "acumulador",
+            Map.of("inventario.acumulador.habilitado", String.valueOf(modo.equals("diferido"))));
+    inventarioService = contexto.getBean(InventarioProductoService.class);
+    jdbc = contexto.getBean(JdbcTemplate.class);
+    idProducto = ContextoBenchmark.crearProducto(jdbc, ContextoBenchmark.crearFinca(jdbc));
+  }
+
+  @TearDown(Level.Trial)
+  public void detener() {
+    contexto.getBean(AcumuladorInventarioService.class).escribirPendientes();
+    BigDecimal cantidad =
+        jdbc.queryForObject(
+            "SELECT cantidad FROM inventario_producto WHERE id_producto = ?",
+            BigDecimal.class,
+            idProducto);
+    BigDecimal movimientos =
+        jdbc.queryForObject(
+            "SELECT SUM(cantidad) FROM movimiento_inventario WHERE id_producto = ?",
+            BigDecimal.class,
+            idProducto);
+    contexto.close();
+    if (cantidad.compareTo(movimientos) != 0) {
+      throw new IllegalStateException(
+          "El inventario (" + cantidad + ") no coincide con el kardex (" + movimientos + ")");
+    }
+  }
+
+  @Benchmark
+  public void actualizar() {
+    inventarioService.actualizarInventario(idProducto, CANTIDAD);
+  }
+}
@@ -0,0 +1,80 @@
+package com.aproafa.proyectodegrado.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.aproafa.proyectodegrado.model.dto.ErrorImportacionDTO;
+import com.aproafa.proyectodegrado.model.dto.FormatoIntercambio;
+import com.aproafa.proyectodegrado.model.dto.ResultadoImportacionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Verifica la lectura de archivos CSV con campos entre comillas mal formados. */
+class ImportacionVentaServiceCsvTest {
+
+  private VentaService ventaService;
+  private ImportacionVentaService importacionService;
+
+  @BeforeEach
+  void preparar() {
+    ventaService = mock(VentaService.class);
+    importacionService =
+        new ImportacionVentaService(
+            ventaService, new ObjectMapper(), mock(PlatformTransactionManager.class));
+    ReflectionTestUtils.setField(importacionService, "tamanoLoteDefecto", 100);
+    ReflectionTestUtils.setField(importacionService, "maximoErrores", 1000);
+    ReflectionTestUtils.setField(importacionService, "maximoLineasCampo", 2);
+    ReflectionTestUtils.setField(importacionService, "maximoCaracteresCampo", 65536);
+  }
+
+  @Test
+  void comillaSinCerrarNoDetieneLasFilasSiguientes() throws IOException {
+    StringBuilder csv = new StringBuilder(ImportacionVentaService.ENCABEZADO_CSV).append('\n');
+    csv.append("A,1,1,1,2024-01-01,\"Efectivo,1,2,1000\n");
+    for (int i = 0; i < 10; i++) {
+      csv.append("V").append(i).append(",1,1,1,2024-01-02,Efectivo,1,2,1000\n");
+    }
+
+    ResultadoImportacionDTO resultado = importar(csv.toString());
+
+    assertEquals(11, resultado.getLineasLeidas());
+    assertEquals(10, resultado.getVentasImportadas());
+    assertEquals(1, resultado.getVentasRechazadas());
+    ErrorImportacionDTO error = resultado.getErrores().get(0);
+    assertEquals(2, error.getLinea());
+    assertEquals("A", error.getReferencia());
+    assertTrue(error.getMensaje().contains("comillas"));
+    verify(ventaService, times(10)).guardarVentaConDetalles(any(), any());
+  }
+
+  @Test
+  void campoEntreComillasConSaltoDeLineaSeLeeCompleto() throws IOException {
+    String csv =
+        ImportacionVentaService.ENCABEZADO_CSV
+            + "\n"
+            + "A,1,1,1,2024-01-01,\"Efectivo\n, contado\",1,2,1000\n"
+            + "B,1,1,1,2024-01-02,Efectivo,1,2,1000\n";
+
+    ResultadoImportacionDTO resultado = importar(csv);
+
+    assertEquals(2, resultado.getVentasImportadas());
+    assertEquals(0, resultado.getVentasRechazadas());
+  }
+
+  private ResultadoImportacionDTO importar(String contenido) throws IOException {
+    return importacionService.importarVentas(
+        new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)),
+        FormatoIntercambio.CSV,
+        null);
+  }
+}
@@ -0,0 +1,121 @@
+package com.aproafa.proyectodegrado.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.aproafa.proyectodegrado.model.dto.ProduccionDTO;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Verifica que los listados de producciones usan una cantidad fija de sentencias SQL, sin importar
+ * cuántas producciones y usos de insumos existan (sin consultas N+1).
+ */
+@DataJpaTest(
+    properties = {
+      "spring.jpa.database-platform=com.aproafa.proyectodegrado.H2DialectoPruebas",
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "spring.jpa.show-sql=false"
+    })
+@Import(ProduccionService.class)
+class ProduccionServiceConsultasTest {
+
+  /** Sentencias esperadas por listado: las producciones y sus usos de insumos. */
+  private static final long SENTENCIAS_MAXIMAS = 2;
+
+  private static final int ID_FINCA = 1;
+
+  @MockitoBean private InventarioProductoService inventarioService;
+  @MockitoBean private InsumoService insumoService;
+  @MockitoBean private CostoProduccionService costoProduccionService;
+  @MockitoBean private RendimientoProduccionService rendimientoService;
+
+  @Autowired private ProduccionService produccionService;
+  @Autowired private JdbcTemplate jdbc;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics estadisticas;
+
+  @BeforeEach
+  void preparar() {
+    estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    jdbc.update("INSERT INTO finca (id_finca, nombre) VALUES (?, 'Finca')", ID_FINCA);
+    jdbc.update(
+        "INSERT INTO producto (id_producto, id_finca, nombre, unidad_medida)"
+            + " VALUES (1, ?, 'Café', 'Kg')",
+        ID_FINCA);
+    jdbc.update(
+        "INSERT INTO persona (id_persona, nombre, apellido, tipo_id) VALUES (1, 'P', 'P', 1)");
+    jdbc.update(
+        "INSERT INTO proveedor (id_proveedor, id_persona, nombre) VALUES (1, 1, 'Proveedor')");
+    jdbc.update(
+        "INSERT INTO insumo (id_insumo, id_finca, nombre, unidad_medida, id_proveedor,"
+            + " cantidad_disponible) VALUES (1, ?, 'Abono', 'Kg', 1, 0)",
+        ID_FINCA);
+  }
+
+  @Test
+  void listarProduccionesNoCreceConLasFilas() {
+    verificarSentenciasConstantes(() -> produccionService.listarProducciones());
+  }
+
+  @Test
+  void listarPorFincaNoCreceConLasFilas() {
+    verificarSentenciasConstantes(() -> produccionService.listarPorFinca(ID_FINCA));
+  }
+
+  private void verificarSentenciasConstantes(Supplier<List<ProduccionDTO>> listado) {
+    crearProducciones(1, 10);
+    long conPocas = contarSentencias(listado, 10);
+
+    crearProducciones(11, 1_000);
+    long conMuchas = contarSentencias(listado, 1_000);
+
+    assertEquals(conPocas, conMuchas, "Las sentencias crecen con la cantidad de producciones");
+    assertTrue(
+        conMuchas <= SENTENCIAS_MAXIMAS,
+        "Se esperaban a lo sumo " + SENTENCIAS_MAXIMAS + " sentencias, hubo " + conMuchas);
+  }
+
+  private long contarSentencias(Supplier<List<ProduccionDTO>> listado, int esperadas) {
+    estadisticas.clear();
+    List<ProduccionDTO> producciones = listado.get();
+    assertEquals(esperadas, producciones.size());
+    assertTrue(producciones.stream().allMatch(p -> p.getUsosInsumos().size() == 2));
+    return estadisticas.getPrepareStatementCount();
+  }
+
+  /** Crea producciones con identificadores consecutivos, cada una con dos usos de insumos. */
+  private void crearProducciones(int desde, int hasta) {
+    List<Object[]> producciones = new ArrayList<>();
+    List<Object[]> usos = new ArrayList<>();
+    Date siembra = Date.valueOf(LocalDate.now().minusMonths(3));
+    for (int id = desde; id <= hasta; id++) {
+      producciones.add(new Object[] {id, 1, ID_FINCA, siembra, "EN_CRECIMIENTO"});
+      usos.add(new Object[] {id, 1, 2.5, siembra});
+      usos.add(new Object[] {id, 1, 1.0, siembra});
+    }
+    jdbc.batchUpdate(
+        "INSERT INTO produccion (id_produccion, id_producto, id_finca, fecha_siembra, estado)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        producciones);
+    jdbc.batchUpdate(
+        "INSERT INTO uso_insumo_produccion (id_produccion, id_insumo, cantidad, fecha)"
+            + " VALUES (?, ?, ?, ?)",
+        usos);
+  }
+}